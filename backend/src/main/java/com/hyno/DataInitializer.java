@@ -18,12 +18,13 @@ import com.hyno.repository.ChatMessageRepository;
 import com.hyno.repository.MedicineRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -54,11 +55,13 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private MedicineRepository medicineRepository;
 
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private PasswordEncoder passwordEncoder;
 
     @Override
     public void run(String... args) throws Exception {
-        // Create sample patients
+        // Create sample patients (collected and written in one batch)
+        List<Patient> newPatients = new ArrayList<>();
         if (patientRepository.findByEmail("patient@example.com").isEmpty()) {
             Patient patient = new Patient();
             patient.setId("1");
@@ -76,7 +79,7 @@ public class DataInitializer implements CommandLineRunner {
             patient.setMedicalHistory(List.of("Hypertension", "Diabetes"));
             patient.setCurrentMedications(List.of("Metformin 500mg", "Lisinopril 10mg"));
             patient.setNotes("Patient has been compliant with medication regimen");
-            patientRepository.save(patient);
+            newPatients.add(patient);
         }
 
         if (patientRepository.findByEmail("patient2@example.com").isEmpty()) {
@@ -86,7 +89,7 @@ public class DataInitializer implements CommandLineRunner {
             patient2.setEmail("patient2@example.com");
             patient2.setPhone("2345678901");
             patient2.setPassword(passwordEncoder.encode("password123"));
-            patientRepository.save(patient2);
+            newPatients.add(patient2);
         }
 
         if (patientRepository.findByEmail("patient3@example.com").isEmpty()) {
@@ -96,7 +99,7 @@ public class DataInitializer implements CommandLineRunner {
             patient3.setEmail("patient3@example.com");
             patient3.setPhone("3456789012");
             patient3.setPassword(passwordEncoder.encode("password123"));
-            patientRepository.save(patient3);
+            newPatients.add(patient3);
         }
 
         if (patientRepository.findByEmail("patient4@example.com").isEmpty()) {
@@ -106,7 +109,7 @@ public class DataInitializer implements CommandLineRunner {
             patient4.setEmail("patient4@example.com");
             patient4.setPhone("4567890123");
             patient4.setPassword(passwordEncoder.encode("password123"));
-            patientRepository.save(patient4);
+            newPatients.add(patient4);
         }
 
         if (patientRepository.findByEmail("patient5@example.com").isEmpty()) {
@@ -116,10 +119,13 @@ public class DataInitializer implements CommandLineRunner {
             patient5.setEmail("patient5@example.com");
             patient5.setPhone("5678901234");
             patient5.setPassword(passwordEncoder.encode("password123"));
-            patientRepository.save(patient5);
+            newPatients.add(patient5);
         }
 
+        patientRepository.saveAll(newPatients);
+
         // Create sample hospitals
+        List<Hospital> newHospitals = new ArrayList<>();
         if (hospitalRepository.findByEmail("hospital@example.com") == null) {
             Hospital hospital = new Hospital();
             hospital.setId("hospital-1");
@@ -135,7 +141,7 @@ public class DataInitializer implements CommandLineRunner {
             hospital.setTotalDoctors(5);
             hospital.setStatus("approved");
             hospital.setFacilities(List.of("Emergency Care", "Surgery", "Radiology", "Laboratory", "Pharmacy", "ICU"));
-            hospitalRepository.save(hospital);
+            newHospitals.add(hospital);
         }
 
         if (hospitalRepository.findByEmail("hospital2@example.com") == null) {
@@ -153,7 +159,7 @@ public class DataInitializer implements CommandLineRunner {
             hospital2.setTotalDoctors(3);
             hospital2.setStatus("approved");
             hospital2.setFacilities(List.of("Primary Care", "Cardiology", "Dental", "Pharmacy", "X-Ray"));
-            hospitalRepository.save(hospital2);
+            newHospitals.add(hospital2);
         }
 
         if (hospitalRepository.findByEmail("hospital3@example.com") == null) {
@@ -171,10 +177,13 @@ public class DataInitializer implements CommandLineRunner {
             hospital3.setTotalDoctors(8);
             hospital3.setStatus("approved");
             hospital3.setFacilities(List.of("Emergency Care", "Surgery", "Oncology", "Pediatrics", "Maternity", "ICU", "Laboratory"));
-            hospitalRepository.save(hospital3);
+            newHospitals.add(hospital3);
         }
 
+        hospitalRepository.saveAll(newHospitals);
+
         // Create sample doctors
+        List<Doctor> newDoctors = new ArrayList<>();
         if (doctorRepository.findByEmail("doctor@example.com").isEmpty()) {
             Doctor doctor = new Doctor();
             doctor.setId("1");
@@ -190,7 +199,7 @@ public class DataInitializer implements CommandLineRunner {
             doctor.setConsultationFee(BigDecimal.valueOf(500.0));
             doctor.setStatus("approved");
             doctor.setHospital(hospitalRepository.findById("hospital-1").orElse(null));
-            doctorRepository.save(doctor);
+            newDoctors.add(doctor);
         }
 
         if (doctorRepository.findByEmail("doctor2@example.com").isEmpty()) {
@@ -208,7 +217,7 @@ public class DataInitializer implements CommandLineRunner {
             doctor2.setConsultationFee(BigDecimal.valueOf(800.0));
             doctor2.setStatus("approved");
             doctor2.setHospital(hospitalRepository.findById("hospital-2").orElse(null));
-            doctorRepository.save(doctor2);
+            newDoctors.add(doctor2);
         }
 
         if (doctorRepository.findByEmail("doctor3@example.com").isEmpty()) {
@@ -226,7 +235,7 @@ public class DataInitializer implements CommandLineRunner {
             doctor3.setConsultationFee(BigDecimal.valueOf(600.0));
             doctor3.setStatus("approved");
             doctor3.setHospital(hospitalRepository.findById("hospital-3").orElse(null));
-            doctorRepository.save(doctor3);
+            newDoctors.add(doctor3);
         }
 
         if (doctorRepository.findByEmail("doctor4@example.com").isEmpty()) {
@@ -245,7 +254,7 @@ public class DataInitializer implements CommandLineRunner {
             doctor4.setStatus("approved");
             doctor4.setHospital(hospitalRepository.findById("hospital-1").orElse(null));
             doctor4.setAvatarUrl("https://images.unsplash.com/photo-1537368910025-700350fe46c7?w=150&h=150&fit=crop&crop=face");
-            doctorRepository.save(doctor4);
+            newDoctors.add(doctor4);
         }
 
         if (doctorRepository.findByEmail("doctor5@example.com").isEmpty()) {
@@ -264,8 +273,9 @@ public class DataInitializer implements CommandLineRunner {
             doctor5.setStatus("approved");
             doctor5.setHospital(hospitalRepository.findById("hospital-2").orElse(null));
             doctor5.setAvatarUrl("https://images.unsplash.com/photo-1582750433449-648ed127bb54?w=150&h=150&fit=crop&crop=face");
-            doctorRepository.save(doctor5);
+            newDoctors.add(doctor5);
         }
+        doctorRepository.saveAll(newDoctors);
 
         // Remove any admin from patients table (legacy cleanup)
         Optional<Patient> existingAdminPatient = patientRepository.findByEmail("admin@example.com");
@@ -441,7 +451,6 @@ public class DataInitializer implements CommandLineRunner {
             medicine1.setStockQuantity(100);
             medicine1.setPrescriptionRequired("NO");
             medicine1.setStatus("ACTIVE");
-            medicineRepository.save(medicine1);
 
             Medicine medicine2 = new Medicine();
             medicine2.setName("Amoxicillin");
@@ -460,7 +469,6 @@ public class DataInitializer implements CommandLineRunner {
             medicine2.setStockQuantity(75);
             medicine2.setPrescriptionRequired("YES");
             medicine2.setStatus("ACTIVE");
-            medicineRepository.save(medicine2);
 
             Medicine medicine3 = new Medicine();
             medicine3.setName("Ibuprofen");
@@ -479,7 +487,6 @@ public class DataInitializer implements CommandLineRunner {
             medicine3.setStockQuantity(120);
             medicine3.setPrescriptionRequired("NO");
             medicine3.setStatus("ACTIVE");
-            medicineRepository.save(medicine3);
 
             Medicine medicine4 = new Medicine();
             medicine4.setName("Omeprazole");
@@ -498,7 +505,6 @@ public class DataInitializer implements CommandLineRunner {
             medicine4.setStockQuantity(60);
             medicine4.setPrescriptionRequired("YES");
             medicine4.setStatus("ACTIVE");
-            medicineRepository.save(medicine4);
 
             Medicine medicine5 = new Medicine();
             medicine5.setName("Vitamin D3");
@@ -517,7 +523,7 @@ public class DataInitializer implements CommandLineRunner {
             medicine5.setStockQuantity(200);
             medicine5.setPrescriptionRequired("NO");
             medicine5.setStatus("ACTIVE");
-            medicineRepository.save(medicine5);
+            medicineRepository.saveAll(List.of(medicine1, medicine2, medicine3, medicine4, medicine5));
         }
     }
 }
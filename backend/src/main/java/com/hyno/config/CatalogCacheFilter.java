@@ -0,0 +1,291 @@
+package com.hyno.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Conditional GET and a serialized-response cache for the public catalog endpoints. A 200
+ * response is kept as bytes per URL (query string included) with the collection version it
+ * was built from, and repeat requests while that version is current are answered from memory
+ * without reaching the controller, the database or Jackson. Responses carry a strong ETag
+ * (SHA-256 of the body) and Last-Modified (the collection's last write); a matching
+ * If-None-Match, or If-Modified-Since when no ETag is sent, gets 304. Entries are bounded by
+ * catalog-cache.max-entries and expire after catalog-cache.ttl-seconds, which also caps how
+ * long a write made outside this instance can go unnoticed.
+ *
+ * Cached bodies of at least server.compression.min-response-size are also kept gzipped at the
+ * best compression level, built once on the first request that accepts gzip, so repeat hits
+ * cost neither serialization nor compression. Misses are compressed on the fly by Tomcat.
+ * As Tomcat does for compressed responses, the gzip variant carries the weak form of the ETag.
+ */
+@Component
+// Behind the security chain, so cache hits get the same access rules and headers as misses
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 2)
+public class CatalogCacheFilter extends OncePerRequestFilter {
+
+    // Patterns are matched in order; URLs under these prefixes that read other tables are not listed
+    private static final Map<String, String> COLLECTIONS_BY_PATTERN = new LinkedHashMap<>();
+
+    static {
+        COLLECTIONS_BY_PATTERN.put("/api/doctors", CatalogVersions.DOCTORS);
+        COLLECTIONS_BY_PATTERN.put("/api/doctors/*", CatalogVersions.DOCTORS);
+        COLLECTIONS_BY_PATTERN.put("/api/doctors/{filter:email|status|hospital|specialization}/*", CatalogVersions.DOCTORS);
+        COLLECTIONS_BY_PATTERN.put("/api/hospitals", CatalogVersions.HOSPITALS);
+        COLLECTIONS_BY_PATTERN.put("/api/medicines/**", CatalogVersions.MEDICINES);
+        COLLECTIONS_BY_PATTERN.put("/api/trainers/**", CatalogVersions.TRAINERS);
+        COLLECTIONS_BY_PATTERN.put("/api/yoga/trainers/**", CatalogVersions.YOGA_TRAINERS);
+        COLLECTIONS_BY_PATTERN.put("/api/yoga/videos/**", CatalogVersions.YOGA_VIDEOS);
+    }
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${catalog-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${catalog-cache.max-entries:2000}")
+    private int maxEntries;
+
+    @Value("${catalog-cache.max-body-size:2MB}")
+    private DataSize maxBodySize;
+
+    @Value("${catalog-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${server.compression.enabled:false}")
+    private boolean compressionEnabled;
+
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize compressionMinSize;
+
+    private Map<String, CachedResponse> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        meterRegistry.gauge("hyno.catalog.cache.entries", Tags.empty(), this, filter -> filter.size());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"GET".equals(request.getMethod()) || collectionOf(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String collection = collectionOf(request.getRequestURI());
+        String key = request.getQueryString() != null ? request.getRequestURI() + "?" + request.getQueryString() : request.getRequestURI();
+        CatalogVersions.Version version = catalogVersions.current(collection);
+
+        CachedResponse cached;
+        synchronized (this) {
+            cached = cache.get(key);
+        }
+        if (cached != null && cached.version == version.getNumber()
+                && System.currentTimeMillis() - cached.storedAt < ttlSeconds * 1000) {
+            boolean compressible = compressionEnabled && cached.body.length >= compressionMinSize.toBytes();
+            boolean gzip = compressible && acceptsGzip(request);
+            if (compressible) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            writeValidators(response, gzip ? "W/" + cached.etag : cached.etag, cached.lastModified);
+            if (notModified(request, cached.etag, cached.lastModified)) {
+                record(collection, "not_modified");
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            record(collection, gzip ? "hit_gzip" : "hit");
+            byte[] body = gzip ? cached.gzipBody() : cached.body;
+            response.setStatus(HttpServletResponse.SC_OK);
+            if (cached.contentType != null) {
+                response.setContentType(cached.contentType);
+            }
+            if (gzip) {
+                // Tomcat leaves responses that already carry a Content-Encoding alone
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+            return;
+        }
+
+        record(collection, "miss");
+        // Set before the chain so the security headers keep it instead of adding no-store
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        // A lagging read replica would store a stale body under the version of the write it has not seen yet
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            filterChain.doFilter(request, wrapper);
+            byte[] body = wrapper.getContentAsByteArray();
+            if (wrapper.getStatus() == HttpServletResponse.SC_OK && body.length <= maxBodySize.toBytes()) {
+                String etag = "\"" + sha256(body) + "\"";
+                writeValidators(wrapper, etag, version.getLastModified());
+                // A write that committed meanwhile may not be in this body; leave it uncached
+                if (catalogVersions.current(collection).getNumber() == version.getNumber()) {
+                    CachedResponse entry = new CachedResponse(version.getNumber(), version.getLastModified(), etag,
+                            wrapper.getContentType(), body);
+                    synchronized (this) {
+                        cache.put(key, entry);
+                    }
+                }
+            }
+        } finally {
+            ReplicaRoutingDataSource.unpinFromPrimary();
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private String collectionOf(String uri) {
+        for (Map.Entry<String, String> entry : COLLECTIONS_BY_PATTERN.entrySet()) {
+            if (pathMatcher.match(entry.getKey(), uri)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static void writeValidators(HttpServletResponse response, String etag, long lastModified) {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+    }
+
+    // True unless the client sent no Accept-Encoding or refused gzip with q=0
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            if (coding.equalsIgnoreCase("gzip") || coding.equals("*")) {
+                for (int i = 1; i < tokens.length; i++) {
+                    String param = tokens[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            return Double.parseDouble(param.substring(2)) > 0;
+                        } catch (NumberFormatException e) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals(etag) || tag.equals("*")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // HTTP dates have one-second resolution
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    private synchronized int size() {
+        return cache.size();
+    }
+
+    private void record(String collection, String outcome) {
+        meterRegistry.counter("hyno.catalog.cache.requests", "collection", collection, "outcome", outcome).increment();
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class CachedResponse {
+        private final long version;
+        private final long lastModified;
+        private final String etag;
+        private final String contentType;
+        private final byte[] body;
+        private final long storedAt = System.currentTimeMillis();
+        private volatile byte[] gzipBody;
+
+        CachedResponse(long version, long lastModified, String etag, String contentType, byte[] body) {
+            this.version = version;
+            this.lastModified = lastModified;
+            this.etag = etag;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        // Built on first use; two threads racing here produce identical bytes
+        byte[] gzipBody() throws IOException {
+            byte[] compressed = gzipBody;
+            if (compressed == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+                    {
+                        def.setLevel(Deflater.BEST_COMPRESSION);
+                    }
+                }) {
+                    gzip.write(body);
+                }
+                compressed = out.toByteArray();
+                gzipBody = compressed;
+            }
+            return compressed;
+        }
+    }
+}
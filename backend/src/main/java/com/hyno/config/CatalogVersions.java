@@ -0,0 +1,174 @@
+package com.hyno.config;
+
+import com.hyno.entity.Doctor;
+import com.hyno.entity.Hospital;
+import com.hyno.entity.Medicine;
+import com.hyno.entity.Trainer;
+import com.hyno.entity.YogaTrainer;
+import com.hyno.entity.YogaVideo;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Version and last-modified time of each public catalog collection, used by
+ * {@link CatalogCacheFilter}. Hibernate inserts, updates and deletes of a catalog entity,
+ * element collection changes included, bump its collection once the transaction commits, so
+ * a response built from uncommitted or pre-commit data is never stored under the new version.
+ * JPQL bulk updates bypass these events and must call {@link #bump(String)} themselves.
+ * Versions live in memory and restart from 1, which costs one cache miss per URL.
+ */
+@Component
+public class CatalogVersions implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        PostCollectionRecreateEventListener, PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+    public static final String DOCTORS = "doctors";
+    public static final String HOSPITALS = "hospitals";
+    public static final String MEDICINES = "medicines";
+    public static final String TRAINERS = "trainers";
+    public static final String YOGA_TRAINERS = "yoga-trainers";
+    public static final String YOGA_VIDEOS = "yoga-videos";
+
+    private static final Map<String, String> COLLECTIONS_BY_ENTITY = Map.of(
+            Doctor.class.getName(), DOCTORS,
+            Hospital.class.getName(), HOSPITALS,
+            Medicine.class.getName(), MEDICINES,
+            Trainer.class.getName(), TRAINERS,
+            YogaTrainer.class.getName(), YOGA_TRAINERS,
+            YogaVideo.class.getName(), YOGA_VIDEOS);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final Map<String, Version> versions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerListeners() {
+        long now = System.currentTimeMillis();
+        COLLECTIONS_BY_ENTITY.values().forEach(collection -> versions.put(collection, new Version(1, now)));
+
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    public Version current(String collection) {
+        return versions.get(collection);
+    }
+
+    // Bumps the collection after the current transaction commits, or right away outside one
+    public void bump(String collection) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            advance(collection);
+            return;
+        }
+        // One synchronization per transaction, however many rows it writes
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> collections = new HashSet<>();
+            pending = collections;
+            TransactionSynchronizationManager.bindResource(this, collections);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    collections.forEach(CatalogVersions.this::advance);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CatalogVersions.this);
+                }
+            });
+        }
+        pending.add(collection);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        bumpEntity(event.getPersister().getEntityName());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        bumpEntity(event.getPersister().getEntityName());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        bumpEntity(event.getPersister().getEntityName());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        bumpEntity(event.getAffectedOwnerEntityName());
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        bumpEntity(event.getAffectedOwnerEntityName());
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        bumpEntity(event.getAffectedOwnerEntityName());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void bumpEntity(String entityName) {
+        String collection = entityName != null ? COLLECTIONS_BY_ENTITY.get(entityName) : null;
+        if (collection != null) {
+            bump(collection);
+        }
+    }
+
+    private void advance(String collection) {
+        versions.compute(collection, (key, version) -> new Version(version.getNumber() + 1, System.currentTimeMillis()));
+    }
+
+    public static class Version {
+        private final long number;
+        private final long lastModified;
+
+        Version(long number, long lastModified) {
+            this.number = number;
+            this.lastModified = lastModified;
+        }
+
+        public long getNumber() { return number; }
+        public long getLastModified() { return lastModified; }
+    }
+}
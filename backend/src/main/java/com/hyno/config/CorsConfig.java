@@ -1,8 +1,10 @@
 package com.hyno.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
@@ -42,9 +44,17 @@ public class CorsConfig {
         config.setAllowedMethods(Arrays.asList(allowedMethods.split(",")));
 
         // Exposed headers
-        config.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        config.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "ETag", "Last-Modified", IdempotencyFilter.REPLAYED_HEADER));
 
         source.registerCorsConfiguration("/**", config);
         return new CorsFilter(source);
     }
+
+    // Ordered ahead of the security chain and CatalogCacheFilter, so responses they end early carry the CORS headers too
+    @Bean
+    public FilterRegistrationBean<CorsFilter> corsFilterRegistration(CorsFilter corsFilter) {
+        FilterRegistrationBean<CorsFilter> registration = new FilterRegistrationBean<>(corsFilter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 3);
+        return registration;
+    }
 }
@@ -0,0 +1,76 @@
+package com.hyno.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Connection pools. The primary pool is built from spring.datasource (and
+ * spring.datasource.hikari.*). When datasource.replica.url is set, a second pool is opened
+ * against the read replica and the application's data source routes read-only transactions
+ * to it through {@link ReplicaRoutingDataSource}.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty("datasource.replica.url")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, DataSourceProperties properties,
+                                                             MeterRegistry meterRegistry,
+                                                             @Value("${datasource.replica.url}") String url,
+                                                             @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+                                                             @Value("${datasource.replica.password:${spring.datasource.password:}}") String password,
+                                                             @Value("${datasource.replica.max-pool-size:10}") int maxPoolSize,
+                                                             @Value("${datasource.replica.max-lag-ms:3000}") long maxLagMs) {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(url);
+        replica.setUsername(username);
+        replica.setPassword(password);
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setMaximumPoolSize(maxPoolSize);
+        replica.setReadOnly(true);
+        // Fail over to the primary quickly rather than queueing reads behind an unreachable replica
+        replica.setConnectionTimeout(2000);
+        replica.setInitializationFailTimeout(-1);
+        return new ReplicaRoutingDataSource(primaryDataSource, replica, maxLagMs, meterRegistry);
+    }
+
+    // The data source JPA and JDBC use; routing is resolved lazily, once the transaction's read-only flag is known
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ObjectProvider<ReplicaRoutingDataSource> replicaRouting) {
+        ReplicaRoutingDataSource routing = replicaRouting.getIfAvailable();
+        return routing != null ? new LazyConnectionDataSourceProxy(routing) : new DelegatingDataSource(primaryDataSource);
+    }
+
+    // Under open-in-view a session outlives its transactions; each one must take its own connection to be routed on its own
+    @Bean
+    @ConditionalOnProperty("datasource.replica.url")
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,256 @@
+package com.hyno.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes the create endpoints safe to retry. A POST carrying an Idempotency-Key header runs
+ * once; later requests with the same key and body get the stored response (marked with
+ * Idempotent-Replayed: true), and retries arriving while the first is still running wait for
+ * its result. Only successful responses are stored, so a failed attempt can be retried with
+ * the same key. Reusing a key with a different body is rejected with 422.
+ *
+ * <p>Keys are scoped to the authenticated user, so one caller's key never replays another
+ * caller's response; the filter runs after the security chain for that reason, and requests
+ * without a principal are passed through without deduplication.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${idempotency.paths:/api/appointments,/api/payments,/api/orders}")
+    private List<String> paths;
+
+    @Value("${idempotency.wait-timeout-seconds:30}")
+    private long waitTimeoutSeconds;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !paths.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, IDEMPOTENCY_KEY_HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        Principal principal = request.getUserPrincipal();
+        if (principal == null) {
+            record("anonymous");
+            filterChain.doFilter(request, response);
+            return;
+        }
+        byte[] body = request.getInputStream().readAllBytes();
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        String key = principal.getName() + ":" + request.getRequestURI() + ":" + idempotencyKey;
+        String fingerprint = sha256(body);
+
+        while (true) {
+            IdempotencyStore.Entry mine = new IdempotencyStore.Entry(fingerprint);
+            IdempotencyStore.Entry existing = idempotencyStore.putIfAbsent(key, mine);
+            if (existing == null) {
+                execute(key, mine, cachedRequest, response, filterChain);
+                return;
+            }
+            if (!existing.getFingerprint().equals(fingerprint)) {
+                record("mismatch");
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, IDEMPOTENCY_KEY_HEADER + " was already used with a different request body");
+                return;
+            }
+
+            IdempotencyStore.StoredResponse stored;
+            try {
+                boolean inFlight = !existing.getFuture().isDone();
+                stored = existing.getFuture().get(waitTimeoutSeconds, TimeUnit.SECONDS);
+                if (inFlight) {
+                    record("waited");
+                }
+            } catch (TimeoutException e) {
+                record("timeout");
+                writeError(response, HttpStatus.CONFLICT, "A request with this " + IDEMPOTENCY_KEY_HEADER + " is still in progress");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted waiting for idempotent request", e);
+            } catch (ExecutionException e) {
+                throw new ServletException("Idempotent request failed", e.getCause());
+            }
+            if (stored != null) {
+                record("replayed");
+                replay(stored, response);
+                return;
+            }
+            // The first attempt failed and released the key; try to run this one instead
+        }
+    }
+
+    private void execute(String key, IdempotencyStore.Entry entry, HttpServletRequest request,
+                         HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        IdempotencyStore.StoredResponse stored = null;
+        try {
+            filterChain.doFilter(request, wrapper);
+            if (wrapper.getStatus() >= 200 && wrapper.getStatus() < 300) {
+                Map<String, String> headers = new LinkedHashMap<>();
+                String location = wrapper.getHeader(HttpHeaders.LOCATION);
+                if (location != null) {
+                    headers.put(HttpHeaders.LOCATION, location);
+                }
+                stored = new IdempotencyStore.StoredResponse(wrapper.getStatus(), wrapper.getContentType(),
+                        headers, wrapper.getContentAsByteArray());
+            }
+        } finally {
+            idempotencyStore.complete(key, entry, stored);
+            record(stored != null ? "stored" : "released");
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void replay(IdempotencyStore.StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        stored.getHeaders().forEach(response::setHeader);
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        logger.warn("Rejected idempotent request: {}", message);
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+
+    private void record(String outcome) {
+        meterRegistry.counter("hyno.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Serves the already-read body to the rest of the chain
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // The whole body is already in memory, so it is available and complete at once
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
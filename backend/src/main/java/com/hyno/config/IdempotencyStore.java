@@ -0,0 +1,105 @@
+package com.hyno.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded, insertion-ordered map of idempotency key to stored response. An entry is created
+ * when the first request with a key starts; concurrent retries wait on its future instead of
+ * executing again. Completed entries live for the TTL; when the store is full the oldest
+ * completed entries are evicted first, and in-flight entries are never evicted.
+ */
+@Component
+public class IdempotencyStore {
+
+    @Value("${idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    // Returns the existing live entry for the key, or registers the given one and returns null
+    synchronized Entry putIfAbsent(String key, Entry entry) {
+        Entry existing = entries.get(key);
+        if (existing != null && !existing.isExpired(System.currentTimeMillis())) {
+            return existing;
+        }
+        if (existing == null && entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(key, entry);
+        return null;
+    }
+
+    synchronized void complete(String key, Entry entry, StoredResponse response) {
+        if (response != null) {
+            entry.expiresAt = System.currentTimeMillis() + ttlMinutes * 60_000;
+        } else {
+            entries.remove(key, entry);
+        }
+        entry.future.complete(response);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() >= maxEntries && iterator.hasNext()) {
+            if (iterator.next().future.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    static class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<StoredResponse> future = new CompletableFuture<>();
+        private long expiresAt = Long.MAX_VALUE;
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        String getFingerprint() {
+            return fingerprint;
+        }
+
+        CompletableFuture<StoredResponse> getFuture() {
+            return future;
+        }
+
+        private boolean isExpired(long now) {
+            return future.isDone() && expiresAt <= now;
+        }
+    }
+
+    static class StoredResponse {
+        private final int status;
+        private final String contentType;
+        private final Map<String, String> headers;
+        private final byte[] body;
+
+        StoredResponse(int status, String contentType, Map<String, String> headers, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        int getStatus() { return status; }
+        String getContentType() { return contentType; }
+        Map<String, String> getHeaders() { return headers; }
+        byte[] getBody() { return body; }
+    }
+}
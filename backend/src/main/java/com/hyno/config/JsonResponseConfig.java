@@ -0,0 +1,50 @@
+package com.hyno.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Serializes JSON responses into a buffer and sends them with a Content-Length. Tomcat only
+ * applies server.compression.min-response-size to responses of known length, so without it
+ * every Jackson body was gzipped, however small; with it, bodies under the threshold go out
+ * as they are and save the compression work and the gzip overhead.
+ */
+@Configuration
+public class JsonResponseConfig {
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    // Replaces Spring Boot's Jackson converter, keeping its ObjectMapper
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+                super.writeInternal(object, type, new HttpOutputMessage() {
+                    @Override
+                    public OutputStream getBody() {
+                        return buffer;
+                    }
+
+                    @Override
+                    public HttpHeaders getHeaders() {
+                        return outputMessage.getHeaders();
+                    }
+                });
+                // Headers are sent on the first access to the body, so the length goes out with them
+                outputMessage.getHeaders().setContentLength(buffer.size());
+                buffer.writeTo(outputMessage.getBody());
+            }
+        };
+    }
+}
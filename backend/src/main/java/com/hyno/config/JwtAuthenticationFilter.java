@@ -0,0 +1,63 @@
+package com.hyno.config;
+
+import com.hyno.service.JwtService;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates HTTP requests from their bearer token, with the same role-qualified principal
+ * name (DOCTOR:1, PATIENT:1) the STOMP sessions use. Requests without a valid token stay
+ * anonymous, as before. Added to the security chain by {@link SecurityConfig}; it is not a
+ * bean, so the servlet container does not register it a second time.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    private final JwtService jwtService;
+
+    public JwtAuthenticationFilter(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith("Bearer ") && header.length() > "Bearer ".length()
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            authenticate(header.substring("Bearer ".length()));
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void authenticate(String token) {
+        try {
+            if (!jwtService.validateToken(token)) {
+                return;
+            }
+            String userId = jwtService.getUserIdFromToken(token);
+            String role = jwtService.getRoleFromToken(token);
+            if (userId != null && role != null) {
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                        WebSocketAuthInterceptor.principalName(role, userId), null,
+                        List.of(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))));
+            }
+        } catch (JwtException e) {
+            logger.debug("Ignoring invalid bearer token: {}", e.getMessage());
+        }
+    }
+}
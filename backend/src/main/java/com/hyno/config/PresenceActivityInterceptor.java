@@ -0,0 +1,32 @@
+package com.hyno.config;
+
+import com.hyno.service.PresenceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes the sender's presence session on every inbound STOMP frame, heartbeats included.
+ * The presence service is injected lazily because it depends on the messaging template that
+ * this channel's configuration creates.
+ */
+@Component
+public class PresenceActivityInterceptor implements ChannelInterceptor {
+
+    @Autowired
+    @Lazy
+    private PresenceService presenceService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId != null) {
+            presenceService.touch(sessionId);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,111 @@
+package com.hyno.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares inside a scope (normally one HTTP request,
+ * see {@link QueryBudgetFilter}) and flags scopes that exceed the statement budget or run
+ * the same statement over and over, the usual signature of an N+1 lazy-loading loop.
+ * In "fail" mode the statement that crosses the budget is rejected, so staging and tests
+ * surface regressions as errors instead of log lines.
+ */
+@Component
+public class QueryCountGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCountGuard.class);
+
+    public enum Mode {
+        LOG, FAIL
+    }
+
+    @Value("${query-guard.enabled:false}")
+    private boolean enabled;
+
+    @Value("${query-guard.mode:LOG}")
+    private Mode mode;
+
+    @Value("${query-guard.max-statements:50}")
+    private int maxStatements;
+
+    @Value("${query-guard.repeated-statement-threshold:10}")
+    private int repeatedStatementThreshold;
+
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Scope open(String name) {
+        Scope scope = new Scope(name, currentScope.get());
+        currentScope.set(scope);
+        return scope;
+    }
+
+    // Called for every statement Hibernate prepares; a no-op outside a scope
+    void onStatement(String sql) {
+        Scope scope = currentScope.get();
+        if (scope == null) {
+            return;
+        }
+        scope.statementCount++;
+        int repeats = scope.statementCounts.merge(sql, 1, Integer::sum);
+
+        if (scope.statementCount == maxStatements + 1) {
+            String message = String.format("Query budget exceeded in %s: more than %d statements", scope.name, maxStatements);
+            if (mode == Mode.FAIL) {
+                throw new QueryBudgetExceededException(message);
+            }
+            logger.warn(message);
+        }
+        if (repeats == repeatedStatementThreshold) {
+            String message = String.format("Possible N+1 in %s: statement executed %d times: %s", scope.name, repeats, sql);
+            if (mode == Mode.FAIL) {
+                throw new QueryBudgetExceededException(message);
+            }
+            logger.warn(message);
+        }
+    }
+
+    public class Scope implements AutoCloseable {
+
+        private final String name;
+        private final Scope parent;
+        private final Map<String, Integer> statementCounts = new HashMap<>();
+        private int statementCount;
+
+        private Scope(String name, Scope parent) {
+            this.name = name;
+            this.parent = parent;
+        }
+
+        public int getStatementCount() {
+            return statementCount;
+        }
+
+        public Map<String, Integer> getStatementCounts() {
+            return statementCounts;
+        }
+
+        @Override
+        public void close() {
+            if (parent != null) {
+                currentScope.set(parent);
+            } else {
+                currentScope.remove();
+            }
+        }
+    }
+
+    public static class QueryBudgetExceededException extends IllegalStateException {
+        public QueryBudgetExceededException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.hyno.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EXPLAINs the hot repository queries once the schema is migrated and reports every query the
+ * database could only answer with a full table scan. On MySQL that is an access of type ALL
+ * with no possible key: a table that is still small may be scanned even though an index exists,
+ * so the check asks whether an index could serve the query, not what today's statistics pick.
+ * On H2 it is a table scan in the plan. In "fail" mode startup is aborted, so a CI or staging
+ * start against a migrated database fails when a finder loses its index.
+ *
+ * Each entry mirrors the SQL Hibernate generates for the finder it is named after, with sample
+ * literals in place of the parameters; keep them in step when a finder's query changes.
+ */
+@Component
+public class QueryPlanCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanCheck.class);
+
+    private static final Map<String, String> HOT_QUERIES = new LinkedHashMap<>();
+
+    static {
+        HOT_QUERIES.put("AppointmentRepository.findByDoctor_Id",
+                "SELECT a.* FROM appointments a WHERE a.doctor_id = 'doctor-1'");
+        HOT_QUERIES.put("AppointmentRepository.findByPatient_Id",
+                "SELECT a.* FROM appointments a WHERE a.patient_id = 'patient-1'");
+        HOT_QUERIES.put("AppointmentRepository.findByHospital_Id",
+                "SELECT a.* FROM appointments a WHERE a.hospital_id = 'hospital-1'");
+        HOT_QUERIES.put("AppointmentRepository.findUpcomingByDoctorId",
+                "SELECT a.*, h.* FROM appointments a LEFT JOIN hospitals h ON h.id = a.hospital_id "
+                        + "WHERE a.doctor_id = 'doctor-1' AND a.appointment_date >= '2026-01-01' "
+                        + "ORDER BY a.appointment_date, a.appointment_time");
+        HOT_QUERIES.put("AppointmentRepository.findUpcomingByPatientId",
+                "SELECT a.*, h.* FROM appointments a LEFT JOIN hospitals h ON h.id = a.hospital_id "
+                        + "WHERE a.patient_id = 'patient-1' AND a.appointment_date >= '2026-01-01' "
+                        + "ORDER BY a.appointment_date, a.appointment_time");
+        HOT_QUERIES.put("AppointmentRepository.findIdsByDoctorInDateRange",
+                "SELECT a.id FROM appointments a WHERE a.doctor_id = 'doctor-1' "
+                        + "AND a.appointment_date BETWEEN '2026-01-01' AND '2026-01-31' AND a.status IN ('PENDING', 'UPCOMING') "
+                        + "ORDER BY a.appointment_date, a.appointment_time");
+        HOT_QUERIES.put("AppointmentRepository.findForReminders",
+                "SELECT a.*, p.*, d.* FROM appointments a JOIN patients p ON p.id = a.patient_id JOIN doctors d ON d.id = a.doctor_id "
+                        + "WHERE a.appointment_date BETWEEN '2026-01-01' AND '2026-01-02' AND a.status IN ('PENDING', 'UPCOMING')");
+        HOT_QUERIES.put("AppointmentRepository.findByStatus",
+                "SELECT a.* FROM appointments a WHERE a.status = 'UPCOMING'");
+        HOT_QUERIES.put("ChatMessageRepository.findByChatRoomIdOrderByCreatedAtAsc",
+                "SELECT m.* FROM chat_messages m WHERE m.chat_room_id = 'room-1' ORDER BY m.created_at");
+        HOT_QUERIES.put("ChatMessageRepository.findByChatRoomIdSince",
+                "SELECT m.* FROM chat_messages m WHERE m.chat_room_id = 'room-1' AND m.created_at > '2026-01-01 00:00:00' ORDER BY m.created_at");
+        HOT_QUERIES.put("ChatMessageRepository.countUnreadMessages",
+                "SELECT COUNT(m.id) FROM chat_messages m WHERE m.chat_room_id = 'room-1' AND m.sender_role <> 'PATIENT' AND m.status = 'SENT'");
+        HOT_QUERIES.put("ChatRoomRepository.findActiveByPatientId",
+                "SELECT r.* FROM chat_rooms r WHERE r.patient_id = 'patient-1' AND r.status = 'ACTIVE' ORDER BY r.last_message_time DESC");
+        HOT_QUERIES.put("ChatRoomRepository.findActiveByDoctorId",
+                "SELECT r.* FROM chat_rooms r WHERE r.doctor_id = 'doctor-1' AND r.status = 'ACTIVE' ORDER BY r.last_message_time DESC");
+        HOT_QUERIES.put("ChatRoomRepository.findByAppointmentId",
+                "SELECT r.* FROM chat_rooms r WHERE r.appointment_id = 'appointment-1'");
+        HOT_QUERIES.put("ScheduleSlotRepository.findAvailableSlotsByDoctorAndDate",
+                "SELECT ss.* FROM schedule_slots ss JOIN schedules s ON s.id = ss.schedule_id "
+                        + "WHERE s.doctor_id = 'doctor-1' AND ss.slot_date = '2026-01-01' AND ss.status = 'AVAILABLE' ORDER BY ss.start_time");
+        HOT_QUERIES.put("ScheduleSlotRepository.countAvailableSlots",
+                "SELECT COUNT(ss.id) FROM schedule_slots ss JOIN schedules s ON s.id = ss.schedule_id "
+                        + "WHERE s.doctor_id = 'doctor-1' AND ss.slot_date = '2026-01-01' AND ss.start_time = '09:00:00' AND ss.status = 'AVAILABLE'");
+        HOT_QUERIES.put("ScheduleSlotRepository.findBookableDoctorSlotsInDateRange",
+                "SELECT ss.*, s.* FROM schedule_slots ss JOIN schedules s ON s.id = ss.schedule_id "
+                        + "WHERE s.doctor_id IS NOT NULL AND ss.slot_date BETWEEN '2026-01-01' AND '2026-01-31' AND ss.status IN ('AVAILABLE', 'RESERVED')");
+        HOT_QUERIES.put("ScheduleRepository.findActiveSchedulesByDoctorFromDate",
+                "SELECT s.* FROM schedules s WHERE s.doctor_id = 'doctor-1' AND s.schedule_date >= '2026-01-01' AND s.is_active = 1 "
+                        + "ORDER BY s.schedule_date, s.start_time");
+        HOT_QUERIES.put("DoctorScheduleRepository.findAvailableSlots",
+                "SELECT ds.* FROM doctor_schedules ds WHERE ds.doctor_id = 'doctor-1' AND ds.date >= '2026-01-01' AND ds.date <= '2026-01-31' "
+                        + "AND ds.status = 'AVAILABLE'");
+        HOT_QUERIES.put("DoctorScheduleRepository.countAvailableSlotsByDoctorAndDate",
+                "SELECT COUNT(ds.id) FROM doctor_schedules ds WHERE ds.doctor_id = 'doctor-1' AND ds.date = '2026-01-01' AND ds.status = 'AVAILABLE'");
+        HOT_QUERIES.put("PaymentRepository.findByAppointmentIdAndStatus",
+                "SELECT p.* FROM payments p WHERE p.appointment_id = 'appointment-1' AND p.status = 'COMPLETED'");
+        HOT_QUERIES.put("PaymentRepository.findByPatientIdAndStatus",
+                "SELECT p.* FROM payments p WHERE p.patient_id = 'patient-1' AND p.status = 'COMPLETED'");
+        HOT_QUERIES.put("FeedbackRepository.findByDoctorIdOrderByCreatedAtDesc",
+                "SELECT f.* FROM feedbacks f WHERE f.doctor_id = 'doctor-1' ORDER BY f.created_at DESC");
+        HOT_QUERIES.put("VideoCallRepository.findByAppointmentIdOrderByStartTimeDesc",
+                "SELECT vc.* FROM video_calls vc WHERE vc.appointment_id = 'appointment-1' ORDER BY vc.start_time DESC");
+        HOT_QUERIES.put("YogaSessionRepository.findUpcomingByPatientId",
+                "SELECT s.* FROM yoga_sessions s WHERE s.patient_id = 'patient-1' AND s.session_date >= '2026-01-01' "
+                        + "ORDER BY s.session_date, s.session_time");
+        HOT_QUERIES.put("YogaSessionRepository.findForReminders",
+                "SELECT s.*, p.* FROM yoga_sessions s JOIN patients p ON p.id = s.patient_id "
+                        + "WHERE s.session_date BETWEEN '2026-01-01' AND '2026-01-02' AND s.status = 'UPCOMING'");
+        HOT_QUERIES.put("ReminderDispatchRepository.findKeysSentSince",
+                "SELECT d.reminder_key FROM reminder_dispatches d WHERE d.sent_at >= '2026-01-01 00:00:00'");
+        HOT_QUERIES.put("DoctorRepository.findByHospital_Id",
+                "SELECT d.* FROM doctors d WHERE d.hospital_id = 'hospital-1'");
+        HOT_QUERIES.put("DoctorRepository.findByStatus",
+                "SELECT d.* FROM doctors d WHERE d.status = 'approved'");
+        HOT_QUERIES.put("PatientRepository.findByHospitalId",
+                "SELECT p.* FROM patients p WHERE p.hospital_id = 'hospital-1'");
+        HOT_QUERIES.put("MedicineRepository.findAvailableMedicines",
+                "SELECT m.* FROM medicines m WHERE m.stock_quantity > 0 AND m.status = 'ACTIVE'");
+        HOT_QUERIES.put("PrescriptionRepository.findByPatientId",
+                "SELECT p.* FROM prescriptions p WHERE p.patient_id = 'patient-1'");
+        HOT_QUERIES.put("OrderRepository.findByPatientId",
+                "SELECT o.* FROM orders o WHERE o.patient_id = 'patient-1'");
+        HOT_QUERIES.put("PasswordResetTokenRepository.findByToken",
+                "SELECT t.* FROM password_reset_tokens t WHERE t.token = 'token'");
+    }
+
+    public enum Mode {
+        LOG, FAIL
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${query-plan-check.enabled:false}")
+    private boolean enabled;
+
+    @Value("${query-plan-check.mode:LOG}")
+    private Mode mode;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        List<String> fullScans;
+        try {
+            fullScans = findFullScans();
+        } catch (SQLException e) {
+            logger.error("Query plan check could not run", e);
+            if (mode == Mode.FAIL) {
+                throw new IllegalStateException("Query plan check could not run", e);
+            }
+            return;
+        }
+
+        if (fullScans.isEmpty()) {
+            logger.info("Query plan check: all {} hot queries can use an index", HOT_QUERIES.size());
+            return;
+        }
+        String message = String.format("Query plan check: %d of %d hot queries need a full table scan: %s",
+                fullScans.size(), HOT_QUERIES.size(), String.join("; ", fullScans));
+        if (mode == Mode.FAIL) {
+            throw new IllegalStateException(message);
+        }
+        logger.warn(message);
+    }
+
+    // One "<finder> scans <tables>" entry per hot query that needs a full table scan; empty when the database has no plan reader
+    public List<String> findFullScans() throws SQLException {
+        List<String> fullScans = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (!"MySQL".equals(product) && !"H2".equals(product)) {
+                logger.info("Query plan check skipped: no plan reader for {}", product);
+                return fullScans;
+            }
+            for (Map.Entry<String, String> query : HOT_QUERIES.entrySet()) {
+                String scannedTables = "MySQL".equals(product)
+                        ? mysqlFullScans(connection, query.getValue())
+                        : h2FullScans(connection, query.getValue());
+                if (!scannedTables.isEmpty()) {
+                    fullScans.add(query.getKey() + " scans " + scannedTables);
+                }
+            }
+        }
+        return fullScans;
+    }
+
+    // Tables accessed with type ALL and no usable key, comma separated
+    private static String mysqlFullScans(Connection connection, String sql) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet plan = statement.executeQuery("EXPLAIN " + sql)) {
+            while (plan.next()) {
+                if ("ALL".equals(plan.getString("type")) && plan.getString("possible_keys") == null) {
+                    tables.add(plan.getString("table"));
+                }
+            }
+        }
+        return String.join(", ", tables);
+    }
+
+    private static String h2FullScans(Connection connection, String sql) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet plan = statement.executeQuery("EXPLAIN " + sql)) {
+            while (plan.next()) {
+                // Table accesses are annotated as /* PUBLIC.<TABLE>.tableScan */ or /* PUBLIC.<INDEX>: ... */
+                for (String line : plan.getString(1).split("\n")) {
+                    int scan = line.indexOf(".tableScan");
+                    if (scan > 0) {
+                        String qualified = line.substring(line.lastIndexOf("/*", scan) + 2, scan).trim();
+                        tables.add(qualified.substring(qualified.lastIndexOf('.') + 1));
+                    }
+                }
+            }
+        }
+        return String.join(", ", tables);
+    }
+}
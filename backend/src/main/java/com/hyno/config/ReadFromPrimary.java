@@ -0,0 +1,18 @@
+package com.hyno.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps the read-only transactions of the annotated method on the primary database when a
+ * read replica is configured. For reads whose result overwrites state kept fresh by change
+ * events (in-memory indexes, timers), where a lagging replica would undo recent writes.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadFromPrimary {
+}
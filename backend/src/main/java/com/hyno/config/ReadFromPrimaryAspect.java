@@ -0,0 +1,22 @@
+package com.hyno.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+// Pins methods marked @ReadFromPrimary to the primary database while they run
+@Aspect
+@Component
+public class ReadFromPrimaryAspect {
+
+    @Around("@annotation(com.hyno.config.ReadFromPrimary)")
+    public Object readFromPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRoutingDataSource.unpinFromPrimary();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.hyno.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Sends connections for read-only service transactions ({@code @Transactional(readOnly = true)}
+ * on a com.hyno.service method) to the replica pool and everything else to the primary.
+ * Spring Data's own read-only transactions stay on the primary: services commonly load an
+ * entity through the repository and save it back outside a transaction, and that load must
+ * see the latest write. The routing decision is taken when a statement first needs a physical connection, so the
+ * data source is used behind a LazyConnectionDataSourceProxy (see {@link DataSourceConfig}).
+ *
+ * Replica lag is measured by {@link #checkReplica()}: a heartbeat row on the primary (in
+ * replica_heartbeat, created by migration V1_2) is stamped with the current time and read back
+ * through the replica. The replica only takes reads while the heartbeat it returns is at most max-lag-ms old; when it falls behind, cannot
+ * be reached, or refuses a connection, reads go to the primary until a later check succeeds.
+ * A read-only transaction may therefore see data up to max-lag-ms old; reads that must not
+ * are marked {@link ReadFromPrimary}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+    private static final String SERVICE_PACKAGE = "com.hyno.service.";
+
+    private static final ThreadLocal<Integer> primaryPins = ThreadLocal.withInitial(() -> 0);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagMs;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter fallbackConnections;
+
+    private volatile boolean replicaAvailable;
+    private volatile double lagMs = Double.NaN;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long maxLagMs, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMs = maxLagMs;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        primaryConnections = meterRegistry.counter("hyno.datasource.connections", "target", PRIMARY);
+        replicaConnections = meterRegistry.counter("hyno.datasource.connections", "target", REPLICA);
+        fallbackConnections = meterRegistry.counter("hyno.datasource.connections", "target", "replica_fallback");
+        meterRegistry.gauge("hyno.datasource.replica.lag", Tags.empty(), this, routing -> routing.lagMs);
+        meterRegistry.gauge("hyno.datasource.replica.available", Tags.empty(), this, routing -> routing.replicaAvailable ? 1 : 0);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!replicaAvailable || primaryPins.get() != 0 || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        // Named after the method that started the transaction
+        String transactionName = TransactionSynchronizationManager.getCurrentTransactionName();
+        return transactionName != null && transactionName.startsWith(SERVICE_PACKAGE) ? REPLICA : PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return routeConnection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return routeConnection(target -> target.getConnection(username, password));
+    }
+
+    // Opens the connection on the routed target, falling back to the primary when the replica fails
+    private Connection routeConnection(ConnectionOpener opener) throws SQLException {
+        if (!REPLICA.equals(determineCurrentLookupKey())) {
+            primaryConnections.increment();
+            return opener.open(primary);
+        }
+        try {
+            Connection connection = opener.open(replica);
+            replicaConnections.increment();
+            return connection;
+        } catch (SQLException e) {
+            markReplicaUnavailable("connection failed: " + e.getMessage());
+            fallbackConnections.increment();
+            return opener.open(primary);
+        }
+    }
+
+    // Routes the calling thread's read-only transactions to the primary until the matching unpin; pins nest
+    public static void pinToPrimary() {
+        primaryPins.set(primaryPins.get() + 1);
+    }
+
+    public static void unpinFromPrimary() {
+        int pins = primaryPins.get() - 1;
+        if (pins <= 0) {
+            primaryPins.remove();
+        } else {
+            primaryPins.set(pins);
+        }
+    }
+
+    // Stamps the heartbeat on the primary, reads it back through the replica and updates routing
+    public void checkReplica() {
+        long stamped = System.currentTimeMillis();
+        try (Connection connection = primary.getConnection()) {
+            try (PreparedStatement update = connection.prepareStatement("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1")) {
+                update.setLong(1, stamped);
+                if (update.executeUpdate() == 0) {
+                    try (PreparedStatement insert = connection.prepareStatement("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)")) {
+                        insert.setLong(1, stamped);
+                        insert.executeUpdate();
+                    }
+                }
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            // Without a fresh heartbeat the lag cannot be measured; the last routing decision stands
+            logger.warn("Could not write the replica heartbeat on the primary: {}", e.getMessage());
+            return;
+        }
+
+        Long replicated = null;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT beat_at FROM replica_heartbeat WHERE id = 1")) {
+            if (resultSet.next()) {
+                replicated = resultSet.getLong(1);
+            }
+        } catch (SQLException e) {
+            lagMs = Double.NaN;
+            markReplicaUnavailable("heartbeat read failed: " + e.getMessage());
+            return;
+        }
+
+        if (replicated == null) {
+            lagMs = Double.NaN;
+            markReplicaUnavailable("heartbeat row not replicated yet");
+            return;
+        }
+        long lag = Math.max(0, System.currentTimeMillis() - replicated);
+        lagMs = lag;
+        if (lag > maxLagMs) {
+            markReplicaUnavailable("lag " + lag + " ms exceeds " + maxLagMs + " ms");
+        } else if (!replicaAvailable) {
+            replicaAvailable = true;
+            logger.info("Read replica available (lag {} ms); routing read-only transactions to it", lag);
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (replica instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private void markReplicaUnavailable(String reason) {
+        if (replicaAvailable) {
+            replicaAvailable = false;
+            logger.warn("Read replica unavailable ({}); routing reads to the primary", reason);
+        } else {
+            logger.debug("Read replica still unavailable ({})", reason);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+        Connection open(DataSource target) throws SQLException;
+    }
+}
@@ -0,0 +1,62 @@
+package com.hyno.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Puts a request ID, method and path into the MDC for every log line written while the
+ * request is handled, echoes the ID back as X-Request-Id, and logs requests that exceed
+ * the slow threshold.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestLoggingFilter.class);
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    @Value("${logging.request.slow-threshold-ms:1000}")
+    private long slowThresholdMs;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || requestId.isBlank() || requestId.length() > 64) {
+            requestId = UUID.randomUUID().toString();
+        }
+        MDC.put("requestId", requestId);
+        MDC.put("method", request.getMethod());
+        MDC.put("path", request.getRequestURI());
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMs >= slowThresholdMs) {
+                logger.warn("Slow request completed with status {} in {} ms", response.getStatus(), elapsedMs);
+            } else if (logger.isDebugEnabled()) {
+                logger.debug("Request completed with status {} in {} ms", response.getStatus(), elapsedMs);
+            }
+            MDC.remove("requestId");
+            MDC.remove("method");
+            MDC.remove("path");
+        }
+    }
+}
@@ -1,6 +1,17 @@
 package com.hyno.config;
 
+import com.hyno.service.AppointmentUpdateService;
+import com.hyno.service.AvailabilityIndexService;
+import com.hyno.service.CallSessionService;
+import com.hyno.service.CallTelemetryService;
+import com.hyno.service.ChatArchiveService;
+import com.hyno.service.ChatAttachmentService;
+import com.hyno.service.ChatSearchService;
+import com.hyno.service.ChatSignalCoalescer;
+import com.hyno.service.PresenceService;
+import com.hyno.service.ReminderService;
 import com.hyno.service.ScheduleService;
+import com.hyno.service.VideoSignalingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -13,9 +24,148 @@ public class ScheduledTasksConfig {
     @Autowired
     private ScheduleService scheduleService;
 
+    @Autowired
+    private AvailabilityIndexService availabilityIndexService;
+
+    @Autowired
+    private AppointmentUpdateService appointmentUpdateService;
+
+    @Autowired
+    private ReminderService reminderService;
+
+    @Autowired
+    private ChatSignalCoalescer chatSignalCoalescer;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private ChatAttachmentService chatAttachmentService;
+
+    @Autowired
+    private ChatSearchService chatSearchService;
+
+    @Autowired
+    private ChatArchiveService chatArchiveService;
+
+    @Autowired
+    private VideoSignalingService videoSignalingService;
+
+    @Autowired
+    private CallSessionService callSessionService;
+
+    @Autowired
+    private CallTelemetryService callTelemetryService;
+
+    @Autowired(required = false)
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
     // Run every 5 minutes to clean up expired reservations
     @Scheduled(fixedRate = 300000) // 5 minutes in milliseconds
     public void cleanupExpiredReservations() {
         scheduleService.cleanupExpiredReservations();
     }
+
+    // Rebuild the availability index hourly to roll the horizon forward and heal any missed updates
+    @Scheduled(fixedRate = 3600000, initialDelay = 3600000) // 1 hour in milliseconds
+    public void rebuildAvailabilityIndex() {
+        availabilityIndexService.rebuild();
+    }
+
+    // Drop per-user appointment update logs that have been idle past the retention window
+    @Scheduled(fixedRate = 600000) // 10 minutes in milliseconds
+    public void pruneAppointmentUpdateLogs() {
+        appointmentUpdateService.pruneIdleLogs();
+    }
+
+    // Fire due reminders; the timer wheel ticks once a minute, polling twice keeps latency under a minute
+    @Scheduled(fixedRate = 30000) // 30 seconds in milliseconds
+    public void dispatchDueReminders() {
+        reminderService.tick();
+    }
+
+    // Slide the reminder window forward and heal any missed change events
+    @Scheduled(fixedRate = 3600000, initialDelay = 3600000) // 1 hour in milliseconds
+    public void reloadReminderWindow() {
+        reminderService.reloadWindow();
+    }
+
+    @Scheduled(cron = "0 30 3 * * *") // daily at 03:30
+    public void pruneReminderDispatchLog() {
+        reminderService.pruneDispatchLog();
+    }
+
+    // Broadcast the latest coalesced typing state once per window
+    @Scheduled(fixedRateString = "${chat.typing-window-ms:500}")
+    public void flushTypingIndicators() {
+        chatSignalCoalescer.flushTyping();
+    }
+
+    // Write queued read receipts in bulk and notify the chat rooms
+    @Scheduled(fixedRateString = "${chat.read-receipt-window-ms:2000}")
+    public void flushReadReceipts() {
+        chatSignalCoalescer.flushReadReceipts();
+    }
+
+    // Push batched presence transitions to watchers
+    @Scheduled(fixedRateString = "${presence.push-interval-ms:1000}")
+    public void publishPresenceChanges() {
+        presenceService.publishChanges();
+    }
+
+    // Expire presence sessions that stopped sending frames without disconnecting
+    @Scheduled(fixedRate = 10000) // 10 seconds in milliseconds
+    public void sweepPresence() {
+        presenceService.sweep();
+    }
+
+    // Remove attachment uploads that were abandoned part-way
+    @Scheduled(fixedRate = 3600000, initialDelay = 3600000) // 1 hour in milliseconds
+    public void purgeStaleAttachmentUploads() {
+        chatAttachmentService.purgeStaleUploads();
+    }
+
+    // Persist the chat search index's in-memory segment and merge segments when there are too many
+    @Scheduled(fixedRate = 10000) // 10 seconds in milliseconds
+    public void flushChatSearchIndex() {
+        chatSearchService.flushIfNeeded();
+    }
+
+    // Move messages of long-archived chat rooms out of chat_messages into compressed cold storage
+    @Scheduled(cron = "0 15 4 * * *") // daily at 04:15
+    public void archiveChatRooms() {
+        chatArchiveService.archiveEligibleRooms();
+    }
+
+    // Relay the trickle-ICE candidates batched during the last window
+    @Scheduled(fixedRateString = "${video-call.ice-batch-window-ms:50}")
+    public void flushIceCandidates() {
+        videoSignalingService.flushIceCandidates();
+    }
+
+    // Write changed video call states to video_calls and appointments in one batch
+    @Scheduled(fixedRateString = "${video-call.write-behind-ms:2000}")
+    public void flushVideoCallStates() {
+        callSessionService.flush();
+    }
+
+    // Close video calls that were left open without any transition
+    @Scheduled(fixedRate = 300000) // 5 minutes in milliseconds
+    public void closeAbandonedVideoCalls() {
+        callSessionService.closeAbandoned();
+    }
+
+    // Close the call quality telemetry window and store one summary per participant
+    @Scheduled(fixedRateString = "${call-telemetry.window-ms:30000}")
+    public void flushCallTelemetry() {
+        callTelemetryService.flush();
+    }
+
+    // Measure read replica lag from the heartbeat and switch reads between replica and primary
+    @Scheduled(fixedRateString = "${datasource.replica.heartbeat-ms:1000}")
+    public void checkReadReplica() {
+        if (replicaRoutingDataSource != null) {
+            replicaRoutingDataSource.checkReplica();
+        }
+    }
 }
@@ -0,0 +1,54 @@
+package com.hyno.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sampled SQL logging: instead of echoing every statement (show-sql), a configurable
+ * fraction of statements is logged under the "com.hyno.sql.sample" logger. Slow statements
+ * are captured separately by Hibernate's LOG_QUERIES_SLOWER_THAN_MS setting. The same
+ * statement inspector feeds {@link QueryCountGuard} when it is enabled.
+ */
+@Configuration
+public class SqlLoggingConfig {
+
+    private static final Logger sampleLogger = LoggerFactory.getLogger("com.hyno.sql.sample");
+
+    @Value("${logging.sql.sample-rate:0}")
+    private double sampleRate;
+
+    @Autowired
+    private QueryCountGuard queryCountGuard;
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlInspectionCustomizer() {
+        return properties -> {
+            if (sampleRate > 0 || queryCountGuard.isEnabled()) {
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementInspector());
+            }
+        };
+    }
+
+    private StatementInspector statementInspector() {
+        boolean guarded = queryCountGuard.isEnabled();
+        double rate = sampleRate;
+        return sql -> {
+            if (guarded) {
+                queryCountGuard.onStatement(sql);
+            }
+            if (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate && sampleLogger.isInfoEnabled()) {
+                sampleLogger.info("Sampled SQL: {}", sql);
+            }
+            return sql;
+        };
+    }
+}
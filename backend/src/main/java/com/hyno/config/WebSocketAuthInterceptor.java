@@ -0,0 +1,62 @@
+package com.hyno.config;
+
+import com.hyno.service.JwtService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Binds the user from the CONNECT frame's bearer token to the STOMP session, so
+ * /user/{name}/queue/... destinations reach that user's sessions. The principal name is the
+ * role-qualified user ID (DOCTOR:1, PATIENT:1), since ids are assigned per user type and a
+ * doctor and a patient can share one. Connections without a valid token stay anonymous, as
+ * before.
+ */
+@Component
+public class WebSocketAuthInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketAuthInterceptor.class);
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())) {
+            return message;
+        }
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (header == null || !header.startsWith("Bearer ") || header.length() == "Bearer ".length()) {
+            return message;
+        }
+        String token = header.substring("Bearer ".length());
+        if (jwtService.validateToken(token)) {
+            String userId = jwtService.getUserIdFromToken(token);
+            String role = jwtService.getRoleFromToken(token);
+            if (userId != null && role != null) {
+                String name = principalName(role, userId);
+                accessor.setUser(new UsernamePasswordAuthenticationToken(name, null,
+                        List.of(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))));
+                logger.debug("STOMP session {} authenticated as {}", accessor.getSessionId(), name);
+            }
+        }
+        return message;
+    }
+
+    // The user destination name of a user; role is the user type ("doctor", "patient", ...)
+    public static String principalName(String role, String userId) {
+        return role.toUpperCase() + ":" + userId;
+    }
+}
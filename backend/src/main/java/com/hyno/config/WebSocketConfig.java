@@ -1,7 +1,12 @@
 package com.hyno.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -10,16 +15,35 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private WebSocketMetrics webSocketMetrics;
+
+    @Autowired
+    private WebSocketAuthInterceptor webSocketAuthInterceptor;
+
+    @Autowired
+    private PresenceActivityInterceptor presenceActivityInterceptor;
+
+    @Autowired
+    @Lazy
+    @Qualifier("messageBrokerTaskScheduler")
+    private TaskScheduler messageBrokerTaskScheduler;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker
-        config.enableSimpleBroker("/topic", "/queue");
+        // Enable a simple in-memory message broker; heartbeats (ms) keep presence fresh and detect dead connections
+        config.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[] {10000, 10000})
+                .setTaskScheduler(messageBrokerTaskScheduler);
 
         // Set application destination prefix
         config.setApplicationDestinationPrefixes("/app");
 
         // Set user destination prefix for private messages
         config.setUserDestinationPrefix("/user");
+
+        // Deliver each session's messages in publish order, e.g. ICE candidate batches before the end-of-candidates marker
+        config.setPreservePublishOrder(true);
     }
 
     @Override
@@ -33,4 +57,14 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("http://localhost:3000", "http://localhost:3001", "http://localhost:5173", "http://localhost:3002");
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(webSocketAuthInterceptor, presenceActivityInterceptor, webSocketMetrics.inboundInterceptor());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(webSocketMetrics.outboundInterceptor());
+    }
 }
@@ -0,0 +1,82 @@
+package com.hyno.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * STOMP session gauge and per-feature message counters. Messages are classified as chat,
+ * video (call signaling) or other from their destination.
+ */
+@Component
+public class WebSocketMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger activeSessions = new AtomicInteger();
+
+    public WebSocketMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("hyno.websocket.sessions.active", activeSessions);
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        activeSessions.incrementAndGet();
+        meterRegistry.counter("hyno.websocket.sessions.connected").increment();
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        activeSessions.decrementAndGet();
+        meterRegistry.counter("hyno.websocket.sessions.disconnected").increment();
+    }
+
+    public ChannelInterceptor inboundInterceptor() {
+        return countingInterceptor("inbound");
+    }
+
+    public ChannelInterceptor outboundInterceptor() {
+        return countingInterceptor("outbound");
+    }
+
+    private ChannelInterceptor countingInterceptor(String direction) {
+        Counter chat = messageCounter(direction, "chat");
+        Counter video = messageCounter(direction, "video");
+        Counter other = messageCounter(direction, "other");
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                    String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+                    if (destination == null) {
+                        other.increment();
+                    } else if (destination.contains("/chat")) {
+                        chat.increment();
+                    } else if (destination.contains("video-call")) {
+                        video.increment();
+                    } else {
+                        other.increment();
+                    }
+                }
+                return message;
+            }
+        };
+    }
+
+    private Counter messageCounter(String direction, String feature) {
+        return Counter.builder("hyno.websocket.messages")
+                .tag("direction", direction)
+                .tag("feature", feature)
+                .register(meterRegistry);
+    }
+}
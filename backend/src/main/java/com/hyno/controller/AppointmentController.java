@@ -1,18 +1,26 @@
 package com.hyno.controller;
 
 import com.hyno.entity.Appointment;
+import com.hyno.repository.AppointmentSummary;
 import com.hyno.service.AppointmentService;
+import com.hyno.service.AppointmentUpdateService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 // DTO for appointment creation
 class AppointmentCreateDTO {
@@ -66,12 +74,18 @@ public class AppointmentController {
 
     private static final Logger logger = LoggerFactory.getLogger(AppointmentController.class);
 
+    private static final Set<String> SUMMARY_SORT_FIELDS =
+            Set.of("appointmentDate", "appointmentTime", "status", "patientName", "doctorName", "createdAt");
+
     @Autowired
     private AppointmentService appointmentService;
 
     @Autowired
     private com.hyno.service.ChatService chatService;
 
+    @Autowired
+    private AppointmentUpdateService appointmentUpdateService;
+
     @GetMapping
     public List<Appointment> getAllAppointments() {
         logger.info("Fetching all appointments");
@@ -85,6 +99,36 @@ public class AppointmentController {
         }
     }
 
+    // Lightweight listing: any combination of filters, paged, returning only the columns the lists render
+    @GetMapping("/summaries")
+    public ResponseEntity<?> getAppointmentSummaries(
+            @RequestParam(required = false) String doctorId,
+            @RequestParam(required = false) String patientId,
+            @RequestParam(required = false) String hospitalId,
+            @RequestParam(required = false) Appointment.AppointmentStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "appointmentDate") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+        logger.info("Fetching appointment summaries - page: {}, size: {}, sortBy: {}, sortDir: {}", page, size, sortBy, sortDir);
+        if (page < 0 || size < 1 || size > 200) {
+            return ResponseEntity.badRequest().body(Map.of("error", "page must be >= 0 and size between 1 and 200"));
+        }
+        if (!SUMMARY_SORT_FIELDS.contains(sortBy)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "sortBy must be one of " + SUMMARY_SORT_FIELDS));
+        }
+        Sort.Direction direction = sortDir.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(direction, sortBy);
+        if ("appointmentDate".equals(sortBy)) {
+            sort = sort.and(Sort.by(direction, "appointmentTime"));
+        }
+        Page<AppointmentSummary> summaries = appointmentService.searchAppointmentSummaries(
+                doctorId, patientId, hospitalId, status, from, to, PageRequest.of(page, size, sort));
+        return ResponseEntity.ok(summaries);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Appointment> getAppointmentById(@PathVariable String id) {
         logger.info("Fetching appointment by ID: {}", id);
@@ -188,6 +232,20 @@ public class AppointmentController {
         }
     }
 
+    // Catch-up for clients of /user/queue/appointments after a reconnect: returns the caller's deltas after
+    // `since`, or resync=true when they are no longer retained and the client must refetch its list. The
+    // caller is the authenticated user, whose principal name is the one the deltas are addressed to
+    @GetMapping("/updates")
+    public ResponseEntity<?> getAppointmentUpdates(Principal principal,
+                                                   @RequestParam(defaultValue = "0") long since,
+                                                   @RequestParam(required = false) Long epoch) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Authentication required"));
+        }
+        logger.info("Fetching appointment updates for {} since {}", principal.getName(), since);
+        return ResponseEntity.ok(appointmentUpdateService.getUpdatesSince(principal.getName(), since, epoch));
+    }
+
     @PostMapping
     public Appointment createAppointment(@RequestBody Map<String, Object> request) {
         logger.info("Creating new appointment");
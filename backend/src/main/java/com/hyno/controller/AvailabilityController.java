@@ -0,0 +1,63 @@
+package com.hyno.controller;
+
+import com.hyno.repository.DoctorRepository;
+import com.hyno.service.AvailabilityIndexService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/availability")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://localhost:5173"})
+public class AvailabilityController {
+
+    @Autowired
+    private AvailabilityIndexService availabilityIndexService;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    // e.g. GET /api/availability/earliest?specialization=Cardiology&days=7
+    @GetMapping("/earliest")
+    public ResponseEntity<?> getEarliestAvailable(
+            @RequestParam(required = false) String specialization,
+            @RequestParam(required = false) List<String> doctorIds,
+            @RequestParam(defaultValue = "7") int days) {
+        List<String> candidates = resolveDoctorIds(specialization, doctorIds);
+        if (candidates == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "specialization or doctorIds is required"));
+        }
+        LocalDateTime from = LocalDateTime.now();
+        return availabilityIndexService.findEarliestAvailable(candidates, from, from.plusDays(days))
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/slots")
+    public ResponseEntity<?> getAvailableSlots(
+            @RequestParam(required = false) String specialization,
+            @RequestParam(required = false) List<String> doctorIds,
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "20") int limit) {
+        List<String> candidates = resolveDoctorIds(specialization, doctorIds);
+        if (candidates == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "specialization or doctorIds is required"));
+        }
+        LocalDateTime from = LocalDateTime.now();
+        return ResponseEntity.ok(availabilityIndexService.findAvailable(candidates, from, from.plusDays(days), limit));
+    }
+
+    private List<String> resolveDoctorIds(String specialization, List<String> doctorIds) {
+        if (doctorIds != null && !doctorIds.isEmpty()) {
+            return doctorIds;
+        }
+        if (specialization != null && !specialization.isBlank()) {
+            return doctorRepository.findIdsBySpecialization(specialization);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,63 @@
+package com.hyno.controller;
+
+import com.hyno.service.BulkAppointmentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Map;
+
+// Cancels or reschedules a doctor's appointments in a date range as a background job, e.g. after a suspension
+@RestController
+@RequestMapping("/api/admin/appointments/bulk")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://localhost:5173"})
+public class BulkAppointmentController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkAppointmentController.class);
+
+    @Autowired
+    private BulkAppointmentService bulkAppointmentService;
+
+    @PostMapping
+    public ResponseEntity<?> startJob(@RequestBody Map<String, String> request) {
+        String doctorId = request.get("doctorId");
+        if (doctorId == null || doctorId.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "doctorId is required"));
+        }
+        BulkAppointmentService.Action action;
+        try {
+            action = BulkAppointmentService.Action.valueOf(request.getOrDefault("action", "CANCEL").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "action must be CANCEL or RESCHEDULE"));
+        }
+        try {
+            LocalDate fromDate = LocalDate.parse(request.get("fromDate"));
+            LocalDate toDate = request.get("toDate") != null ? LocalDate.parse(request.get("toDate")) : fromDate;
+            BulkAppointmentService.BulkJob job = bulkAppointmentService.submit(doctorId, fromDate, toDate, action);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (DateTimeParseException | NullPointerException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "fromDate and toDate must be dates (yyyy-MM-dd)"));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected bulk appointment job for doctor {}: {}", doctorId, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<BulkAppointmentService.BulkJob> getJob(@PathVariable String jobId) {
+        return bulkAppointmentService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/jobs")
+    public Collection<BulkAppointmentService.BulkJob> getJobs() {
+        return bulkAppointmentService.getJobs();
+    }
+}
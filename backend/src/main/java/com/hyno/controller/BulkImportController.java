@@ -0,0 +1,60 @@
+package com.hyno.controller;
+
+import com.hyno.service.BulkImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Map;
+
+// Bulk imports take the raw request body (text/csv or application/json) so large files bypass the multipart size limit
+@RestController
+@RequestMapping("/api/admin/import")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://localhost:5173"})
+public class BulkImportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportController.class);
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @PostMapping(value = "/{entityType}", consumes = {"text/csv", "application/json"})
+    public ResponseEntity<?> startImport(@PathVariable String entityType, HttpServletRequest request) {
+        BulkImportService.EntityType type;
+        try {
+            type = BulkImportService.EntityType.valueOf(entityType.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unsupported import type: " + entityType));
+        }
+        String contentType = request.getContentType();
+        BulkImportService.Format format = contentType != null && contentType.startsWith("application/json")
+                ? BulkImportService.Format.JSON : BulkImportService.Format.CSV;
+
+        try (InputStream body = request.getInputStream()) {
+            BulkImportService.ImportJob job = bulkImportService.submit(type, format, body);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IOException e) {
+            logger.error("Error receiving {} import", entityType, e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Could not read import data"));
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<BulkImportService.ImportJob> getJob(@PathVariable String jobId) {
+        return bulkImportService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/jobs")
+    public Collection<BulkImportService.ImportJob> getJobs() {
+        return bulkImportService.getJobs();
+    }
+}
@@ -0,0 +1,44 @@
+package com.hyno.controller;
+
+import com.hyno.service.ChatArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Cold storage of archived chat rooms' messages: archive size, last run and hot-table reduction
+@RestController
+@RequestMapping("/api/admin/chat/archive")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://localhost:5173"})
+public class ChatArchiveController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatArchiveController.class);
+
+    @Autowired
+    private ChatArchiveService chatArchiveService;
+
+    @GetMapping
+    public ResponseEntity<?> getStats() {
+        try {
+            return ResponseEntity.ok(chatArchiveService.getStats());
+        } catch (IOException e) {
+            logger.error("Error reading chat archive stats", e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Could not read chat archive stats"));
+        }
+    }
+
+    // Run the archival now instead of waiting for the nightly run
+    @PostMapping("/run")
+    public ResponseEntity<?> run() {
+        try {
+            return ResponseEntity.ok(chatArchiveService.archiveEligibleRooms());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.hyno.controller;
+
+import com.hyno.entity.AttachmentUpload;
+import com.hyno.entity.ChatAttachment;
+import com.hyno.entity.ChatMessage;
+import com.hyno.service.ChatAttachmentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Chunked attachment uploads take raw application/octet-stream bodies, so they bypass the multipart size limit
+@RestController
+@RequestMapping("/api/chat/attachments")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://localhost:5173"})
+public class ChatAttachmentController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatAttachmentController.class);
+
+    private static final String UPLOAD_OFFSET_HEADER = "Upload-Offset";
+
+    // Raster images are safe to render in the browser; everything else (HTML, SVG, PDF, ...) is downloaded
+    private static final Set<String> INLINE_CONTENT_TYPES = Set.of(
+            MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_GIF_VALUE, "image/webp", "image/bmp");
+
+    @Autowired
+    private ChatAttachmentService chatAttachmentService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    // Open an upload: {chatRoomId, senderId, senderName, senderRole, fileName, contentType, size}
+    @PostMapping("/uploads")
+    public ResponseEntity<?> startUpload(@RequestBody Map<String, Object> request) {
+        try {
+            ChatMessage.SenderRole senderRole = ChatMessage.SenderRole.valueOf(String.valueOf(request.get("senderRole")).toUpperCase());
+            AttachmentUpload upload = chatAttachmentService.startUpload(
+                    (String) request.get("chatRoomId"),
+                    (String) request.get("senderId"),
+                    (String) request.get("senderName"),
+                    senderRole,
+                    (String) request.get("fileName"),
+                    (String) request.get("contentType"),
+                    ((Number) request.get("size")).longValue());
+            Map<String, Object> response = uploadStatus(upload, 0);
+            response.put("chunkSize", chatAttachmentService.getChunkSize());
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(HttpHeaders.LOCATION, "/api/chat/attachments/uploads/" + upload.getId())
+                    .body(response);
+        } catch (IllegalArgumentException | NullPointerException | ClassCastException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage() != null ? e.getMessage()
+                    : "chatRoomId, senderId, senderName, senderRole, fileName and size are required"));
+        } catch (IOException e) {
+            logger.error("Error starting attachment upload", e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Could not start upload"));
+        }
+    }
+
+    // Current offset, for resuming after a failed or unanswered chunk
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> getUpload(@PathVariable String uploadId) throws IOException {
+        Optional<AttachmentUpload> upload = chatAttachmentService.getUpload(uploadId);
+        if (upload.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        long offset = chatAttachmentService.getOffset(uploadId);
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET_HEADER, String.valueOf(offset))
+                .body(uploadStatus(upload.get(), offset));
+    }
+
+    @PutMapping(value = "/uploads/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> uploadChunk(@PathVariable String uploadId, @RequestParam long offset, HttpServletRequest request) {
+        Optional<AttachmentUpload> upload = chatAttachmentService.getUpload(uploadId);
+        if (upload.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try (InputStream body = request.getInputStream()) {
+            long newOffset = chatAttachmentService.appendChunk(upload.get(), offset, body);
+            return ResponseEntity.ok()
+                    .header(UPLOAD_OFFSET_HEADER, String.valueOf(newOffset))
+                    .body(uploadStatus(upload.get(), newOffset));
+        } catch (ChatAttachmentService.UploadOffsetMismatchException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(UPLOAD_OFFSET_HEADER, String.valueOf(e.getCurrentOffset()))
+                    .body(Map.of("error", e.getMessage(), "offset", e.getCurrentOffset()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            logger.error("Error receiving chunk at offset {} for upload: {}", offset, uploadId, e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Could not store chunk; resume from the current offset"));
+        }
+    }
+
+    // Finish the upload and post it to the chat room: {caption} is optional
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String uploadId, @RequestBody(required = false) Map<String, String> request) {
+        Optional<AttachmentUpload> upload = chatAttachmentService.getUpload(uploadId);
+        if (upload.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            ChatMessage message = chatAttachmentService.completeUpload(upload.get(), request != null ? request.get("caption") : null);
+            messagingTemplate.convertAndSend("/topic/chat/" + upload.get().getChatRoomId(), toWebSocketResponse(message));
+            return ResponseEntity.ok(message);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            logger.error("Error completing upload: {}", uploadId, e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Could not complete upload"));
+        }
+    }
+
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<Void> abortUpload(@PathVariable String uploadId) throws IOException {
+        Optional<AttachmentUpload> upload = chatAttachmentService.getUpload(uploadId);
+        if (upload.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        chatAttachmentService.abortUpload(upload.get());
+        return ResponseEntity.noContent().build();
+    }
+
+    // Download with single-range support; blobs are immutable, so they are cached for good. The
+    // content type comes from the uploader, so it is never sniffed and only raster images render inline
+    @GetMapping("/{attachmentId}")
+    public void download(@PathVariable String attachmentId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<ChatAttachment> found = chatAttachmentService.getAttachment(attachmentId);
+        if (found.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        ChatAttachment attachment = found.get();
+        long size = attachment.getSize();
+        String etag = "\"" + attachment.getSha256() + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader("Content-Security-Policy", "sandbox");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        String contentType = attachment.getContentType() != null ? attachment.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        response.setContentType(contentType);
+        ContentDisposition.Builder disposition = INLINE_CONTENT_TYPES.contains(contentType.toLowerCase())
+                ? ContentDisposition.inline() : ContentDisposition.attachment();
+        if (attachment.getFileName() != null) {
+            disposition.filename(attachment.getFileName(), StandardCharsets.UTF_8);
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.build().toString());
+
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            start = bounds[0];
+            end = bounds[1];
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        response.setContentLengthLong(end - start + 1);
+        chatAttachmentService.transfer(attachment, start, end - start + 1, Channels.newChannel(response.getOutputStream()));
+    }
+
+    // Parses a single "bytes=a-b", "bytes=a-" or "bytes=-n" range; null when unsatisfiable or malformed
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? size - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), size - 1);
+            }
+            return start <= end && start < size ? new long[] {start, end} : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Object> uploadStatus(AttachmentUpload upload, long offset) {
+        Map<String, Object> status = new HashMap<>();
+        status.put("uploadId", upload.getId());
+        status.put("offset", offset);
+        status.put("size", upload.getSize());
+        status.put("complete", offset == upload.getSize());
+        return status;
+    }
+
+    private static WebSocketChatController.WebSocketMessageResponse toWebSocketResponse(ChatMessage message) {
+        WebSocketChatController.WebSocketMessageResponse response = new WebSocketChatController.WebSocketMessageResponse();
+        response.setId(message.getId());
+        response.setSenderId(message.getSenderId());
+        response.setSenderName(message.getSenderName());
+        response.setSenderRole(message.getSenderRole().name().toLowerCase());
+        response.setContent(message.getContent());
+        response.setTimestamp(message.getCreatedAt().toString());
+        response.setRead(false);
+        response.setMessageType(message.getMessageType().name().toLowerCase());
+        response.setFileUrl(message.getFileUrl());
+        response.setFileName(message.getFileName());
+        response.setFileSize(message.getFileSize());
+        return response;
+    }
+}
@@ -2,6 +2,7 @@ package com.hyno.controller;
 
 import com.hyno.entity.ChatMessage;
 import com.hyno.entity.ChatRoom;
+import com.hyno.service.ChatSearchService;
 import com.hyno.service.ChatService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,9 +21,14 @@ public class ChatController {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatController.class);
 
+    private static final int MAX_SEARCH_DEPTH = 10_000;
+
     @Autowired
     private ChatService chatService;
 
+    @Autowired
+    private ChatSearchService chatSearchService;
+
     // Get chat rooms for user
     @GetMapping("/rooms")
     public List<ChatRoom> getChatRooms(@RequestParam String userId, @RequestParam String userType) {
@@ -84,6 +90,28 @@ public class ChatController {
         }
     }
 
+    // Full-text search over the user's own chat rooms, best matches first
+    @GetMapping("/search")
+    public ResponseEntity<?> searchMessages(
+            @RequestParam String userId,
+            @RequestParam String userType,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().body(Map.of("error", "page must be >= 0 and size between 1 and 100"));
+        }
+        // The index ranks every hit up to the end of the page, so deep pages are refused
+        if ((page + 1L) * size > MAX_SEARCH_DEPTH) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Only the first " + MAX_SEARCH_DEPTH + " matches can be paged through"));
+        }
+        try {
+            return ResponseEntity.ok(chatSearchService.search(userId, userType, q, page, size));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(Map.of("error", e.getMessage()));
+        }
+    }
+
     // Send message
     @PostMapping("/rooms/{chatRoomId}/messages")
     public ChatMessage sendMessage(
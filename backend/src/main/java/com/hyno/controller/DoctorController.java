@@ -1,30 +1,45 @@
 package com.hyno.controller;
 
 import com.hyno.entity.Doctor;
+import com.hyno.entity.DoctorAvatar;
+import com.hyno.service.DoctorAvatarService;
 import com.hyno.service.DoctorService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.channels.Channels;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/doctors")
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://localhost:5173"})
 public class DoctorController {
 
+    private static final Logger logger = LoggerFactory.getLogger(DoctorController.class);
+
+    // Below this size a plain copy is cheaper than handing the file to Tomcat's sendfile poller
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
     @Autowired
     private DoctorService doctorService;
 
+    @Autowired
+    private DoctorAvatarService doctorAvatarService;
+
     @GetMapping
     public List<Doctor> getAllDoctors() {
         return doctorService.getAllDoctors();
@@ -62,41 +77,71 @@ public class DoctorController {
         return doctorService.createDoctor(doctor);
     }
 
+    // The avatar is processed in the background; avatarUrl changes once its variants are ready
     @PutMapping(value = "/{id}", consumes = "multipart/form-data")
-    public ResponseEntity<Doctor> updateDoctor(
+    public ResponseEntity<?> updateDoctor(
             @PathVariable String id,
             @RequestPart("doctor") Doctor doctorDetails,
             @RequestPart(value = "avatar", required = false) MultipartFile avatar) {
-        
-        // Handle file upload if present
+
+        Doctor updatedDoctor = doctorService.updateDoctor(id, doctorDetails);
+        if (updatedDoctor == null) {
+            return ResponseEntity.notFound().build();
+        }
         if (avatar != null && !avatar.isEmpty()) {
             try {
-                // Create uploads directory if it doesn't exist
-                Path uploadDir = Paths.get("uploads/doctors");
-                if (!Files.exists(uploadDir)) {
-                    Files.createDirectories(uploadDir);
-                }
-                
-                // Generate unique filename
-                String originalFilename = avatar.getOriginalFilename();
-                String fileExtension = originalFilename != null ? originalFilename.substring(originalFilename.lastIndexOf(".")) : ".jpg";
-                String filename = UUID.randomUUID().toString() + fileExtension;
-                Path filePath = uploadDir.resolve(filename);
-                
-                // Save file
-                Files.copy(avatar.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-                
-                // Set avatar URL (assuming local serving; adjust for production)
-                doctorDetails.setAvatarUrl("/uploads/doctors/" + filename);
-                
+                doctorAvatarService.submit(id, avatar);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
             } catch (IOException e) {
-                // Log error but continue without avatar update
-                System.err.println("Error uploading avatar: " + e.getMessage());
+                logger.error("Error receiving avatar for doctor: {}", id, e);
+                return ResponseEntity.internalServerError().body(Map.of("error", "Could not store avatar"));
             }
         }
-        
-        Doctor updatedDoctor = doctorService.updateDoctor(id, doctorDetails);
-        return updatedDoctor != null ? ResponseEntity.ok(updatedDoctor) : ResponseEntity.notFound().build();
+        return ResponseEntity.ok(updatedDoctor);
+    }
+
+    // Processing status and current variant URLs of the doctor's avatar
+    @GetMapping("/{id}/avatar")
+    public ResponseEntity<?> getAvatarStatus(@PathVariable String id) {
+        Optional<DoctorAvatar> avatar = doctorAvatarService.getAvatar(id);
+        if (avatar.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> status = new HashMap<>();
+        status.put("status", avatar.get().getStatus());
+        status.put("avatarUrl", DoctorAvatarService.variantUrl(avatar.get().getMediumSha256()));
+        status.put("thumbnailUrl", DoctorAvatarService.variantUrl(avatar.get().getThumbnailSha256()));
+        status.put("error", avatar.get().getErrorMessage());
+        return ResponseEntity.ok(status);
+    }
+
+    // Variants are content-addressed and never change, so they are cached for good
+    @GetMapping("/avatars/{sha256}.jpg")
+    public void getAvatarVariant(@PathVariable String sha256, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<Path> variant = doctorAvatarService.getVariant(sha256);
+        if (variant.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String etag = "\"" + sha256 + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        long size = Files.size(variant.get());
+        response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+        response.setContentLengthLong(size);
+        if (size >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            // Tomcat writes the file to the socket with sendfile(2) after the handler returns
+            request.setAttribute("org.apache.tomcat.sendfile.filename", variant.get().toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", size);
+            return;
+        }
+        doctorAvatarService.transfer(variant.get(), Channels.newChannel(response.getOutputStream()));
     }
 
     @PutMapping("/{id}/approve")
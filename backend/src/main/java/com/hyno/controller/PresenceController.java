@@ -0,0 +1,49 @@
+package com.hyno.controller;
+
+import com.hyno.config.WebSocketAuthInterceptor;
+import com.hyno.repository.AppointmentRepository;
+import com.hyno.service.PresenceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/presence")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://localhost:5173"})
+public class PresenceController {
+
+    private static final int MAX_QUERY_USERS = 500;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    // Batched lookup: GET /api/presence?userIds=a,b,c
+    @GetMapping
+    public ResponseEntity<?> getPresence(@RequestParam List<String> userIds) {
+        if (userIds.size() > MAX_QUERY_USERS) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_QUERY_USERS + " users per request"));
+        }
+        return ResponseEntity.ok(presenceService.getPresence(userIds));
+    }
+
+    // Presence of every patient the doctor has an appointment with; presence is keyed by the
+    // role-qualified principal name, so the ids are qualified here and the response carries patient ids
+    @GetMapping("/doctors/{doctorId}/patients")
+    public List<PresenceService.PresenceStatus> getPatientPresence(@PathVariable String doctorId) {
+        Map<String, String> patientIdsByPrincipal = appointmentRepository.findPatientIdsByDoctorId(doctorId).stream()
+                .collect(Collectors.toMap(patientId -> WebSocketAuthInterceptor.principalName("patient", patientId),
+                        patientId -> patientId, (first, second) -> first, LinkedHashMap::new));
+        return presenceService.getPresence(patientIdsByPrincipal.keySet()).stream()
+                .map(status -> new PresenceService.PresenceStatus(patientIdsByPrincipal.get(status.getUserId()),
+                        status.isOnline(), status.getLastSeen()))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,8 +1,11 @@
 package com.hyno.controller;
 
+import com.hyno.entity.CallQualitySummary;
 import com.hyno.entity.VideoCall;
+import com.hyno.service.CallTelemetryService;
 import com.hyno.service.VideoCallService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,6 +18,7 @@ import java.util.Map;
 public class VideoCallController {
 
     private final VideoCallService videoCallService;
+    private final CallTelemetryService callTelemetryService;
 
     @PostMapping("/initiate")
     public ResponseEntity<VideoCall> initiateVideoCall(@RequestBody Map<String, String> request) {
@@ -27,24 +31,32 @@ public class VideoCallController {
     }
 
     @PutMapping("/{videoCallId}/complete")
-    public ResponseEntity<VideoCall> completeVideoCall(
+    public ResponseEntity<?> completeVideoCall(
             @PathVariable String videoCallId,
             @RequestBody Map<String, Object> request) {
         Integer duration = (Integer) request.get("duration");
         String notes = (String) request.get("notes");
 
-        VideoCall videoCall = videoCallService.completeVideoCall(videoCallId, duration, notes);
-        return ResponseEntity.ok(videoCall);
+        try {
+            VideoCall videoCall = videoCallService.completeVideoCall(videoCallId, duration, notes);
+            return ResponseEntity.ok(videoCall);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
     }
 
     @PutMapping("/{videoCallId}/status")
-    public ResponseEntity<VideoCall> updateVideoCallStatus(
+    public ResponseEntity<?> updateVideoCallStatus(
             @PathVariable String videoCallId,
             @RequestBody Map<String, String> request) {
         VideoCall.VideoCallStatus status = VideoCall.VideoCallStatus.valueOf(request.get("status"));
 
-        VideoCall videoCall = videoCallService.updateVideoCallStatus(videoCallId, status);
-        return ResponseEntity.ok(videoCall);
+        try {
+            VideoCall videoCall = videoCallService.updateVideoCallStatus(videoCallId, status);
+            return ResponseEntity.ok(videoCall);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/appointment/{appointmentId}")
@@ -53,6 +65,12 @@ public class VideoCallController {
         return ResponseEntity.ok(videoCalls);
     }
 
+    // Quality summaries per participant and telemetry window, oldest first
+    @GetMapping("/appointment/{appointmentId}/quality")
+    public ResponseEntity<List<CallQualitySummary>> getCallQuality(@PathVariable String appointmentId) {
+        return ResponseEntity.ok(callTelemetryService.getSummaries(appointmentId));
+    }
+
     @GetMapping("/doctor/{doctorId}")
     public ResponseEntity<List<VideoCall>> getVideoCallsByDoctor(@PathVariable String doctorId) {
         List<VideoCall> videoCalls = videoCallService.getVideoCallsByDoctor(doctorId);
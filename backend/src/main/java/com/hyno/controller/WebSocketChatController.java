@@ -2,6 +2,7 @@ package com.hyno.controller;
 
 import com.hyno.entity.ChatMessage;
 import com.hyno.service.ChatService;
+import com.hyno.service.ChatSignalCoalescer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -21,6 +22,9 @@ public class WebSocketChatController {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private ChatSignalCoalescer chatSignalCoalescer;
+
     @MessageMapping("/api/chat.send")
     public WebSocketMessageResponse sendMessage(
             @Payload ChatMessageRequest messageRequest) {
@@ -58,13 +62,8 @@ public class WebSocketChatController {
             @DestinationVariable String chatRoomId,
             @Payload MarkAsReadRequest request) {
 
-        chatService.markMessagesAsRead(chatRoomId, request.getUserId(), request.getUserType());
-
-        // Notify sender that messages were read
-        messagingTemplate.convertAndSend(
-            "/topic/chat/" + chatRoomId + "/read",
-            new ReadNotification(request.getUserId(), LocalDateTime.now())
-        );
+        // Queued and written in bulk; the read notification follows the periodic flush
+        chatSignalCoalescer.onRead(chatRoomId, request.getUserId(), request.getUserType());
     }
 
     @MessageMapping("/chat/{chatRoomId}/typing")
@@ -72,8 +71,8 @@ public class WebSocketChatController {
             @DestinationVariable String chatRoomId,
             @Payload TypingRequest request) {
 
-        // Broadcast typing status to all participants in the chat room
-        messagingTemplate.convertAndSend("/topic/chat/" + chatRoomId + "/typing", request);
+        // Coalesced to at most one broadcast per user per typing window
+        chatSignalCoalescer.onTyping(chatRoomId, request.getUserId(), request.isTyping(), request);
     }
 
     private String getOtherUserDestination(String chatRoomId, String senderId) {
@@ -158,6 +157,9 @@ public class WebSocketChatController {
         private String timestamp;
         private boolean read;
         private String messageType;
+        private String fileUrl;
+        private String fileName;
+        private Long fileSize;
 
         // Getters and setters
         public String getId() { return id; }
@@ -183,5 +185,14 @@ public class WebSocketChatController {
 
         public String getMessageType() { return messageType; }
         public void setMessageType(String messageType) { this.messageType = messageType; }
+
+        public String getFileUrl() { return fileUrl; }
+        public void setFileUrl(String fileUrl) { this.fileUrl = fileUrl; }
+
+        public String getFileName() { return fileName; }
+        public void setFileName(String fileName) { this.fileName = fileName; }
+
+        public Long getFileSize() { return fileSize; }
+        public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
     }
 }
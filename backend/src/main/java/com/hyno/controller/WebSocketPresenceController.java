@@ -0,0 +1,45 @@
+package com.hyno.controller;
+
+import com.hyno.service.PresenceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+
+@Controller
+public class WebSocketPresenceController {
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    // Replaces the caller's watch list; the snapshot and later diffs arrive on /user/queue/presence.
+    // Watches end when the caller's last session closes, so clients send this again after reconnecting.
+    @MessageMapping("/presence/watch")
+    public void watch(@Payload WatchRequest request, Principal principal) {
+        if (principal == null) {
+            return;
+        }
+        try {
+            List<PresenceService.PresenceStatus> snapshot = presenceService.watch(principal.getName(),
+                    request.getUserIds() != null ? request.getUserIds() : List.of());
+            messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/presence", snapshot);
+        } catch (IllegalArgumentException e) {
+            messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/errors", Map.of("error", e.getMessage()));
+        }
+    }
+
+    public static class WatchRequest {
+        private List<String> userIds;
+
+        public List<String> getUserIds() { return userIds; }
+        public void setUserIds(List<String> userIds) { this.userIds = userIds; }
+    }
+}
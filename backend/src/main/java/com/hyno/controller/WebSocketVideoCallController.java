@@ -1,37 +1,49 @@
 
 package com.hyno.controller;
 
-import com.hyno.service.VideoCallService;
+import com.hyno.service.CallTelemetryService;
+import com.hyno.service.VideoSignalingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.security.Principal;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 
 @Controller
 public class WebSocketVideoCallController {
 
+    // Signals are routed by the sessions' principals; anonymous sessions cannot be addressed and are ignored
+
     @Autowired
-    private VideoCallService videoCallService;
+    private VideoSignalingService videoSignalingService;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private CallTelemetryService callTelemetryService;
 
-    private static Map<String, List<String>> appointmentParticipants = new ConcurrentHashMap<>();
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
 
-    @MessageMapping("/api/video-call/{appointmentId}/join")
+    @MessageMapping("/video-call/{appointmentId}/join")
     public void joinVideoCall(
             @DestinationVariable String appointmentId,
-            @Payload JoinCallRequest request) {
+            @Payload JoinCallRequest request,
+            @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId,
+            Principal principal) {
 
+        if (principal == null) {
+            return;
+        }
         // Add participant to the appointment
-        appointmentParticipants.computeIfAbsent(appointmentId, k -> new ArrayList<>()).add(request.getUserId());
+        videoSignalingService.join(appointmentId, principal.getName(), sessionId);
 
         // Notify the doctor that a patient wants to join
         messagingTemplate.convertAndSend(
@@ -43,82 +55,89 @@ public class WebSocketVideoCallController {
     @MessageMapping("/video-call/{appointmentId}/offer")
     public void handleOffer(
             @DestinationVariable String appointmentId,
-            @Payload WebRTCOffer offer) {
+            @Payload WebRTCOffer offer,
+            Principal principal) {
 
-        // Send offer to other participants
-        List<String> participants = appointmentParticipants.get(appointmentId);
-        if (participants != null) {
-            for (String userId : participants) {
-                if (!userId.equals(offer.getFromUserId())) {
-                    messagingTemplate.convertAndSend(
-                        "/topic/user/" + userId + "/video-call/offer",
-                        offer
-                    );
-                }
-            }
+        if (principal == null) {
+            return;
         }
+        // Send offer to other participants
+        videoSignalingService.relay(appointmentId, principal.getName(), "offer", offer);
     }
 
     @MessageMapping("/video-call/{appointmentId}/answer")
     public void handleAnswer(
             @DestinationVariable String appointmentId,
-            @Payload WebRTCAnswer answer) {
+            @Payload WebRTCAnswer answer,
+            Principal principal) {
 
-        // Send answer to other participants
-        List<String> participants = appointmentParticipants.get(appointmentId);
-        if (participants != null) {
-            for (String userId : participants) {
-                if (!userId.equals(answer.getFromUserId())) {
-                    messagingTemplate.convertAndSend(
-                        "/topic/user/" + userId + "/video-call/answer",
-                        answer
-                    );
-                }
-            }
+        if (principal == null) {
+            return;
         }
+        // Send answer to other participants
+        videoSignalingService.relay(appointmentId, principal.getName(), "answer", answer);
     }
 
     @MessageMapping("/video-call/{appointmentId}/ice-candidate")
     public void handleIceCandidate(
             @DestinationVariable String appointmentId,
-            @Payload IceCandidate candidate) {
-
-        // Send ICE candidate to other participants
-        List<String> participants = appointmentParticipants.get(appointmentId);
-        if (participants != null) {
-            for (String userId : participants) {
-                if (!userId.equals(candidate.getFromUserId())) {
-                    messagingTemplate.convertAndSend(
-                        "/topic/user/" + userId + "/video-call/ice-candidate",
-                        candidate
-                    );
-                }
-            }
+            @Payload IceCandidate candidate,
+            Principal principal) {
+
+        if (principal == null) {
+            return;
+        }
+        // Batched per sender; an empty candidate marks the end of gathering and is relayed at once
+        boolean endOfCandidates = candidate.getCandidate() == null || candidate.getCandidate().isEmpty();
+        videoSignalingService.onIceCandidate(appointmentId, principal.getName(), candidate.getFromUserId(), candidate, endOfCandidates);
+    }
+
+    // WebRTC stats sample from one participant, aggregated into the call's quality summaries
+    @MessageMapping("/video-call/{appointmentId}/stats")
+    public void handleCallStats(
+            @DestinationVariable String appointmentId,
+            @Payload CallStatsSample sample,
+            Principal principal) {
+
+        if (principal != null) {
+            callTelemetryService.record(appointmentId, principal.getName(),
+                sample.getRttMs(), sample.getJitterMs(), sample.getPacketLossPercent(), sample.getBitrateKbps());
         }
     }
 
     @MessageMapping("/video-call/{appointmentId}/leave")
     public void leaveVideoCall(
             @DestinationVariable String appointmentId,
-            @Payload LeaveCallRequest request) {
-
-        // Remove participant from the appointment
-        List<String> participants = appointmentParticipants.get(appointmentId);
-        if (participants != null) {
-            participants.remove(request.getUserId());
-            if (participants.isEmpty()) {
-                appointmentParticipants.remove(appointmentId);
-            }
+            @Payload LeaveCallRequest request,
+            Principal principal) {
+
+        if (principal == null) {
+            return;
         }
+        // Remove participant from the appointment and notify the others
+        Set<String> participants = videoSignalingService.leave(appointmentId, principal.getName());
+        notifyLeave(participants, new LeaveCallNotification(request.getUserId(), request.getUserName()));
+    }
 
-        // Notify others that someone left the call
-        if (participants != null) {
-            for (String userId : participants) {
-                messagingTemplate.convertAndSend(
-                    "/topic/user/" + userId + "/video-call/leave",
-                    new LeaveCallNotification(request.getUserId(), request.getUserName())
-                );
-            }
+    // A connection dropped without a leave message: take the user out of its calls and tell the others
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        Principal principal = event.getUser();
+        if (principal == null) {
+            return;
+        }
+        Map<String, Set<String>> left = videoSignalingService.disconnect(event.getSessionId(), principal.getName());
+        if (left.isEmpty()) {
+            return;
+        }
+        // The user's id as the clients know it is the principal name without its role
+        String userId = principal.getName().substring(principal.getName().indexOf(':') + 1);
+        left.values().forEach(participants -> notifyLeave(participants, new LeaveCallNotification(userId, null)));
+    }
+
+    private void notifyLeave(Set<String> participants, LeaveCallNotification notification) {
+        for (String participant : participants) {
+            messagingTemplate.convertAndSendToUser(participant, "/queue/video-call/leave", notification);
         }
     }
 
@@ -243,6 +262,32 @@ public class WebSocketVideoCallController {
         public void setSdpMid(String sdpMid) { this.sdpMid = sdpMid; }
     }
 
+    public static class CallStatsSample {
+        private String fromUserId;
+        private Double rttMs;
+        private Double jitterMs;
+        private Double packetLossPercent;
+        private Double bitrateKbps;
+
+        public CallStatsSample() {}
+
+        // Getters and setters
+        public String getFromUserId() { return fromUserId; }
+        public void setFromUserId(String fromUserId) { this.fromUserId = fromUserId; }
+
+        public Double getRttMs() { return rttMs; }
+        public void setRttMs(Double rttMs) { this.rttMs = rttMs; }
+
+        public Double getJitterMs() { return jitterMs; }
+        public void setJitterMs(Double jitterMs) { this.jitterMs = jitterMs; }
+
+        public Double getPacketLossPercent() { return packetLossPercent; }
+        public void setPacketLossPercent(Double packetLossPercent) { this.packetLossPercent = packetLossPercent; }
+
+        public Double getBitrateKbps() { return bitrateKbps; }
+        public void setBitrateKbps(Double bitrateKbps) { this.bitrateKbps = bitrateKbps; }
+    }
+
     public static class LeaveCallRequest {
         private String userId;
         private String userName;
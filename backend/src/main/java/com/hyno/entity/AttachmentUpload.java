@@ -0,0 +1,45 @@
+package com.hyno.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// An in-progress chunked upload; the bytes received so far live in a temp file named after the ID
+@Entity
+@Table(name = "attachment_uploads")
+@Data
+public class AttachmentUpload {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "chat_room_id", nullable = false)
+    private String chatRoomId;
+
+    @Column(name = "sender_id", nullable = false)
+    private String senderId;
+
+    @Column(name = "sender_name", nullable = false)
+    private String senderName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "sender_role", nullable = false)
+    private ChatMessage.SenderRole senderRole;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "content_type", length = 150)
+    private String contentType;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,113 @@
+package com.hyno.entity;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.type.SqlTypes;
+import org.hibernate.type.descriptor.jdbc.JdbcType;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Stores a UUID-valued String id in a BINARY(16) column: 16 bytes per key instead of a
+ * 36-character VARCHAR, in every secondary index as well as the primary key. The bytes are in
+ * the UUID's own order (MySQL's UUID_TO_BIN(id) without the swap flag), so version 7 ids stay
+ * time-ordered and the rest of the application keeps working with the usual string form.
+ * Columns referencing the id (order_items.order_id) take the same type.
+ *
+ * A value that is not a UUID (an id typed into a URL, say) is bound as NULL, which matches no
+ * row, so lookups with it find nothing instead of failing.
+ */
+public class BinaryUuidType implements UserType<String> {
+
+    @Override
+    public int getSqlType() {
+        return SqlTypes.BINARY;
+    }
+
+    @Override
+    public long getDefaultSqlLength(Dialect dialect, JdbcType jdbcType) {
+        return 16;
+    }
+
+    @Override
+    public Class<String> returnedClass() {
+        return String.class;
+    }
+
+    @Override
+    public boolean equals(String x, String y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(String x) {
+        return Objects.hashCode(x);
+    }
+
+    @Override
+    public String nullSafeGet(ResultSet rs, int position, SharedSessionContractImplementor session, Object owner) throws SQLException {
+        return toString(rs.getBytes(position));
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, String value, int index, SharedSessionContractImplementor session) throws SQLException {
+        byte[] bytes = toBytes(value);
+        if (bytes == null) {
+            st.setNull(index, Types.BINARY);
+        } else {
+            st.setBytes(index, bytes);
+        }
+    }
+
+    @Override
+    public String deepCopy(String value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(String value) {
+        return value;
+    }
+
+    @Override
+    public String assemble(Serializable cached, Object owner) {
+        return (String) cached;
+    }
+
+    static byte[] toBytes(String id) {
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    static String toString(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+}
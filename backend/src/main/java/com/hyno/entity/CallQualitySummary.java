@@ -0,0 +1,80 @@
+package com.hyno.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Call quality reported by one participant over one telemetry window, summarized from WebRTC stats samples
+@Entity
+@Table(name = "call_quality_summaries", indexes = {
+        @Index(name = "idx_call_quality_appointment", columnList = "appointment_id, window_start"),
+        @Index(name = "idx_call_quality_video_call", columnList = "video_call_id")
+})
+@Data
+@NoArgsConstructor
+public class CallQualitySummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "appointment_id", nullable = false)
+    private String appointmentId;
+
+    @Column(name = "video_call_id")
+    private String videoCallId;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "window_start", nullable = false)
+    private LocalDateTime windowStart;
+
+    @Column(name = "window_end", nullable = false)
+    private LocalDateTime windowEnd;
+
+    @Column(nullable = false)
+    private Integer samples;
+
+    @Column(name = "rtt_p50_ms")
+    private Double rttP50Ms;
+
+    @Column(name = "rtt_p95_ms")
+    private Double rttP95Ms;
+
+    @Column(name = "rtt_max_ms")
+    private Double rttMaxMs;
+
+    @Column(name = "jitter_p50_ms")
+    private Double jitterP50Ms;
+
+    @Column(name = "jitter_p95_ms")
+    private Double jitterP95Ms;
+
+    @Column(name = "jitter_max_ms")
+    private Double jitterMaxMs;
+
+    @Column(name = "packet_loss_avg_percent")
+    private Double packetLossAvgPercent;
+
+    @Column(name = "packet_loss_p95_percent")
+    private Double packetLossP95Percent;
+
+    @Column(name = "packet_loss_max_percent")
+    private Double packetLossMaxPercent;
+
+    @Column(name = "bitrate_avg_kbps")
+    private Double bitrateAvgKbps;
+
+    @Column(name = "bitrate_p05_kbps")
+    private Double bitrateP05Kbps;
+
+    @Column(name = "bitrate_p50_kbps")
+    private Double bitrateP50Kbps;
+
+    // Non-empty histogram buckets per metric, e.g. "rtt=20:3,21:9;jitter=...", for merging windows later
+    @Column(length = 4000)
+    private String histograms;
+}
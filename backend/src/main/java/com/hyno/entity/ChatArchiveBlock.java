@@ -0,0 +1,46 @@
+package com.hyno.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Locates one compressed block of a chat room's archived messages inside an append-only archive segment file
+@Entity
+@Table(name = "chat_archive_blocks", indexes = @Index(name = "idx_chat_archive_blocks_room", columnList = "chat_room_id"))
+@Data
+@NoArgsConstructor
+public class ChatArchiveBlock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "chat_room_id", nullable = false)
+    private String chatRoomId;
+
+    @Column(name = "segment_file", nullable = false, length = 100)
+    private String segmentFile;
+
+    @Column(name = "segment_offset", nullable = false)
+    private Long segmentOffset;
+
+    @Column(name = "stored_bytes", nullable = false)
+    private Integer storedBytes;
+
+    @Column(name = "raw_bytes", nullable = false)
+    private Integer rawBytes;
+
+    @Column(name = "message_count", nullable = false)
+    private Integer messageCount;
+
+    @Column(name = "first_message_at")
+    private LocalDateTime firstMessageAt;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,41 @@
+package com.hyno.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One uploaded attachment with its own name, type, room and sender; the bytes live in the blob
+// named by the SHA-256 of the content, which identical uploads share
+@Entity
+@Table(name = "chat_attachments", indexes = @Index(name = "idx_chat_attachments_sha256", columnList = "sha256"))
+@Data
+@NoArgsConstructor
+public class ChatAttachment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(name = "content_type", length = 150)
+    private String contentType;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "chat_room_id")
+    private String chatRoomId;
+
+    @Column(name = "sender_id")
+    private String senderId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -1,6 +1,7 @@
 package com.hyno.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Type;
 import lombok.Data;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
@@ -11,7 +12,8 @@ import java.time.LocalDateTime;
 public class ChatMessage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
+    @Type(BinaryUuidType.class)
     private String id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -41,6 +41,9 @@ public class ChatRoom {
     @Column(nullable = false)
     private ChatRoomStatus status = ChatRoomStatus.ACTIVE;
 
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
     @Column(name = "last_message")
     private String lastMessage;
 
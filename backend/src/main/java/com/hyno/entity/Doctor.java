@@ -1,5 +1,6 @@
 package com.hyno.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -10,6 +11,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "doctors")
+// Feedback reaches its doctor through a lazily loaded appointment, so it may be a proxy
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Getter
 @Setter
 public class Doctor {
@@ -41,6 +44,7 @@ public class Doctor {
     private BigDecimal consultationFee;
     private String status = "pending";
     private String avatarUrl;
+    private String avatarThumbnailUrl;
     private String password;
     private boolean isVerified = false;
 
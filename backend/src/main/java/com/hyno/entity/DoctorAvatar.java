@@ -0,0 +1,43 @@
+package com.hyno.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Processing state of a doctor's avatar; the variants are content-addressed blobs named by their SHA-256
+@Entity
+@Table(name = "doctor_avatars")
+@Data
+@NoArgsConstructor
+public class DoctorAvatar {
+
+    public enum Status {
+        PROCESSING, READY, FAILED
+    }
+
+    @Id
+    @Column(name = "doctor_id")
+    private String doctorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    // SHA-256 of the uploaded file; an identical re-upload is not processed again
+    @Column(name = "source_sha256", length = 64)
+    private String sourceSha256;
+
+    @Column(name = "thumbnail_sha256", length = 64)
+    private String thumbnailSha256;
+
+    @Column(name = "medium_sha256", length = 64)
+    private String mediumSha256;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
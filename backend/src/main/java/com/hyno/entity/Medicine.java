@@ -1,6 +1,7 @@
 package com.hyno.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Type;
 import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -11,7 +12,8 @@ import java.time.LocalDateTime;
 public class Medicine {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
+    @Type(BinaryUuidType.class)
     private String id;
 
     @Column(nullable = false, length = 200)
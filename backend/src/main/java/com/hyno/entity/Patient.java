@@ -1,5 +1,6 @@
  package com.hyno.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -10,6 +11,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "patients")
+// Payments, feedback and yoga sessions can hold a patient that was first referenced lazily, as a proxy
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Getter
 @Setter
 public class Patient {
@@ -29,19 +32,16 @@ public class Patient {
     private String bloodGroup;
     private LocalDate dateOfBirth;
 
-    @ElementCollection
-    @CollectionTable(name = "patient_allergies", joinColumns = @JoinColumn(name = "patient_id"))
-    @Column(name = "allergy")
+    @Convert(converter = StringListJsonConverter.class)
+    @Column(name = "allergies", columnDefinition = "json")
     private List<String> allergies = new ArrayList<>();
 
-    @ElementCollection
-    @CollectionTable(name = "patient_medical_history", joinColumns = @JoinColumn(name = "patient_id"))
-    @Column(name = "condition_name")
+    @Convert(converter = StringListJsonConverter.class)
+    @Column(name = "medical_history", columnDefinition = "json")
     private List<String> medicalHistory = new ArrayList<>();
 
-    @ElementCollection
-    @CollectionTable(name = "patient_current_medications", joinColumns = @JoinColumn(name = "patient_id"))
-    @Column(name = "medication")
+    @Convert(converter = StringListJsonConverter.class)
+    @Column(name = "current_medications", columnDefinition = "json")
     private List<String> currentMedications = new ArrayList<>();
 
     private String address;
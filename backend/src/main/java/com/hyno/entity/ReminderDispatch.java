@@ -0,0 +1,30 @@
+package com.hyno.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Record of a reminder that has been sent, so reminders are not repeated after a restart
+@Entity
+@Table(name = "reminder_dispatches")
+@Data
+@NoArgsConstructor
+public class ReminderDispatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reminder_key", nullable = false, unique = true, length = 120)
+    private String reminderKey;
+
+    @Column(nullable = false)
+    private LocalDateTime sentAt;
+
+    public ReminderDispatch(String reminderKey, LocalDateTime sentAt) {
+        this.reminderKey = reminderKey;
+        this.sentAt = sentAt;
+    }
+}
@@ -0,0 +1,47 @@
+package com.hyno.entity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores a list of strings as a JSON array in a column of the owning row, in place of an
+ * {@code @ElementCollection} table. The list then loads with its entity instead of through one
+ * extra query per entity and collection, and changing it is a single-column update of that row
+ * instead of deleting and reinserting every element row.
+ *
+ * As with the element collections it replaces, a null list is stored as an empty array and
+ * read back as an empty, modifiable list.
+ */
+@Converter
+public class StringListJsonConverter implements AttributeConverter<List<String>, String> {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final TypeReference<List<String>> STRING_LIST = new TypeReference<>() {};
+
+    @Override
+    public String convertToDatabaseColumn(List<String> values) {
+        try {
+            return objectMapper.writeValueAsString(values != null ? values : List.of());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize list to JSON", e);
+        }
+    }
+
+    @Override
+    public List<String> convertToEntityAttribute(String json) {
+        if (json == null || json.isBlank()) {
+            return new ArrayList<>();
+        }
+        try {
+            return new ArrayList<>(objectMapper.readValue(json, STRING_LIST));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read JSON list column: " + json, e);
+        }
+    }
+}
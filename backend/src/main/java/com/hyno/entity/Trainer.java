@@ -28,9 +28,8 @@ public class Trainer {
     @Column(nullable = false)
     private TrainerType trainerType; // FITNESS or YOGA
 
-    @ElementCollection
-    @CollectionTable(name = "trainer_specialties", joinColumns = @JoinColumn(name = "trainer_id"))
-    @Column(name = "specialty")
+    @Convert(converter = StringListJsonConverter.class)
+    @Column(name = "specialties", columnDefinition = "json")
     private List<String> specialties = new ArrayList<>();
 
     @Column(nullable = false)
@@ -48,19 +47,16 @@ public class Trainer {
     @Column(nullable = false)
     private AvailabilityStatus availability = AvailabilityStatus.AVAILABLE;
 
-    @ElementCollection
-    @CollectionTable(name = "trainer_modes", joinColumns = @JoinColumn(name = "trainer_id"))
-    @Column(name = "mode")
+    @Convert(converter = StringListJsonConverter.class)
+    @Column(name = "modes", columnDefinition = "json")
     private List<String> modes = new ArrayList<>(); // "virtual", "in-person"
 
-    @ElementCollection
-    @CollectionTable(name = "trainer_qualifications", joinColumns = @JoinColumn(name = "trainer_id"))
-    @Column(name = "qualification")
+    @Convert(converter = StringListJsonConverter.class)
+    @Column(name = "qualifications", columnDefinition = "json")
     private List<String> qualifications = new ArrayList<>();
 
-    @ElementCollection
-    @CollectionTable(name = "trainer_languages", joinColumns = @JoinColumn(name = "trainer_id"))
-    @Column(name = "language")
+    @Convert(converter = StringListJsonConverter.class)
+    @Column(name = "languages", columnDefinition = "json")
     private List<String> languages = new ArrayList<>();
 
     @Column(nullable = false, precision = 10, scale = 2)
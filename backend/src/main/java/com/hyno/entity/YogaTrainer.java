@@ -1,5 +1,6 @@
 package com.hyno.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.math.BigDecimal;
@@ -8,6 +9,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "yoga_trainers")
+// Yoga sessions load their trainer lazily; serialized as a proxy it has these extra properties
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
 public class YogaTrainer {
 
@@ -18,9 +21,8 @@ public class YogaTrainer {
     @Column(nullable = false)
     private String name;
 
-    @ElementCollection
-    @CollectionTable(name = "trainer_specialties", joinColumns = @JoinColumn(name = "trainer_id"))
-    @Column(name = "specialty")
+    @Convert(converter = StringListJsonConverter.class)
+    @Column(name = "specialties", columnDefinition = "json")
     private List<String> specialties;
 
     @Column(nullable = false)
@@ -39,19 +41,16 @@ public class YogaTrainer {
     @Column(nullable = false)
     private AvailabilityStatus availability;
 
-    @ElementCollection
-    @CollectionTable(name = "trainer_modes", joinColumns = @JoinColumn(name = "trainer_id"))
-    @Column(name = "mode")
+    @Convert(converter = StringListJsonConverter.class)
+    @Column(name = "modes", columnDefinition = "json")
     private List<String> modes; // "virtual", "in-person"
 
-    @ElementCollection
-    @CollectionTable(name = "trainer_qualifications", joinColumns = @JoinColumn(name = "trainer_id"))
-    @Column(name = "qualification")
+    @Convert(converter = StringListJsonConverter.class)
+    @Column(name = "qualifications", columnDefinition = "json")
     private List<String> qualifications;
 
-    @ElementCollection
-    @CollectionTable(name = "trainer_languages", joinColumns = @JoinColumn(name = "trainer_id"))
-    @Column(name = "language")
+    @Convert(converter = StringListJsonConverter.class)
+    @Column(name = "languages", columnDefinition = "json")
     private List<String> languages;
 
     @Column(nullable = false, precision = 10, scale = 2)
@@ -6,10 +6,12 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, String> {
+public interface AppointmentRepository extends JpaRepository<Appointment, String>, AppointmentSummaryQueries {
     @Query("SELECT a FROM Appointment a LEFT JOIN FETCH a.hospital")
     List<Appointment> findAllWithHospital();
 
@@ -27,4 +29,25 @@ public interface AppointmentRepository extends JpaRepository<Appointment, String
 
     @Query("SELECT a FROM Appointment a LEFT JOIN FETCH a.hospital WHERE a.doctor.id = :doctorId AND a.patient.id = :patientId")
     List<Appointment> findByDoctorIdAndPatientId(@Param("doctorId") String doctorId, @Param("patientId") String patientId);
+
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient JOIN FETCH a.doctor " +
+            "WHERE a.appointmentDate BETWEEN :fromDate AND :toDate AND a.status IN :statuses")
+    List<Appointment> findForReminders(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate,
+                                       @Param("statuses") Collection<Appointment.AppointmentStatus> statuses);
+
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient JOIN FETCH a.doctor WHERE a.id = :id")
+    Optional<Appointment> findByIdForReminders(@Param("id") String id);
+
+    @Query("SELECT a.id FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentDate BETWEEN :fromDate AND :toDate " +
+            "AND a.status IN :statuses ORDER BY a.appointmentDate, a.appointmentTime")
+    List<String> findIdsByDoctorInDateRange(@Param("doctorId") String doctorId, @Param("fromDate") LocalDate fromDate,
+                                            @Param("toDate") LocalDate toDate,
+                                            @Param("statuses") Collection<Appointment.AppointmentStatus> statuses);
+
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient LEFT JOIN FETCH a.scheduleSlot WHERE a.id IN :ids " +
+            "ORDER BY a.appointmentDate, a.appointmentTime")
+    List<Appointment> findAllForBulkUpdate(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT DISTINCT a.patient.id FROM Appointment a WHERE a.doctor.id = :doctorId")
+    List<String> findPatientIdsByDoctorId(@Param("doctorId") String doctorId);
 }
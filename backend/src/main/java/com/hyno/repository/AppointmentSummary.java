@@ -0,0 +1,72 @@
+package com.hyno.repository;
+
+import com.hyno.entity.Appointment;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Read model for appointment listings, filled by a JPQL constructor expression so only the
+ * rendered columns are selected and no entity, proxy or persistence-context entry is created.
+ */
+public class AppointmentSummary {
+
+    private final String id;
+    private final String patientId;
+    private final String patientName;
+    private final String doctorId;
+    private final String doctorName;
+    private final String hospitalId;
+    private final String hospitalName;
+    private final Appointment.AppointmentType type;
+    private final LocalDate appointmentDate;
+    private final LocalTime appointmentTime;
+    private final Appointment.AppointmentStatus status;
+    private final Appointment.VideoCallStatus videoCallStatus;
+    private final String reason;
+
+    public AppointmentSummary(String id, String patientId, String patientName, String doctorId, String doctorName,
+                              String hospitalId, String hospitalName, Appointment.AppointmentType type,
+                              LocalDate appointmentDate, LocalTime appointmentTime, Appointment.AppointmentStatus status,
+                              Appointment.VideoCallStatus videoCallStatus, String reason) {
+        this.id = id;
+        this.patientId = patientId;
+        this.patientName = patientName;
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.hospitalId = hospitalId;
+        this.hospitalName = hospitalName;
+        this.type = type;
+        this.appointmentDate = appointmentDate;
+        this.appointmentTime = appointmentTime;
+        this.status = status;
+        this.videoCallStatus = videoCallStatus;
+        this.reason = reason;
+    }
+
+    public static AppointmentSummary of(Appointment appointment) {
+        return new AppointmentSummary(appointment.getId(),
+                appointment.getPatient() != null ? appointment.getPatient().getId() : null,
+                appointment.getPatientName(),
+                appointment.getDoctor() != null ? appointment.getDoctor().getId() : null,
+                appointment.getDoctorName(),
+                appointment.getHospital() != null ? appointment.getHospital().getId() : null,
+                appointment.getHospitalName(),
+                appointment.getType(), appointment.getAppointmentDate(), appointment.getAppointmentTime(),
+                appointment.getStatus(), appointment.getVideoCallStatus(), appointment.getReason());
+    }
+
+    public String getId() { return id; }
+    public String getPatientId() { return patientId; }
+    public String getPatientName() { return patientName; }
+    public String getDoctorId() { return doctorId; }
+    public String getDoctorName() { return doctorName; }
+    public String getHospitalId() { return hospitalId; }
+    public String getHospitalName() { return hospitalName; }
+    public Appointment.AppointmentType getType() { return type; }
+    public LocalDate getAppointmentDate() { return appointmentDate; }
+    public LocalTime getAppointmentTime() { return appointmentTime; }
+    public Appointment.AppointmentStatus getStatus() { return status; }
+    public Appointment.VideoCallStatus getVideoCallStatus() { return videoCallStatus; }
+    public String getReason() { return reason; }
+}
@@ -0,0 +1,19 @@
+package com.hyno.repository;
+
+import com.hyno.entity.Appointment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+
+/**
+ * Appointment summary listing with optional filters, built as a Criteria query so the SQL
+ * only carries the conditions the caller supplied. Mixed into {@link AppointmentRepository}.
+ */
+public interface AppointmentSummaryQueries {
+
+    // A null filter is left out of the query
+    Page<AppointmentSummary> findSummaries(String doctorId, String patientId, String hospitalId,
+                                           Appointment.AppointmentStatus status, LocalDate fromDate,
+                                           LocalDate toDate, Pageable pageable);
+}
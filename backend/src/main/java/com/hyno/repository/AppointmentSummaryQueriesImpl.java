@@ -0,0 +1,84 @@
+package com.hyno.repository;
+
+import com.hyno.entity.Appointment;
+import com.hyno.entity.Hospital;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+class AppointmentSummaryQueriesImpl implements AppointmentSummaryQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<AppointmentSummary> findSummaries(String doctorId, String patientId, String hospitalId,
+                                                  Appointment.AppointmentStatus status, LocalDate fromDate,
+                                                  LocalDate toDate, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AppointmentSummary> query = cb.createQuery(AppointmentSummary.class);
+        Root<Appointment> a = query.from(Appointment.class);
+        Join<Appointment, Hospital> h = a.join("hospital", JoinType.LEFT);
+        query.select(cb.construct(AppointmentSummary.class,
+                        a.get("id"), a.get("patient").get("id"), a.get("patientName"),
+                        a.get("doctor").get("id"), a.get("doctorName"), h.get("id"),
+                        cb.coalesce(h.<String>get("name"), a.<String>get("hospitalName")), a.get("type"),
+                        a.get("appointmentDate"), a.get("appointmentTime"), a.get("status"),
+                        a.get("videoCallStatus"), a.get("reason")))
+                .where(filters(cb, a, doctorId, patientId, hospitalId, status, fromDate, toDate))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), a, cb));
+
+        TypedQuery<AppointmentSummary> page = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            page.setFirstResult((int) pageable.getOffset());
+            page.setMaxResults(pageable.getPageSize());
+        }
+        // The count is skipped when the first page already holds every row
+        return PageableExecutionUtils.getPage(page.getResultList(), pageable, () -> {
+            CriteriaQuery<Long> count = cb.createQuery(Long.class);
+            Root<Appointment> counted = count.from(Appointment.class);
+            count.select(cb.count(counted))
+                    .where(filters(cb, counted, doctorId, patientId, hospitalId, status, fromDate, toDate));
+            return entityManager.createQuery(count).getSingleResult();
+        });
+    }
+
+    private static Predicate[] filters(CriteriaBuilder cb, Root<Appointment> a, String doctorId, String patientId,
+                                       String hospitalId, Appointment.AppointmentStatus status,
+                                       LocalDate fromDate, LocalDate toDate) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (doctorId != null) {
+            predicates.add(cb.equal(a.get("doctor").get("id"), doctorId));
+        }
+        if (patientId != null) {
+            predicates.add(cb.equal(a.get("patient").get("id"), patientId));
+        }
+        if (hospitalId != null) {
+            predicates.add(cb.equal(a.get("hospital").get("id"), hospitalId));
+        }
+        if (status != null) {
+            predicates.add(cb.equal(a.get("status"), status));
+        }
+        if (fromDate != null) {
+            predicates.add(cb.greaterThanOrEqualTo(a.get("appointmentDate"), fromDate));
+        }
+        if (toDate != null) {
+            predicates.add(cb.lessThanOrEqualTo(a.get("appointmentDate"), toDate));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+}
@@ -0,0 +1,15 @@
+package com.hyno.repository;
+
+import com.hyno.entity.CallQualitySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CallQualitySummaryRepository extends JpaRepository<CallQualitySummary, String> {
+
+    List<CallQualitySummary> findByAppointmentIdOrderByWindowStartAsc(String appointmentId);
+
+    List<CallQualitySummary> findByVideoCallIdOrderByWindowStartAsc(String videoCallId);
+}
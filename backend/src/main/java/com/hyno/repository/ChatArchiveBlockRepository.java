@@ -0,0 +1,23 @@
+package com.hyno.repository;
+
+import com.hyno.entity.ChatArchiveBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface ChatArchiveBlockRepository extends JpaRepository<ChatArchiveBlock, String> {
+
+    List<ChatArchiveBlock> findByChatRoomIdOrderByFirstMessageAtAsc(String chatRoomId);
+
+    @Modifying
+    @Query("DELETE FROM ChatArchiveBlock b WHERE b.chatRoomId = :chatRoomId")
+    int deleteByChatRoomId(@Param("chatRoomId") String chatRoomId);
+
+    // (rooms, messages, raw bytes, stored bytes) across the whole archive
+    @Query("SELECT COUNT(DISTINCT b.chatRoomId), COALESCE(SUM(b.messageCount), 0), COALESCE(SUM(b.rawBytes), 0), COALESCE(SUM(b.storedBytes), 0) FROM ChatArchiveBlock b")
+    List<Object[]> summarize();
+}
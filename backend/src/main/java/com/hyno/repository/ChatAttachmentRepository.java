@@ -0,0 +1,9 @@
+package com.hyno.repository;
+
+import com.hyno.entity.ChatAttachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChatAttachmentRepository extends JpaRepository<ChatAttachment, String> {
+}
@@ -1,12 +1,14 @@
 package com.hyno.repository;
 
 import com.hyno.entity.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -30,4 +32,18 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, String
     @Modifying
     @Query("UPDATE ChatMessage cm SET cm.status = 'READ', cm.readAt = :readAt WHERE cm.chatRoom.id = :chatRoomId AND cm.senderRole != :senderRole AND cm.status IN ('SENT', 'DELIVERED')")
     void markMessagesAsRead(@Param("chatRoomId") String chatRoomId, @Param("senderRole") ChatMessage.SenderRole senderRole, @Param("readAt") LocalDateTime readAt);
+
+    @Modifying
+    @Query("UPDATE ChatMessage cm SET cm.status = 'READ', cm.readAt = :readAt WHERE cm.chatRoom.id IN :chatRoomIds AND cm.senderRole != :senderRole AND cm.status IN ('SENT', 'DELIVERED')")
+    int markMessagesAsReadInRooms(@Param("chatRoomIds") Collection<String> chatRoomIds, @Param("senderRole") ChatMessage.SenderRole senderRole, @Param("readAt") LocalDateTime readAt);
+
+    // Keyset page of (id, chatRoomId, createdAt, content) in creation order, for building the search index
+    @Query("SELECT m.id, m.chatRoom.id, m.createdAt, m.content FROM ChatMessage m " +
+           "WHERE m.createdAt > :afterCreatedAt OR (m.createdAt = :afterCreatedAt AND m.id > :afterId) " +
+           "ORDER BY m.createdAt, m.id")
+    List<Object[]> findForIndexingAfter(@Param("afterCreatedAt") LocalDateTime afterCreatedAt, @Param("afterId") String afterId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ChatMessage m WHERE m.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<String> ids);
 }
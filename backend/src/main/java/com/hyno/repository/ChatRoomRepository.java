@@ -1,10 +1,12 @@
 package com.hyno.repository;
 
 import com.hyno.entity.ChatRoom;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,4 +29,15 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, String> {
 
     @Query("SELECT cr FROM ChatRoom cr WHERE (cr.patient.id = :userId OR cr.doctor.id = :userId) AND cr.status = 'ACTIVE' ORDER BY cr.lastMessageTime DESC")
     List<ChatRoom> findActiveByUserId(@Param("userId") String userId);
+
+    @Query("SELECT r.id FROM ChatRoom r WHERE r.patient.id = :patientId")
+    List<String> findIdsByPatientId(@Param("patientId") String patientId);
+
+    @Query("SELECT r.id FROM ChatRoom r WHERE r.doctor.id = :doctorId")
+    List<String> findIdsByDoctorId(@Param("doctorId") String doctorId);
+
+    // Archived rooms past the cutoff that still have messages in chat_messages; rooms archived before archivedAt existed fall back to updatedAt
+    @Query("SELECT r.id FROM ChatRoom r WHERE r.status = 'ARCHIVED' AND COALESCE(r.archivedAt, r.updatedAt) < :cutoff " +
+           "AND EXISTS (SELECT m.id FROM ChatMessage m WHERE m.chatRoom = r) ORDER BY COALESCE(r.archivedAt, r.updatedAt)")
+    List<String> findIdsReadyForColdArchive(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
 }
@@ -0,0 +1,12 @@
+package com.hyno.repository;
+
+import com.hyno.entity.DoctorAvatar;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DoctorAvatarRepository extends JpaRepository<DoctorAvatar, String> {
+    List<DoctorAvatar> findByStatus(DoctorAvatar.Status status);
+}
@@ -2,15 +2,38 @@ package com.hyno.repository;
 
 import com.hyno.entity.Doctor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, String> {
+    @Query("SELECT d FROM Doctor d LEFT JOIN FETCH d.hospital")
+    List<Doctor> findAllWithHospital();
+
     List<Doctor> findByStatus(String status);
     List<Doctor> findByHospital_Id(String hospitalId);
     List<Doctor> findBySpecialization(String specialization);
     Optional<Doctor> findByEmail(String email);
     Optional<Doctor> findTopByOrderByIdDesc();
+
+    @Query("SELECT d.id FROM Doctor d WHERE LOWER(d.specialization) = LOWER(:specialization) AND d.status <> 'suspended'")
+    List<String> findIdsBySpecialization(@Param("specialization") String specialization);
+
+    @Query("SELECT d.id FROM Doctor d WHERE d.id LIKE CONCAT(:prefix, '%')")
+    List<String> findIdsByPrefix(@Param("prefix") String prefix);
+
+    @Query("SELECT d.email FROM Doctor d WHERE d.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Only the avatar columns, so a concurrent profile edit is not overwritten
+    @Modifying
+    @Transactional
+    @Query("UPDATE Doctor d SET d.avatarUrl = :avatarUrl, d.avatarThumbnailUrl = :thumbnailUrl WHERE d.id = :id")
+    int updateAvatarUrls(@Param("id") String id, @Param("avatarUrl") String avatarUrl, @Param("thumbnailUrl") String thumbnailUrl);
 }
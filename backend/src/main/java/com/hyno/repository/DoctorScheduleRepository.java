@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -22,8 +23,12 @@ public interface DoctorScheduleRepository extends JpaRepository<DoctorSchedule,
 
     List<DoctorSchedule> findByDateAndStatus(LocalDate date, DoctorSchedule.ScheduleStatus status);
 
+    List<DoctorSchedule> findByDateBetweenAndStatus(LocalDate startDate, LocalDate endDate, DoctorSchedule.ScheduleStatus status);
+
     List<DoctorSchedule> findByAppointmentId(String appointmentId);
 
+    List<DoctorSchedule> findByAppointmentIdIn(Collection<String> appointmentIds);
+
     @Query("SELECT ds FROM DoctorSchedule ds WHERE ds.doctorId = :doctorId AND ds.date = :date AND ds.startTime <= :time AND ds.endTime > :time")
     List<DoctorSchedule> findByDoctorIdAndDateAndTimeRange(@Param("doctorId") String doctorId,
                                                           @Param("date") LocalDate date,
@@ -10,6 +10,8 @@ import java.util.List;
 
 @Repository
 public interface FeedbackRepository extends JpaRepository<Feedback, String> {
+    @Query("SELECT f FROM Feedback f JOIN FETCH f.appointment JOIN FETCH f.patient JOIN FETCH f.doctor d LEFT JOIN FETCH d.hospital")
+    List<Feedback> findAllWithAppointmentPatientAndDoctor();
 
     List<Feedback> findByPatientId(String patientId);
 
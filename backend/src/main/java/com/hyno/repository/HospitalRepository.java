@@ -2,12 +2,16 @@ package com.hyno.repository;
 
 import com.hyno.entity.Hospital;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface HospitalRepository extends JpaRepository<Hospital, String> {
+    @Query("SELECT DISTINCT h FROM Hospital h LEFT JOIN FETCH h.facilities")
+    List<Hospital> findAllWithFacilities();
+
     List<Hospital> findByStatus(String status);
     List<Hospital> findByCity(String city);
     Hospital findByEmail(String email);
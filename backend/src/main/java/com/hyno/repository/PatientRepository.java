@@ -2,8 +2,11 @@ package com.hyno.repository;
 
 import com.hyno.entity.Patient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +15,10 @@ public interface PatientRepository extends JpaRepository<Patient, String>, JpaSp
     Optional<Patient> findByEmail(String email);
     List<Patient> findByHospitalId(String hospitalId);
     Optional<Patient> findTopByOrderByIdDesc();
+
+    @Query("SELECT p.id FROM Patient p WHERE p.id LIKE CONCAT(:prefix, '%')")
+    List<String> findIdsByPrefix(@Param("prefix") String prefix);
+
+    @Query("SELECT p.email FROM Patient p WHERE p.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
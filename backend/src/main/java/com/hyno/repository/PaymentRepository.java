@@ -11,6 +11,8 @@ import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, String> {
+    @Query("SELECT p FROM Payment p JOIN FETCH p.appointment JOIN FETCH p.patient")
+    List<Payment> findAllWithAppointmentAndPatient();
 
     List<Payment> findByPatientId(String patientId);
 
@@ -0,0 +1,27 @@
+package com.hyno.repository;
+
+import com.hyno.entity.ReminderDispatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReminderDispatchRepository extends JpaRepository<ReminderDispatch, Long> {
+
+    @Query("SELECT d.reminderKey FROM ReminderDispatch d WHERE d.sentAt >= :since")
+    List<String> findKeysSentSince(@Param("since") LocalDateTime since);
+
+    boolean existsByReminderKey(String reminderKey);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReminderDispatch d WHERE d.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
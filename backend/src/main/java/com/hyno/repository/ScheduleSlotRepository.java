@@ -1,14 +1,18 @@
 package com.hyno.repository;
 
 import com.hyno.entity.ScheduleSlot;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ScheduleSlotRepository extends JpaRepository<ScheduleSlot, Long> {
@@ -39,4 +43,17 @@ public interface ScheduleSlotRepository extends JpaRepository<ScheduleSlot, Long
 
     @Query("SELECT ss FROM ScheduleSlot ss WHERE ss.schedule.hospital.id = :hospitalId AND ss.slotDate BETWEEN :startDate AND :endDate ORDER BY ss.slotDate, ss.startTime")
     List<ScheduleSlot> findSlotsByHospitalInDateRange(@Param("hospitalId") String hospitalId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT ss FROM ScheduleSlot ss JOIN FETCH ss.schedule s WHERE s.doctor IS NOT NULL AND ss.slotDate BETWEEN :startDate AND :endDate AND ss.status IN ('AVAILABLE', 'RESERVED')")
+    List<ScheduleSlot> findBookableDoctorSlotsInDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Row locks held until commit, so two bookings cannot both see a slot as free
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ss FROM ScheduleSlot ss WHERE ss.id = :id")
+    Optional<ScheduleSlot> findByIdForUpdate(@Param("id") Long id);
+
+    // Locked in ID order, so callers locking overlapping sets cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ss FROM ScheduleSlot ss WHERE ss.id IN :ids ORDER BY ss.id")
+    List<ScheduleSlot> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
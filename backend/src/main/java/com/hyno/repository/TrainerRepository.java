@@ -17,13 +17,13 @@ public interface TrainerRepository extends JpaRepository<Trainer, String> {
 
     List<Trainer> findByStatus(String status);
 
-    @Query("SELECT t FROM Trainer t WHERE " +
+    @Query(value = "SELECT t.* FROM trainers t WHERE " +
            "LOWER(t.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "EXISTS (SELECT s FROM t.specialties s WHERE LOWER(s) LIKE LOWER(CONCAT('%', :search, '%'))) OR " +
-           "LOWER(t.email) LIKE LOWER(CONCAT('%', :search, '%'))")
+           "EXISTS (SELECT 1 FROM JSON_TABLE(t.specialties, '$[*]' COLUMNS (specialty VARCHAR(255) PATH '$')) s WHERE LOWER(s.specialty) LIKE LOWER(CONCAT('%', :search, '%'))) OR " +
+           "LOWER(t.email) LIKE LOWER(CONCAT('%', :search, '%'))", nativeQuery = true)
     List<Trainer> findByNameOrSpecialtyOrEmail(@Param("search") String search);
 
-    @Query("SELECT t FROM Trainer t WHERE EXISTS (SELECT s FROM t.specialties s WHERE s IN :specialties)")
+    @Query(value = "SELECT t.* FROM trainers t WHERE EXISTS (SELECT 1 FROM JSON_TABLE(t.specialties, '$[*]' COLUMNS (specialty VARCHAR(255) PATH '$')) s WHERE s.specialty IN (:specialties))", nativeQuery = true)
     List<Trainer> findBySpecialtiesIn(@Param("specialties") List<String> specialties);
 
     List<Trainer> findByLocationContainingIgnoreCase(String location);
@@ -32,7 +32,7 @@ public interface TrainerRepository extends JpaRepository<Trainer, String> {
     List<Trainer> findByPriceRange(@Param("minPrice") java.math.BigDecimal minPrice,
                                   @Param("maxPrice") java.math.BigDecimal maxPrice);
 
-    @Query("SELECT t FROM Trainer t WHERE EXISTS (SELECT m FROM t.modes m WHERE m = :mode)")
+    @Query(value = "SELECT t.* FROM trainers t WHERE :mode MEMBER OF (t.modes)", nativeQuery = true)
     List<Trainer> findByMode(@Param("mode") String mode);
 
     @Query("SELECT t FROM Trainer t ORDER BY t.rating DESC")
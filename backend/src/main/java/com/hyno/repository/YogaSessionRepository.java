@@ -7,9 +7,12 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface YogaSessionRepository extends JpaRepository<YogaSession, Long> {
+    @Query("SELECT s FROM YogaSession s JOIN FETCH s.patient JOIN FETCH s.trainer")
+    List<YogaSession> findAllWithPatientAndTrainer();
 
     List<YogaSession> findByPatient_Id(String patientId);
 
@@ -36,4 +39,11 @@ public interface YogaSessionRepository extends JpaRepository<YogaSession, Long>
 
     @Query("SELECT s FROM YogaSession s WHERE s.trainer.id = :trainerId AND s.status = :status")
     List<YogaSession> findByTrainerIdAndStatus(@Param("trainerId") Long trainerId, @Param("status") YogaSession.SessionStatus status);
+
+    @Query("SELECT s FROM YogaSession s JOIN FETCH s.patient WHERE s.sessionDate BETWEEN :startDate AND :endDate AND s.status = :status")
+    List<YogaSession> findForReminders(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+                                       @Param("status") YogaSession.SessionStatus status);
+
+    @Query("SELECT s FROM YogaSession s JOIN FETCH s.patient WHERE s.id = :id")
+    Optional<YogaSession> findByIdForReminders(@Param("id") Long id);
 }
@@ -12,18 +12,19 @@ public interface YogaTrainerRepository extends JpaRepository<YogaTrainer, Long>
 
     List<YogaTrainer> findByAvailability(YogaTrainer.AvailabilityStatus availability);
 
-    @Query("SELECT t FROM YogaTrainer t WHERE " +
+    @Query(value = "SELECT t.* FROM yoga_trainers t WHERE " +
            "LOWER(t.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "EXISTS (SELECT s FROM t.specialties s WHERE LOWER(s) LIKE LOWER(CONCAT('%', :search, '%')))")
+           "EXISTS (SELECT 1 FROM JSON_TABLE(t.specialties, '$[*]' COLUMNS (specialty VARCHAR(255) PATH '$')) s WHERE LOWER(s.specialty) LIKE LOWER(CONCAT('%', :search, '%')))", nativeQuery = true)
     List<YogaTrainer> findByNameOrSpecialty(@Param("search") String search);
 
-    @Query("SELECT t FROM YogaTrainer t WHERE t.availability = :availability AND " +
+    // The enum is bound by name, as the column stores it
+    @Query(value = "SELECT t.* FROM yoga_trainers t WHERE t.availability = :#{#availability.name()} AND " +
            "(LOWER(t.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "EXISTS (SELECT s FROM t.specialties s WHERE LOWER(s) LIKE LOWER(CONCAT('%', :search, '%'))))")
+           "EXISTS (SELECT 1 FROM JSON_TABLE(t.specialties, '$[*]' COLUMNS (specialty VARCHAR(255) PATH '$')) s WHERE LOWER(s.specialty) LIKE LOWER(CONCAT('%', :search, '%')))))", nativeQuery = true)
     List<YogaTrainer> findByAvailabilityAndNameOrSpecialty(@Param("availability") YogaTrainer.AvailabilityStatus availability,
                                                           @Param("search") String search);
 
-    @Query("SELECT t FROM YogaTrainer t WHERE EXISTS (SELECT s FROM t.specialties s WHERE s IN :specialties)")
+    @Query(value = "SELECT t.* FROM yoga_trainers t WHERE EXISTS (SELECT 1 FROM JSON_TABLE(t.specialties, '$[*]' COLUMNS (specialty VARCHAR(255) PATH '$')) s WHERE s.specialty IN (:specialties))", nativeQuery = true)
     List<YogaTrainer> findBySpecialtiesIn(@Param("specialties") List<String> specialties);
 
     List<YogaTrainer> findByLocationContainingIgnoreCase(String location);
@@ -32,7 +33,7 @@ public interface YogaTrainerRepository extends JpaRepository<YogaTrainer, Long>
     List<YogaTrainer> findByPriceRange(@Param("minPrice") java.math.BigDecimal minPrice,
                                       @Param("maxPrice") java.math.BigDecimal maxPrice);
 
-    @Query("SELECT t FROM YogaTrainer t WHERE EXISTS (SELECT m FROM t.modes m WHERE m = :mode)")
+    @Query(value = "SELECT t.* FROM yoga_trainers t WHERE :mode MEMBER OF (t.modes)", nativeQuery = true)
     List<YogaTrainer> findByMode(@Param("mode") String mode);
 
     @Query("SELECT t FROM YogaTrainer t ORDER BY t.rating DESC")
@@ -9,6 +9,8 @@ import java.util.List;
 
 @Repository
 public interface YogaVideoRepository extends JpaRepository<YogaVideo, Long> {
+    @Query("SELECT DISTINCT v FROM YogaVideo v LEFT JOIN FETCH v.benefits")
+    List<YogaVideo> findAllWithBenefits();
 
     List<YogaVideo> findByLevel(YogaVideo.DifficultyLevel level);
 
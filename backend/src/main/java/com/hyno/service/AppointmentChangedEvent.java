@@ -0,0 +1,27 @@
+package com.hyno.service;
+
+import com.hyno.entity.Appointment;
+import com.hyno.repository.AppointmentSummary;
+
+/**
+ * Published by {@link AppointmentService} whenever an appointment is created or changes.
+ * The snapshot is taken inside the writing transaction, so listeners running after commit
+ * never touch lazy associations.
+ */
+public class AppointmentChangedEvent {
+
+    public enum ChangeType {
+        CREATED, UPDATED, CONFIRMED, CANCELLED, COMPLETED, RESCHEDULED, DELETED
+    }
+
+    private final ChangeType changeType;
+    private final AppointmentSummary appointment;
+
+    public AppointmentChangedEvent(ChangeType changeType, Appointment appointment) {
+        this.changeType = changeType;
+        this.appointment = AppointmentSummary.of(appointment);
+    }
+
+    public ChangeType getChangeType() { return changeType; }
+    public AppointmentSummary getAppointment() { return appointment; }
+}
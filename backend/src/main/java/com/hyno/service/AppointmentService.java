@@ -1,10 +1,17 @@
 package com.hyno.service;
 
 import com.hyno.entity.Appointment;
+import com.hyno.entity.TimeOrderedUuidGenerator;
+import com.hyno.entity.VideoCall;
 import com.hyno.repository.AppointmentRepository;
+import com.hyno.repository.AppointmentSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
@@ -31,6 +38,16 @@ public class AppointmentService {
     @Autowired
     private ScheduleService scheduleService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CallSessionService callSessionService;
+
+    @Transactional(readOnly = true)
     public List<Appointment> getAllAppointments() {
         logger.info("Fetching all appointments");
         try {
@@ -64,6 +81,24 @@ public class AppointmentService {
         }
     }
 
+    @Transactional(readOnly = true)
+    public Page<AppointmentSummary> searchAppointmentSummaries(String doctorId, String patientId, String hospitalId,
+                                                               Appointment.AppointmentStatus status,
+                                                               LocalDate fromDate, LocalDate toDate, Pageable pageable) {
+        logger.info("Searching appointment summaries - doctor: {}, patient: {}, hospital: {}, status: {}, from: {}, to: {}",
+                doctorId, patientId, hospitalId, status, fromDate, toDate);
+        try {
+            Page<AppointmentSummary> summaries = appointmentRepository.findSummaries(
+                    doctorId, patientId, hospitalId, status, fromDate, toDate, pageable);
+            logger.info("Retrieved {} appointment summaries out of {} total",
+                    summaries.getNumberOfElements(), summaries.getTotalElements());
+            return summaries;
+        } catch (Exception e) {
+            logger.error("Error searching appointment summaries", e);
+            throw e;
+        }
+    }
+
     public List<Appointment> getAppointmentsByPatient(String patientId) {
         logger.info("Fetching appointments for patient: {}", patientId);
         try {
@@ -186,20 +221,30 @@ public class AppointmentService {
             if (appointment.getScheduleSlot() != null) {
                 Long slotId = appointment.getScheduleSlot().getId();
                 if (!scheduleService.isSlotAvailable(slotId)) {
+                    recordBookingConflict("slot_unavailable");
                     throw new IllegalArgumentException("Schedule slot is not available");
                 }
                 // Reserve the slot temporarily (15 minutes)
-                if (!scheduleService.reserveSlot(slotId, appointment.getPatient().getId(), 15)) {
+                boolean reserved;
+                try {
+                    reserved = scheduleService.reserveSlot(slotId, appointment.getPatient().getId(), 15);
+                } catch (IllegalStateException e) {
+                    recordBookingConflict("reservation_race");
+                    throw e;
+                }
+                if (!reserved) {
+                    recordBookingConflict("slot_missing");
                     throw new IllegalArgumentException("Failed to reserve schedule slot");
                 }
             }
 
-            // Generate ID if not provided
+            // Generate ID if not provided; time-ordered so new rows append to the primary key index
             if (appointment.getId() == null || appointment.getId().isEmpty()) {
-                appointment.setId(java.util.UUID.randomUUID().toString());
+                appointment.setId(TimeOrderedUuidGenerator.next());
             }
 
             Appointment savedAppointment = appointmentRepository.save(appointment);
+            publishChange(AppointmentChangedEvent.ChangeType.CREATED, savedAppointment);
             logger.info("Appointment created successfully with ID: {}", savedAppointment.getId());
             return savedAppointment;
         } catch (Exception e) {
@@ -227,6 +272,7 @@ public class AppointmentService {
                 appointment.setNotes(appointmentDetails.getNotes());
                 appointment.setPrescription(appointmentDetails.getPrescription());
                 Appointment updatedAppointment = appointmentRepository.save(appointment);
+                publishChange(AppointmentChangedEvent.ChangeType.UPDATED, updatedAppointment);
                 logger.info("Appointment updated successfully: {}", id);
                 return updatedAppointment;
             } else {
@@ -242,7 +288,10 @@ public class AppointmentService {
     public void deleteAppointment(String id) {
         logger.info("Deleting appointment: {}", id);
         try {
-            appointmentRepository.deleteById(id);
+            appointmentRepository.findById(id).ifPresent(appointment -> {
+                appointmentRepository.delete(appointment);
+                publishChange(AppointmentChangedEvent.ChangeType.DELETED, appointment);
+            });
             logger.info("Appointment deleted successfully: {}", id);
         } catch (Exception e) {
             logger.error("Error deleting appointment: {}", id, e);
@@ -264,6 +313,7 @@ public class AppointmentService {
                 }
 
                 Appointment cancelledAppointment = appointmentRepository.save(appointment);
+                publishChange(AppointmentChangedEvent.ChangeType.CANCELLED, cancelledAppointment);
                 logger.info("Appointment cancelled successfully: {}", id);
                 return cancelledAppointment;
             } else {
@@ -284,6 +334,7 @@ public class AppointmentService {
                 Appointment appointment = optionalAppointment.get();
                 appointment.setStatus(Appointment.AppointmentStatus.COMPLETED);
                 Appointment completedAppointment = appointmentRepository.save(appointment);
+                publishChange(AppointmentChangedEvent.ChangeType.COMPLETED, completedAppointment);
                 logger.info("Appointment completed successfully: {}", id);
                 return completedAppointment;
             } else {
@@ -310,11 +361,13 @@ public class AppointmentService {
                     if (scheduleService.isSlotReservedByUser(slotId, appointment.getPatient().getId())) {
                         scheduleService.bookSlot(slotId);
                     } else {
+                        recordBookingConflict("reservation_expired");
                         logger.warn("Slot {} not reserved by user {} for appointment {}", slotId, appointment.getPatient().getId(), id);
                     }
                 }
 
                 Appointment confirmedAppointment = appointmentRepository.save(appointment);
+                publishChange(AppointmentChangedEvent.ChangeType.CONFIRMED, confirmedAppointment);
                 logger.info("Appointment confirmed successfully: {}", id);
                 return confirmedAppointment;
             } else {
@@ -336,6 +389,7 @@ public class AppointmentService {
                 appointment.setAppointmentDate(newDate);
                 appointment.setAppointmentTime(newTime);
                 Appointment rescheduledAppointment = appointmentRepository.save(appointment);
+                publishChange(AppointmentChangedEvent.ChangeType.RESCHEDULED, rescheduledAppointment);
                 logger.info("Appointment rescheduled successfully: {}", id);
                 return rescheduledAppointment;
             } else {
@@ -348,22 +402,25 @@ public class AppointmentService {
         }
     }
 
-    // Video Call Status Tracking Methods
+    private void publishChange(AppointmentChangedEvent.ChangeType changeType, Appointment appointment) {
+        eventPublisher.publishEvent(new AppointmentChangedEvent(changeType, appointment));
+    }
+
+    private void recordBookingConflict(String reason) {
+        meterRegistry.counter("hyno.booking.conflicts", "reason", reason).increment();
+    }
+
+    // Video Call Status Tracking Methods; the call state itself is kept by CallSessionService
     public Appointment startVideoCall(String appointmentId) {
         logger.info("Starting video call for appointment: {}", appointmentId);
         try {
-            Optional<Appointment> optionalAppointment = appointmentRepository.findById(appointmentId);
-            if (optionalAppointment.isPresent()) {
-                Appointment appointment = optionalAppointment.get();
-                appointment.setVideoCallStatus(Appointment.VideoCallStatus.CONNECTING);
-                appointment.setVideoCallStartTime(java.time.LocalDateTime.now());
-                Appointment updatedAppointment = appointmentRepository.save(appointment);
-                logger.info("Video call started for appointment: {}", appointmentId);
-                return updatedAppointment;
-            } else {
+            if (!appointmentRepository.existsById(appointmentId)) {
                 logger.warn("Appointment not found for starting video call: {}", appointmentId);
                 return null;
             }
+            callSessionService.start(appointmentId, null, null);
+            logger.info("Video call started for appointment: {}", appointmentId);
+            return appointmentRepository.findById(appointmentId).map(callSessionService::withLiveState).orElse(null);
         } catch (Exception e) {
             logger.error("Error starting video call for appointment: {}", appointmentId, e);
             throw e;
@@ -374,27 +431,22 @@ public class AppointmentService {
         logger.info("Updating video call status for appointment: {} to {}", appointmentId, status);
         try {
             Optional<Appointment> optionalAppointment = appointmentRepository.findById(appointmentId);
-            if (optionalAppointment.isPresent()) {
-                Appointment appointment = optionalAppointment.get();
-                appointment.setVideoCallStatus(status);
-
-                if (status == Appointment.VideoCallStatus.IN_PROGRESS && appointment.getVideoCallStartTime() == null) {
-                    appointment.setVideoCallStartTime(java.time.LocalDateTime.now());
-                } else if (status == Appointment.VideoCallStatus.COMPLETED || status == Appointment.VideoCallStatus.FAILED || status == Appointment.VideoCallStatus.CANCELLED) {
-                    appointment.setVideoCallEndTime(java.time.LocalDateTime.now());
-                    if (appointment.getVideoCallStartTime() != null) {
-                        long duration = java.time.Duration.between(appointment.getVideoCallStartTime(), appointment.getVideoCallEndTime()).getSeconds();
-                        appointment.setVideoCallDuration((int) duration);
-                    }
-                }
-
-                Appointment updatedAppointment = appointmentRepository.save(appointment);
-                logger.info("Video call status updated for appointment: {}", appointmentId);
-                return updatedAppointment;
-            } else {
+            if (optionalAppointment.isEmpty()) {
                 logger.warn("Appointment not found for updating video call status: {}", appointmentId);
                 return null;
             }
+            VideoCall.VideoCallStatus target = CallSessionService.fromAppointmentStatus(status);
+            if (!callSessionService.hasOpenCall(appointmentId)) {
+                if (target != VideoCall.VideoCallStatus.INITIATED && target != VideoCall.VideoCallStatus.CONNECTED) {
+                    throw new IllegalStateException("No video call in progress for appointment " + appointmentId);
+                }
+                callSessionService.start(appointmentId, null, null);
+            }
+            if (target != VideoCall.VideoCallStatus.INITIATED) {
+                callSessionService.transitionByAppointment(appointmentId, target, null, null);
+            }
+            logger.info("Video call status updated for appointment: {}", appointmentId);
+            return callSessionService.withLiveState(optionalAppointment.get());
         } catch (Exception e) {
             logger.error("Error updating video call status for appointment: {}", appointmentId, e);
             throw e;
@@ -405,23 +457,15 @@ public class AppointmentService {
         logger.info("Ending video call for appointment: {}", appointmentId);
         try {
             Optional<Appointment> optionalAppointment = appointmentRepository.findById(appointmentId);
-            if (optionalAppointment.isPresent()) {
-                Appointment appointment = optionalAppointment.get();
-                appointment.setVideoCallStatus(Appointment.VideoCallStatus.COMPLETED);
-                appointment.setVideoCallEndTime(java.time.LocalDateTime.now());
-
-                if (appointment.getVideoCallStartTime() != null) {
-                    long duration = java.time.Duration.between(appointment.getVideoCallStartTime(), appointment.getVideoCallEndTime()).getSeconds();
-                    appointment.setVideoCallDuration((int) duration);
-                }
-
-                Appointment updatedAppointment = appointmentRepository.save(appointment);
-                logger.info("Video call ended for appointment: {}", appointmentId);
-                return updatedAppointment;
-            } else {
+            if (optionalAppointment.isEmpty()) {
                 logger.warn("Appointment not found for ending video call: {}", appointmentId);
                 return null;
             }
+            if (callSessionService.hasOpenCall(appointmentId)) {
+                callSessionService.transitionByAppointment(appointmentId, VideoCall.VideoCallStatus.COMPLETED, null, null);
+                logger.info("Video call ended for appointment: {}", appointmentId);
+            }
+            return callSessionService.withLiveState(optionalAppointment.get());
         } catch (Exception e) {
             logger.error("Error ending video call for appointment: {}", appointmentId, e);
             throw e;
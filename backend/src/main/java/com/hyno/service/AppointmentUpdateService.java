@@ -0,0 +1,183 @@
+package com.hyno.service;
+
+import com.hyno.config.WebSocketAuthInterceptor;
+import com.hyno.repository.AppointmentSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed appointment changes to the patient and doctor over
+ * /user/{name}/queue/appointments, addressed by their role-qualified principal names. Every
+ * delta carries a sequence number and the server epoch; the last deltas per user are kept so a reconnecting client can fetch only what it missed.
+ * A client that is too far behind, or that saw a different epoch (server restart), is told
+ * to resync with a full fetch.
+ */
+@Service
+public class AppointmentUpdateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentUpdateService.class);
+
+    public static final String DESTINATION = "/queue/appointments";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Value("${appointment-updates.buffer-size:100}")
+    private int bufferSize;
+
+    @Value("${appointment-updates.retention-minutes:60}")
+    private int retentionMinutes;
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<String, UserLog> logs = new ConcurrentHashMap<>();
+    // Highest sequence held by any pruned log; clients behind it cannot be caught up incrementally
+    private final AtomicLong prunedThrough = new AtomicLong();
+
+    // Runs after the writing transaction commits, or immediately when the change was made outside one
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AppointmentSummary appointment = event.getAppointment();
+        Set<String> recipients = new LinkedHashSet<>();
+        if (appointment.getPatientId() != null) {
+            recipients.add(WebSocketAuthInterceptor.principalName("patient", appointment.getPatientId()));
+        }
+        if (appointment.getDoctorId() != null) {
+            recipients.add(WebSocketAuthInterceptor.principalName("doctor", appointment.getDoctorId()));
+        }
+        for (String userId : recipients) {
+            try {
+                publish(userId, event);
+            } catch (Exception e) {
+                // A failed push must never surface to the request that already committed
+                logger.error("Error pushing appointment update {} to user {}", appointment.getId(), userId, e);
+            }
+        }
+    }
+
+    public UpdatesSince getUpdatesSince(String userId, long since, Long clientEpoch) {
+        if (clientEpoch != null && clientEpoch != epoch) {
+            return new UpdatesSince(epoch, sequence.get(), true, List.of());
+        }
+        UserLog log = logs.get(userId);
+        if (log == null) {
+            return new UpdatesSince(epoch, sequence.get(), since < prunedThrough.get(), List.of());
+        }
+        synchronized (log) {
+            if (since < log.droppedThrough) {
+                return new UpdatesSince(epoch, sequence.get(), true, List.of());
+            }
+            List<AppointmentDelta> missed = new ArrayList<>();
+            for (AppointmentDelta delta : log.deltas) {
+                if (delta.getSequence() > since) {
+                    missed.add(delta);
+                }
+            }
+            return new UpdatesSince(epoch, sequence.get(), false, missed);
+        }
+    }
+
+    // Drops logs for users with no recent changes; their clients resync on the next reconnect
+    public void pruneIdleLogs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        int before = logs.size();
+        logs.entrySet().removeIf(entry -> {
+            synchronized (entry.getValue()) {
+                if (entry.getValue().lastUpdated.isBefore(cutoff)) {
+                    prunedThrough.accumulateAndGet(entry.getValue().lastSequence, Math::max);
+                    return true;
+                }
+                return false;
+            }
+        });
+        if (before != logs.size()) {
+            logger.info("Pruned {} idle appointment update logs", before - logs.size());
+        }
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    private void publish(String userId, AppointmentChangedEvent event) {
+        UserLog log = logs.computeIfAbsent(userId, id -> new UserLog());
+        // Sequence assignment and send happen under the user's lock so deltas arrive in sequence order
+        synchronized (log) {
+            AppointmentDelta delta = new AppointmentDelta(epoch, sequence.incrementAndGet(),
+                    event.getChangeType(), event.getAppointment(), LocalDateTime.now());
+            log.deltas.addLast(delta);
+            if (log.deltas.size() > bufferSize) {
+                log.droppedThrough = log.deltas.removeFirst().getSequence();
+            }
+            log.lastSequence = delta.getSequence();
+            log.lastUpdated = delta.getTimestamp();
+            messagingTemplate.convertAndSendToUser(userId, DESTINATION, delta);
+        }
+    }
+
+    private static class UserLog {
+        private final Deque<AppointmentDelta> deltas = new ArrayDeque<>();
+        private long droppedThrough;
+        private long lastSequence;
+        private LocalDateTime lastUpdated = LocalDateTime.now();
+    }
+
+    public static class AppointmentDelta {
+
+        private final long epoch;
+        private final long sequence;
+        private final AppointmentChangedEvent.ChangeType changeType;
+        private final AppointmentSummary appointment;
+        private final LocalDateTime timestamp;
+
+        AppointmentDelta(long epoch, long sequence, AppointmentChangedEvent.ChangeType changeType,
+                         AppointmentSummary appointment, LocalDateTime timestamp) {
+            this.epoch = epoch;
+            this.sequence = sequence;
+            this.changeType = changeType;
+            this.appointment = appointment;
+            this.timestamp = timestamp;
+        }
+
+        public long getEpoch() { return epoch; }
+        public long getSequence() { return sequence; }
+        public AppointmentChangedEvent.ChangeType getChangeType() { return changeType; }
+        public AppointmentSummary getAppointment() { return appointment; }
+        public LocalDateTime getTimestamp() { return timestamp; }
+    }
+
+    public static class UpdatesSince {
+
+        private final long epoch;
+        private final long latestSequence;
+        private final boolean resync;
+        private final List<AppointmentDelta> updates;
+
+        UpdatesSince(long epoch, long latestSequence, boolean resync, List<AppointmentDelta> updates) {
+            this.epoch = epoch;
+            this.latestSequence = latestSequence;
+            this.resync = resync;
+            this.updates = updates;
+        }
+
+        public long getEpoch() { return epoch; }
+        public long getLatestSequence() { return latestSequence; }
+        public boolean isResync() { return resync; }
+        public List<AppointmentDelta> getUpdates() { return updates; }
+    }
+}
@@ -0,0 +1,302 @@
+package com.hyno.service;
+
+import com.hyno.config.ReadFromPrimary;
+import com.hyno.entity.DoctorSchedule;
+import com.hyno.entity.Schedule;
+import com.hyno.entity.ScheduleSlot;
+import com.hyno.repository.DoctorScheduleRepository;
+import com.hyno.repository.ScheduleRepository;
+import com.hyno.repository.ScheduleSlotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index of bookable doctor time windows, ordered by start time per doctor.
+ * Both {@link ScheduleSlot} rows and {@link DoctorSchedule} rows are indexed. Writers in
+ * {@link ScheduleService} and {@link DoctorScheduleService} push changes after commit, and a
+ * periodic rebuild heals any drift; changes pushed while a rebuild is loading are replayed onto
+ * the new index before it is swapped in. The index is only a search accelerator: booking still
+ * validates the slot against the database.
+ */
+@Service
+public class AvailabilityIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityIndexService.class);
+
+    private static final Comparator<AvailableSlot> BY_START =
+            Comparator.comparing(AvailableSlot::getStart).thenComparing(AvailableSlot::getKey);
+
+    @Autowired
+    private ScheduleSlotRepository scheduleSlotRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private DoctorScheduleRepository doctorScheduleRepository;
+
+    @Value("${availability.index.horizon-days:30}")
+    private int horizonDays;
+
+    private volatile Index index = new Index();
+
+    // Latest change per key pushed while each running rebuild loads; guarded by itself
+    private final List<Map<String, AvailableSlot>> rebuildBuffers = new ArrayList<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @ReadFromPrimary
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    public void rebuild() {
+        logger.info("Rebuilding availability index for the next {} days", horizonDays);
+        // Buffering starts before the snapshot is read, so no committed change can fall between the two
+        Map<String, AvailableSlot> buffer = new HashMap<>();
+        synchronized (rebuildBuffers) {
+            rebuildBuffers.add(buffer);
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDate horizon = today.plusDays(horizonDays);
+            Index fresh = new Index();
+
+            for (ScheduleSlot slot : scheduleSlotRepository.findBookableDoctorSlotsInDateRange(today, horizon)) {
+                AvailableSlot entry = slot.canBook() ? toEntry(slot) : null;
+                if (entry != null) {
+                    fresh.put(entry);
+                }
+            }
+            for (DoctorSchedule schedule : doctorScheduleRepository.findByDateBetweenAndStatus(
+                    today, horizon, DoctorSchedule.ScheduleStatus.AVAILABLE)) {
+                fresh.put(toEntry(schedule));
+            }
+
+            int replayed;
+            synchronized (rebuildBuffers) {
+                buffer.forEach(fresh::replace);
+                replayed = buffer.size();
+                index = fresh;
+            }
+            logger.info("Availability index rebuilt with {} open windows for {} doctors ({} changes replayed)",
+                    fresh.byKey.size(), fresh.byDoctor.size(), replayed);
+        } catch (Exception e) {
+            logger.error("Error rebuilding availability index", e);
+            throw e;
+        } finally {
+            synchronized (rebuildBuffers) {
+                rebuildBuffers.remove(buffer);
+            }
+        }
+    }
+
+    public void onSlotChanged(ScheduleSlot slot) {
+        String key = slotKey(slot.getId());
+        AvailableSlot entry = slot.canBook() ? toEntry(slot) : null;
+        afterCommit(() -> apply(key, entry));
+    }
+
+    public void onSlotDeleted(Long slotId) {
+        String key = slotKey(slotId);
+        afterCommit(() -> apply(key, null));
+    }
+
+    public void onDoctorScheduleChanged(DoctorSchedule schedule) {
+        String key = doctorScheduleKey(schedule.getId());
+        AvailableSlot entry = schedule.isAvailable() ? toEntry(schedule) : null;
+        afterCommit(() -> apply(key, entry));
+    }
+
+    public void onDoctorScheduleDeleted(Long scheduleId) {
+        String key = doctorScheduleKey(scheduleId);
+        afterCommit(() -> apply(key, null));
+    }
+
+    public Optional<AvailableSlot> findEarliestAvailable(Collection<String> doctorIds, LocalDateTime from, LocalDateTime to) {
+        Index current = index;
+        AvailableSlot probe = AvailableSlot.probe(from);
+        AvailableSlot earliest = null;
+        for (String doctorId : doctorIds) {
+            NavigableSet<AvailableSlot> windows = current.byDoctor.get(doctorId);
+            if (windows == null) {
+                continue;
+            }
+            AvailableSlot candidate = windows.ceiling(probe);
+            if (candidate != null && candidate.getStart().isBefore(to)
+                    && (earliest == null || BY_START.compare(candidate, earliest) < 0)) {
+                earliest = candidate;
+            }
+        }
+        return Optional.ofNullable(earliest);
+    }
+
+    public List<AvailableSlot> findAvailable(Collection<String> doctorIds, LocalDateTime from, LocalDateTime to, int limit) {
+        Index current = index;
+        AvailableSlot lower = AvailableSlot.probe(from);
+        AvailableSlot upper = AvailableSlot.probe(to);
+        List<AvailableSlot> result = new ArrayList<>();
+        for (String doctorId : doctorIds) {
+            NavigableSet<AvailableSlot> windows = current.byDoctor.get(doctorId);
+            if (windows == null) {
+                continue;
+            }
+            int taken = 0;
+            for (AvailableSlot window : windows.subSet(lower, true, upper, false)) {
+                if (taken++ == limit) {
+                    break;
+                }
+                result.add(window);
+            }
+        }
+        result.sort(BY_START);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    public int size() {
+        return index.byKey.size();
+    }
+
+    // Updates the live index and records the change for any rebuild still loading its snapshot
+    private void apply(String key, AvailableSlot entry) {
+        synchronized (rebuildBuffers) {
+            index.replace(key, entry);
+            for (Map<String, AvailableSlot> buffer : rebuildBuffers) {
+                buffer.put(key, entry);
+            }
+        }
+    }
+
+    private AvailableSlot toEntry(ScheduleSlot slot) {
+        Schedule schedule = slot.getSchedule();
+        if (schedule != null && schedule.getDoctor() == null && schedule.getId() != null) {
+            // Slots created from request payloads only carry the schedule ID
+            schedule = scheduleRepository.findById(schedule.getId()).orElse(null);
+        }
+        if (schedule == null || schedule.getDoctorId() == null) {
+            return null;
+        }
+        return new AvailableSlot(slotKey(slot.getId()), AvailableSlot.Source.SCHEDULE_SLOT, slot.getId(),
+                schedule.getDoctorId(), schedule.getHospitalId(), slot.getSlotDate(), slot.getStartTime(), slot.getEndTime());
+    }
+
+    private AvailableSlot toEntry(DoctorSchedule schedule) {
+        return new AvailableSlot(doctorScheduleKey(schedule.getId()), AvailableSlot.Source.DOCTOR_SCHEDULE, schedule.getId(),
+                schedule.getDoctorId(), null, schedule.getDate(), schedule.getStartTime(), schedule.getEndTime());
+    }
+
+    private static String slotKey(Long slotId) {
+        return "slot:" + slotId;
+    }
+
+    private static String doctorScheduleKey(Long scheduleId) {
+        return "doctor-schedule:" + scheduleId;
+    }
+
+    // Apply index changes only once the surrounding transaction has committed, so rollbacks never leak in
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static class Index {
+        private final ConcurrentHashMap<String, NavigableSet<AvailableSlot>> byDoctor = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, AvailableSlot> byKey = new ConcurrentHashMap<>();
+
+        void put(AvailableSlot entry) {
+            replace(entry.getKey(), entry);
+        }
+
+        // compute() serializes updates per key, so the old window is always removed before the new one lands
+        void replace(String key, AvailableSlot entry) {
+            byKey.compute(key, (k, previous) -> {
+                if (previous != null) {
+                    NavigableSet<AvailableSlot> windows = byDoctor.get(previous.getDoctorId());
+                    if (windows != null) {
+                        windows.remove(previous);
+                    }
+                }
+                if (entry != null) {
+                    byDoctor.computeIfAbsent(entry.getDoctorId(), d -> new ConcurrentSkipListSet<>(BY_START)).add(entry);
+                }
+                return entry;
+            });
+        }
+    }
+
+    public static class AvailableSlot {
+
+        public enum Source {
+            SCHEDULE_SLOT, DOCTOR_SCHEDULE
+        }
+
+        private final String key;
+        private final Source source;
+        private final Long id;
+        private final String doctorId;
+        private final String hospitalId;
+        private final LocalDate date;
+        private final LocalTime startTime;
+        private final LocalTime endTime;
+        private final LocalDateTime start;
+
+        AvailableSlot(String key, Source source, Long id, String doctorId, String hospitalId,
+                      LocalDate date, LocalTime startTime, LocalTime endTime) {
+            this.key = key;
+            this.source = source;
+            this.id = id;
+            this.doctorId = doctorId;
+            this.hospitalId = hospitalId;
+            this.date = date;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.start = LocalDateTime.of(date, startTime);
+        }
+
+        // Sorts before every real window starting at the same instant
+        static AvailableSlot probe(LocalDateTime at) {
+            return new AvailableSlot("", null, null, null, null, at.toLocalDate(), at.toLocalTime(), at.toLocalTime());
+        }
+
+        String getKey() { return key; }
+        public Source getSource() { return source; }
+        public Long getId() { return id; }
+        public String getDoctorId() { return doctorId; }
+        public String getHospitalId() { return hospitalId; }
+        public LocalDate getDate() { return date; }
+        public LocalTime getStartTime() { return startTime; }
+        public LocalTime getEndTime() { return endTime; }
+        LocalDateTime getStart() { return start; }
+    }
+}
@@ -0,0 +1,362 @@
+package com.hyno.service;
+
+import com.hyno.entity.Appointment;
+import com.hyno.entity.DoctorSchedule;
+import com.hyno.entity.ScheduleSlot;
+import com.hyno.repository.AppointmentRepository;
+import com.hyno.repository.DoctorScheduleRepository;
+import com.hyno.repository.ScheduleSlotRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cancels or moves every open appointment of a doctor within a date range, for suspensions
+ * and blocked days. Appointments are processed in chunks, each chunk in one transaction: the
+ * chunk and the candidate slots are loaded with one query each, the slots under a row lock so
+ * a concurrent booking cannot take them too, changes are flushed as JDBC batches, and slot
+ * bookings are released together. Rescheduled appointments take the
+ * doctor's next free schedule slots after the range, earliest appointment first; when none
+ * are left the appointment is cancelled instead. Doctor schedule entries held or booked for
+ * the appointments are released. A chunk's counts and the free slots it took only count once
+ * it has committed; when it rolls back, its slots go back to the queue. Patients are emailed
+ * from a separate thread once their chunk has committed, and the usual appointment change
+ * events drive the WebSocket pushes and reminders.
+ */
+@Service
+public class BulkAppointmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkAppointmentService.class);
+
+    private static final int MAX_RECORDED_ERRORS = 50;
+    private static final DateTimeFormatter START_FORMAT = DateTimeFormatter.ofPattern("EEE, d MMM yyyy 'at' HH:mm");
+
+    public enum Action {
+        CANCEL, RESCHEDULE
+    }
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ScheduleSlotRepository scheduleSlotRepository;
+
+    @Autowired
+    private DoctorScheduleRepository doctorScheduleRepository;
+
+    @Autowired
+    private AvailabilityIndexService availabilityIndexService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${bulk-appointments.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${bulk-appointments.reschedule-horizon-days:30}")
+    private int rescheduleHorizonDays;
+
+    @Value("${bulk-appointments.notify-email:true}")
+    private boolean notifyEmail;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "bulk-appointments");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "bulk-appointments-notify");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, BulkJob> jobs = new ConcurrentHashMap<>();
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        notifier.shutdown();
+    }
+
+    public BulkJob submit(String doctorId, LocalDate fromDate, LocalDate toDate, Action action) {
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+        BulkJob job = new BulkJob(UUID.randomUUID().toString(), doctorId, fromDate, toDate, action);
+        jobs.put(job.getId(), job);
+        logger.info("Queued bulk {} job {} for doctor {} from {} to {}", action, job.getId(), doctorId, fromDate, toDate);
+        executor.submit(() -> run(job));
+        return job;
+    }
+
+    public Optional<BulkJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    public Collection<BulkJob> getJobs() {
+        return jobs.values();
+    }
+
+    private void run(BulkJob job) {
+        job.start();
+        try {
+            List<String> ids = appointmentRepository.findIdsByDoctorInDateRange(job.getDoctorId(), job.getFromDate(), job.getToDate(),
+                    List.of(Appointment.AppointmentStatus.PENDING, Appointment.AppointmentStatus.UPCOMING));
+            job.total.set(ids.size());
+
+            Deque<Long> freeSlotIds = new ArrayDeque<>();
+            if (job.getAction() == Action.RESCHEDULE) {
+                for (ScheduleSlot slot : scheduleSlotRepository.findSlotsByDoctorInDateRange(job.getDoctorId(),
+                        job.getToDate().plusDays(1), job.getToDate().plusDays(rescheduleHorizonDays))) {
+                    if (slot.canBook() && !LocalDateTime.of(slot.getSlotDate(), slot.getStartTime()).isBefore(LocalDateTime.now())) {
+                        freeSlotIds.add(slot.getId());
+                    }
+                }
+                logger.info("Bulk job {}: {} appointments to move, {} free slots found", job.getId(), ids.size(), freeSlotIds.size());
+            }
+
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            for (int start = 0; start < ids.size(); start += chunkSize) {
+                List<String> chunk = ids.subList(start, Math.min(start + chunkSize, ids.size()));
+                ChunkResult result = new ChunkResult();
+                try {
+                    transactionTemplate.executeWithoutResult(status -> processChunk(job, chunk, freeSlotIds, result));
+                    job.cancelled.addAndGet(result.cancelled);
+                    job.rescheduled.addAndGet(result.rescheduled);
+                    if (notifyEmail && !result.notifications.isEmpty()) {
+                        notifier.submit(() -> result.notifications.forEach(this::sendNotification));
+                    }
+                } catch (Exception e) {
+                    logger.error("Bulk job {}: chunk starting at {} failed", job.getId(), start, e);
+                    // The bookings were rolled back, so the slots the chunk took are free again
+                    for (int i = result.takenSlotIds.size() - 1; i >= 0; i--) {
+                        freeSlotIds.addFirst(result.takenSlotIds.get(i));
+                    }
+                    job.recordError("Appointments " + start + "-" + (start + chunk.size() - 1) + ": " + e.getMessage());
+                    job.failed.addAndGet(chunk.size());
+                }
+                job.processed.addAndGet(chunk.size());
+            }
+            job.finish(BulkJob.Status.COMPLETED);
+            logger.info("Bulk job {} finished: {} cancelled, {} rescheduled, {} failed in {} ms",
+                    job.getId(), job.getCancelled(), job.getRescheduled(), job.getFailed(), job.getElapsedMillis());
+        } catch (Exception e) {
+            logger.error("Bulk job {} failed", job.getId(), e);
+            job.recordError(e.getMessage());
+            job.finish(BulkJob.Status.FAILED);
+        }
+    }
+
+    private void processChunk(BulkJob job, List<String> ids, Deque<Long> freeSlotIds, ChunkResult result) {
+        List<Appointment> appointments = appointmentRepository.findAllForBulkUpdate(ids);
+        Map<Long, ScheduleSlot> candidates = new HashMap<>();
+        if (job.getAction() == Action.RESCHEDULE && !freeSlotIds.isEmpty()) {
+            // One query for the slots this chunk can use at most
+            List<Long> needed = freeSlotIds.stream().limit(appointments.size()).toList();
+            scheduleSlotRepository.findAllByIdForUpdate(needed).forEach(slot -> candidates.put(slot.getId(), slot));
+        }
+
+        Map<Long, ScheduleSlot> releasedSlots = new HashMap<>();
+        for (Appointment appointment : appointments) {
+            String previousStart = LocalDateTime.of(appointment.getAppointmentDate(), appointment.getAppointmentTime()).format(START_FORMAT);
+            ScheduleSlot previousSlot = appointment.getScheduleSlot();
+            ScheduleSlot newSlot = job.getAction() == Action.RESCHEDULE ? takeFreeSlot(freeSlotIds, candidates, result.takenSlotIds) : null;
+
+            if (previousSlot != null) {
+                previousSlot.cancelAppointment();
+                releasedSlots.put(previousSlot.getId(), previousSlot);
+            }
+
+            AppointmentChangedEvent.ChangeType changeType;
+            if (newSlot != null) {
+                newSlot.bookAppointment();
+                appointment.setScheduleSlot(newSlot);
+                appointment.setAppointmentDate(newSlot.getSlotDate());
+                appointment.setAppointmentTime(newSlot.getStartTime());
+                releasedSlots.put(newSlot.getId(), newSlot);
+                result.rescheduled++;
+                changeType = AppointmentChangedEvent.ChangeType.RESCHEDULED;
+            } else {
+                appointment.setStatus(Appointment.AppointmentStatus.CANCELLED);
+                appointment.setScheduleSlot(null);
+                result.cancelled++;
+                changeType = AppointmentChangedEvent.ChangeType.CANCELLED;
+            }
+            eventPublisher.publishEvent(new AppointmentChangedEvent(changeType, appointment));
+
+            if (appointment.getPatient().getEmail() != null) {
+                String newStart = newSlot != null
+                        ? LocalDateTime.of(newSlot.getSlotDate(), newSlot.getStartTime()).format(START_FORMAT) : null;
+                result.notifications.add(new Notification(appointment.getPatient().getEmail(), appointment.getPatientName(),
+                        appointment.getDoctorName(), previousStart, newStart));
+            }
+        }
+        // Neither a cancelled nor a moved appointment keeps its doctor schedule entries
+        for (DoctorSchedule schedule : doctorScheduleRepository.findByAppointmentIdIn(ids)) {
+            if (schedule.isHeld() || schedule.isBooked()) {
+                schedule.releaseSlot();
+                availabilityIndexService.onDoctorScheduleChanged(schedule);
+            }
+        }
+        // Dirty appointments and slots are written as JDBC batches when the transaction commits
+        releasedSlots.values().forEach(availabilityIndexService::onSlotChanged);
+    }
+
+    // Ids leave the queue in order, so putting the taken ones back in reverse restores it
+    private ScheduleSlot takeFreeSlot(Deque<Long> freeSlotIds, Map<Long, ScheduleSlot> candidates, List<Long> takenSlotIds) {
+        while (!freeSlotIds.isEmpty()) {
+            ScheduleSlot slot = candidates.get(freeSlotIds.peekFirst());
+            if (slot == null) {
+                slot = scheduleSlotRepository.findByIdForUpdate(freeSlotIds.peekFirst()).orElse(null);
+            }
+            if (slot != null && slot.canBook()) {
+                // Multi-appointment slots stay at the head of the queue until they are full
+                if (slot.getAvailableSpots() <= 1) {
+                    takenSlotIds.add(freeSlotIds.pollFirst());
+                }
+                return slot;
+            }
+            takenSlotIds.add(freeSlotIds.pollFirst());
+        }
+        return null;
+    }
+
+    private void sendNotification(Notification notification) {
+        emailService.sendAppointmentChangeEmail(notification.email, notification.name, notification.doctorName,
+                notification.previousStart, notification.newStart);
+    }
+
+    // What one chunk did; applied to its job only after the chunk's transaction commits
+    private static class ChunkResult {
+        private final List<Notification> notifications = new ArrayList<>();
+        private final List<Long> takenSlotIds = new ArrayList<>();
+        private int cancelled;
+        private int rescheduled;
+    }
+
+    private static class Notification {
+        private final String email;
+        private final String name;
+        private final String doctorName;
+        private final String previousStart;
+        private final String newStart;
+
+        Notification(String email, String name, String doctorName, String previousStart, String newStart) {
+            this.email = email;
+            this.name = name;
+            this.doctorName = doctorName;
+            this.previousStart = previousStart;
+            this.newStart = newStart;
+        }
+    }
+
+    public static class BulkJob {
+
+        public enum Status {
+            QUEUED, RUNNING, COMPLETED, FAILED
+        }
+
+        private final String id;
+        private final String doctorId;
+        private final LocalDate fromDate;
+        private final LocalDate toDate;
+        private final Action action;
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong cancelled = new AtomicLong();
+        private final AtomicLong rescheduled = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<String> errors = new ArrayList<>();
+        private volatile Status status = Status.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile long startNanos;
+        private volatile long endNanos;
+
+        BulkJob(String id, String doctorId, LocalDate fromDate, LocalDate toDate, Action action) {
+            this.id = id;
+            this.doctorId = doctorId;
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+            this.action = action;
+        }
+
+        void start() {
+            status = Status.RUNNING;
+            startedAt = LocalDateTime.now();
+            startNanos = System.nanoTime();
+        }
+
+        void finish(Status finalStatus) {
+            endNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        void recordError(String message) {
+            synchronized (errors) {
+                if (errors.size() < MAX_RECORDED_ERRORS) {
+                    errors.add(message);
+                }
+            }
+        }
+
+        public String getId() { return id; }
+        public String getDoctorId() { return doctorId; }
+        public LocalDate getFromDate() { return fromDate; }
+        public LocalDate getToDate() { return toDate; }
+        public Action getAction() { return action; }
+        public Status getStatus() { return status; }
+        public long getTotal() { return total.get(); }
+        public long getProcessed() { return processed.get(); }
+        public long getCancelled() { return cancelled.get(); }
+        public long getRescheduled() { return rescheduled.get(); }
+        public long getFailed() { return failed.get(); }
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public LocalDateTime getFinishedAt() { return finishedAt; }
+
+        public List<String> getErrors() {
+            synchronized (errors) {
+                return new ArrayList<>(errors);
+            }
+        }
+
+        public long getElapsedMillis() {
+            if (startNanos == 0) {
+                return 0;
+            }
+            long end = endNanos != 0 ? endNanos : System.nanoTime();
+            return (end - startNanos) / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,531 @@
+package com.hyno.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyno.entity.Doctor;
+import com.hyno.entity.Hospital;
+import com.hyno.entity.Medicine;
+import com.hyno.entity.Patient;
+import com.hyno.repository.DoctorRepository;
+import com.hyno.repository.PatientRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk loader for medicines, doctors and patients. Input is spooled to a temp file and
+ * streamed row by row on a background worker; rows are persisted in chunks, each chunk in
+ * one transaction so Hibernate sends the inserts as JDBC batches. IDs are assigned in memory
+ * (UUIDs for medicines, the D###/P### sequences for doctors and patients) so no insert has
+ * to wait for a database-generated key.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportService.class);
+
+    private static final int MAX_RECORDED_ERRORS = 50;
+
+    public enum EntityType {
+        MEDICINES, DOCTORS, PATIENTS
+    }
+
+    public enum Format {
+        CSV, JSON
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${bulk-import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "bulk-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJob submit(EntityType entityType, Format format, InputStream input) throws IOException {
+        Path spool = Files.createTempFile("hyno-import-", "." + format.name().toLowerCase());
+        Files.copy(input, spool, StandardCopyOption.REPLACE_EXISTING);
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), entityType, format);
+        jobs.put(job.getId(), job);
+        logger.info("Queued {} import job {} ({} bytes)", entityType, job.getId(), Files.size(spool));
+
+        executor.submit(() -> {
+            try {
+                run(job, spool);
+            } finally {
+                try {
+                    Files.deleteIfExists(spool);
+                } catch (IOException e) {
+                    logger.warn("Could not delete import spool file: {}", spool, e);
+                }
+            }
+        });
+        return job;
+    }
+
+    public Optional<ImportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    public Collection<ImportJob> getJobs() {
+        return jobs.values();
+    }
+
+    private void run(ImportJob job, Path spool) {
+        job.start();
+        // Row being read, or the first row of the chunk being written, when an unexpected error ends the job
+        long failingRow = 1;
+        try (ImportRowReader reader = ImportRowReader.open(spool, job.getFormat(), objectMapper)) {
+            RowMapper mapper = newRowMapper(job.getEntityType());
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            Map<String, Object> row;
+            while (true) {
+                failingRow = job.getProcessed() + 1;
+                if ((row = reader.next()) == null) {
+                    break;
+                }
+                long rowNumber = job.processed.incrementAndGet();
+                try {
+                    chunk.add(new ImportRow(rowNumber, mapper.map(row)));
+                } catch (RuntimeException e) {
+                    job.recordError(rowNumber, e.getMessage());
+                    continue;
+                }
+                if (chunk.size() >= chunkSize) {
+                    failingRow = chunk.get(0).number();
+                    persistChunk(job, mapper, chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                failingRow = chunk.get(0).number();
+                persistChunk(job, mapper, chunk);
+            }
+            job.finish(ImportJob.Status.COMPLETED);
+            logger.info("Import job {} completed: {} imported, {} skipped, {} failed in {} ms ({} rows/sec)",
+                    job.getId(), job.getImported(), job.getSkipped(), job.getFailed(),
+                    job.getElapsedMillis(), job.getRowsPerSecond());
+        } catch (Exception e) {
+            logger.error("Import job {} failed", job.getId(), e);
+            job.recordError(failingRow, e.getMessage());
+            job.finish(ImportJob.Status.FAILED);
+        }
+    }
+
+    // One transaction per chunk; if the batch is rejected, retry row by row so one bad row doesn't sink the chunk
+    private void persistChunk(ImportJob job, RowMapper mapper, List<ImportRow> rows) {
+        List<ImportRow> chunk = mapper.prepare(rows);
+        job.skipped.addAndGet(rows.size() - chunk.size());
+        if (chunk.isEmpty()) {
+            return;
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                chunk.forEach(row -> entityManager.persist(row.entity()));
+                entityManager.flush();
+                entityManager.clear();
+            });
+            job.imported.addAndGet(chunk.size());
+        } catch (RuntimeException batchFailure) {
+            logger.warn("Import job {}: batch of {} rows rejected, retrying individually", job.getId(), chunk.size());
+            for (ImportRow row : chunk) {
+                Object entity = row.entity();
+                if (entity instanceof Medicine medicine) {
+                    // The rolled-back persist already generated an ID; let the retry generate a fresh one
+                    medicine.setId(null);
+                }
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        entityManager.persist(entity);
+                        entityManager.flush();
+                        entityManager.clear();
+                    });
+                    job.imported.incrementAndGet();
+                } catch (RuntimeException e) {
+                    job.recordError(row.number(), e.getMessage());
+                }
+            }
+        }
+        logger.debug("Import job {}: {} rows processed", job.getId(), job.getProcessed());
+    }
+
+    private RowMapper newRowMapper(EntityType entityType) {
+        switch (entityType) {
+            case MEDICINES:
+                return this::toMedicine;
+            case DOCTORS:
+                return new DoctorRowMapper();
+            case PATIENTS:
+                return new PatientRowMapper();
+            default:
+                throw new IllegalArgumentException("Unsupported import type: " + entityType);
+        }
+    }
+
+    private interface RowMapper {
+        Object map(Map<String, Object> row);
+
+        // Drops rows that must not be inserted and assigns IDs; called once per chunk
+        default List<ImportRow> prepare(List<ImportRow> chunk) {
+            return chunk;
+        }
+    }
+
+    // A mapped entity with its 1-based position in the input, so errors point at the right line
+    private record ImportRow(long number, Object entity) {
+    }
+
+    private Medicine toMedicine(Map<String, Object> row) {
+        Medicine medicine = new Medicine();
+        medicine.setName(required(row, "name"));
+        medicine.setGenericName(text(row, "genericName"));
+        medicine.setDescription(text(row, "description"));
+        medicine.setManufacturer(text(row, "manufacturer"));
+        medicine.setDosageForm(text(row, "dosageForm"));
+        medicine.setStrength(text(row, "strength"));
+        medicine.setIndications(text(row, "indications"));
+        medicine.setContraindications(text(row, "contraindications"));
+        medicine.setSideEffects(text(row, "sideEffects"));
+        medicine.setPrecautions(text(row, "precautions"));
+        medicine.setInteractions(text(row, "interactions"));
+        medicine.setCategory(text(row, "category"));
+        medicine.setPrice(decimal(row, "price"));
+        Integer stock = integer(row, "stockQuantity");
+        medicine.setStockQuantity(stock != null ? stock : 0);
+        medicine.setPrescriptionRequired(text(row, "prescriptionRequired"));
+        String status = text(row, "status");
+        medicine.setStatus(status != null ? status : "ACTIVE");
+        medicine.setImageUrl(text(row, "imageUrl"));
+        return medicine;
+    }
+
+    private class DoctorRowMapper extends EmailKeyedRowMapper<Doctor> {
+
+        DoctorRowMapper() {
+            super("D", doctorRepository.findIdsByPrefix("D"));
+        }
+
+        @Override
+        public Object map(Map<String, Object> row) {
+            Doctor doctor = new Doctor();
+            doctor.setName(required(row, "name"));
+            doctor.setEmail(required(row, "email"));
+            doctor.setPhone(text(row, "phone"));
+            doctor.setSpecialization(text(row, "specialization"));
+            doctor.setQualification(text(row, "qualification"));
+            doctor.setExperience(integer(row, "experience"));
+            BigDecimal rating = decimal(row, "rating");
+            doctor.setRating(rating != null ? rating : BigDecimal.ZERO);
+            doctor.setConsultationFee(decimal(row, "consultationFee"));
+            String status = text(row, "status");
+            doctor.setStatus(status != null ? status : "pending");
+            doctor.setPassword(password(row));
+            String hospitalId = text(row, "hospitalId");
+            if (hospitalId != null) {
+                doctor.setHospital(entityManager.getReference(Hospital.class, hospitalId));
+            }
+            return doctor;
+        }
+
+        @Override
+        List<String> findExistingEmails(Collection<String> emails) {
+            return doctorRepository.findExistingEmails(emails);
+        }
+
+        @Override
+        String email(Doctor doctor) {
+            return doctor.getEmail();
+        }
+
+        @Override
+        void assignId(Doctor doctor, String id) {
+            doctor.setId(id);
+        }
+    }
+
+    private class PatientRowMapper extends EmailKeyedRowMapper<Patient> {
+
+        PatientRowMapper() {
+            super("P", patientRepository.findIdsByPrefix("P"));
+        }
+
+        @Override
+        public Object map(Map<String, Object> row) {
+            Patient patient = new Patient();
+            patient.setName(required(row, "name"));
+            patient.setEmail(required(row, "email"));
+            patient.setPhone(text(row, "phone"));
+            patient.setAge(integer(row, "age"));
+            patient.setGender(text(row, "gender"));
+            patient.setBloodGroup(text(row, "bloodGroup"));
+            String dateOfBirth = text(row, "dateOfBirth");
+            patient.setDateOfBirth(dateOfBirth != null ? LocalDate.parse(dateOfBirth) : null);
+            patient.setAddress(text(row, "address"));
+            patient.setEmergencyContact(text(row, "emergencyContact"));
+            patient.setAllergies(list(row, "allergies"));
+            patient.setMedicalHistory(list(row, "medicalHistory"));
+            patient.setCurrentMedications(list(row, "currentMedications"));
+            patient.setNotes(text(row, "notes"));
+            patient.setHospitalId(text(row, "hospitalId"));
+            patient.setPassword(password(row));
+            return patient;
+        }
+
+        @Override
+        List<String> findExistingEmails(Collection<String> emails) {
+            return patientRepository.findExistingEmails(emails);
+        }
+
+        @Override
+        String email(Patient patient) {
+            return patient.getEmail();
+        }
+
+        @Override
+        void assignId(Patient patient, String id) {
+            patient.setId(id);
+        }
+    }
+
+    /**
+     * Drops rows whose email already exists (in the table or earlier in the file) with one
+     * lookup per chunk, then hands out IDs from the entity's prefix sequence.
+     */
+    private abstract static class EmailKeyedRowMapper<T> implements RowMapper {
+
+        private final String prefix;
+        private final Set<String> seen = new HashSet<>();
+        private int nextNumber;
+
+        EmailKeyedRowMapper(String prefix, List<String> existingIds) {
+            this.prefix = prefix;
+            this.nextNumber = nextSequenceNumber(existingIds, prefix);
+        }
+
+        abstract List<String> findExistingEmails(Collection<String> emails);
+
+        abstract String email(T entity);
+
+        abstract void assignId(T entity, String id);
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<ImportRow> prepare(List<ImportRow> chunk) {
+            Set<String> emails = new HashSet<>();
+            chunk.forEach(row -> emails.add(email((T) row.entity()).toLowerCase()));
+            Set<String> existing = new HashSet<>();
+            findExistingEmails(emails).forEach(email -> existing.add(email.toLowerCase()));
+
+            List<ImportRow> ready = new ArrayList<>(chunk.size());
+            for (ImportRow row : chunk) {
+                String email = email((T) row.entity()).toLowerCase();
+                if (seen.add(email) && !existing.contains(email)) {
+                    assignId((T) row.entity(), String.format("%s%03d", prefix, nextNumber++));
+                    ready.add(row);
+                }
+            }
+            return ready;
+        }
+    }
+
+    private static int nextSequenceNumber(List<String> ids, String prefix) {
+        int max = 0;
+        for (String id : ids) {
+            try {
+                max = Math.max(max, Integer.parseInt(id.substring(prefix.length())));
+            } catch (NumberFormatException e) {
+                // ignore IDs that don't follow the sequence
+            }
+        }
+        return max + 1;
+    }
+
+    // Rows may carry an existing BCrypt hash (migrations) or a plain password to hash
+    private String password(Map<String, Object> row) {
+        String password = text(row, "password");
+        if (password == null) {
+            return null;
+        }
+        return password.startsWith("$2a$") || password.startsWith("$2b$") || password.startsWith("$2y$")
+                ? password
+                : passwordEncoder.encode(password);
+    }
+
+    private static String text(Map<String, Object> row, String column) {
+        Object value = row.get(column);
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static String required(Map<String, Object> row, String column) {
+        String value = text(row, column);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing required column: " + column);
+        }
+        return value;
+    }
+
+    private static Integer integer(Map<String, Object> row, String column) {
+        String value = text(row, column);
+        return value != null ? Integer.valueOf(value) : null;
+    }
+
+    private static BigDecimal decimal(Map<String, Object> row, String column) {
+        String value = text(row, column);
+        return value != null ? new BigDecimal(value) : null;
+    }
+
+    // JSON rows carry arrays; CSV rows carry semicolon-separated values
+    private static List<String> list(Map<String, Object> row, String column) {
+        Object value = row.get(column);
+        List<String> values = new ArrayList<>();
+        if (value instanceof Collection<?> collection) {
+            collection.forEach(item -> values.add(item.toString()));
+        } else if (value != null && !value.toString().isBlank()) {
+            Arrays.stream(value.toString().split(";"))
+                    .map(String::trim)
+                    .filter(item -> !item.isEmpty())
+                    .forEach(values::add);
+        }
+        return values;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public static class ImportJob {
+
+        public enum Status {
+            QUEUED, RUNNING, COMPLETED, FAILED
+        }
+
+        private final String id;
+        private final EntityType entityType;
+        private final Format format;
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<String> errors = new ArrayList<>();
+        private volatile Status status = Status.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile long startNanos;
+        private volatile long endNanos;
+
+        ImportJob(String id, EntityType entityType, Format format) {
+            this.id = id;
+            this.entityType = entityType;
+            this.format = format;
+        }
+
+        void start() {
+            status = Status.RUNNING;
+            startedAt = LocalDateTime.now();
+            startNanos = System.nanoTime();
+        }
+
+        void finish(Status finalStatus) {
+            endNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        void recordError(long rowNumber, String message) {
+            failed.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < MAX_RECORDED_ERRORS) {
+                    errors.add("Row " + rowNumber + ": " + message);
+                }
+            }
+        }
+
+        public String getId() { return id; }
+        public EntityType getEntityType() { return entityType; }
+        Format getFormat() { return format; }
+        public Status getStatus() { return status; }
+        public long getProcessed() { return processed.get(); }
+        public long getImported() { return imported.get(); }
+        public long getSkipped() { return skipped.get(); }
+        public long getFailed() { return failed.get(); }
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public LocalDateTime getFinishedAt() { return finishedAt; }
+
+        public List<String> getErrors() {
+            synchronized (errors) {
+                return new ArrayList<>(errors);
+            }
+        }
+
+        public long getElapsedMillis() {
+            if (startNanos == 0) {
+                return 0;
+            }
+            long end = endNanos != 0 ? endNanos : System.nanoTime();
+            return (end - startNanos) / 1_000_000;
+        }
+
+        // Throughput of rows actually written, the number to compare across batch-size settings
+        public long getRowsPerSecond() {
+            long elapsed = getElapsedMillis();
+            return elapsed == 0 ? 0 : getImported() * 1000 / elapsed;
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.hyno.service;
+
+import com.hyno.config.WebSocketAuthInterceptor;
+import com.hyno.entity.Appointment;
+import com.hyno.entity.Doctor;
+import com.hyno.entity.Patient;
+import com.hyno.entity.VideoCall;
+import com.hyno.repository.AppointmentRepository;
+import com.hyno.repository.DoctorRepository;
+import com.hyno.repository.PatientRepository;
+import com.hyno.repository.VideoCallRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Single source of truth for video call state. A call is created with one transaction that
+ * inserts its video_calls row and marks the appointment; from then on its state lives in
+ * memory as an immutable snapshot that transitions replace with compare-and-set, validated
+ * against INITIATED -> CONNECTED -> COMPLETED / FAILED / CANCELLED. Changed calls are written
+ * behind every video-call.write-behind-ms, all of them in one transaction that updates both
+ * the video_calls row and the appointment's video call columns, so transitions within one
+ * window cost a single write per table and repeated status updates cost none.
+ *
+ * Calls without a live session (after a restart or eviction) are picked up again from their
+ * latest video_calls row. Reads overlay the live state on copies of the stored rows, so
+ * responses are current even before the next write-behind. Calls left open for longer than
+ * video-call.abandon-after-minutes are closed as FAILED.
+ */
+@Service
+public class CallSessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallSessionService.class);
+
+    private static final Set<VideoCall.VideoCallStatus> TERMINAL = EnumSet.of(
+            VideoCall.VideoCallStatus.COMPLETED, VideoCall.VideoCallStatus.FAILED, VideoCall.VideoCallStatus.CANCELLED);
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private VideoCallRepository videoCallRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${video-call.abandon-after-minutes:240}")
+    private long abandonAfterMinutes;
+
+    private final Map<String, CallSession> sessionsByAppointment = new ConcurrentHashMap<>();
+    private final Map<String, CallSession> sessionsByCall = new ConcurrentHashMap<>();
+    private final Set<CallSession> dirty = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void registerMetrics() {
+        meterRegistry.gaugeMapSize("hyno.video.sessions", Tags.empty(), sessionsByCall);
+    }
+
+    /**
+     * Starts a call for the appointment, or returns the one already in progress. Doctor and
+     * patient default to the appointment's.
+     */
+    @Transactional
+    public VideoCall start(String appointmentId, String doctorId, String patientId) {
+        CallSession existing = findSessionByAppointment(appointmentId);
+        if (existing != null && !TERMINAL.contains(existing.state.get().status)) {
+            return toVideoCall(existing, videoCallRepository.findById(existing.videoCallId).orElseGet(VideoCall::new));
+        }
+
+        Appointment appointment = appointmentRepository.findById(appointmentId)
+                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        Doctor doctor = doctorId != null
+                ? doctorRepository.findById(doctorId).orElseThrow(() -> new RuntimeException("Doctor not found"))
+                : appointment.getDoctor();
+        Patient patient = patientId != null
+                ? patientRepository.findById(patientId).orElseThrow(() -> new RuntimeException("Patient not found"))
+                : appointment.getPatient();
+
+        LocalDateTime now = LocalDateTime.now();
+        VideoCall videoCall = new VideoCall();
+        videoCall.setAppointment(appointment);
+        videoCall.setDoctor(doctor);
+        videoCall.setPatient(patient);
+        videoCall.setStartTime(now);
+        videoCall.setStatus(VideoCall.VideoCallStatus.INITIATED);
+        videoCall = videoCallRepository.save(videoCall);
+
+        appointment.setVideoCallStatus(Appointment.VideoCallStatus.CONNECTING);
+        appointment.setVideoCallStartTime(now);
+        appointment.setVideoCallEndTime(null);
+        appointment.setVideoCallDuration(null);
+
+        CallSession session = new CallSession(videoCall.getId(), appointmentId, doctor.getId(), patient.getId(), CallState.from(videoCall));
+        afterCommit(() -> {
+            sessionsByAppointment.put(appointmentId, session);
+            sessionsByCall.put(session.videoCallId, session);
+            // The superseded call is finished; keep it only while its final state awaits the flush
+            if (existing != null && !dirty.contains(existing)) {
+                sessionsByCall.remove(existing.videoCallId, existing);
+            }
+        });
+        meterRegistry.counter("hyno.video.sessions.transitions", "to", VideoCall.VideoCallStatus.INITIATED.name()).increment();
+        logger.info("Started video call {} for appointment {}", session.videoCallId, appointmentId);
+        return videoCall;
+    }
+
+    // Applies a transition to the appointment's current call; false when the appointment has no call
+    public boolean transitionByAppointment(String appointmentId, VideoCall.VideoCallStatus target, Integer duration, String notes) {
+        CallSession session = findSessionByAppointment(appointmentId);
+        if (session == null) {
+            return false;
+        }
+        transition(session, target, duration, notes);
+        return true;
+    }
+
+    public VideoCall transitionByCall(String videoCallId, VideoCall.VideoCallStatus target, Integer duration, String notes) {
+        CallSession session = findSessionByCall(videoCallId);
+        if (session == null) {
+            throw new RuntimeException("Video call not found");
+        }
+        transition(session, target, duration, notes);
+        return toVideoCall(session, videoCallRepository.findById(videoCallId).orElseGet(VideoCall::new));
+    }
+
+    // The appointment's live call, without touching the database; null when none is in memory
+    public String liveCallId(String appointmentId) {
+        CallSession session = sessionsByAppointment.get(appointmentId);
+        return session != null ? session.videoCallId : null;
+    }
+
+    // True when the appointment has a call that is neither finished nor failed
+    public boolean hasOpenCall(String appointmentId) {
+        CallSession session = findSessionByAppointment(appointmentId);
+        return session != null && !TERMINAL.contains(session.state.get().status);
+    }
+
+    // True when the principal is the doctor or the patient of the appointment's open call
+    public boolean isParticipant(String appointmentId, String principalName) {
+        CallSession session = findSessionByAppointment(appointmentId);
+        return session != null && !TERMINAL.contains(session.state.get().status)
+                && (principalName.equals(session.doctorPrincipal) || principalName.equals(session.patientPrincipal));
+    }
+
+    // Copies of the stored rows with any live state applied; the stored entities are left untouched
+    public List<VideoCall> withLiveState(List<VideoCall> videoCalls) {
+        List<VideoCall> views = new ArrayList<>(videoCalls.size());
+        for (VideoCall videoCall : videoCalls) {
+            views.add(withLiveState(videoCall));
+        }
+        return views;
+    }
+
+    public VideoCall withLiveState(VideoCall videoCall) {
+        CallSession session = sessionsByCall.get(videoCall.getId());
+        return session != null ? toVideoCall(session, videoCall) : videoCall;
+    }
+
+    public Appointment withLiveState(Appointment appointment) {
+        CallSession session = sessionsByAppointment.get(appointment.getId());
+        if (session == null) {
+            return appointment;
+        }
+        Appointment view = new Appointment();
+        BeanUtils.copyProperties(appointment, view);
+        applyTo(view, session.state.get());
+        return view;
+    }
+
+    /**
+     * Called by the scheduler: writes every changed call to both tables in one transaction and
+     * drops finished calls from memory once their final state is stored.
+     */
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<CallSession> batch = new ArrayList<>(dirty);
+        dirty.removeAll(batch);
+        Map<CallSession, CallState> snapshots = batch.stream().collect(Collectors.toMap(Function.identity(), session -> session.state.get()));
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                Map<String, Appointment> appointments = appointmentRepository.findAllById(
+                        batch.stream().map(session -> session.appointmentId).distinct().toList()).stream()
+                        .collect(Collectors.toMap(Appointment::getId, Function.identity()));
+                Map<String, VideoCall> videoCalls = videoCallRepository.findAllById(
+                        batch.stream().map(session -> session.videoCallId).toList()).stream()
+                        .collect(Collectors.toMap(VideoCall::getId, Function.identity()));
+                for (CallSession session : batch) {
+                    CallState state = snapshots.get(session);
+                    VideoCall videoCall = videoCalls.get(session.videoCallId);
+                    if (videoCall != null) {
+                        applyTo(videoCall, state);
+                    }
+                    // A newer call of the same appointment owns its columns
+                    Appointment appointment = appointments.get(session.appointmentId);
+                    if (appointment != null && sessionsByAppointment.get(session.appointmentId) == session) {
+                        applyTo(appointment, state);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            logger.error("Error writing {} video call states; retrying on the next flush", batch.size(), e);
+            dirty.addAll(batch);
+            return;
+        }
+        meterRegistry.counter("hyno.video.sessions.flushed").increment(batch.size());
+
+        for (CallSession session : batch) {
+            CallState state = snapshots.get(session);
+            if (TERMINAL.contains(state.status) && session.state.get() == state) {
+                sessionsByCall.remove(session.videoCallId, session);
+                sessionsByAppointment.remove(session.appointmentId, session);
+            }
+        }
+    }
+
+    // Closes calls that have had no transition within the abandon window
+    public void closeAbandoned() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(abandonAfterMinutes);
+        int closed = 0;
+        for (CallSession session : sessionsByCall.values()) {
+            CallState state = session.state.get();
+            if (!TERMINAL.contains(state.status) && state.updatedAt.isBefore(cutoff)) {
+                try {
+                    transition(session, VideoCall.VideoCallStatus.FAILED, null, null);
+                    closed++;
+                } catch (IllegalStateException e) {
+                    // Finished concurrently
+                }
+            }
+        }
+        if (closed > 0) {
+            logger.info("Closed {} abandoned video calls as FAILED", closed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void transition(CallSession session, VideoCall.VideoCallStatus target, Integer duration, String notes) {
+        while (true) {
+            CallState current = session.state.get();
+            if (current.status == target && duration == null && (notes == null || notes.isBlank())) {
+                meterRegistry.counter("hyno.video.sessions.transitions", "to", "UNCHANGED").increment();
+                return;
+            }
+            if (current.status != target && !canTransition(current.status, target)) {
+                throw new IllegalStateException("Video call " + session.videoCallId + " cannot move from " + current.status + " to " + target);
+            }
+            CallState next = current.next(target, duration, notes, LocalDateTime.now());
+            if (session.state.compareAndSet(current, next)) {
+                dirty.add(session);
+                meterRegistry.counter("hyno.video.sessions.transitions", "to", target.name()).increment();
+                return;
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static boolean canTransition(VideoCall.VideoCallStatus from, VideoCall.VideoCallStatus to) {
+        if (TERMINAL.contains(from)) {
+            return false;
+        }
+        return from == VideoCall.VideoCallStatus.INITIATED || to != VideoCall.VideoCallStatus.INITIATED;
+    }
+
+    private CallSession findSessionByAppointment(String appointmentId) {
+        CallSession session = sessionsByAppointment.get(appointmentId);
+        if (session != null) {
+            return session;
+        }
+        List<VideoCall> calls = videoCallRepository.findByAppointmentIdOrderByStartTimeDesc(appointmentId);
+        return calls.isEmpty() ? null : register(calls.get(0), appointmentId);
+    }
+
+    private CallSession findSessionByCall(String videoCallId) {
+        CallSession session = sessionsByCall.get(videoCallId);
+        if (session != null) {
+            return session;
+        }
+        return videoCallRepository.findById(videoCallId)
+                .map(videoCall -> register(videoCall, videoCall.getAppointment().getId()))
+                .orElse(null);
+    }
+
+    // Picks a stored call up again; a concurrent registration of the same call wins. Finished
+    // calls are served from a throwaway session, since their stored row is already final
+    private CallSession register(VideoCall videoCall, String appointmentId) {
+        CallSession loaded = new CallSession(videoCall.getId(), appointmentId, videoCall.getDoctor().getId(),
+                videoCall.getPatient().getId(), CallState.from(videoCall));
+        if (TERMINAL.contains(loaded.state.get().status)) {
+            return loaded;
+        }
+        CallSession session = sessionsByCall.computeIfAbsent(videoCall.getId(), id -> loaded);
+        sessionsByAppointment.putIfAbsent(appointmentId, session);
+        return session;
+    }
+
+    private static VideoCall toVideoCall(CallSession session, VideoCall stored) {
+        VideoCall view = new VideoCall();
+        BeanUtils.copyProperties(stored, view);
+        view.setId(session.videoCallId);
+        applyTo(view, session.state.get());
+        return view;
+    }
+
+    private static void applyTo(VideoCall videoCall, CallState state) {
+        videoCall.setStatus(state.status);
+        videoCall.setStartTime(state.startTime);
+        videoCall.setEndTime(state.endTime);
+        videoCall.setDuration(state.duration);
+        videoCall.setNotes(state.notes);
+    }
+
+    private static void applyTo(Appointment appointment, CallState state) {
+        appointment.setVideoCallStatus(toAppointmentStatus(state.status));
+        appointment.setVideoCallStartTime(state.startTime);
+        appointment.setVideoCallEndTime(state.endTime);
+        appointment.setVideoCallDuration(state.duration);
+    }
+
+    public static Appointment.VideoCallStatus toAppointmentStatus(VideoCall.VideoCallStatus status) {
+        switch (status) {
+            case INITIATED: return Appointment.VideoCallStatus.CONNECTING;
+            case CONNECTED: return Appointment.VideoCallStatus.IN_PROGRESS;
+            case COMPLETED: return Appointment.VideoCallStatus.COMPLETED;
+            case FAILED: return Appointment.VideoCallStatus.FAILED;
+            default: return Appointment.VideoCallStatus.CANCELLED;
+        }
+    }
+
+    public static VideoCall.VideoCallStatus fromAppointmentStatus(Appointment.VideoCallStatus status) {
+        switch (status) {
+            case CONNECTING: return VideoCall.VideoCallStatus.INITIATED;
+            case IN_PROGRESS: return VideoCall.VideoCallStatus.CONNECTED;
+            case COMPLETED: return VideoCall.VideoCallStatus.COMPLETED;
+            case FAILED: return VideoCall.VideoCallStatus.FAILED;
+            case CANCELLED: return VideoCall.VideoCallStatus.CANCELLED;
+            default: throw new IllegalArgumentException("A call cannot be moved to " + status);
+        }
+    }
+
+    private static class CallSession {
+        private final String videoCallId;
+        private final String appointmentId;
+        // The participants' STOMP principal names
+        private final String doctorPrincipal;
+        private final String patientPrincipal;
+        private final AtomicReference<CallState> state;
+
+        CallSession(String videoCallId, String appointmentId, String doctorId, String patientId, CallState state) {
+            this.videoCallId = videoCallId;
+            this.appointmentId = appointmentId;
+            this.doctorPrincipal = WebSocketAuthInterceptor.principalName("doctor", doctorId);
+            this.patientPrincipal = WebSocketAuthInterceptor.principalName("patient", patientId);
+            this.state = new AtomicReference<>(state);
+        }
+    }
+
+    // Immutable snapshot of a call; every transition replaces it
+    private static final class CallState {
+        private final VideoCall.VideoCallStatus status;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final Integer duration;
+        private final String notes;
+        private final LocalDateTime updatedAt;
+        private final long version;
+
+        CallState(VideoCall.VideoCallStatus status, LocalDateTime startTime, LocalDateTime endTime, Integer duration,
+                  String notes, LocalDateTime updatedAt, long version) {
+            this.status = status;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.duration = duration;
+            this.notes = notes;
+            this.updatedAt = updatedAt;
+            this.version = version;
+        }
+
+        static CallState from(VideoCall videoCall) {
+            LocalDateTime updatedAt = videoCall.getUpdatedAt() != null ? videoCall.getUpdatedAt() : LocalDateTime.now();
+            return new CallState(videoCall.getStatus(), videoCall.getStartTime(), videoCall.getEndTime(),
+                    videoCall.getDuration(), videoCall.getNotes(), updatedAt, 0);
+        }
+
+        CallState next(VideoCall.VideoCallStatus target, Integer duration, String notes, LocalDateTime now) {
+            LocalDateTime start = startTime;
+            LocalDateTime end = endTime;
+            Integer seconds = this.duration;
+            if (target == VideoCall.VideoCallStatus.CONNECTED && start == null) {
+                start = now;
+            }
+            if (TERMINAL.contains(target) && end == null) {
+                end = now;
+                if (start != null) {
+                    seconds = (int) Duration.between(start, end).getSeconds();
+                }
+            }
+            if (duration != null) {
+                seconds = duration;
+            }
+            String newNotes = notes != null && !notes.trim().isEmpty() ? notes : this.notes;
+            return new CallState(target, start, end, seconds, newNotes, now, version + 1);
+        }
+    }
+}
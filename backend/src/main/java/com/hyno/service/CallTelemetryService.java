@@ -0,0 +1,197 @@
+package com.hyno.service;
+
+import com.hyno.entity.CallQualitySummary;
+import com.hyno.repository.CallQualitySummaryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aggregates WebRTC stats samples sent by call participants over STOMP; samples from anyone
+ * but the call's doctor and patient are rejected. Each participant of a call has a stream
+ * holding one log-scale histogram per metric (round-trip time, jitter, packet loss, bitrate)
+ * for the current window; recording a sample only bumps counters.
+ * Every call-telemetry.window-ms the windows are closed into one CallQualitySummary row per
+ * stream with percentiles and the encoded histograms, written in one batch, so storage grows
+ * with call minutes rather than samples. Streams that received nothing for a window are
+ * dropped, and at most call-telemetry.max-streams are tracked at once.
+ */
+@Service
+public class CallTelemetryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallTelemetryService.class);
+
+    // Jitter is recorded in tenths of a millisecond and loss in hundredths of a percent,
+    // so typical sub-unit values still land in distinct histogram buckets
+    private static final double JITTER_SCALE = 10;
+    private static final double LOSS_SCALE = 100;
+
+    @Autowired
+    private CallQualitySummaryRepository summaryRepository;
+
+    @Autowired
+    private CallSessionService callSessionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${call-telemetry.max-streams:20000}")
+    private int maxStreams;
+
+    // Keyed by appointment and the participant's role-qualified principal name (DOCTOR:1), which
+    // is also stored as the summary's userId, so a doctor and a patient sharing an id stay apart
+    private final Map<String, TelemetryStream> streams = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerMetrics() {
+        meterRegistry.gaugeMapSize("hyno.call.telemetry.streams", Tags.empty(), streams);
+    }
+
+    // Samples count only from the doctor or patient of the appointment's open call; others are dropped
+    public void record(String appointmentId, String userId, Double rttMs, Double jitterMs, Double packetLossPercent, Double bitrateKbps) {
+        if (!callSessionService.isParticipant(appointmentId, userId)) {
+            record("rejected");
+            return;
+        }
+        String key = appointmentId + ":" + userId;
+        while (true) {
+            TelemetryStream stream = streams.get(key);
+            if (stream == null) {
+                if (streams.size() >= maxStreams) {
+                    record("dropped");
+                    return;
+                }
+                stream = streams.computeIfAbsent(key, k -> new TelemetryStream(appointmentId, userId));
+            }
+            synchronized (stream) {
+                if (stream.evicted) {
+                    continue;
+                }
+                stream.samples++;
+                if (rttMs != null) {
+                    stream.rtt.record(rttMs);
+                }
+                if (jitterMs != null) {
+                    stream.jitter.record(jitterMs * JITTER_SCALE);
+                }
+                if (packetLossPercent != null) {
+                    stream.packetLoss.record(Math.min(100, packetLossPercent) * LOSS_SCALE);
+                }
+                if (bitrateKbps != null) {
+                    stream.bitrate.record(bitrateKbps);
+                }
+            }
+            record("accepted");
+            return;
+        }
+    }
+
+    public List<CallQualitySummary> getSummaries(String appointmentId) {
+        return summaryRepository.findByAppointmentIdOrderByWindowStartAsc(appointmentId);
+    }
+
+    // Called every window: closes the window of every stream and stores the summaries in one batch
+    public void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        List<CallQualitySummary> summaries = new ArrayList<>();
+        for (Map.Entry<String, TelemetryStream> entry : streams.entrySet()) {
+            TelemetryStream stream = entry.getValue();
+            synchronized (stream) {
+                if (stream.samples == 0) {
+                    stream.evicted = true;
+                    streams.remove(entry.getKey(), stream);
+                    continue;
+                }
+                summaries.add(stream.summarize(now, callSessionService.liveCallId(stream.appointmentId)));
+                stream.reset(now);
+            }
+        }
+        if (summaries.isEmpty()) {
+            return;
+        }
+        try {
+            summaryRepository.saveAll(summaries);
+            meterRegistry.counter("hyno.call.telemetry.summaries").increment(summaries.size());
+            logger.debug("Stored {} call quality summaries", summaries.size());
+        } catch (Exception e) {
+            // Telemetry is best effort; a failed window is dropped rather than retried
+            logger.error("Error storing {} call quality summaries", summaries.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void record(String outcome) {
+        meterRegistry.counter("hyno.call.telemetry.samples", "outcome", outcome).increment();
+    }
+
+    private static Double unscale(Double value, double scale) {
+        return value != null ? value / scale : null;
+    }
+
+    private static class TelemetryStream {
+        private final String appointmentId;
+        private final String userId;
+        private LocalDateTime windowStart = LocalDateTime.now();
+        private int samples;
+        private QualityHistogram rtt = new QualityHistogram();
+        private QualityHistogram jitter = new QualityHistogram();
+        private QualityHistogram packetLoss = new QualityHistogram();
+        private QualityHistogram bitrate = new QualityHistogram();
+        private boolean evicted;
+
+        TelemetryStream(String appointmentId, String userId) {
+            this.appointmentId = appointmentId;
+            this.userId = userId;
+        }
+
+        CallQualitySummary summarize(LocalDateTime windowEnd, String videoCallId) {
+            CallQualitySummary summary = new CallQualitySummary();
+            summary.setAppointmentId(appointmentId);
+            summary.setVideoCallId(videoCallId);
+            summary.setUserId(userId);
+            summary.setWindowStart(windowStart);
+            summary.setWindowEnd(windowEnd);
+            summary.setSamples(samples);
+            summary.setRttP50Ms(rtt.percentile(0.5));
+            summary.setRttP95Ms(rtt.percentile(0.95));
+            summary.setRttMaxMs(rtt.max());
+            summary.setJitterP50Ms(unscale(jitter.percentile(0.5), JITTER_SCALE));
+            summary.setJitterP95Ms(unscale(jitter.percentile(0.95), JITTER_SCALE));
+            summary.setJitterMaxMs(unscale(jitter.max(), JITTER_SCALE));
+            summary.setPacketLossAvgPercent(unscale(packetLoss.mean(), LOSS_SCALE));
+            summary.setPacketLossP95Percent(unscale(packetLoss.percentile(0.95), LOSS_SCALE));
+            summary.setPacketLossMaxPercent(unscale(packetLoss.max(), LOSS_SCALE));
+            summary.setBitrateAvgKbps(bitrate.mean());
+            summary.setBitrateP05Kbps(bitrate.percentile(0.05));
+            summary.setBitrateP50Kbps(bitrate.percentile(0.5));
+            summary.setHistograms("rtt=" + rtt.encode() + ";jitter=" + jitter.encode()
+                    + ";loss=" + packetLoss.encode() + ";bitrate=" + bitrate.encode());
+            return summary;
+        }
+
+        void reset(LocalDateTime now) {
+            windowStart = now;
+            samples = 0;
+            rtt = new QualityHistogram();
+            jitter = new QualityHistogram();
+            packetLoss = new QualityHistogram();
+            bitrate = new QualityHistogram();
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.hyno.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyno.entity.ChatArchiveBlock;
+import com.hyno.entity.ChatMessage;
+import com.hyno.entity.ChatRoom;
+import com.hyno.repository.ChatArchiveBlockRepository;
+import com.hyno.repository.ChatMessageRepository;
+import com.hyno.repository.ChatRoomRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Moves the messages of chat rooms that have been archived for longer than
+ * chat-archive.after-days out of chat_messages into cold storage. Each room's messages are
+ * serialized in blocks of chat-archive.block-messages, deflated, and appended to the current
+ * segment file (archive-000001.seg, ...; a new one is started at segment-max-size). A block
+ * is written and fsynced before the transaction that records it and deletes the hot rows, so
+ * a failure in between leaves only unreferenced bytes in the segment, never lost messages.
+ *
+ * Reads are transparent: ChatService merges a room's archived messages back in front of its
+ * hot ones. Rehydrated rooms are kept in a small LRU cache keyed by their block list, so a
+ * cached room is never served stale after another block is added or the archive is deleted.
+ * Each run records the rows and bytes moved out of the hot table.
+ */
+@Service
+public class ChatArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatArchiveService.class);
+
+    private static final int BLOCK_MAGIC = 0x48594341; // "HYCA"
+    private static final int BLOCK_HEADER_BYTES = 16;
+    private static final int DELETE_BATCH_SIZE = 1000;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("archive-(\\d{6})\\.seg");
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ChatArchiveBlockRepository archiveBlockRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${chat-archive.after-days:90}")
+    private int afterDays;
+
+    @Value("${chat-archive.storage-dir:archive/chat}")
+    private String storageDir;
+
+    @Value("${chat-archive.segment-max-size:256MB}")
+    private DataSize segmentMaxSize;
+
+    @Value("${chat-archive.rooms-per-run:500}")
+    private int roomsPerRun;
+
+    @Value("${chat-archive.block-messages:1000}")
+    private int blockMessages;
+
+    @Value("${chat-archive.cache-rooms:64}")
+    private int cacheRooms;
+
+    private Path segmentDir;
+    private int currentSegment = 1;
+    private final Object segmentLock = new Object();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ArchiveRun lastRun;
+
+    private Map<String, CachedRoom> rehydrated;
+
+    @PostConstruct
+    public void init() throws IOException {
+        segmentDir = Paths.get(storageDir).toAbsolutePath();
+        Files.createDirectories(segmentDir);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(segmentDir, "archive-*.seg")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    currentSegment = Math.max(currentSegment, Integer.parseInt(matcher.group(1)));
+                }
+            }
+        }
+        rehydrated = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedRoom> eldest) {
+                return size() > cacheRooms;
+            }
+        });
+    }
+
+    // Archives the messages of up to rooms-per-run eligible rooms, one transaction per room
+    public ArchiveRun archiveEligibleRooms() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A chat archive run is already in progress");
+        }
+        try {
+            ArchiveRun run = new ArchiveRun();
+            run.hotMessagesBefore = chatMessageRepository.count();
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+            List<String> roomIds = chatRoomRepository.findIdsReadyForColdArchive(cutoff, PageRequest.of(0, roomsPerRun));
+            logger.info("Archiving messages of {} chat rooms archived before {}", roomIds.size(), cutoff);
+
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            for (String roomId : roomIds) {
+                try {
+                    long[] moved = transactionTemplate.execute(status -> archiveRoom(roomId));
+                    run.rooms++;
+                    run.messages += moved[0];
+                    run.rawBytes += moved[1];
+                    run.storedBytes += moved[2];
+                } catch (Exception e) {
+                    run.failedRooms++;
+                    logger.error("Error archiving messages of chat room: {}", roomId, e);
+                }
+            }
+            run.hotMessagesAfter = chatMessageRepository.count();
+            run.finishedAt = LocalDateTime.now();
+            lastRun = run;
+            logger.info("Chat archive run moved {} messages of {} rooms to cold storage ({} bytes -> {} bytes), chat_messages rows {} -> {}, {} rooms failed",
+                    run.messages, run.rooms, run.rawBytes, run.storedBytes, run.hotMessagesBefore, run.hotMessagesAfter, run.failedRooms);
+            return run;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Returns {messages, raw bytes, stored bytes}; must run inside a transaction
+    private long[] archiveRoom(String chatRoomId) {
+        List<ChatMessage> messages = chatMessageRepository.findByChatRoomIdOrderByCreatedAtAsc(chatRoomId);
+        long rawBytes = 0;
+        long storedBytes = 0;
+        try {
+            for (int from = 0; from < messages.size(); from += blockMessages) {
+                List<ChatMessage> block = messages.subList(from, Math.min(from + blockMessages, messages.size()));
+                byte[] raw = objectMapper.writeValueAsBytes(block);
+                byte[] stored = deflate(raw);
+
+                ChatArchiveBlock archiveBlock = appendBlock(raw.length, stored);
+                archiveBlock.setChatRoomId(chatRoomId);
+                archiveBlock.setMessageCount(block.size());
+                archiveBlock.setFirstMessageAt(block.get(0).getCreatedAt());
+                archiveBlock.setLastMessageAt(block.get(block.size() - 1).getCreatedAt());
+                archiveBlockRepository.save(archiveBlock);
+                rawBytes += raw.length;
+                storedBytes += stored.length;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<String> ids = messages.stream().map(ChatMessage::getId).toList();
+        for (int from = 0; from < ids.size(); from += DELETE_BATCH_SIZE) {
+            chatMessageRepository.deleteByIdIn(ids.subList(from, Math.min(from + DELETE_BATCH_SIZE, ids.size())));
+        }
+        meterRegistry.counter("hyno.chat.archive.messages").increment(messages.size());
+        meterRegistry.counter("hyno.chat.archive.bytes", "kind", "raw").increment(rawBytes);
+        meterRegistry.counter("hyno.chat.archive.bytes", "kind", "stored").increment(storedBytes);
+        logger.info("Archived {} messages of chat room {} ({} bytes -> {} bytes)", messages.size(), chatRoomId, rawBytes, storedBytes);
+        return new long[] {messages.size(), rawBytes, storedBytes};
+    }
+
+    /**
+     * Returns the room's archived messages, oldest first, or an empty list when the room has
+     * none. The returned messages are detached and shared with the cache, so callers must not
+     * modify them.
+     */
+    public List<ChatMessage> getArchivedMessages(String chatRoomId) {
+        List<ChatArchiveBlock> blocks = archiveBlockRepository.findByChatRoomIdOrderByFirstMessageAtAsc(chatRoomId);
+        if (blocks.isEmpty()) {
+            return List.of();
+        }
+        List<String> blockIds = blocks.stream().map(ChatArchiveBlock::getId).toList();
+        CachedRoom cached = rehydrated.get(chatRoomId);
+        if (cached != null && cached.blockIds.equals(blockIds)) {
+            meterRegistry.counter("hyno.chat.archive.rehydrations", "source", "cache").increment();
+            return cached.messages;
+        }
+
+        ChatRoom chatRoom = new ChatRoom();
+        chatRoom.setId(chatRoomId);
+        List<ChatMessage> messages = new ArrayList<>();
+        try {
+            for (ChatArchiveBlock block : blocks) {
+                for (ChatMessage message : objectMapper.readValue(readBlock(block), ChatMessage[].class)) {
+                    message.setChatRoom(chatRoom);
+                    messages.add(message);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Error reading archived messages of chat room: {}", chatRoomId, e);
+            throw new UncheckedIOException(e);
+        }
+        List<ChatMessage> result = Collections.unmodifiableList(messages);
+        rehydrated.put(chatRoomId, new CachedRoom(blockIds, result));
+        meterRegistry.counter("hyno.chat.archive.rehydrations", "source", "disk").increment();
+        return result;
+    }
+
+    // Forgets a room's archived messages; their bytes stay in the append-only segments
+    @Transactional
+    public void deleteArchive(String chatRoomId) {
+        int deleted = archiveBlockRepository.deleteByChatRoomId(chatRoomId);
+        rehydrated.remove(chatRoomId);
+        if (deleted > 0) {
+            logger.info("Deleted {} archive blocks of chat room: {}", deleted, chatRoomId);
+        }
+    }
+
+    public Map<String, Object> getStats() throws IOException {
+        Object[] summary = archiveBlockRepository.summarize().get(0);
+        long segmentBytes = 0;
+        int segments = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(segmentDir, "archive-*.seg")) {
+            for (Path file : files) {
+                segmentBytes += Files.size(file);
+                segments++;
+            }
+        }
+        long rawBytes = ((Number) summary[2]).longValue();
+        long storedBytes = ((Number) summary[3]).longValue();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hotMessages", chatMessageRepository.count());
+        stats.put("archivedRooms", ((Number) summary[0]).longValue());
+        stats.put("archivedMessages", ((Number) summary[1]).longValue());
+        stats.put("archivedRawBytes", rawBytes);
+        stats.put("archivedStoredBytes", storedBytes);
+        stats.put("compressionRatio", storedBytes > 0 ? (double) rawBytes / storedBytes : null);
+        stats.put("segments", segments);
+        stats.put("segmentBytesOnDisk", segmentBytes);
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+
+    // Appends one block and fsyncs it; the returned entity carries its location and sizes
+    private ChatArchiveBlock appendBlock(int rawLength, byte[] stored) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(stored);
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_HEADER_BYTES + stored.length);
+        buffer.putInt(BLOCK_MAGIC).putInt(rawLength).putInt(stored.length).putInt((int) crc.getValue()).put(stored).flip();
+
+        synchronized (segmentLock) {
+            Path segment = segmentDir.resolve(segmentName(currentSegment));
+            if (Files.exists(segment) && Files.size(segment) >= segmentMaxSize.toBytes()) {
+                currentSegment++;
+                segment = segmentDir.resolve(segmentName(currentSegment));
+            }
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                 FileLock lock = channel.lock()) {
+                long offset = channel.size();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+
+                ChatArchiveBlock block = new ChatArchiveBlock();
+                block.setSegmentFile(segment.getFileName().toString());
+                block.setSegmentOffset(offset);
+                block.setStoredBytes(stored.length);
+                block.setRawBytes(rawLength);
+                return block;
+            }
+        }
+    }
+
+    private byte[] readBlock(ChatArchiveBlock block) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_HEADER_BYTES + block.getStoredBytes());
+        try (FileChannel channel = FileChannel.open(segmentDir.resolve(block.getSegmentFile()), StandardOpenOption.READ)) {
+            long position = block.getSegmentOffset();
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Archive block " + block.getId() + " is truncated");
+                }
+                position += read;
+            }
+        }
+        buffer.flip();
+        int magic = buffer.getInt();
+        int rawLength = buffer.getInt();
+        int storedLength = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (magic != BLOCK_MAGIC || rawLength != block.getRawBytes() || storedLength != block.getStoredBytes()) {
+            throw new IOException("Archive block " + block.getId() + " does not match its header");
+        }
+        byte[] stored = Arrays.copyOfRange(buffer.array(), BLOCK_HEADER_BYTES, BLOCK_HEADER_BYTES + storedLength);
+        CRC32 crc = new CRC32();
+        crc.update(stored);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Archive block " + block.getId() + " failed its checksum");
+        }
+        return inflate(stored, rawLength);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] stored, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int read = inflater.inflate(raw, length, rawLength - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += read;
+            }
+            if (length != rawLength) {
+                throw new IOException("Archive block inflated to " + length + " bytes, expected " + rawLength);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Archive block is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static String segmentName(int number) {
+        return String.format("archive-%06d.seg", number);
+    }
+
+    private static class CachedRoom {
+        private final List<String> blockIds;
+        private final List<ChatMessage> messages;
+
+        CachedRoom(List<String> blockIds, List<ChatMessage> messages) {
+            this.blockIds = blockIds;
+            this.messages = messages;
+        }
+    }
+
+    public static class ArchiveRun {
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private LocalDateTime finishedAt;
+        private int rooms;
+        private int failedRooms;
+        private long messages;
+        private long rawBytes;
+        private long storedBytes;
+        private long hotMessagesBefore;
+        private long hotMessagesAfter;
+
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public LocalDateTime getFinishedAt() { return finishedAt; }
+        public int getRooms() { return rooms; }
+        public int getFailedRooms() { return failedRooms; }
+        public long getMessages() { return messages; }
+        public long getRawBytes() { return rawBytes; }
+        public long getStoredBytes() { return storedBytes; }
+        public long getHotMessagesBefore() { return hotMessagesBefore; }
+        public long getHotMessagesAfter() { return hotMessagesAfter; }
+    }
+}
@@ -0,0 +1,327 @@
+package com.hyno.service;
+
+import com.hyno.entity.AttachmentUpload;
+import com.hyno.entity.ChatAttachment;
+import com.hyno.entity.ChatMessage;
+import com.hyno.entity.ChatRoom;
+import com.hyno.repository.AttachmentUploadRepository;
+import com.hyno.repository.ChatAttachmentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Chunked, resumable chat attachment uploads. An upload is opened with the file's metadata,
+ * then its bytes are appended in order with PUTs at an explicit offset; the temp file on disk
+ * is the source of truth for the offset, so a client that lost a response asks for the current
+ * offset and continues from there, across restarts too. Chunks are streamed from the request
+ * into a FileChannel and fsynced before being acknowledged, never held whole in memory.
+ *
+ * Completing an upload hashes the file and moves it to blobs/ab/abcdef... under its SHA-256,
+ * or discards it when identical content is already stored, then records the attachment with the
+ * upload's own metadata and posts the chat message.
+ * Downloads are served from the blob with FileChannel.transferTo.
+ */
+@Service
+public class ChatAttachmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatAttachmentService.class);
+
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+    private static final int TRANSFER_STEP = 1 << 20;
+
+    @Autowired
+    private AttachmentUploadRepository uploadRepository;
+
+    @Autowired
+    private ChatAttachmentRepository attachmentRepository;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chat-attachments.storage-dir:uploads/chat}")
+    private String storageDir;
+
+    @Value("${chat-attachments.max-file-size:2GB}")
+    private DataSize maxFileSize;
+
+    @Value("${chat-attachments.chunk-size:8MB}")
+    private DataSize chunkSize;
+
+    @Value("${chat-attachments.upload-expiry-hours:24}")
+    private long uploadExpiryHours;
+
+    private Path tempDir;
+    private Path blobDir;
+
+    @PostConstruct
+    public void init() throws IOException {
+        tempDir = Files.createDirectories(Paths.get(storageDir, "tmp"));
+        blobDir = Files.createDirectories(Paths.get(storageDir, "blobs"));
+    }
+
+    public long getChunkSize() {
+        return chunkSize.toBytes();
+    }
+
+    public AttachmentUpload startUpload(String chatRoomId, String senderId, String senderName, ChatMessage.SenderRole senderRole,
+                                        String fileName, String contentType, long size) throws IOException {
+        logger.info("Starting attachment upload of {} bytes to chat room: {}", size, chatRoomId);
+        if (size <= 0 || size > maxFileSize.toBytes()) {
+            throw new IllegalArgumentException("File size must be between 1 byte and " + maxFileSize);
+        }
+        if (chatService.getChatRoomById(chatRoomId).isEmpty()) {
+            throw new IllegalArgumentException("Chat room not found: " + chatRoomId);
+        }
+        AttachmentUpload upload = new AttachmentUpload();
+        upload.setChatRoomId(chatRoomId);
+        upload.setSenderId(senderId);
+        upload.setSenderName(senderName);
+        upload.setSenderRole(senderRole);
+        upload.setFileName(Paths.get(fileName).getFileName().toString());
+        upload.setContentType(contentType);
+        upload.setSize(size);
+        AttachmentUpload saved = uploadRepository.save(upload);
+        Files.createFile(tempFile(saved.getId()));
+        return saved;
+    }
+
+    public Optional<AttachmentUpload> getUpload(String uploadId) {
+        return uploadRepository.findById(uploadId);
+    }
+
+    public long getOffset(String uploadId) throws IOException {
+        Path temp = tempFile(uploadId);
+        return Files.exists(temp) ? Files.size(temp) : 0;
+    }
+
+    /**
+     * Appends the request body at the given offset and returns the new offset. The offset must
+     * equal the bytes already received; a mismatch (a retried or concurrent chunk) is rejected
+     * with the current offset so the client can resume from it.
+     */
+    public long appendChunk(AttachmentUpload upload, long offset, InputStream body) throws IOException {
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(tempFile(upload.getId()), StandardOpenOption.WRITE)) {
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                // Another request is writing this upload
+                throw new UploadOffsetMismatchException(offset, channel.size());
+            }
+            try {
+                long current = channel.size();
+                if (offset != current) {
+                    throw new UploadOffsetMismatchException(offset, current);
+                }
+                long remaining = upload.getSize() - current;
+                ReadableByteChannel source = Channels.newChannel(body);
+                long position = current;
+                while (position - current < remaining) {
+                    long transferred = channel.transferFrom(source, position, Math.min(TRANSFER_STEP, remaining - (position - current)));
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                }
+                if (position - current == remaining && source.read(ByteBuffer.allocate(1)) > 0) {
+                    channel.truncate(current);
+                    throw new IllegalArgumentException("Chunk exceeds the declared file size of " + upload.getSize() + " bytes");
+                }
+                // Acknowledged bytes must survive a crash, or a resumed upload would leave a gap
+                channel.force(false);
+                long written = position - current;
+                meterRegistry.counter("hyno.chat.attachments.bytes", "direction", "upload").increment(written);
+                logger.debug("Upload {}: wrote {} bytes at offset {} in {} ms", upload.getId(), written, current,
+                        (System.nanoTime() - started) / 1_000_000);
+                upload.setUpdatedAt(LocalDateTime.now());
+                uploadRepository.save(upload);
+                return position;
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    // Hashes the finished upload, stores it content-addressed and posts it to the chat room
+    public ChatMessage completeUpload(AttachmentUpload upload, String caption) throws IOException {
+        Path temp = tempFile(upload.getId());
+        long received = getOffset(upload.getId());
+        if (received != upload.getSize()) {
+            throw new IllegalStateException("Upload is incomplete: " + received + " of " + upload.getSize() + " bytes received");
+        }
+        ChatRoom chatRoom = chatService.getChatRoomById(upload.getChatRoomId())
+                .orElseThrow(() -> new IllegalArgumentException("Chat room not found: " + upload.getChatRoomId()));
+
+        String sha256 = hash(temp);
+        Path blob = blobFile(sha256);
+        if (Files.exists(blob) && Files.size(blob) == upload.getSize()) {
+            Files.delete(temp);
+            meterRegistry.counter("hyno.chat.attachments.deduplicated").increment();
+            logger.info("Upload {} matches stored attachment {}; discarded the duplicate", upload.getId(), sha256);
+        } else {
+            Files.createDirectories(blob.getParent());
+            try {
+                Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Same content completed concurrently
+                Files.delete(temp);
+            }
+        }
+
+        // The blob is shared, but each upload keeps its own name, type, room and sender
+        ChatAttachment attachment = new ChatAttachment();
+        attachment.setSha256(sha256);
+        attachment.setSize(upload.getSize());
+        attachment.setContentType(upload.getContentType());
+        attachment.setFileName(upload.getFileName());
+        attachment.setChatRoomId(upload.getChatRoomId());
+        attachment.setSenderId(upload.getSenderId());
+        attachment = attachmentRepository.save(attachment);
+
+        ChatMessage message = new ChatMessage();
+        message.setChatRoom(chatRoom);
+        message.setSenderId(upload.getSenderId());
+        message.setSenderName(upload.getSenderName());
+        message.setSenderRole(upload.getSenderRole());
+        message.setSenderType(upload.getSenderRole() == ChatMessage.SenderRole.PATIENT ? ChatMessage.SenderType.PATIENT : ChatMessage.SenderType.DOCTOR);
+        message.setMessageType(messageTypeOf(upload.getContentType()));
+        String content = caption != null && !caption.isBlank() ? caption : upload.getFileName();
+        message.setContent(content.length() > 2000 ? content.substring(0, 2000) : content);
+        message.setFileUrl("/api/chat/attachments/" + attachment.getId());
+        message.setFileName(upload.getFileName());
+        message.setFileSize(attachment.getSize());
+        ChatMessage saved = chatService.sendMessage(message);
+
+        uploadRepository.delete(upload);
+        logger.info("Upload {} completed as attachment {} of blob {} ({} bytes) in {} ms", upload.getId(), attachment.getId(), sha256, upload.getSize(),
+                Duration.between(upload.getCreatedAt(), LocalDateTime.now()).toMillis());
+        return saved;
+    }
+
+    public void abortUpload(AttachmentUpload upload) throws IOException {
+        Files.deleteIfExists(tempFile(upload.getId()));
+        uploadRepository.delete(upload);
+        logger.info("Aborted attachment upload: {}", upload.getId());
+    }
+
+    // Drops uploads that have not received a chunk within the expiry window
+    public void purgeStaleUploads() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(uploadExpiryHours);
+        for (AttachmentUpload upload : uploadRepository.findByUpdatedAtBefore(cutoff)) {
+            try {
+                abortUpload(upload);
+            } catch (Exception e) {
+                logger.error("Error purging stale upload: {}", upload.getId(), e);
+            }
+        }
+    }
+
+    public Optional<ChatAttachment> getAttachment(String attachmentId) {
+        return attachmentRepository.findById(attachmentId)
+                .filter(attachment -> SHA256.matcher(attachment.getSha256()).matches() && Files.exists(blobFile(attachment.getSha256())));
+    }
+
+    // Streams [position, position + count) of the blob to the target without copying it through the heap
+    public void transfer(ChatAttachment attachment, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(blobFile(attachment.getSha256()), StandardOpenOption.READ)) {
+            long end = position + count;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+            meterRegistry.counter("hyno.chat.attachments.bytes", "direction", "download").increment(count);
+        }
+    }
+
+    private Path tempFile(String uploadId) {
+        return tempDir.resolve(uploadId + ".part");
+    }
+
+    private Path blobFile(String sha256) {
+        return blobDir.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TRANSFER_STEP);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static ChatMessage.MessageType messageTypeOf(String contentType) {
+        if (contentType == null) {
+            return ChatMessage.MessageType.FILE;
+        }
+        if (contentType.startsWith("image/")) {
+            return ChatMessage.MessageType.IMAGE;
+        }
+        if (contentType.startsWith("audio/")) {
+            return ChatMessage.MessageType.AUDIO;
+        }
+        return ChatMessage.MessageType.FILE;
+    }
+
+    public static class UploadOffsetMismatchException extends IllegalStateException {
+
+        private final long currentOffset;
+
+        public UploadOffsetMismatchException(long requestedOffset, long currentOffset) {
+            super("Chunk offset " + requestedOffset + " does not match the " + currentOffset + " bytes received");
+            this.currentOffset = currentOffset;
+        }
+
+        public long getCurrentOffset() {
+            return currentOffset;
+        }
+    }
+}
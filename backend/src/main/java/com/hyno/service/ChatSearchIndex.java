@@ -0,0 +1,729 @@
+package com.hyno.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Segmented inverted index over chat message text. New messages go into a mutable in-memory
+ * segment; {@link #flush()} freezes it into an immutable segment and writes it to disk, and
+ * {@link #merge(int)} folds segments together once there are too many. Postings are doc ID and
+ * term frequency pairs, delta and varint encoded on disk. Queries are ranked with BM25 using
+ * statistics summed over all segments, and only documents in the caller's rooms are scored.
+ * A merged segment records the IDs of the segments it replaces, so a crash between writing it
+ * and deleting them is resolved on {@link #load()}. Not a Spring bean; {@link ChatSearchService}
+ * owns the instance.
+ */
+class ChatSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatSearchIndex.class);
+
+    private static final int MAGIC = 0x48594353; // "HYCS"
+    private static final int VERSION = 2;
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 40;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+            "no", "not", "of", "on", "or", "so", "that", "the", "their", "then", "there", "these", "they",
+            "this", "to", "was", "will", "with", "you", "me", "my", "we", "our", "your");
+
+    private final Path directory;
+
+    // Immutable segments; the list is replaced wholesale under the index lock
+    private volatile List<Segment> segments = List.of();
+
+    // Guarded by this
+    private LiveSegment live = new LiveSegment();
+    private long nextSegmentId = 1;
+
+    ChatSearchIndex(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Loads the segments on disk. Segments a readable merged segment replaces are deleted, as are
+     * leftover temp files. If a segment that is not replaced cannot be read, the documents it held
+     * are unknown, so every segment is dropped and the caller's catch-up rebuilds the index.
+     */
+    synchronized void load() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*.tmp")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        List<Segment> loaded = new ArrayList<>();
+        Map<Long, Path> unreadable = new HashMap<>();
+        Set<Long> superseded = new HashSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*.seg")) {
+            for (Path file : files) {
+                long id = Segment.idOf(file);
+                try {
+                    Segment segment = Segment.read(file);
+                    loaded.add(segment);
+                    Arrays.stream(segment.replaces).forEach(superseded::add);
+                } catch (IOException e) {
+                    logger.warn("Unreadable chat search segment {}: {}", file, e.getMessage());
+                    unreadable.put(id, file);
+                }
+                nextSegmentId = Math.max(nextSegmentId, id + 1);
+            }
+        }
+        List<Segment> current = new ArrayList<>();
+        for (Segment segment : loaded) {
+            if (superseded.contains(segment.id)) {
+                Files.deleteIfExists(segment.file(directory));
+            } else {
+                current.add(segment);
+            }
+        }
+        boolean lost = false;
+        for (Map.Entry<Long, Path> entry : unreadable.entrySet()) {
+            lost |= !superseded.contains(entry.getKey());
+            Files.deleteIfExists(entry.getValue());
+        }
+        if (lost) {
+            logger.warn("Dropping the chat search segments so the index is rebuilt from the database");
+            for (Segment segment : current) {
+                Files.deleteIfExists(segment.file(directory));
+            }
+            current.clear();
+        }
+        current.sort(Comparator.comparingLong(segment -> segment.id));
+        segments = List.copyOf(current);
+    }
+
+    synchronized void add(String messageId, String chatRoomId, long createdAt, String content) {
+        live.add(messageId, chatRoomId, createdAt, tokenize(content));
+    }
+
+    synchronized int liveSize() {
+        return live.size();
+    }
+
+    synchronized long oldestLiveCreatedAt() {
+        return live.size() == 0 ? Long.MAX_VALUE : live.minCreatedAt;
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    long documentCount() {
+        long count;
+        synchronized (this) {
+            count = live.size();
+        }
+        for (Segment segment : segments) {
+            count += segment.docCount();
+        }
+        return count;
+    }
+
+    long maxPersistedCreatedAt() {
+        long max = Long.MIN_VALUE;
+        for (Segment segment : segments) {
+            max = Math.max(max, segment.maxCreatedAt);
+        }
+        return max;
+    }
+
+    // IDs of indexed messages created at or after the given time, for de-duplicating a catch-up
+    Set<String> messageIdsSince(long createdAt) {
+        Set<String> ids = new HashSet<>();
+        for (Segment segment : segments) {
+            if (segment.maxCreatedAt < createdAt) {
+                continue;
+            }
+            for (int doc = 0; doc < segment.docCount(); doc++) {
+                if (segment.createdAt[doc] >= createdAt) {
+                    ids.add(segment.messageIds[doc]);
+                }
+            }
+        }
+        synchronized (this) {
+            for (int doc = 0; doc < live.size(); doc++) {
+                if (live.createdAt.get(doc) >= createdAt) {
+                    ids.add(live.messageIds.get(doc));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Freezes the live segment and writes it to disk. The frozen segment is searchable as soon
+     * as it is swapped in; the write happens outside the lock so indexing is not blocked.
+     */
+    void flush() throws IOException {
+        Segment frozen;
+        synchronized (this) {
+            if (live.size() == 0) {
+                return;
+            }
+            frozen = live.freeze(nextSegmentId++);
+            live = new LiveSegment();
+            List<Segment> updated = new ArrayList<>(segments);
+            updated.add(frozen);
+            segments = List.copyOf(updated);
+        }
+        frozen.write(directory);
+    }
+
+    /**
+     * Once there are more than maxSegments, merges the smallest segments down to half that
+     * many, so large segments are rewritten rarely and merge cost stays proportional to new data.
+     */
+    void merge(int maxSegments) throws IOException {
+        List<Segment> current = segments;
+        if (current.size() <= maxSegments) {
+            return;
+        }
+        List<Segment> bySize = new ArrayList<>(current);
+        bySize.sort(Comparator.comparingInt(Segment::docCount));
+        List<Segment> toMerge = bySize.subList(0, Math.max(2, current.size() - maxSegments / 2 + 1));
+        long id;
+        synchronized (this) {
+            id = nextSegmentId++;
+        }
+        Segment merged = Segment.merge(id, toMerge, replacedIds(toMerge));
+        merged.write(directory);
+        synchronized (this) {
+            List<Segment> updated = new ArrayList<>(segments);
+            updated.removeAll(toMerge);
+            updated.add(merged);
+            segments = List.copyOf(updated);
+        }
+        for (Segment segment : toMerge) {
+            Files.deleteIfExists(segment.file(directory));
+        }
+    }
+
+    // The parts, plus any segments they replace whose files a failed delete left behind
+    private long[] replacedIds(List<Segment> parts) {
+        Set<Long> ids = new TreeSet<>();
+        for (Segment part : parts) {
+            ids.add(part.id);
+            for (long replaced : part.replaces) {
+                if (Files.exists(directory.resolve(Segment.fileName(replaced)))) {
+                    ids.add(replaced);
+                }
+            }
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    SearchPage search(String query, Set<String> allowedRooms, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty() || allowedRooms.isEmpty() || limit <= 0) {
+            return new SearchPage(List.of(), 0);
+        }
+        List<Segment> current;
+        LiveSegment liveSnapshot;
+        long docCount;
+        long totalLength;
+        long[] documentFrequency = new long[terms.size()];
+        synchronized (this) {
+            // Read together so a concurrent flush cannot move documents out of both views
+            current = segments;
+            liveSnapshot = live;
+            docCount = live.size();
+            totalLength = live.totalLength;
+            for (int t = 0; t < terms.size(); t++) {
+                IntList postings = live.postings.get(terms.get(t));
+                documentFrequency[t] = postings != null ? postings.size() / 2 : 0;
+            }
+        }
+        // Collection statistics over every segment, live included
+        for (Segment segment : current) {
+            docCount += segment.docCount();
+            totalLength += segment.totalLength;
+            for (int t = 0; t < terms.size(); t++) {
+                int[] postings = segment.postings.get(terms.get(t));
+                documentFrequency[t] += postings != null ? postings.length / 2 : 0;
+            }
+        }
+        if (docCount == 0) {
+            return new SearchPage(List.of(), 0);
+        }
+        double averageLength = Math.max(1.0, (double) totalLength / docCount);
+        double[] idf = new double[terms.size()];
+        for (int t = 0; t < terms.size(); t++) {
+            idf[t] = Math.log(1 + (docCount - documentFrequency[t] + 0.5) / (documentFrequency[t] + 0.5));
+        }
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(Hit.RANKING.reversed());
+        int keep = offset + limit;
+        long total = 0;
+        // Frozen segments are immutable and scored without the lock; only the small live segment needs it
+        for (Segment segment : current) {
+            total += score(segment.view(), terms, idf, averageLength, allowedRooms, top, keep);
+        }
+        synchronized (this) {
+            total += score(liveSnapshot.view(), terms, idf, averageLength, allowedRooms, top, keep);
+        }
+
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(Hit.RANKING);
+        List<Hit> page = offset >= ranked.size() ? List.of() : ranked.subList(offset, ranked.size());
+        return new SearchPage(page, total);
+    }
+
+    private static long score(SegmentView segment, List<String> terms, double[] idf, double averageLength,
+                              Set<String> allowedRooms, PriorityQueue<Hit> top, int keep) {
+        boolean[] allowed = new boolean[segment.rooms().size()];
+        boolean any = false;
+        for (int room = 0; room < allowed.length; room++) {
+            allowed[room] = allowedRooms.contains(segment.rooms().get(room));
+            any |= allowed[room];
+        }
+        if (!any) {
+            return 0;
+        }
+        Map<Integer, double[]> scores = new HashMap<>();
+        for (int t = 0; t < terms.size(); t++) {
+            int[] postings = segment.postings(terms.get(t));
+            if (postings == null) {
+                continue;
+            }
+            int length = segment.postingsLength(terms.get(t));
+            for (int i = 0; i < length; i += 2) {
+                int doc = postings[i];
+                if (!allowed[segment.room(doc)]) {
+                    continue;
+                }
+                int tf = postings[i + 1];
+                double norm = K1 * (1 - B + B * segment.length(doc) / averageLength);
+                double termScore = idf[t] * tf * (K1 + 1) / (tf + norm);
+                scores.computeIfAbsent(doc, d -> new double[1])[0] += termScore;
+            }
+        }
+        for (Map.Entry<Integer, double[]> entry : scores.entrySet()) {
+            int doc = entry.getKey();
+            Hit hit = new Hit(segment.messageId(doc), segment.rooms().get(segment.room(doc)), segment.createdAt(doc), entry.getValue()[0]);
+            if (top.size() < keep) {
+                top.add(hit);
+            } else if (Hit.RANKING.compare(hit, top.peek()) < 0) {
+                top.poll();
+                top.add(hit);
+            }
+        }
+        return scores.size();
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0, n = text.length(); i <= n; i++) {
+            char c = i < n ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                if (current.length() >= MIN_TERM_LENGTH && current.length() <= MAX_TERM_LENGTH) {
+                    String token = current.toString();
+                    if (!STOP_WORDS.contains(token)) {
+                        tokens.add(token);
+                    }
+                }
+                current.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    static final class Hit {
+
+        // Best score first, newer messages first on ties
+        static final Comparator<Hit> RANKING = Comparator.comparingDouble((Hit hit) -> hit.score).reversed()
+                .thenComparing(Comparator.comparingLong((Hit hit) -> hit.createdAt).reversed())
+                .thenComparing(hit -> hit.messageId);
+
+        final String messageId;
+        final String chatRoomId;
+        final long createdAt;
+        final double score;
+
+        Hit(String messageId, String chatRoomId, long createdAt, double score) {
+            this.messageId = messageId;
+            this.chatRoomId = chatRoomId;
+            this.createdAt = createdAt;
+            this.score = score;
+        }
+    }
+
+    static final class SearchPage {
+        final List<Hit> hits;
+        final long totalMatches;
+
+        SearchPage(List<Hit> hits, long totalMatches) {
+            this.hits = hits;
+            this.totalMatches = totalMatches;
+        }
+    }
+
+    // Read access shared by live and frozen segments
+    private interface SegmentView {
+        List<String> rooms();
+        int[] postings(String term);
+        int postingsLength(String term);
+        int room(int doc);
+        int length(int doc);
+        long createdAt(int doc);
+        String messageId(int doc);
+    }
+
+    private static final class LiveSegment {
+        private final List<String> messageIds = new ArrayList<>();
+        private final IntList roomOrdinals = new IntList();
+        private final LongList createdAt = new LongList();
+        private final IntList lengths = new IntList();
+        private final List<String> rooms = new ArrayList<>();
+        private final Map<String, Integer> roomIndex = new HashMap<>();
+        private final Map<String, IntList> postings = new HashMap<>();
+        private long totalLength;
+        private long minCreatedAt = Long.MAX_VALUE;
+
+        int size() {
+            return messageIds.size();
+        }
+
+        void add(String messageId, String chatRoomId, long created, List<String> tokens) {
+            int doc = messageIds.size();
+            messageIds.add(messageId);
+            roomOrdinals.add(roomIndex.computeIfAbsent(chatRoomId, room -> {
+                rooms.add(room);
+                return rooms.size() - 1;
+            }));
+            createdAt.add(created);
+            lengths.add(tokens.size());
+            totalLength += tokens.size();
+            minCreatedAt = Math.min(minCreatedAt, created);
+
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : tokens) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+            frequencies.forEach((term, tf) -> {
+                IntList list = postings.computeIfAbsent(term, t -> new IntList());
+                list.add(doc);
+                list.add(tf);
+            });
+        }
+
+        Segment freeze(long id) {
+            Map<String, int[]> frozen = new HashMap<>(postings.size() * 2);
+            postings.forEach((term, list) -> frozen.put(term, list.toArray()));
+            return new Segment(id, new long[0], rooms.toArray(new String[0]), messageIds.toArray(new String[0]),
+                    roomOrdinals.toArray(), createdAt.toArray(), lengths.toArray(), frozen);
+        }
+
+        SegmentView view() {
+            return new SegmentView() {
+                public List<String> rooms() { return rooms; }
+                public int[] postings(String term) {
+                    IntList list = postings.get(term);
+                    return list != null ? list.values : null;
+                }
+                public int postingsLength(String term) { return postings.get(term).size(); }
+                public int room(int doc) { return roomOrdinals.get(doc); }
+                public int length(int doc) { return lengths.get(doc); }
+                public long createdAt(int doc) { return createdAt.get(doc); }
+                public String messageId(int doc) { return messageIds.get(doc); }
+            };
+        }
+    }
+
+    private static final class Segment {
+        private final long id;
+        // IDs of the segments this one was merged from, empty for a flushed segment
+        private final long[] replaces;
+        private final String[] rooms;
+        private final String[] messageIds;
+        private final int[] roomOrdinals;
+        private final long[] createdAt;
+        private final int[] lengths;
+        private final Map<String, int[]> postings;
+        private final long totalLength;
+        private final long maxCreatedAt;
+
+        Segment(long id, long[] replaces, String[] rooms, String[] messageIds, int[] roomOrdinals, long[] createdAt,
+                int[] lengths, Map<String, int[]> postings) {
+            this.id = id;
+            this.replaces = replaces;
+            this.rooms = rooms;
+            this.messageIds = messageIds;
+            this.roomOrdinals = roomOrdinals;
+            this.createdAt = createdAt;
+            this.lengths = lengths;
+            this.postings = postings;
+            this.totalLength = Arrays.stream(lengths).asLongStream().sum();
+            this.maxCreatedAt = Arrays.stream(createdAt).max().orElse(Long.MIN_VALUE);
+        }
+
+        int docCount() {
+            return messageIds.length;
+        }
+
+        Path file(Path directory) {
+            return directory.resolve(fileName(id));
+        }
+
+        static String fileName(long id) {
+            return String.format("segment-%010d.seg", id);
+        }
+
+        static long idOf(Path file) throws IOException {
+            String name = file.getFileName().toString();
+            try {
+                return Long.parseLong(name.substring("segment-".length(), name.length() - ".seg".length()));
+            } catch (NumberFormatException e) {
+                throw new IOException("Not a chat search segment: " + file, e);
+            }
+        }
+
+        SegmentView view() {
+            List<String> roomList = Arrays.asList(rooms);
+            return new SegmentView() {
+                public List<String> rooms() { return roomList; }
+                public int[] postings(String term) { return postings.get(term); }
+                public int postingsLength(String term) { return postings.get(term).length; }
+                public int room(int doc) { return roomOrdinals[doc]; }
+                public int length(int doc) { return lengths[doc]; }
+                public long createdAt(int doc) { return createdAt[doc]; }
+                public String messageId(int doc) { return messageIds[doc]; }
+            };
+        }
+
+        // Written to a temp file, synced and renamed; the trailing magic lets a read detect a truncated file
+        void write(Path directory) throws IOException {
+            Path target = file(directory);
+            Path temp = directory.resolve(String.format("segment-%010d.tmp", id));
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(id);
+                writeVarInt(out, replaces.length);
+                for (long replaced : replaces) {
+                    out.writeLong(replaced);
+                }
+                writeVarInt(out, rooms.length);
+                for (String room : rooms) {
+                    out.writeUTF(room);
+                }
+                writeVarInt(out, messageIds.length);
+                long previousCreatedAt = 0;
+                for (int doc = 0; doc < messageIds.length; doc++) {
+                    out.writeUTF(messageIds[doc]);
+                    writeVarInt(out, roomOrdinals[doc]);
+                    out.writeLong(createdAt[doc] - previousCreatedAt);
+                    previousCreatedAt = createdAt[doc];
+                    writeVarInt(out, lengths[doc]);
+                }
+                TreeMap<String, int[]> sorted = new TreeMap<>(postings);
+                writeVarInt(out, sorted.size());
+                for (Map.Entry<String, int[]> entry : sorted.entrySet()) {
+                    int[] list = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    writeVarInt(out, list.length / 2);
+                    int previousDoc = 0;
+                    for (int i = 0; i < list.length; i += 2) {
+                        writeVarInt(out, list[i] - previousDoc);
+                        previousDoc = list[i];
+                        writeVarInt(out, list[i + 1]);
+                    }
+                }
+                out.writeInt(MAGIC);
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        static Segment read(Path file) throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IOException("Not a chat search segment: " + file);
+                }
+                long id = in.readLong();
+                long[] replaces = new long[readVarInt(in)];
+                for (int i = 0; i < replaces.length; i++) {
+                    replaces[i] = in.readLong();
+                }
+                String[] rooms = new String[readVarInt(in)];
+                for (int i = 0; i < rooms.length; i++) {
+                    rooms[i] = in.readUTF();
+                }
+                int docCount = readVarInt(in);
+                String[] messageIds = new String[docCount];
+                int[] roomOrdinals = new int[docCount];
+                long[] createdAt = new long[docCount];
+                int[] lengths = new int[docCount];
+                long previousCreatedAt = 0;
+                for (int doc = 0; doc < docCount; doc++) {
+                    messageIds[doc] = in.readUTF();
+                    roomOrdinals[doc] = readVarInt(in);
+                    createdAt[doc] = previousCreatedAt + in.readLong();
+                    previousCreatedAt = createdAt[doc];
+                    lengths[doc] = readVarInt(in);
+                }
+                int termCount = readVarInt(in);
+                Map<String, int[]> postings = new HashMap<>(termCount * 2);
+                for (int t = 0; t < termCount; t++) {
+                    String term = in.readUTF();
+                    int[] list = new int[readVarInt(in) * 2];
+                    int previousDoc = 0;
+                    for (int i = 0; i < list.length; i += 2) {
+                        list[i] = previousDoc + readVarInt(in);
+                        previousDoc = list[i];
+                        list[i + 1] = readVarInt(in);
+                    }
+                    postings.put(term, list);
+                }
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Incomplete chat search segment: " + file);
+                }
+                return new Segment(id, replaces, rooms, messageIds, roomOrdinals, createdAt, lengths, postings);
+            }
+        }
+
+        // Concatenates the segments' documents in order and rebases their postings
+        static Segment merge(long id, Collection<Segment> parts, long[] replaces) {
+            int docCount = parts.stream().mapToInt(Segment::docCount).sum();
+            String[] messageIds = new String[docCount];
+            int[] roomOrdinals = new int[docCount];
+            long[] createdAt = new long[docCount];
+            int[] lengths = new int[docCount];
+            List<String> rooms = new ArrayList<>();
+            Map<String, Integer> roomIndex = new HashMap<>();
+            Map<String, IntList> postings = new HashMap<>();
+
+            int base = 0;
+            for (Segment part : parts) {
+                int[] roomMapping = new int[part.rooms.length];
+                for (int r = 0; r < part.rooms.length; r++) {
+                    roomMapping[r] = roomIndex.computeIfAbsent(part.rooms[r], room -> {
+                        rooms.add(room);
+                        return rooms.size() - 1;
+                    });
+                }
+                for (int doc = 0; doc < part.docCount(); doc++) {
+                    messageIds[base + doc] = part.messageIds[doc];
+                    roomOrdinals[base + doc] = roomMapping[part.roomOrdinals[doc]];
+                    createdAt[base + doc] = part.createdAt[doc];
+                    lengths[base + doc] = part.lengths[doc];
+                }
+                int offset = base;
+                part.postings.forEach((term, list) -> {
+                    IntList merged = postings.computeIfAbsent(term, t -> new IntList());
+                    for (int i = 0; i < list.length; i += 2) {
+                        merged.add(list[i] + offset);
+                        merged.add(list[i + 1]);
+                    }
+                });
+                base += part.docCount();
+            }
+            Map<String, int[]> frozen = new HashMap<>(postings.size() * 2);
+            postings.forEach((term, list) -> frozen.put(term, list.toArray()));
+            return new Segment(id, replaces, rooms.toArray(new String[0]), messageIds, roomOrdinals, createdAt, lengths, frozen);
+        }
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class LongList {
+        private long[] values = new long[16];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long get(int index) {
+            return values[index];
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
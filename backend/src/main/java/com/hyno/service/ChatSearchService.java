@@ -0,0 +1,251 @@
+package com.hyno.service;
+
+import com.hyno.entity.ChatMessage;
+import com.hyno.repository.ChatMessageRepository;
+import com.hyno.repository.ChatRoomRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over chat history. Messages are indexed as they are sent, after their
+ * transaction commits; the live segment is flushed to disk by the scheduler once it holds
+ * chat-search.flush-docs messages or its oldest message is older than flush-interval-seconds,
+ * so a crash loses at most that window, which the startup catch-up re-reads from the database.
+ * Results are restricted to the rooms the user takes part in and hydrated from the database,
+ * or from cold storage for messages of archived rooms.
+ */
+@Service
+public class ChatSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatSearchService.class);
+
+    private static final int CATCH_UP_PAGE_SIZE = 1000;
+    // Messages committing out of creation order near the last flush are re-read on startup
+    private static final long CATCH_UP_OVERLAP_MILLIS = 5 * 60_000;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private ChatArchiveService chatArchiveService;
+
+    @Value("${chat-search.index-dir:index/chat}")
+    private String indexDir;
+
+    @Value("${chat-search.flush-docs:20000}")
+    private int flushDocs;
+
+    @Value("${chat-search.flush-interval-seconds:60}")
+    private long flushIntervalSeconds;
+
+    @Value("${chat-search.max-segments:8}")
+    private int maxSegments;
+
+    private ChatSearchIndex index;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        logger.info("Loading chat search index from {}", indexDir);
+        try {
+            index = new ChatSearchIndex(Paths.get(indexDir));
+            index.load();
+            catchUp();
+            ready = true;
+            logger.info("Chat search index ready with {} messages in {} segments", index.documentCount(), index.segmentCount());
+        } catch (Exception e) {
+            logger.error("Error loading chat search index; search is unavailable", e);
+        }
+    }
+
+    public void onMessageSaved(ChatMessage message) {
+        String messageId = message.getId();
+        String chatRoomId = message.getChatRoom().getId();
+        long createdAt = toEpochMillis(message.getCreatedAt());
+        String content = message.getContent();
+        afterCommit(() -> {
+            if (index != null) {
+                index.add(messageId, chatRoomId, createdAt, content);
+            }
+        });
+    }
+
+    public SearchResults search(String userId, String userType, String query, int page, int size) {
+        logger.info("Searching chat history for user: {} ({})", userId, userType);
+        try {
+            if (!ready) {
+                throw new IllegalStateException("Chat search index is not ready");
+            }
+            Set<String> rooms = new HashSet<>("doctor".equals(userType)
+                    ? chatRoomRepository.findIdsByDoctorId(userId)
+                    : chatRoomRepository.findIdsByPatientId(userId));
+            ChatSearchIndex.SearchPage result = index.search(query, rooms, page * size, size);
+
+            List<String> ids = result.hits.stream().map(hit -> hit.messageId).toList();
+            Map<String, ChatMessage> messages = chatMessageRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(ChatMessage::getId, Function.identity(), (a, b) -> a, HashMap::new));
+            Set<String> archivedRooms = new HashSet<>();
+            // Hits whose rows are gone may have moved to cold storage; rehydrate those rooms once each
+            for (ChatSearchIndex.Hit hit : result.hits) {
+                if (!messages.containsKey(hit.messageId) && archivedRooms.add(hit.chatRoomId)) {
+                    chatArchiveService.getArchivedMessages(hit.chatRoomId).forEach(message -> messages.putIfAbsent(message.getId(), message));
+                }
+            }
+            List<SearchHit> hits = new ArrayList<>();
+            for (ChatSearchIndex.Hit hit : result.hits) {
+                ChatMessage message = messages.get(hit.messageId);
+                if (message != null) {
+                    hits.add(new SearchHit(message, hit.chatRoomId, hit.score));
+                }
+            }
+            return new SearchResults(hits, page, size, result.totalMatches);
+        } catch (Exception e) {
+            logger.error("Error searching chat history for user: {}", userId, e);
+            throw e;
+        }
+    }
+
+    // Called by the scheduler: flush the live segment when it is large or old enough, then merge
+    public void flushIfNeeded() {
+        if (!ready) {
+            return;
+        }
+        try {
+            long oldest = index.oldestLiveCreatedAt();
+            if (index.liveSize() >= flushDocs
+                    || (oldest != Long.MAX_VALUE && System.currentTimeMillis() - oldest >= flushIntervalSeconds * 1000)) {
+                index.flush();
+            }
+            index.merge(maxSegments);
+        } catch (IOException e) {
+            logger.error("Error flushing chat search index", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ready) {
+            try {
+                index.flush();
+            } catch (IOException e) {
+                logger.error("Error flushing chat search index on shutdown", e);
+            }
+        }
+    }
+
+    // Indexes messages the persisted segments do not cover yet, in keyset pages
+    private void catchUp() throws IOException {
+        long persisted = index.maxPersistedCreatedAt();
+        long from = persisted == Long.MIN_VALUE ? 0 : persisted - CATCH_UP_OVERLAP_MILLIS;
+        Set<String> alreadyIndexed = index.messageIdsSince(from);
+        LocalDateTime afterCreatedAt = from == 0 ? LocalDateTime.of(1970, 1, 1, 0, 0) : toDateTime(from - 1);
+        // Ids are stored as BINARY(16); the nil UUID sorts before every other id
+        String afterId = "00000000-0000-0000-0000-000000000000";
+        long indexed = 0;
+        while (true) {
+            List<Object[]> rows = chatMessageRepository.findForIndexingAfter(afterCreatedAt, afterId, PageRequest.of(0, CATCH_UP_PAGE_SIZE));
+            for (Object[] row : rows) {
+                String messageId = (String) row[0];
+                if (!alreadyIndexed.contains(messageId)) {
+                    index.add(messageId, (String) row[1], toEpochMillis((LocalDateTime) row[2]), (String) row[3]);
+                    indexed++;
+                }
+                afterCreatedAt = (LocalDateTime) row[2];
+                afterId = messageId;
+            }
+            if (index.liveSize() >= flushDocs) {
+                index.flush();
+                index.merge(maxSegments);
+            }
+            if (rows.size() < CATCH_UP_PAGE_SIZE) {
+                break;
+            }
+        }
+        if (indexed > 0) {
+            index.flush();
+            logger.info("Chat search index caught up with {} messages", indexed);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    public static class SearchHit {
+        private final ChatMessage message;
+        private final String chatRoomId;
+        private final double score;
+
+        public SearchHit(ChatMessage message, String chatRoomId, double score) {
+            this.message = message;
+            this.chatRoomId = chatRoomId;
+            this.score = score;
+        }
+
+        public ChatMessage getMessage() { return message; }
+        public String getChatRoomId() { return chatRoomId; }
+        public double getScore() { return score; }
+    }
+
+    public static class SearchResults {
+        private final List<SearchHit> content;
+        private final int page;
+        private final int size;
+        private final long totalMatches;
+
+        public SearchResults(List<SearchHit> content, int page, int size, long totalMatches) {
+            this.content = content;
+            this.page = page;
+            this.size = size;
+            this.totalMatches = totalMatches;
+        }
+
+        public List<SearchHit> getContent() { return content; }
+        public int getPage() { return page; }
+        public int getSize() { return size; }
+        public long getTotalMatches() { return totalMatches; }
+    }
+}
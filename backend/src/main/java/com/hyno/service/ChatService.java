@@ -11,8 +11,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class ChatService {
@@ -28,6 +32,12 @@ public class ChatService {
     @Autowired
     private AppointmentRepository appointmentRepository;
 
+    @Autowired
+    private ChatSearchService chatSearchService;
+
+    @Autowired
+    private ChatArchiveService chatArchiveService;
+
     // Chat Room Management
     public List<ChatRoom> getChatRoomsByUser(String userId, String userType) {
         logger.info("Fetching chat rooms for user: {} (type: {})", userId, userType);
@@ -105,6 +115,7 @@ public class ChatService {
         logger.info("Deleting chat room: {}", id);
         try {
             chatRoomRepository.deleteById(id);
+            chatArchiveService.deleteArchive(id);
             logger.info("Chat room deleted successfully: {}", id);
         } catch (Exception e) {
             logger.error("Error deleting chat room: {}", id, e);
@@ -117,6 +128,15 @@ public class ChatService {
         logger.info("Fetching messages for chat room: {}", chatRoomId);
         try {
             List<ChatMessage> messages = chatMessageRepository.findByChatRoomIdOrderByCreatedAtAsc(chatRoomId);
+            List<ChatMessage> archived = chatArchiveService.getArchivedMessages(chatRoomId);
+            if (!archived.isEmpty()) {
+                // Messages moved to cold storage come back in front of any still in chat_messages
+                List<ChatMessage> all = new ArrayList<>(archived.size() + messages.size());
+                all.addAll(archived);
+                all.addAll(messages);
+                all.sort(Comparator.comparing(ChatMessage::getCreatedAt));
+                messages = all;
+            }
             logger.info("Retrieved {} messages for chat room: {}", messages.size(), chatRoomId);
             return messages;
         } catch (Exception e) {
@@ -130,6 +150,7 @@ public class ChatService {
         try {
             message.setCreatedAt(LocalDateTime.now());
             ChatMessage savedMessage = chatMessageRepository.save(message);
+            chatSearchService.onMessageSaved(savedMessage);
             logger.info("Message sent successfully with ID: {}", savedMessage.getId());
             return savedMessage;
         } catch (Exception e) {
@@ -152,6 +173,7 @@ public class ChatService {
                 message.setContent(content);
                 message.setCreatedAt(LocalDateTime.now());
                 ChatMessage savedMessage = chatMessageRepository.save(message);
+                chatSearchService.onMessageSaved(savedMessage);
                 logger.info("Message sent successfully with ID: {}", savedMessage.getId());
                 return savedMessage;
             } else {
@@ -176,6 +198,24 @@ public class ChatService {
         }
     }
 
+    // One UPDATE per sender role for every room with pending read receipts
+    @Transactional
+    public int markMessagesAsReadInRooms(Map<ChatMessage.SenderRole, Set<String>> chatRoomIdsByReaderRole, LocalDateTime readAt) {
+        logger.debug("Marking messages as read in bulk for {} reader roles", chatRoomIdsByReaderRole.size());
+        try {
+            int updated = 0;
+            for (Map.Entry<ChatMessage.SenderRole, Set<String>> entry : chatRoomIdsByReaderRole.entrySet()) {
+                ChatMessage.SenderRole senderRole = entry.getKey() == ChatMessage.SenderRole.PATIENT
+                        ? ChatMessage.SenderRole.DOCTOR : ChatMessage.SenderRole.PATIENT;
+                updated += chatMessageRepository.markMessagesAsReadInRooms(entry.getValue(), senderRole, readAt);
+            }
+            return updated;
+        } catch (Exception e) {
+            logger.error("Error marking messages as read in bulk", e);
+            throw e;
+        }
+    }
+
     public void markMessagesAsDelivered(String chatRoomId, String userId, String userType) {
         logger.info("Marking messages as delivered for chat room: {} by user: {}", chatRoomId, userId);
         try {
@@ -212,6 +252,7 @@ public class ChatService {
             Optional<ChatRoom> chatRoom = chatRoomRepository.findById(chatRoomId);
             if (chatRoom.isPresent()) {
                 chatRoom.get().setStatus(ChatRoom.ChatRoomStatus.ARCHIVED);
+                chatRoom.get().setArchivedAt(LocalDateTime.now());
                 chatRoomRepository.save(chatRoom.get());
                 logger.info("Chat room archived: {}", chatRoomId);
             } else {
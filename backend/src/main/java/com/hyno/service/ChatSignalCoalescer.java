@@ -0,0 +1,191 @@
+package com.hyno.service;
+
+import com.hyno.controller.WebSocketChatController;
+import com.hyno.entity.ChatMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rate-limits the chat room side channels. Typing events are coalesced per user per room:
+ * the first event after a quiet period is broadcast immediately, later ones within
+ * chat.typing-window-ms only replace the pending state, and the flush broadcasts that state
+ * once if it differs from what was last sent. Read receipts are queued per reader per room and
+ * written every chat.read-receipt-window-ms with one UPDATE per reader role covering all
+ * pending rooms, followed by one read notification per reader per room. The
+ * hyno.chat.signals counters (received vs sent) give the achieved reduction.
+ */
+@Service
+public class ChatSignalCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatSignalCoalescer.class);
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chat.typing-window-ms:500}")
+    private long typingWindowMs;
+
+    private final Map<String, TypingState> typingStates = new ConcurrentHashMap<>();
+
+    // Keyed by room and reader; the latest request wins
+    private final Map<String, PendingRead> pendingReads = new LinkedHashMap<>();
+
+    public void onTyping(String chatRoomId, String userId, boolean typing, Object payload) {
+        record("typing", "received");
+        String key = chatRoomId + ":" + userId;
+        boolean sendNow;
+        while (true) {
+            TypingState state = typingStates.computeIfAbsent(key, k -> new TypingState(chatRoomId));
+            synchronized (state) {
+                if (state.evicted) {
+                    continue;
+                }
+                sendNow = updateTypingState(state, typing, payload);
+            }
+            break;
+        }
+        if (sendNow) {
+            sendTyping(chatRoomId, payload);
+        }
+    }
+
+    private boolean updateTypingState(TypingState state, boolean typing, Object payload) {
+        long now = System.currentTimeMillis();
+        if (now - state.lastSentAt >= typingWindowMs && (state.lastSentAt == 0 || state.lastSentTyping != typing)) {
+            state.lastSentAt = now;
+            state.lastSentTyping = typing;
+            state.pending = null;
+            return true;
+        }
+        if (state.lastSentAt != 0 && state.lastSentTyping == typing) {
+            // Same state as already broadcast; nothing to flush
+            state.pending = null;
+        } else {
+            state.pending = payload;
+            state.pendingTyping = typing;
+        }
+        state.pendingAt = now;
+        return false;
+    }
+
+    public void onRead(String chatRoomId, String userId, String userType) {
+        record("read", "received");
+        synchronized (pendingReads) {
+            pendingReads.put(chatRoomId + ":" + userId, new PendingRead(chatRoomId, userId, userType));
+        }
+    }
+
+    // Called every typing window: sends the latest state of users whose state changed since the last broadcast
+    public void flushTyping() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, TypingState> entry : typingStates.entrySet()) {
+            TypingState state = entry.getValue();
+            Object payload = null;
+            synchronized (state) {
+                if (state.pending != null && now - state.lastSentAt >= typingWindowMs) {
+                    payload = state.pending;
+                    state.lastSentAt = now;
+                    state.lastSentTyping = state.pendingTyping;
+                    state.pending = null;
+                } else if (state.pending == null && now - Math.max(state.lastSentAt, state.pendingAt) > typingWindowMs * 20) {
+                    state.evicted = true;
+                    typingStates.remove(entry.getKey(), state);
+                }
+            }
+            if (payload != null) {
+                sendTyping(state.chatRoomId, payload);
+            }
+        }
+    }
+
+    // Called every read-receipt window: one bulk UPDATE per reader role, then the read notifications
+    public void flushReadReceipts() {
+        List<PendingRead> reads;
+        synchronized (pendingReads) {
+            if (pendingReads.isEmpty()) {
+                return;
+            }
+            reads = new ArrayList<>(pendingReads.values());
+            pendingReads.clear();
+        }
+
+        Map<ChatMessage.SenderRole, Set<String>> roomsByReaderRole = new EnumMap<>(ChatMessage.SenderRole.class);
+        for (PendingRead read : reads) {
+            ChatMessage.SenderRole readerRole = "patient".equals(read.userType) ? ChatMessage.SenderRole.PATIENT : ChatMessage.SenderRole.DOCTOR;
+            roomsByReaderRole.computeIfAbsent(readerRole, r -> new HashSet<>()).add(read.chatRoomId);
+        }
+        LocalDateTime readAt = LocalDateTime.now();
+        try {
+            int updated = chatService.markMessagesAsReadInRooms(roomsByReaderRole, readAt);
+            logger.debug("Flushed {} read receipts, {} messages marked read", reads.size(), updated);
+        } catch (Exception e) {
+            // Put the receipts back unless newer ones arrived meanwhile, and retry on the next flush
+            logger.error("Error flushing {} read receipts", reads.size(), e);
+            synchronized (pendingReads) {
+                reads.forEach(read -> pendingReads.putIfAbsent(read.chatRoomId + ":" + read.userId, read));
+            }
+            return;
+        }
+        for (PendingRead read : reads) {
+            messagingTemplate.convertAndSend("/topic/chat/" + read.chatRoomId + "/read",
+                    new WebSocketChatController.ReadNotification(read.userId, readAt));
+            record("read", "sent");
+        }
+    }
+
+    private void sendTyping(String chatRoomId, Object payload) {
+        messagingTemplate.convertAndSend("/topic/chat/" + chatRoomId + "/typing", payload);
+        record("typing", "sent");
+    }
+
+    private void record(String type, String outcome) {
+        meterRegistry.counter("hyno.chat.signals", "type", type, "outcome", outcome).increment();
+    }
+
+    private static class TypingState {
+        private final String chatRoomId;
+        private long lastSentAt;
+        private boolean lastSentTyping;
+        private Object pending;
+        private boolean pendingTyping;
+        private long pendingAt;
+        private boolean evicted;
+
+        TypingState(String chatRoomId) {
+            this.chatRoomId = chatRoomId;
+        }
+    }
+
+    private static class PendingRead {
+        private final String chatRoomId;
+        private final String userId;
+        private final String userType;
+
+        PendingRead(String chatRoomId, String userId, String userType) {
+            this.chatRoomId = chatRoomId;
+            this.userId = userId;
+            this.userType = userType;
+        }
+    }
+}
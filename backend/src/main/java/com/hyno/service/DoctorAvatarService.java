@@ -0,0 +1,491 @@
+package com.hyno.service;
+
+import com.hyno.config.CatalogVersions;
+import com.hyno.entity.DoctorAvatar;
+import com.hyno.repository.DoctorAvatarRepository;
+import com.hyno.repository.DoctorRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Doctor avatar pipeline. An upload is spooled to disk and checked on the request thread
+ * (decodable image, pixel count within avatars.max-pixels), then processed on a small worker
+ * pool: decoded with subsampling so large photos never materialize at full size, rotated
+ * upright from the EXIF orientation, cropped to a centered square and scaled down to the
+ * thumbnail and medium sizes. Variants are re-encoded as baseline JPEG without any metadata
+ * and stored once under blobs/ab/abcdef...jpg by their SHA-256; the upload itself is deleted.
+ *
+ * The doctor's avatarUrl and avatarThumbnailUrl point at the variants, so a URL never changes
+ * content and can be cached indefinitely. When a doctor uploads again before processing ends,
+ * only the latest upload is applied.
+ */
+@Service
+public class DoctorAvatarService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DoctorAvatarService.class);
+
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+    private static final String URL_PREFIX = "/api/doctors/avatars/";
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    private DoctorAvatarRepository avatarRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${avatars.storage-dir:uploads/avatars}")
+    private String storageDir;
+
+    @Value("${avatars.thumbnail-size:128}")
+    private int thumbnailSize;
+
+    @Value("${avatars.medium-size:512}")
+    private int mediumSize;
+
+    @Value("${avatars.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    @Value("${avatars.max-pixels:50000000}")
+    private long maxPixels;
+
+    @Value("${avatars.workers:2}")
+    private int workers;
+
+    private Path tempDir;
+    private Path blobDir;
+    private ExecutorService executor;
+
+    // Serializes the "is this still the latest upload" check with its update, per doctor
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    @PostConstruct
+    public void init() throws IOException {
+        tempDir = Files.createDirectories(Paths.get(storageDir, "tmp"));
+        blobDir = Files.createDirectories(Paths.get(storageDir, "blobs"));
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "avatar-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Uploads spooled before a restart are gone with their jobs
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(tempDir)) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+        for (DoctorAvatar avatar : avatarRepository.findByStatus(DoctorAvatar.Status.PROCESSING)) {
+            avatar.setStatus(DoctorAvatar.Status.FAILED);
+            avatar.setErrorMessage("Processing was interrupted by a restart; upload the photo again");
+            avatar.setUpdatedAt(LocalDateTime.now());
+            avatarRepository.save(avatar);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Accepts an avatar upload and queues it for processing. Throws IllegalArgumentException
+     * when the file is not a readable image or is too large to decode.
+     */
+    public DoctorAvatar submit(String doctorId, MultipartFile file) throws IOException {
+        Path spool = Files.createTempFile(tempDir, "avatar-", ".upload");
+        try {
+            file.transferTo(spool);
+            int[] size = probe(spool);
+            if ((long) size[0] * size[1] > maxPixels) {
+                throw new IllegalArgumentException("Image is too large: " + size[0] + "x" + size[1] + " pixels");
+            }
+            String sourceSha256 = hash(spool);
+
+            DoctorAvatar avatar;
+            synchronized (lockFor(doctorId)) {
+                avatar = avatarRepository.findById(doctorId).orElseGet(() -> {
+                    DoctorAvatar created = new DoctorAvatar();
+                    created.setDoctorId(doctorId);
+                    return created;
+                });
+                if (sourceSha256.equals(avatar.getSourceSha256()) && avatar.getStatus() != DoctorAvatar.Status.FAILED) {
+                    Files.delete(spool);
+                    record("unchanged");
+                    logger.info("Avatar upload for doctor {} is unchanged; nothing to process", doctorId);
+                    return avatar;
+                }
+                // The current variants stay in place until the new ones are ready
+                avatar.setStatus(DoctorAvatar.Status.PROCESSING);
+                avatar.setSourceSha256(sourceSha256);
+                avatar.setErrorMessage(null);
+                avatar.setUpdatedAt(LocalDateTime.now());
+                avatar = avatarRepository.save(avatar);
+            }
+            logger.info("Queued avatar for doctor {} ({}x{}, {} bytes)", doctorId, size[0], size[1], file.getSize());
+            executor.submit(() -> process(doctorId, sourceSha256, spool));
+            return avatar;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+    }
+
+    public Optional<DoctorAvatar> getAvatar(String doctorId) {
+        return avatarRepository.findById(doctorId);
+    }
+
+    // The stored variant for a SHA-256, if any
+    public Optional<Path> getVariant(String sha256) {
+        if (!SHA256.matcher(sha256).matches()) {
+            return Optional.empty();
+        }
+        Path blob = blobFile(sha256);
+        return Files.exists(blob) ? Optional.of(blob) : Optional.empty();
+    }
+
+    // Streams the whole variant to the target; used when the connector cannot sendfile
+    public void transfer(Path variant, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(variant, StandardOpenOption.READ)) {
+            long position = 0;
+            long size = channel.size();
+            while (position < size) {
+                long sent = channel.transferTo(position, size - position, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    public static String variantUrl(String sha256) {
+        return sha256 != null ? URL_PREFIX + sha256 + ".jpg" : null;
+    }
+
+    private void process(String doctorId, String sourceSha256, Path spool) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String thumbnailSha256;
+        String mediumSha256;
+        try {
+            BufferedImage image = upright(decode(spool), exifOrientation(spool));
+            BufferedImage square = cropSquare(image);
+            mediumSha256 = store(encodeJpeg(scaleDown(square, mediumSize)));
+            thumbnailSha256 = store(encodeJpeg(scaleDown(square, thumbnailSize)));
+        } catch (Exception e) {
+            logger.error("Error processing avatar for doctor: {}", doctorId, e);
+            synchronized (lockFor(doctorId)) {
+                avatarRepository.findById(doctorId)
+                        .filter(avatar -> sourceSha256.equals(avatar.getSourceSha256()))
+                        .ifPresent(avatar -> {
+                            avatar.setStatus(DoctorAvatar.Status.FAILED);
+                            avatar.setErrorMessage("The image could not be processed");
+                            avatar.setUpdatedAt(LocalDateTime.now());
+                            avatarRepository.save(avatar);
+                        });
+            }
+            record("failed");
+            return;
+        } finally {
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                logger.warn("Could not delete avatar spool file: {}", spool, e);
+            }
+        }
+
+        synchronized (lockFor(doctorId)) {
+            Optional<DoctorAvatar> current = avatarRepository.findById(doctorId)
+                    .filter(avatar -> sourceSha256.equals(avatar.getSourceSha256()));
+            if (current.isEmpty()) {
+                record("superseded");
+                logger.info("Avatar for doctor {} was replaced by a newer upload while processing", doctorId);
+                return;
+            }
+            DoctorAvatar avatar = current.get();
+            avatar.setStatus(DoctorAvatar.Status.READY);
+            avatar.setThumbnailSha256(thumbnailSha256);
+            avatar.setMediumSha256(mediumSha256);
+            avatar.setUpdatedAt(LocalDateTime.now());
+            avatarRepository.save(avatar);
+            doctorRepository.updateAvatarUrls(doctorId, variantUrl(mediumSha256), variantUrl(thumbnailSha256));
+            catalogVersions.bump(CatalogVersions.DOCTORS);
+        }
+        long millis = sample.stop(meterRegistry.timer("hyno.avatars.processing")) / 1_000_000;
+        record("ready");
+        logger.info("Avatar for doctor {} processed in {} ms", doctorId, millis);
+    }
+
+    // Width and height from the image header, without decoding the pixels
+    private static int[] probe(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = readerFor(in);
+            try {
+                reader.setInput(in, true, true);
+                return new int[] {reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Decodes every n-th pixel when the photo is far larger than the biggest variant needs
+    private BufferedImage decode(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = readerFor(in);
+            try {
+                reader.setInput(in, true, true);
+                int shortSide = Math.min(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, shortSide / (mediumSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static ImageReader readerFor(ImageInputStream in) {
+        Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+        if (readers == null || !readers.hasNext()) {
+            throw new IllegalArgumentException("Unsupported image format; upload a JPEG, PNG, GIF or BMP file");
+        }
+        return readers.next();
+    }
+
+    // Applies the EXIF orientation (1-8) so the stripped variants still display upright
+    private static BufferedImage upright(BufferedImage image, int orientation) {
+        if (orientation < 2 || orientation > 8) {
+            return image;
+        }
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            default -> new AffineTransform(0, -1, 1, 0, 0, w);
+        };
+        boolean swapped = orientation >= 5;
+        BufferedImage rotated = new BufferedImage(swapped ? h : w, swapped ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rotated.createGraphics();
+        try {
+            g.drawImage(image, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return rotated;
+    }
+
+    private static BufferedImage cropSquare(BufferedImage image) {
+        int side = Math.min(image.getWidth(), image.getHeight());
+        return image.getSubimage((image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side);
+    }
+
+    // Halves until within 2x of the target, then one bilinear step; flattens any transparency onto white
+    private static BufferedImage scaleDown(BufferedImage square, int target) {
+        BufferedImage current = square;
+        int size = current.getWidth();
+        target = Math.min(target, size);
+        do {
+            size = size / 2 >= target ? size / 2 : target;
+            BufferedImage next = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, size, size);
+                g.drawImage(current, 0, 0, size, size, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (size > target);
+        return current;
+    }
+
+    // Baseline JPEG with no EXIF, XMP or ICC data: only the pixels are carried over
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 * 1024);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    // Writes the variant under its SHA-256 unless identical content is already stored
+    private String store(byte[] content) throws IOException {
+        String sha256 = HexFormat.of().formatHex(digest().digest(content));
+        Path blob = blobFile(sha256);
+        if (Files.exists(blob)) {
+            return sha256;
+        }
+        Files.createDirectories(blob.getParent());
+        Path temp = Files.createTempFile(tempDir, "variant-", ".jpg");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Same content stored concurrently
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return sha256;
+    }
+
+    /**
+     * Reads the orientation tag from the first Exif APP1 segment of a JPEG. Anything that is
+     * not a JPEG with a readable tag counts as 1 (upright).
+     */
+    private static int exifOrientation(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA) {
+                    return 1;
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (marker != 0xFFE1) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                int orientation = orientationFromExif(in.readNBytes(length));
+                if (orientation > 0) {
+                    return orientation;
+                }
+            }
+        } catch (EOFException e) {
+            return 1;
+        } catch (IOException e) {
+            logger.debug("Could not read EXIF orientation from {}", file, e);
+            return 1;
+        }
+    }
+
+    // 0 when the APP1 segment is not Exif (e.g. XMP), so the caller keeps looking
+    private static int orientationFromExif(byte[] segment) {
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f') {
+            return 0;
+        }
+        try {
+            ByteBuffer tiff = ByteBuffer.wrap(segment, 6, segment.length - 6).slice();
+            tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+            int ifd = tiff.getInt(4);
+            int entries = Short.toUnsignedInt(tiff.getShort(ifd));
+            for (int i = 0; i < entries; i++) {
+                int entry = ifd + 2 + i * 12;
+                if (Short.toUnsignedInt(tiff.getShort(entry)) == 0x0112) {
+                    return Short.toUnsignedInt(tiff.getShort(entry + 8));
+                }
+            }
+            return 1;
+        } catch (IndexOutOfBoundsException e) {
+            return 1;
+        }
+    }
+
+    private Path blobFile(String sha256) {
+        return blobDir.resolve(sha256.substring(0, 2)).resolve(sha256 + ".jpg");
+    }
+
+    private Object lockFor(String doctorId) {
+        return locks[Math.floorMod(doctorId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private void record(String outcome) {
+        meterRegistry.counter("hyno.avatars.processed", "outcome", outcome).increment();
+    }
+
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest = digest();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
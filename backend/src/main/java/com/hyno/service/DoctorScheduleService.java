@@ -2,6 +2,7 @@ package com.hyno.service;
 
 import com.hyno.entity.DoctorSchedule;
 import com.hyno.repository.DoctorScheduleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.time.LocalDate;
@@ -15,6 +16,12 @@ public class DoctorScheduleService {
     @Autowired
     private DoctorScheduleRepository doctorScheduleRepository;
 
+    @Autowired
+    private AvailabilityIndexService availabilityIndexService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     public List<DoctorSchedule> getAllSchedules() {
         return doctorScheduleRepository.findAll();
     }
@@ -47,9 +54,12 @@ public class DoctorScheduleService {
         // Check for conflicts
         if (doctorScheduleRepository.existsByDoctorIdAndDateAndStartTimeAndEndTime(
                 schedule.getDoctorId(), schedule.getDate(), schedule.getStartTime(), schedule.getEndTime())) {
+            meterRegistry.counter("hyno.booking.conflicts", "reason", "schedule_duplicate").increment();
             throw new IllegalArgumentException("Schedule slot already exists for this time");
         }
-        return doctorScheduleRepository.save(schedule);
+        DoctorSchedule savedSchedule = doctorScheduleRepository.save(schedule);
+        availabilityIndexService.onDoctorScheduleChanged(savedSchedule);
+        return savedSchedule;
     }
 
     public DoctorSchedule updateSchedule(Long id, DoctorSchedule scheduleDetails) {
@@ -62,13 +72,16 @@ public class DoctorScheduleService {
             schedule.setStatus(scheduleDetails.getStatus());
             schedule.setAppointmentId(scheduleDetails.getAppointmentId());
             schedule.setNotes(scheduleDetails.getNotes());
-            return doctorScheduleRepository.save(schedule);
+            DoctorSchedule savedSchedule = doctorScheduleRepository.save(schedule);
+            availabilityIndexService.onDoctorScheduleChanged(savedSchedule);
+            return savedSchedule;
         }
         return null;
     }
 
     public void deleteSchedule(Long id) {
         doctorScheduleRepository.deleteById(id);
+        availabilityIndexService.onDoctorScheduleDeleted(id);
     }
 
     public DoctorSchedule holdSlot(Long id, String appointmentId) {
@@ -76,7 +89,9 @@ public class DoctorScheduleService {
         if (optionalSchedule.isPresent()) {
             DoctorSchedule schedule = optionalSchedule.get();
             schedule.holdSlot(appointmentId);
-            return doctorScheduleRepository.save(schedule);
+            DoctorSchedule savedSchedule = doctorScheduleRepository.save(schedule);
+            availabilityIndexService.onDoctorScheduleChanged(savedSchedule);
+            return savedSchedule;
         }
         return null;
     }
@@ -86,7 +101,9 @@ public class DoctorScheduleService {
         if (optionalSchedule.isPresent()) {
             DoctorSchedule schedule = optionalSchedule.get();
             schedule.bookSlot(appointmentId);
-            return doctorScheduleRepository.save(schedule);
+            DoctorSchedule savedSchedule = doctorScheduleRepository.save(schedule);
+            availabilityIndexService.onDoctorScheduleChanged(savedSchedule);
+            return savedSchedule;
         }
         return null;
     }
@@ -96,7 +113,9 @@ public class DoctorScheduleService {
         if (optionalSchedule.isPresent()) {
             DoctorSchedule schedule = optionalSchedule.get();
             schedule.cancelSlot();
-            return doctorScheduleRepository.save(schedule);
+            DoctorSchedule savedSchedule = doctorScheduleRepository.save(schedule);
+            availabilityIndexService.onDoctorScheduleChanged(savedSchedule);
+            return savedSchedule;
         }
         return null;
     }
@@ -106,7 +125,9 @@ public class DoctorScheduleService {
         if (optionalSchedule.isPresent()) {
             DoctorSchedule schedule = optionalSchedule.get();
             schedule.releaseSlot();
-            return doctorScheduleRepository.save(schedule);
+            DoctorSchedule savedSchedule = doctorScheduleRepository.save(schedule);
+            availabilityIndexService.onDoctorScheduleChanged(savedSchedule);
+            return savedSchedule;
         }
         return null;
     }
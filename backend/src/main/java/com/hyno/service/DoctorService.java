@@ -8,6 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,10 +23,11 @@ public class DoctorService {
     @Autowired
     private HospitalRepository hospitalRepository;
 
+    @Transactional(readOnly = true)
     public List<Doctor> getAllDoctors() {
         logger.info("Fetching all doctors");
         try {
-            List<Doctor> doctors = doctorRepository.findAll();
+            List<Doctor> doctors = doctorRepository.findAllWithHospital();
             logger.info("Retrieved {} doctors", doctors.size());
             return doctors;
         } catch (Exception e) {
@@ -34,6 +36,7 @@ public class DoctorService {
         }
     }
 
+    @Transactional(readOnly = true)
     public Optional<Doctor> getDoctorById(String id) {
         logger.info("Fetching doctor by ID: {}", id);
         try {
@@ -67,6 +70,7 @@ public class DoctorService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Doctor> getDoctorsByStatus(String status) {
         logger.info("Fetching doctors by status: {}", status);
         try {
@@ -79,6 +83,7 @@ public class DoctorService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Doctor> getDoctorsByHospital(String hospitalId) {
         logger.info("Fetching doctors by hospital: {}", hospitalId);
         try {
@@ -91,6 +96,7 @@ public class DoctorService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Doctor> getDoctorsBySpecialization(String specialization) {
         logger.info("Fetching doctors by specialization: {}", specialization);
         try {
@@ -165,7 +171,6 @@ public class DoctorService {
                 doctor.setHospital(doctorDetails.getHospital());
                 doctor.setConsultationFee(doctorDetails.getConsultationFee());
                 doctor.setStatus(doctorDetails.getStatus());
-                doctor.setAvatarUrl(doctorDetails.getAvatarUrl());
                 Doctor updatedDoctor = doctorRepository.save(doctor);
                 logger.info("Doctor updated successfully: {}", id);
                 return updatedDoctor;
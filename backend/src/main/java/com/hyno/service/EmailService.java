@@ -69,6 +69,41 @@ public class EmailService {
         }
     }
 
+    public void sendReminderEmail(String to, String name, String subject, String title, String startsAt, String leadTime) {
+        try {
+            Context context = new Context();
+            context.setVariable("name", name);
+            context.setVariable("title", title);
+            context.setVariable("startsAt", startsAt);
+            context.setVariable("leadTime", leadTime);
+
+            String htmlContent = templateEngine.process("reminder-email", context);
+
+            sendHtmlEmail(to, subject, htmlContent);
+            logger.info("Reminder email sent successfully to: {}", to);
+        } catch (Exception e) {
+            logger.error("Failed to send reminder email to: {}", to, e);
+        }
+    }
+
+    public void sendAppointmentChangeEmail(String to, String name, String doctorName, String previousStart, String newStart) {
+        try {
+            Context context = new Context();
+            context.setVariable("name", name);
+            context.setVariable("doctorName", doctorName);
+            context.setVariable("previousStart", previousStart);
+            context.setVariable("newStart", newStart);
+
+            String htmlContent = templateEngine.process("appointment-change-email", context);
+
+            String subject = newStart != null ? "Your appointment has been rescheduled" : "Your appointment has been cancelled";
+            sendHtmlEmail(to, subject + " - HYNO Health System", htmlContent);
+            logger.info("Appointment change email sent successfully to: {}", to);
+        } catch (Exception e) {
+            logger.error("Failed to send appointment change email to: {}", to, e);
+        }
+    }
+
     private void sendHtmlEmail(String to, String subject, String htmlContent) throws MessagingException {
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
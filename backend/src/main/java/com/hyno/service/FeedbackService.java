@@ -26,7 +26,7 @@ public class FeedbackService {
 
     public List<Feedback> getAllFeedback() {
         logger.info("Fetching all feedback");
-        return feedbackRepository.findAll();
+        return feedbackRepository.findAllWithAppointmentPatientAndDoctor();
     }
 
     public Optional<Feedback> getFeedbackById(String id) {
@@ -8,6 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
@@ -27,10 +28,11 @@ public class HospitalService {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Transactional(readOnly = true)
     public List<Hospital> getAllHospitals() {
         logger.info("Fetching all hospitals");
         try {
-            List<Hospital> hospitals = hospitalRepository.findAll();
+            List<Hospital> hospitals = hospitalRepository.findAllWithFacilities();
             logger.info("Retrieved {} hospitals", hospitals.size());
             return hospitals;
         } catch (Exception e) {
@@ -39,6 +41,7 @@ public class HospitalService {
         }
     }
 
+    @Transactional(readOnly = true)
     public Optional<Hospital> getHospitalById(String id) {
         logger.info("Fetching hospital by ID: {}", id);
         try {
@@ -87,6 +90,7 @@ public class HospitalService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Hospital> getHospitalsByStatus(String status) {
         logger.info("Fetching hospitals by status: {}", status);
         try {
@@ -99,6 +103,7 @@ public class HospitalService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Hospital> getHospitalsByCity(String city) {
         logger.info("Fetching hospitals by city: {}", city);
         try {
@@ -226,6 +231,7 @@ public class HospitalService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Patient> getHospitalPatients(String hospitalId) {
         logger.info("Fetching patients for hospital: {}", hospitalId);
         try {
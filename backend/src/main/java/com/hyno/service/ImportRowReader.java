@@ -0,0 +1,145 @@
+package com.hyno.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams import rows one at a time from a CSV or JSON file, so an import never holds
+ * more than the current row in memory. CSV files need a header line; JSON files hold an
+ * array of flat objects.
+ */
+abstract class ImportRowReader implements Closeable {
+
+    // Returns the next row keyed by column name, or null once the input is exhausted
+    abstract Map<String, Object> next() throws IOException;
+
+    static ImportRowReader open(Path file, BulkImportService.Format format, ObjectMapper objectMapper) throws IOException {
+        if (format == BulkImportService.Format.JSON) {
+            return new JsonRowReader(objectMapper.getFactory().createParser(file.toFile()));
+        }
+        return new CsvRowReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    }
+
+    private static class CsvRowReader extends ImportRowReader {
+
+        private final BufferedReader reader;
+        private final List<String> header;
+
+        CsvRowReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> columns = readRecord();
+            if (columns == null) {
+                throw new IllegalArgumentException("CSV input is empty");
+            }
+            if (!columns.isEmpty() && columns.get(0).startsWith("\uFEFF")) {
+                columns.set(0, columns.get(0).substring(1));
+            }
+            this.header = columns.stream().map(String::trim).toList();
+        }
+
+        @Override
+        Map<String, Object> next() throws IOException {
+            List<String> values;
+            do {
+                values = readRecord();
+                if (values == null) {
+                    return null;
+                }
+            } while (values.size() == 1 && values.get(0).isBlank());
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                row.put(header.get(i), values.get(i));
+            }
+            return row;
+        }
+
+        // RFC 4180 record: quoted fields may contain commas, doubled quotes and line breaks
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int peek = reader.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (peek != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static class JsonRowReader extends ImportRowReader {
+
+        private final JsonParser parser;
+
+        JsonRowReader(JsonParser parser) throws IOException {
+            this.parser = parser;
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("JSON input must be an array of objects");
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Map<String, Object> next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("JSON array elements must be objects");
+            }
+            return parser.readValueAs(LinkedHashMap.class);
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.hyno.entity.Medicine;
 import com.hyno.repository.MedicineRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,26 +15,32 @@ public class MedicineService {
     @Autowired
     private MedicineRepository medicineRepository;
 
+    @Transactional(readOnly = true)
     public List<Medicine> getAllMedicines() {
         return medicineRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Optional<Medicine> getMedicineById(String id) {
         return medicineRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     public List<Medicine> getMedicinesByStatus(String status) {
         return medicineRepository.findByStatus(status);
     }
 
+    @Transactional(readOnly = true)
     public List<Medicine> getMedicinesByCategory(String category) {
         return medicineRepository.findByCategory(category);
     }
 
+    @Transactional(readOnly = true)
     public List<Medicine> searchMedicines(String query) {
         return medicineRepository.searchByNameOrGenericName(query);
     }
 
+    @Transactional(readOnly = true)
     public List<Medicine> getAvailableMedicines() {
         return medicineRepository.findAvailableMedicines();
     }
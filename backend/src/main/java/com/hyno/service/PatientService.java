@@ -10,6 +10,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 import jakarta.persistence.criteria.Predicate;
@@ -22,6 +23,7 @@ public class PatientService {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Transactional(readOnly = true)
     public List<Patient> getAllPatients() {
         logger.info("Fetching all patients");
         try {
@@ -172,6 +174,7 @@ public class PatientService {
         }
     }
 
+    @Transactional(readOnly = true)
     public Page<Patient> getAllPatients(Pageable pageable, String search) {
         logger.info("Fetching patients with pagination and search");
         try {
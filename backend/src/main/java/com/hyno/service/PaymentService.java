@@ -31,7 +31,7 @@ public class PaymentService {
 
     public List<Payment> getAllPayments() {
         logger.info("Fetching all payments");
-        return paymentRepository.findAll();
+        return paymentRepository.findAllWithAppointmentAndPatient();
     }
 
     public Optional<Payment> getPaymentById(String id) {
@@ -0,0 +1,306 @@
+package com.hyno.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import jakarta.annotation.PostConstruct;
+import java.security.Principal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which users are online from their STOMP sessions. A session counts from CONNECTED
+ * until DISCONNECT, and any inbound frame (heartbeats included) refreshes it; sessions silent
+ * for longer than presence.session-ttl-seconds are expired by the sweep, which covers
+ * connections dropped without a close. A user is online while at least one session is live.
+ * Users are identified by their role-qualified principal names (DOCTOR:1, PATIENT:1).
+ *
+ * Watchers subscribe to a bounded list of user IDs and receive only transitions, batched
+ * every presence.push-interval-ms on /user/queue/presence; a user who reconnects within one
+ * interval produces no message. Memory is bounded by presence.max-sessions, the per-watcher
+ * list limit, and the retention of offline users' last-seen time.
+ */
+@Service
+public class PresenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceService.class);
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${presence.session-ttl-seconds:30}")
+    private long sessionTtlSeconds;
+
+    @Value("${presence.max-sessions:200000}")
+    private int maxSessions;
+
+    @Value("${presence.max-watched-users:500}")
+    private int maxWatchedUsers;
+
+    @Value("${presence.offline-retention-minutes:60}")
+    private long offlineRetentionMinutes;
+
+    private final Map<String, SessionEntry> sessions = new ConcurrentHashMap<>();
+    private final Map<String, UserPresence> users = new ConcurrentHashMap<>();
+
+    // Forward and reverse watch indexes; both are only changed under watchLock
+    private final Map<String, Set<String>> watchedByWatcher = new HashMap<>();
+    private final Map<String, Set<String>> watchersByUser = new HashMap<>();
+    private final Object watchLock = new Object();
+
+    private final Set<String> changedUsers = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void registerMetrics() {
+        meterRegistry.gaugeMapSize("hyno.presence.sessions", Tags.empty(), sessions);
+        meterRegistry.gauge("hyno.presence.users.online", this, service -> service.countOnline());
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (user == null || sessionId == null) {
+            return;
+        }
+        if (sessions.size() >= maxSessions) {
+            meterRegistry.counter("hyno.presence.sessions.rejected").increment();
+            logger.warn("Presence session limit {} reached; not tracking session {}", maxSessions, sessionId);
+            return;
+        }
+        String userId = user.getName();
+        if (sessions.putIfAbsent(sessionId, new SessionEntry(userId)) == null) {
+            // compute() keeps this atomic with the sweep's removal of offline users
+            users.compute(userId, (id, presence) -> {
+                UserPresence current = presence != null ? presence : new UserPresence();
+                synchronized (current) {
+                    current.sessions++;
+                    current.lastSeen = System.currentTimeMillis();
+                }
+                return current;
+            });
+            changedUsers.add(userId);
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        endSession(event.getSessionId());
+    }
+
+    // Called for every inbound STOMP frame; a volatile write, no locking
+    public void touch(String sessionId) {
+        SessionEntry entry = sessions.get(sessionId);
+        if (entry != null) {
+            entry.lastSeen = System.currentTimeMillis();
+        }
+    }
+
+    public List<PresenceStatus> getPresence(Collection<String> userIds) {
+        List<PresenceStatus> statuses = new ArrayList<>(userIds.size());
+        for (String userId : new LinkedHashSet<>(userIds)) {
+            statuses.add(statusOf(userId));
+        }
+        return statuses;
+    }
+
+    /**
+     * Replaces the watcher's list and returns the current presence of the watched users, so
+     * the client can render a snapshot before the first diff arrives.
+     */
+    public List<PresenceStatus> watch(String watcherId, Collection<String> userIds) {
+        Set<String> watched = new LinkedHashSet<>(userIds);
+        if (watched.size() > maxWatchedUsers) {
+            throw new IllegalArgumentException("At most " + maxWatchedUsers + " users can be watched");
+        }
+        synchronized (watchLock) {
+            removeWatches(watcherId);
+            if (!watched.isEmpty()) {
+                watchedByWatcher.put(watcherId, watched);
+                watched.forEach(userId -> watchersByUser.computeIfAbsent(userId, id -> new LinkedHashSet<>()).add(watcherId));
+            }
+        }
+        return getPresence(watched);
+    }
+
+    // Sends each watcher one message with the transitions of its watched users since the last push
+    public void publishChanges() {
+        if (changedUsers.isEmpty()) {
+            return;
+        }
+        List<String> changed = new ArrayList<>(changedUsers);
+        changedUsers.removeAll(changed);
+
+        Map<String, List<PresenceStatus>> diffsByWatcher = new HashMap<>();
+        for (String userId : changed) {
+            UserPresence presence = users.get(userId);
+            if (presence == null) {
+                continue;
+            }
+            PresenceStatus status;
+            synchronized (presence) {
+                boolean online = presence.sessions > 0;
+                if (online == presence.publishedOnline) {
+                    continue;
+                }
+                presence.publishedOnline = online;
+                status = new PresenceStatus(userId, online, online ? null : toDateTime(presence.lastSeen));
+            }
+            synchronized (watchLock) {
+                Set<String> watchers = watchersByUser.get(userId);
+                if (watchers != null) {
+                    watchers.forEach(watcherId -> diffsByWatcher.computeIfAbsent(watcherId, id -> new ArrayList<>()).add(status));
+                }
+            }
+        }
+        diffsByWatcher.forEach((watcherId, diff) -> messagingTemplate.convertAndSendToUser(watcherId, "/queue/presence", diff));
+        if (!diffsByWatcher.isEmpty()) {
+            meterRegistry.counter("hyno.presence.diffs.sent").increment(diffsByWatcher.size());
+        }
+    }
+
+    // Expires silent sessions and forgets users that have been offline past the retention window
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        long sessionCutoff = now - sessionTtlSeconds * 1000;
+        int expired = 0;
+        for (Map.Entry<String, SessionEntry> entry : sessions.entrySet()) {
+            if (entry.getValue().lastSeen < sessionCutoff) {
+                endSession(entry.getKey());
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            meterRegistry.counter("hyno.presence.sessions.expired").increment(expired);
+            logger.info("Expired {} silent presence sessions", expired);
+        }
+
+        long offlineCutoff = now - offlineRetentionMinutes * 60_000;
+        for (String userId : users.keySet()) {
+            users.computeIfPresent(userId, (id, presence) -> {
+                synchronized (presence) {
+                    boolean forget = presence.sessions == 0 && !presence.publishedOnline && presence.lastSeen < offlineCutoff;
+                    return forget ? null : presence;
+                }
+            });
+        }
+    }
+
+    private void endSession(String sessionId) {
+        SessionEntry entry = sessions.remove(sessionId);
+        if (entry == null) {
+            return;
+        }
+        UserPresence presence = users.get(entry.userId);
+        if (presence == null) {
+            return;
+        }
+        boolean offline;
+        synchronized (presence) {
+            presence.sessions = Math.max(0, presence.sessions - 1);
+            presence.lastSeen = Math.max(presence.lastSeen, entry.lastSeen);
+            offline = presence.sessions == 0;
+        }
+        if (offline) {
+            changedUsers.add(entry.userId);
+            // A watcher that has gone away no longer needs diffs
+            synchronized (watchLock) {
+                removeWatches(entry.userId);
+            }
+        }
+    }
+
+    private void removeWatches(String watcherId) {
+        Set<String> previous = watchedByWatcher.remove(watcherId);
+        if (previous == null) {
+            return;
+        }
+        for (String userId : previous) {
+            Set<String> watchers = watchersByUser.get(userId);
+            if (watchers != null) {
+                watchers.remove(watcherId);
+                if (watchers.isEmpty()) {
+                    watchersByUser.remove(userId);
+                }
+            }
+        }
+    }
+
+    private PresenceStatus statusOf(String userId) {
+        UserPresence presence = users.get(userId);
+        if (presence == null) {
+            return new PresenceStatus(userId, false, null);
+        }
+        synchronized (presence) {
+            boolean online = presence.sessions > 0;
+            return new PresenceStatus(userId, online, online ? null : toDateTime(presence.lastSeen));
+        }
+    }
+
+    private int countOnline() {
+        int online = 0;
+        for (UserPresence presence : users.values()) {
+            if (presence.sessions > 0) {
+                online++;
+            }
+        }
+        return online;
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static class SessionEntry {
+        private final String userId;
+        private volatile long lastSeen = System.currentTimeMillis();
+
+        SessionEntry(String userId) {
+            this.userId = userId;
+        }
+    }
+
+    private static class UserPresence {
+        private int sessions;
+        private long lastSeen;
+        private boolean publishedOnline;
+    }
+
+    public static class PresenceStatus {
+        private final String userId;
+        private final boolean online;
+        private final LocalDateTime lastSeen;
+
+        public PresenceStatus(String userId, boolean online, LocalDateTime lastSeen) {
+            this.userId = userId;
+            this.online = online;
+            this.lastSeen = lastSeen;
+        }
+
+        public String getUserId() { return userId; }
+        public boolean isOnline() { return online; }
+        public LocalDateTime getLastSeen() { return lastSeen; }
+    }
+}
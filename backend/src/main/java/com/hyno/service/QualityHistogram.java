@@ -0,0 +1,81 @@
+package com.hyno.service;
+
+/**
+ * Log-scale histogram with quarter-octave buckets (each about 19% wide), enough to read
+ * percentiles of call quality metrics from a fixed 80-counter array instead of keeping samples.
+ * Values below 1 share bucket 0, so callers scale fractional metrics up before recording.
+ * Not thread-safe; CallTelemetryService guards each histogram with its stream's lock.
+ */
+class QualityHistogram {
+
+    private static final int BUCKETS = 80;
+    private static final double STEPS_PER_OCTAVE = 4.0;
+
+    private final int[] counts = new int[BUCKETS];
+    private long count;
+    private double sum;
+    private double min = Double.MAX_VALUE;
+    private double max;
+
+    void record(double value) {
+        if (Double.isNaN(value) || value < 0) {
+            return;
+        }
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    long count() {
+        return count;
+    }
+
+    Double mean() {
+        return count == 0 ? null : sum / count;
+    }
+
+    Double max() {
+        return count == 0 ? null : max;
+    }
+
+    // Geometric middle of the bucket holding the q-quantile, clamped to the observed range
+    Double percentile(double q) {
+        if (count == 0) {
+            return null;
+        }
+        long rank = (long) Math.ceil(q * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(rank, 1)) {
+                double estimate = i == 0 ? 0.5 : Math.pow(2, (i - 0.5) / STEPS_PER_OCTAVE);
+                return Math.min(max, Math.max(min, estimate));
+            }
+        }
+        return max;
+    }
+
+    // Non-empty buckets as "index:count" pairs, so stored summaries can be merged later
+    String encode() {
+        StringBuilder encoded = new StringBuilder();
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] > 0) {
+                if (encoded.length() > 0) {
+                    encoded.append(',');
+                }
+                encoded.append(i).append(':').append(counts[i]);
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static int bucketOf(double value) {
+        if (value < 1) {
+            return 0;
+        }
+        int bucket = 1 + (int) Math.floor(Math.log(value) / Math.log(2) * STEPS_PER_OCTAVE);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+}
@@ -0,0 +1,431 @@
+package com.hyno.service;
+
+import com.hyno.config.ReadFromPrimary;
+import com.hyno.config.WebSocketAuthInterceptor;
+import com.hyno.entity.Appointment;
+import com.hyno.entity.ReminderDispatch;
+import com.hyno.entity.YogaSession;
+import com.hyno.repository.AppointmentRepository;
+import com.hyno.repository.ReminderDispatchRepository;
+import com.hyno.repository.YogaSessionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends 24 hour, 1 hour and 10 minute reminders for appointments and yoga sessions.
+ * A sliding window of upcoming rows is loaded into a {@link TimerWheel} with one-minute ticks,
+ * so firing reminders never scans the tables; the window is reloaded hourly and on startup, and
+ * create/reschedule/cancel changes are applied as they commit. Sent reminders are recorded in
+ * reminder_dispatches, so a restart neither repeats them nor loses the ones that fell due while
+ * the server was down (only the latest missed reminder per booking is sent).
+ */
+@Service
+public class ReminderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReminderService.class);
+
+    public static final String DESTINATION = "/queue/reminders";
+
+    private static final long TICK_MILLIS = 60_000;
+    private static final DateTimeFormatter START_FORMAT = DateTimeFormatter.ofPattern("EEE, d MMM yyyy 'at' HH:mm");
+
+    enum Lead {
+        DAY("24h", Duration.ofHours(24), "24 hours"),
+        HOUR("1h", Duration.ofHours(1), "1 hour"),
+        TEN_MINUTES("10m", Duration.ofMinutes(10), "10 minutes");
+
+        private final String code;
+        private final Duration before;
+        private final String label;
+
+        Lead(String code, Duration before, String label) {
+            this.code = code;
+            this.before = before;
+            this.label = label;
+        }
+    }
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private YogaSessionRepository yogaSessionRepository;
+
+    @Autowired
+    private ReminderDispatchRepository reminderDispatchRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Value("${reminders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${reminders.email-enabled:true}")
+    private boolean emailEnabled;
+
+    // Must exceed the longest lead time plus the reload interval
+    @Value("${reminders.window-hours:26}")
+    private int windowHours;
+
+    @Value("${reminders.dispatch-threads:2}")
+    private int dispatchThreads;
+
+    private final TimerWheel<Reminder> wheel = new TimerWheel<>(currentTick());
+    // Pending timeouts per booking ("appointment:<id>", "yoga-session:<id>") for cancel and reschedule
+    private final Map<String, List<TimerWheel.Timeout<Reminder>>> pending = new HashMap<>();
+    private final Set<String> sentKeys = new HashSet<>();
+
+    private ExecutorService dispatcher;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @ReadFromPrimary
+    public void onApplicationReady() {
+        if (!enabled) {
+            logger.info("Reminders are disabled");
+            return;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(Math.max(1, dispatchThreads), runnable -> {
+            Thread thread = new Thread(runnable, "reminder-dispatch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloadWindow();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    // Loads every booking starting within the window; existing timers for a booking are replaced
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    public void reloadWindow() {
+        if (!enabled) {
+            return;
+        }
+        logger.info("Loading reminder window for the next {} hours", windowHours);
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime windowEnd = now.plusHours(windowHours);
+            Set<String> sent = new HashSet<>(reminderDispatchRepository.findKeysSentSince(now.minusHours(windowHours + 24L)));
+
+            Map<String, Booking> bookings = new LinkedHashMap<>();
+            for (Appointment appointment : appointmentRepository.findForReminders(now.toLocalDate(), windowEnd.toLocalDate(),
+                    List.of(Appointment.AppointmentStatus.PENDING, Appointment.AppointmentStatus.UPCOMING))) {
+                Booking booking = toBooking(appointment);
+                if (booking.startsAt.isAfter(now) && booking.startsAt.isBefore(windowEnd)) {
+                    bookings.put(booking.key, booking);
+                }
+            }
+            for (YogaSession session : yogaSessionRepository.findForReminders(now.toLocalDate(), windowEnd.toLocalDate(),
+                    YogaSession.SessionStatus.UPCOMING)) {
+                Booking booking = toBooking(session);
+                if (booking.startsAt.isAfter(now) && booking.startsAt.isBefore(windowEnd)) {
+                    bookings.put(booking.key, booking);
+                }
+            }
+
+            synchronized (this) {
+                sentKeys.clear();
+                sentKeys.addAll(sent);
+                // Bookings that left the window's result set (cancelled while a change event was missed) lose their timers
+                new ArrayList<>(pending.keySet()).stream()
+                        .filter(key -> !bookings.containsKey(key))
+                        .forEach(this::cancelTimers);
+                bookings.values().forEach(this::scheduleTimers);
+            }
+            logger.info("Reminder window loaded with {} bookings, {} timers pending", bookings.size(), pendingTimers());
+        } catch (Exception e) {
+            logger.error("Error loading reminder window", e);
+            throw e;
+        }
+    }
+
+    // Advances the wheel to the current minute and hands due reminders to the dispatch pool
+    public void tick() {
+        if (!enabled || dispatcher == null) {
+            return;
+        }
+        List<Reminder> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(currentTick(), due::add);
+            for (Reminder reminder : due) {
+                List<TimerWheel.Timeout<Reminder>> timeouts = pending.get(reminder.booking.key);
+                if (timeouts != null) {
+                    timeouts.removeIf(timeout -> timeout.getDeadlineTick() <= wheel.getCurrentTick());
+                    if (timeouts.isEmpty()) {
+                        pending.remove(reminder.booking.key);
+                    }
+                }
+            }
+        }
+        for (Reminder reminder : due) {
+            dispatcher.execute(() -> dispatch(reminder));
+        }
+    }
+
+    public void pruneDispatchLog() {
+        int removed = reminderDispatchRepository.deleteSentBefore(LocalDateTime.now().minusDays(7));
+        if (removed > 0) {
+            logger.info("Pruned {} old reminder dispatch records", removed);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        String key = appointmentKey(event.getAppointment().getId());
+        switch (event.getChangeType()) {
+            case CANCELLED, COMPLETED, DELETED -> cancel(key);
+            default -> {
+                try {
+                    appointmentRepository.findByIdForReminders(event.getAppointment().getId())
+                            .ifPresentOrElse(appointment -> reschedule(toBooking(appointment), isRemindable(appointment)),
+                                    () -> cancel(key));
+                } catch (Exception e) {
+                    // The window reload heals this booking; never fail the committed request
+                    logger.error("Error updating reminders for appointment {}", event.getAppointment().getId(), e);
+                }
+            }
+        }
+    }
+
+    public void onYogaSessionChanged(Long sessionId) {
+        afterCommit(() -> {
+            if (!enabled) {
+                return;
+            }
+            try {
+                yogaSessionRepository.findByIdForReminders(sessionId)
+                        .ifPresentOrElse(session -> reschedule(toBooking(session), session.getStatus() == YogaSession.SessionStatus.UPCOMING),
+                                () -> cancel(yogaSessionKey(sessionId)));
+            } catch (Exception e) {
+                logger.error("Error updating reminders for yoga session {}", sessionId, e);
+            }
+        });
+    }
+
+    public void onYogaSessionDeleted(Long sessionId) {
+        afterCommit(() -> cancel(yogaSessionKey(sessionId)));
+    }
+
+    public synchronized int pendingTimers() {
+        return pending.values().stream().mapToInt(List::size).sum();
+    }
+
+    private synchronized void reschedule(Booking booking, boolean remindable) {
+        cancelTimers(booking.key);
+        LocalDateTime now = LocalDateTime.now();
+        if (remindable && booking.startsAt.isAfter(now) && booking.startsAt.isBefore(now.plusHours(windowHours))) {
+            scheduleTimers(booking);
+        }
+    }
+
+    private synchronized void cancel(String bookingKey) {
+        cancelTimers(bookingKey);
+    }
+
+    private void cancelTimers(String bookingKey) {
+        List<TimerWheel.Timeout<Reminder>> timeouts = pending.remove(bookingKey);
+        if (timeouts != null) {
+            timeouts.forEach(TimerWheel.Timeout::cancel);
+        }
+    }
+
+    private void scheduleTimers(Booking booking) {
+        cancelTimers(booking.key);
+        LocalDateTime now = LocalDateTime.now();
+        List<TimerWheel.Timeout<Reminder>> timeouts = new ArrayList<>();
+        boolean missedScheduled = false;
+        // Latest reminder first: once one is sent, the earlier ones are moot, and of those already overdue only the latest is sent
+        Lead[] leads = Lead.values();
+        for (int i = leads.length - 1; i >= 0; i--) {
+            Lead lead = leads[i];
+            String reminderKey = booking.key + ":" + booking.startsAt + ":" + lead.code;
+            if (sentKeys.contains(reminderKey)) {
+                break;
+            }
+            LocalDateTime dueAt = booking.startsAt.minus(lead.before);
+            if (!dueAt.isAfter(now)) {
+                if (missedScheduled) {
+                    continue;
+                }
+                missedScheduled = true;
+            }
+            timeouts.add(wheel.schedule(toTick(dueAt), new Reminder(reminderKey, lead, booking)));
+        }
+        if (!timeouts.isEmpty()) {
+            pending.put(booking.key, timeouts);
+        }
+    }
+
+    private void dispatch(Reminder reminder) {
+        try {
+            // The dispatch record doubles as a claim, so two nodes or a reload race never send twice
+            if (reminderDispatchRepository.existsByReminderKey(reminder.key)) {
+                return;
+            }
+            reminderDispatchRepository.save(new ReminderDispatch(reminder.key, LocalDateTime.now()));
+            synchronized (this) {
+                sentKeys.add(reminder.key);
+            }
+
+            Booking booking = reminder.booking;
+            String startsAt = booking.startsAt.format(START_FORMAT);
+            for (Recipient recipient : booking.recipients) {
+                Map<String, Object> payload = new LinkedHashMap<>();
+                payload.put("type", booking.type);
+                payload.put("bookingId", booking.id);
+                payload.put("title", booking.title);
+                payload.put("startsAt", booking.startsAt);
+                payload.put("lead", reminder.lead.code);
+                messagingTemplate.convertAndSendToUser(recipient.principalName, DESTINATION, payload);
+
+                if (emailEnabled && recipient.email != null) {
+                    emailService.sendReminderEmail(recipient.email, recipient.name,
+                            "Reminder: " + booking.title + " in " + reminder.lead.label, booking.title, startsAt, reminder.lead.label);
+                }
+            }
+            logger.info("Sent {} reminder for {}", reminder.lead.code, booking.key);
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Reminder {} already claimed", reminder.key);
+        } catch (Exception e) {
+            logger.error("Error sending reminder {}", reminder.key, e);
+        }
+    }
+
+    private boolean isRemindable(Appointment appointment) {
+        return appointment.getStatus() == Appointment.AppointmentStatus.PENDING
+                || appointment.getStatus() == Appointment.AppointmentStatus.UPCOMING;
+    }
+
+    private Booking toBooking(Appointment appointment) {
+        List<Recipient> recipients = new ArrayList<>();
+        if (appointment.getPatient() != null) {
+            recipients.add(new Recipient(WebSocketAuthInterceptor.principalName("patient", appointment.getPatient().getId()),
+                    appointment.getPatient().getName(), appointment.getPatient().getEmail()));
+        }
+        if (appointment.getDoctor() != null) {
+            recipients.add(new Recipient(WebSocketAuthInterceptor.principalName("doctor", appointment.getDoctor().getId()),
+                    appointment.getDoctor().getName(), appointment.getDoctor().getEmail()));
+        }
+        String title = "appointment with " + appointment.getDoctorName();
+        return new Booking(appointmentKey(appointment.getId()), "APPOINTMENT", appointment.getId(), title,
+                LocalDateTime.of(appointment.getAppointmentDate(), appointment.getAppointmentTime()), recipients);
+    }
+
+    // Yoga trainers have no login or email of their own, so only the patient is reminded
+    private Booking toBooking(YogaSession session) {
+        List<Recipient> recipients = List.of(new Recipient(WebSocketAuthInterceptor.principalName("patient", session.getPatient().getId()),
+                session.getPatient().getName(), session.getPatient().getEmail()));
+        return new Booking(yogaSessionKey(session.getId()), "YOGA_SESSION", String.valueOf(session.getId()), "yoga session",
+                LocalDateTime.of(session.getSessionDate(), session.getSessionTime()), recipients);
+    }
+
+    private static String appointmentKey(String appointmentId) {
+        return "appointment:" + appointmentId;
+    }
+
+    private static String yogaSessionKey(Long sessionId) {
+        return "yoga-session:" + sessionId;
+    }
+
+    private static long currentTick() {
+        return System.currentTimeMillis() / TICK_MILLIS;
+    }
+
+    private static long toTick(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / TICK_MILLIS;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static class Booking {
+        private final String key;
+        private final String type;
+        private final String id;
+        private final String title;
+        private final LocalDateTime startsAt;
+        private final List<Recipient> recipients;
+
+        Booking(String key, String type, String id, String title, LocalDateTime startsAt, List<Recipient> recipients) {
+            this.key = key;
+            this.type = type;
+            this.id = id;
+            this.title = title;
+            this.startsAt = startsAt;
+            this.recipients = recipients;
+        }
+    }
+
+    private static class Recipient {
+        private final String principalName;
+        private final String name;
+        private final String email;
+
+        Recipient(String principalName, String name, String email) {
+            this.principalName = principalName;
+            this.name = name;
+            this.email = email;
+        }
+    }
+
+    private static class Reminder {
+        private final String key;
+        private final Lead lead;
+        private final Booking booking;
+
+        Reminder(String key, Lead lead, Booking booking) {
+            this.key = key;
+            this.lead = lead;
+            this.booking = booking;
+        }
+    }
+}
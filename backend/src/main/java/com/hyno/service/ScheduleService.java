@@ -32,6 +32,9 @@ public class ScheduleService {
     @Autowired
     private com.hyno.repository.HospitalRepository hospitalRepository;
 
+    @Autowired
+    private AvailabilityIndexService availabilityIndexService;
+
     // Schedule CRUD operations
     public List<Schedule> getSchedulesByDoctor(String doctorId) {
         logger.info("Fetching schedules for doctor: {}", doctorId);
@@ -193,6 +196,7 @@ public class ScheduleService {
         logger.info("Creating new schedule slot");
         try {
             ScheduleSlot savedSlot = scheduleSlotRepository.save(slot);
+            availabilityIndexService.onSlotChanged(savedSlot);
             logger.info("Schedule slot created successfully with ID: {}", savedSlot.getId());
             return savedSlot;
         } catch (Exception e) {
@@ -215,6 +219,7 @@ public class ScheduleService {
                 slot.setStatus(slotDetails.getStatus());
                 slot.setNotes(slotDetails.getNotes());
                 ScheduleSlot updatedSlot = scheduleSlotRepository.save(slot);
+                availabilityIndexService.onSlotChanged(updatedSlot);
                 logger.info("Schedule slot updated successfully: {}", id);
                 return updatedSlot;
             } else {
@@ -232,6 +237,7 @@ public class ScheduleService {
         logger.info("Deleting schedule slot: {}", id);
         try {
             scheduleSlotRepository.deleteById(id);
+            availabilityIndexService.onSlotDeleted(id);
             logger.info("Schedule slot deleted successfully: {}", id);
         } catch (Exception e) {
             logger.error("Error deleting schedule slot: {}", id, e);
@@ -249,6 +255,7 @@ public class ScheduleService {
                 ScheduleSlot slot = optionalSlot.get();
                 slot.reserveSlot(userId, reservationMinutes);
                 scheduleSlotRepository.save(slot);
+                availabilityIndexService.onSlotChanged(slot);
                 logger.info("Slot reserved successfully: {} for user: {}", slotId, userId);
                 return true;
             } else {
@@ -271,6 +278,7 @@ public class ScheduleService {
                 if (slot.getReservedBy() != null && slot.getReservedBy().equals(userId)) {
                     slot.releaseReservation();
                     scheduleSlotRepository.save(slot);
+                    availabilityIndexService.onSlotChanged(slot);
                     logger.info("Slot reservation released successfully: {} for user: {}", slotId, userId);
                     return true;
                 } else {
@@ -291,11 +299,12 @@ public class ScheduleService {
     public boolean bookSlot(Long slotId) {
         logger.info("Booking slot: {}", slotId);
         try {
-            Optional<ScheduleSlot> optionalSlot = scheduleSlotRepository.findById(slotId);
+            Optional<ScheduleSlot> optionalSlot = scheduleSlotRepository.findByIdForUpdate(slotId);
             if (optionalSlot.isPresent()) {
                 ScheduleSlot slot = optionalSlot.get();
                 slot.bookAppointment();
                 scheduleSlotRepository.save(slot);
+                availabilityIndexService.onSlotChanged(slot);
                 logger.info("Slot booked successfully: {}", slotId);
                 return true;
             } else {
@@ -317,6 +326,7 @@ public class ScheduleService {
                 ScheduleSlot slot = optionalSlot.get();
                 slot.cancelAppointment();
                 scheduleSlotRepository.save(slot);
+                availabilityIndexService.onSlotChanged(slot);
                 logger.info("Slot booking cancelled successfully: {}", slotId);
                 return true;
             } else {
@@ -365,6 +375,7 @@ public class ScheduleService {
             for (ScheduleSlot slot : expiredReservations) {
                 slot.releaseReservation();
                 scheduleSlotRepository.save(slot);
+                availabilityIndexService.onSlotChanged(slot);
                 logger.info("Released expired reservation for slot: {}", slot.getId());
             }
 
@@ -0,0 +1,118 @@
+package com.hyno.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Two-level hierarchical timer wheel over integer ticks. The inner wheel has one bucket per
+ * tick for the current 64-tick block; the outer wheel has one bucket per block for the next
+ * 63 blocks and is cascaded into the inner wheel as each block begins. Deadlines further out
+ * wait in an overflow list that is re-examined once per outer revolution. Scheduling and
+ * cancelling are O(1) and advancing costs O(timers due) per tick, independent of how many
+ * timers are pending. Not thread-safe; callers synchronize.
+ */
+class TimerWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+
+    private final List<List<Timeout<T>>> inner = buckets();
+    private final List<List<Timeout<T>>> outer = buckets();
+    private List<Timeout<T>> overflow = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    TimerWheel(long startTick) {
+        this.currentTick = startTick;
+    }
+
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Deadlines at or before the current tick fire on the next advance
+    Timeout<T> schedule(long deadlineTick, T payload) {
+        Timeout<T> timeout = new Timeout<>(Math.max(deadlineTick, currentTick + 1), payload);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    void advance(long toTick, Consumer<T> onExpired) {
+        while (currentTick < toTick) {
+            currentTick++;
+            if ((currentTick & MASK) == 0) {
+                if (((currentTick >> BITS) & MASK) == 0) {
+                    List<Timeout<T>> waiting = overflow;
+                    overflow = new ArrayList<>();
+                    waiting.forEach(this::place);
+                }
+                List<Timeout<T>> block = outer.get((int) ((currentTick >> BITS) & MASK));
+                List<Timeout<T>> cascading = new ArrayList<>(block);
+                block.clear();
+                cascading.forEach(this::place);
+            }
+            List<Timeout<T>> bucket = inner.get((int) (currentTick & MASK));
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            List<Timeout<T>> expired = new ArrayList<>(bucket);
+            bucket.clear();
+            for (Timeout<T> timeout : expired) {
+                size--;
+                if (!timeout.cancelled) {
+                    onExpired.accept(timeout.payload);
+                }
+            }
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        if (timeout.cancelled) {
+            size--;
+            return;
+        }
+        long blocksAhead = (timeout.deadlineTick >> BITS) - (currentTick >> BITS);
+        if (blocksAhead == 0) {
+            inner.get((int) (timeout.deadlineTick & MASK)).add(timeout);
+        } else if (blocksAhead < SLOTS) {
+            outer.get((int) ((timeout.deadlineTick >> BITS) & MASK)).add(timeout);
+        } else {
+            overflow.add(timeout);
+        }
+    }
+
+    private static <T> List<List<Timeout<T>>> buckets() {
+        List<List<Timeout<T>>> buckets = new ArrayList<>(SLOTS);
+        for (int i = 0; i < SLOTS; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        return buckets;
+    }
+
+    // Cancelled timeouts stay in their bucket and are dropped when it is next visited
+    static class Timeout<T> {
+        private final long deadlineTick;
+        private final T payload;
+        private boolean cancelled;
+
+        Timeout(long deadlineTick, T payload) {
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        long getDeadlineTick() {
+            return deadlineTick;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+}
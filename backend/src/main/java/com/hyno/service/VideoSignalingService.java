@@ -0,0 +1,247 @@
+package com.hyno.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays WebRTC signaling between the participants of an appointment's call. Participants are
+ * the role-qualified principal names of their STOMP sessions, and signals go to each peer's
+ * user destination (/user/queue/video-call/...), so only the peer's own sessions receive them. Trickle-ICE candidates are batched per sender: the first candidate after a
+ * quiet period is relayed at once so connectivity checks can start, and the candidates that
+ * follow within video-call.ice-batch-window-ms are relayed together, one message per peer per
+ * window. Each sender's messages are relayed under its lock, so its pending candidates always
+ * go out before its next offer or answer, and the end-of-candidates marker is relayed without
+ * waiting but never ahead of candidates still pending. A participant whose last STOMP session
+ * closes is taken out of its calls. The hyno.video.signals
+ * counters (received vs sent) give the message reduction and hyno.video.ice.delay the added
+ * latency.
+ */
+@Service
+public class VideoSignalingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoSignalingService.class);
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${video-call.ice-batch-window-ms:50}")
+    private long iceBatchWindowMs;
+
+    @Value("${video-call.ice-batch-max:64}")
+    private int iceBatchMax;
+
+    private final Map<String, Set<String>> participants = new ConcurrentHashMap<>();
+
+    // The STOMP sessions each participant (appointment and principal) joined from, and the calls
+    // joined from each session, so a dropped connection can be taken out of its calls
+    private final Map<String, Set<String>> sessionsByParticipant = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> callsBySession = new ConcurrentHashMap<>();
+
+    // Keyed by appointment and sender principal
+    private final Map<String, IceState> iceStates = new ConcurrentHashMap<>();
+
+    public void join(String appointmentId, String principalName, String sessionId) {
+        addMember(participants, appointmentId, principalName);
+        if (sessionId != null) {
+            addMember(sessionsByParticipant, appointmentId + ":" + principalName, sessionId);
+            addMember(callsBySession, sessionId, appointmentId);
+        }
+    }
+
+    // Removes the participant and returns the principal names left in the call
+    public Set<String> leave(String appointmentId, String principalName) {
+        Set<String> sessions = sessionsByParticipant.remove(appointmentId + ":" + principalName);
+        if (sessions != null) {
+            sessions.forEach(sessionId -> removeMember(callsBySession, sessionId, appointmentId));
+        }
+        IceState state = iceStates.remove(appointmentId + ":" + principalName);
+        if (state != null) {
+            synchronized (state) {
+                state.evicted = true;
+            }
+        }
+        Set<String> remaining = removeMember(participants, appointmentId, principalName);
+        return remaining != null ? Set.copyOf(remaining) : Set.of();
+    }
+
+    /**
+     * Takes a closed STOMP session out of the calls joined from it. A participant still connected
+     * through another session stays in the call. Returns the principal names left in each call
+     * the participant left, keyed by appointment.
+     */
+    public Map<String, Set<String>> disconnect(String sessionId, String principalName) {
+        Set<String> calls = callsBySession.remove(sessionId);
+        if (calls == null) {
+            return Map.of();
+        }
+        Map<String, Set<String>> left = new HashMap<>();
+        for (String appointmentId : calls) {
+            boolean lastSession = removeMember(sessionsByParticipant, appointmentId + ":" + principalName, sessionId) == null;
+            if (lastSession && participants.getOrDefault(appointmentId, Set.of()).contains(principalName)) {
+                left.put(appointmentId, leave(appointmentId, principalName));
+            }
+        }
+        return left;
+    }
+
+    // Offers and answers are relayed immediately, after the sender's pending candidates
+    public void relay(String appointmentId, String fromPrincipal, String type, Object payload) {
+        record(type, "received");
+        IceState state = iceStates.get(appointmentId + ":" + fromPrincipal);
+        if (state == null) {
+            sendToPeers(appointmentId, fromPrincipal, type, payload);
+            return;
+        }
+        synchronized (state) {
+            flushPending(state, System.currentTimeMillis());
+            sendToPeers(appointmentId, fromPrincipal, type, payload);
+        }
+    }
+
+    // fromUserId is the sender's id as its client knows it, repeated in the batch payload
+    public void onIceCandidate(String appointmentId, String fromPrincipal, String fromUserId, Object candidate, boolean endOfCandidates) {
+        record("ice-candidates", "received");
+        String key = appointmentId + ":" + fromPrincipal;
+        while (true) {
+            IceState state = iceStates.computeIfAbsent(key, k -> new IceState(appointmentId, fromPrincipal, fromUserId));
+            synchronized (state) {
+                if (state.evicted) {
+                    continue;
+                }
+                // Read under the lock: a time taken before it can precede the lastSentAt of a
+                // concurrent send and hold this candidate back until the sender's next one
+                long now = System.currentTimeMillis();
+                state.pending.add(candidate);
+                if (state.pending.size() == 1) {
+                    state.pendingSince = now;
+                }
+                if (endOfCandidates || state.pending.size() >= iceBatchMax || now - state.lastSentAt >= iceBatchWindowMs) {
+                    // The marker goes out in the same batch as the candidates before it
+                    flushPending(state, now);
+                }
+                return;
+            }
+        }
+    }
+
+    // Called every batch window: relays the candidates collected since the last message
+    public void flushIceCandidates() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, IceState> entry : iceStates.entrySet()) {
+            IceState state = entry.getValue();
+            synchronized (state) {
+                if (!state.pending.isEmpty() && now - state.lastSentAt >= iceBatchWindowMs) {
+                    flushPending(state, now);
+                } else if (state.pending.isEmpty() && now - state.lastSentAt > iceBatchWindowMs * 200) {
+                    state.evicted = true;
+                    iceStates.remove(entry.getKey(), state);
+                }
+            }
+        }
+    }
+
+    // Relays the sender's pending candidates; called under the sender's lock, so its batches and
+    // signals are published in the order they were taken
+    private void flushPending(IceState state, long now) {
+        if (state.pending.isEmpty()) {
+            return;
+        }
+        recordDelay(state.pendingSince, now);
+        sendIceBatch(state, state.take(now));
+    }
+
+    private void sendIceBatch(IceState sender, List<Object> candidates) {
+        sendToPeers(sender.appointmentId, sender.fromPrincipal, "ice-candidates", new IceCandidateBatch(sender.fromUserId, candidates));
+    }
+
+    private void sendToPeers(String appointmentId, String fromPrincipal, String type, Object payload) {
+        Set<String> users = participants.get(appointmentId);
+        if (users == null) {
+            logger.debug("Dropping {} for appointment {} without participants", type, appointmentId);
+            return;
+        }
+        for (String principalName : users) {
+            if (!principalName.equals(fromPrincipal)) {
+                messagingTemplate.convertAndSendToUser(principalName, "/queue/video-call/" + type, payload);
+                record(type, "sent");
+            }
+        }
+    }
+
+    private static void addMember(Map<String, Set<String>> index, String key, String member) {
+        index.compute(key, (k, members) -> {
+            Set<String> updated = members != null ? members : ConcurrentHashMap.newKeySet();
+            updated.add(member);
+            return updated;
+        });
+    }
+
+    // Returns the members left, or null once the key has none
+    private static Set<String> removeMember(Map<String, Set<String>> index, String key, String member) {
+        return index.computeIfPresent(key, (k, members) -> {
+            members.remove(member);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private void recordDelay(long pendingSince, long now) {
+        Timer.builder("hyno.video.ice.delay").register(meterRegistry).record(now - pendingSince, TimeUnit.MILLISECONDS);
+    }
+
+    private void record(String type, String outcome) {
+        meterRegistry.counter("hyno.video.signals", "type", type, "outcome", outcome).increment();
+    }
+
+    private static class IceState {
+        private final String appointmentId;
+        private final String fromPrincipal;
+        private final String fromUserId;
+        private List<Object> pending = new ArrayList<>();
+        private long pendingSince;
+        private long lastSentAt;
+        private boolean evicted;
+
+        IceState(String appointmentId, String fromPrincipal, String fromUserId) {
+            this.appointmentId = appointmentId;
+            this.fromPrincipal = fromPrincipal;
+            this.fromUserId = fromUserId;
+        }
+
+        List<Object> take(long now) {
+            List<Object> batch = pending;
+            pending = new ArrayList<>();
+            lastSentAt = now;
+            return batch;
+        }
+    }
+
+    public static class IceCandidateBatch {
+        private final String fromUserId;
+        private final List<Object> candidates;
+
+        public IceCandidateBatch(String fromUserId, List<Object> candidates) {
+            this.fromUserId = fromUserId;
+            this.candidates = candidates;
+        }
+
+        public String getFromUserId() { return fromUserId; }
+        public List<Object> getCandidates() { return candidates; }
+    }
+}
@@ -25,10 +25,13 @@ public class YogaSessionService {
     @Autowired
     private com.hyno.repository.YogaTrainerRepository yogaTrainerRepository;
 
+    @Autowired
+    private ReminderService reminderService;
+
     public List<YogaSession> getAllSessions() {
         logger.info("Fetching all yoga sessions");
         try {
-            List<YogaSession> sessions = yogaSessionRepository.findAll();
+            List<YogaSession> sessions = yogaSessionRepository.findAllWithPatientAndTrainer();
             logger.info("Retrieved {} yoga sessions", sessions.size());
             return sessions;
         } catch (Exception e) {
@@ -143,6 +146,7 @@ public class YogaSessionService {
             }
 
             YogaSession savedSession = yogaSessionRepository.save(session);
+            reminderService.onYogaSessionChanged(savedSession.getId());
             logger.info("Yoga session created successfully with ID: {}", savedSession.getId());
             return savedSession;
         } catch (Exception e) {
@@ -165,6 +169,7 @@ public class YogaSessionService {
                 session.setNotes(sessionDetails.getNotes());
                 session.setFeedback(sessionDetails.getFeedback());
                 YogaSession updatedSession = yogaSessionRepository.save(session);
+                reminderService.onYogaSessionChanged(updatedSession.getId());
                 logger.info("Yoga session updated successfully: {}", id);
                 return updatedSession;
             } else {
@@ -181,6 +186,7 @@ public class YogaSessionService {
         logger.info("Deleting yoga session: {}", id);
         try {
             yogaSessionRepository.deleteById(id);
+            reminderService.onYogaSessionDeleted(id);
             logger.info("Yoga session deleted successfully: {}", id);
         } catch (Exception e) {
             logger.error("Error deleting yoga session: {}", id, e);
@@ -196,6 +202,7 @@ public class YogaSessionService {
                 YogaSession session = optionalSession.get();
                 session.setStatus(YogaSession.SessionStatus.CANCELLED);
                 YogaSession cancelledSession = yogaSessionRepository.save(session);
+                reminderService.onYogaSessionChanged(cancelledSession.getId());
                 logger.info("Yoga session cancelled successfully: {}", id);
                 return cancelledSession;
             } else {
@@ -216,6 +223,7 @@ public class YogaSessionService {
                 YogaSession session = optionalSession.get();
                 session.setStatus(YogaSession.SessionStatus.COMPLETED);
                 YogaSession completedSession = yogaSessionRepository.save(session);
+                reminderService.onYogaSessionChanged(completedSession.getId());
                 logger.info("Yoga session completed successfully: {}", id);
                 return completedSession;
             } else {
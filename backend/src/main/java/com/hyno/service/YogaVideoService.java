@@ -20,7 +20,7 @@ public class YogaVideoService {
     public List<YogaVideo> getAllVideos() {
         logger.info("Fetching all yoga videos");
         try {
-            List<YogaVideo> videos = yogaVideoRepository.findAll();
+            List<YogaVideo> videos = yogaVideoRepository.findAllWithBenefits();
             logger.info("Retrieved {} yoga videos", videos.size());
             return videos;
         } catch (Exception e) {
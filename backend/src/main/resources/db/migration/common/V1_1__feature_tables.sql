@@ -0,0 +1,95 @@
+-- Tables and columns of the features added since the baseline: reminder dispatch bookkeeping,
+-- chunked chat attachments, chat archiving, call quality summaries and doctor avatars. Databases
+-- baselined at version 1 get them here; Hibernate created them under ddl-auto=update before.
+
+-- reminders
+create table reminder_dispatches (
+    id bigint not null auto_increment,
+    sent_at datetime(6) not null,
+    reminder_key varchar(120) not null,
+    primary key (id)
+) engine=InnoDB;
+alter table reminder_dispatches add constraint UK_2henkkur1hhlyy5q6x0gf1jxu unique (reminder_key);
+
+-- chat attachments
+create table attachment_uploads (
+    created_at datetime(6) not null,
+    size bigint not null,
+    updated_at datetime(6) not null,
+    content_type varchar(150),
+    chat_room_id varchar(255) not null,
+    file_name varchar(255) not null,
+    id varchar(255) not null,
+    sender_id varchar(255) not null,
+    sender_name varchar(255) not null,
+    sender_role enum ('PATIENT','DOCTOR') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table chat_attachments (
+    created_at datetime(6) not null,
+    size bigint not null,
+    sha256 varchar(64) not null,
+    content_type varchar(150),
+    file_name varchar(255),
+    primary key (sha256)
+) engine=InnoDB;
+
+-- chat archive
+alter table chat_rooms add column archived_at datetime(6);
+
+create table chat_archive_blocks (
+    message_count integer not null,
+    raw_bytes integer not null,
+    stored_bytes integer not null,
+    created_at datetime(6) not null,
+    first_message_at datetime(6),
+    last_message_at datetime(6),
+    segment_offset bigint not null,
+    segment_file varchar(100) not null,
+    chat_room_id varchar(255) not null,
+    id varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+create index idx_chat_archive_blocks_room on chat_archive_blocks (chat_room_id);
+
+-- call quality
+create table call_quality_summaries (
+    bitrate_avg_kbps float(53),
+    bitrate_p05_kbps float(53),
+    bitrate_p50_kbps float(53),
+    jitter_max_ms float(53),
+    jitter_p50_ms float(53),
+    jitter_p95_ms float(53),
+    packet_loss_avg_percent float(53),
+    packet_loss_max_percent float(53),
+    packet_loss_p95_percent float(53),
+    rtt_max_ms float(53),
+    rtt_p50_ms float(53),
+    rtt_p95_ms float(53),
+    samples integer not null,
+    window_end datetime(6) not null,
+    window_start datetime(6) not null,
+    histograms varchar(4000),
+    appointment_id varchar(255) not null,
+    id varchar(255) not null,
+    user_id varchar(255) not null,
+    video_call_id varchar(255),
+    primary key (id)
+) engine=InnoDB;
+create index idx_call_quality_appointment on call_quality_summaries (appointment_id, window_start);
+create index idx_call_quality_video_call on call_quality_summaries (video_call_id);
+
+-- doctor avatars
+alter table doctors add column avatar_thumbnail_url varchar(255);
+
+create table doctor_avatars (
+    updated_at datetime(6) not null,
+    medium_sha256 varchar(64),
+    source_sha256 varchar(64),
+    thumbnail_sha256 varchar(64),
+    doctor_id varchar(255) not null,
+    error_message varchar(255),
+    status enum ('PROCESSING','READY','FAILED') not null,
+    primary key (doctor_id)
+) engine=InnoDB;
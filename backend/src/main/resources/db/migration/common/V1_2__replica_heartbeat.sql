@@ -0,0 +1,7 @@
+-- Heartbeat row stamped on the primary and read back through the read replica to measure its lag
+-- (ReplicaRoutingDataSource.checkReplica). Created here so it replicates like any other table.
+create table replica_heartbeat (
+    id integer not null,
+    beat_at bigint not null,
+    primary key (id)
+) engine=InnoDB;
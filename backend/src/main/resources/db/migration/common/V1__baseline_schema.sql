@@ -0,0 +1,480 @@
+-- Baseline: the schema as Hibernate created it under ddl-auto=update before the schema moved to
+-- migrations. Databases that already have these tables are baselined at version 1
+-- (spring.flyway.baseline-on-migrate) and start at V1_1.
+
+create table admins (
+    is_verified bit not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    email varchar(255) not null,
+    id varchar(255) not null,
+    name varchar(255) not null,
+    password varchar(255),
+    phone varchar(255),
+    role enum ('SUPER_ADMIN','ADMIN','MODERATOR'),
+    primary key (id)
+) engine=InnoDB;
+
+create table appointments (
+    appointment_date date not null,
+    appointment_time time(6) not null,
+    video_call_duration integer,
+    created_at datetime(6),
+    schedule_slot_id bigint,
+    updated_at datetime(6),
+    video_call_end_time datetime(6),
+    video_call_start_time datetime(6),
+    reason varchar(1000),
+    notes varchar(2000),
+    prescription varchar(2000),
+    doctor_id varchar(255) not null,
+    doctor_name varchar(255) not null,
+    hospital_id varchar(255),
+    hospital_name varchar(255),
+    id varchar(255) not null,
+    patient_id varchar(255) not null,
+    patient_name varchar(255) not null,
+    status enum ('PENDING','UPCOMING','COMPLETED','CANCELLED'),
+    type enum ('VIDEO','CHAT','INPERSON','HOSPITAL') not null,
+    video_call_status enum ('NOT_STARTED','CONNECTING','IN_PROGRESS','COMPLETED','FAILED','CANCELLED'),
+    primary key (id)
+) engine=InnoDB;
+
+create table chat_messages (
+    created_at datetime(6),
+    delivered_at datetime(6),
+    file_size bigint,
+    read_at datetime(6),
+    updated_at datetime(6),
+    content varchar(2000) not null,
+    chat_room_id varchar(255) not null,
+    file_name varchar(255),
+    file_url varchar(255),
+    id varchar(255) not null,
+    sender_id varchar(255) not null,
+    sender_name varchar(255) not null,
+    message_type enum ('TEXT','IMAGE','FILE','AUDIO') not null,
+    sender_role enum ('PATIENT','DOCTOR') not null,
+    sender_type enum ('PATIENT','DOCTOR') not null,
+    status enum ('SENT','DELIVERED','READ') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table chat_rooms (
+    unread_count_doctor integer not null,
+    unread_count_patient integer not null,
+    created_at datetime(6),
+    last_message_time datetime(6),
+    updated_at datetime(6),
+    appointment_id varchar(255) not null,
+    doctor_id varchar(255) not null,
+    doctor_name varchar(255) not null,
+    id varchar(255) not null,
+    last_message varchar(255),
+    patient_id varchar(255) not null,
+    patient_name varchar(255) not null,
+    status enum ('ACTIVE','ARCHIVED','CLOSED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table doctor_schedules (
+    date date not null,
+    end_time time(6) not null,
+    start_time time(6) not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    updated_at datetime(6),
+    notes varchar(500),
+    appointment_id varchar(255),
+    doctor_id varchar(255) not null,
+    status enum ('AVAILABLE','HELD','BOOKED','CANCELLED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table doctors (
+    available bit,
+    consultation_fee decimal(38,2),
+    experience integer,
+    is_verified bit not null,
+    rating decimal(38,2),
+    created_at datetime(6),
+    updated_at datetime(6),
+    avatar_url varchar(255),
+    email varchar(255) not null,
+    hospital_id varchar(255),
+    id varchar(255) not null,
+    name varchar(255) not null,
+    password varchar(255),
+    phone varchar(255),
+    qualification varchar(255),
+    specialization varchar(255),
+    status varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table email_verification_tokens (
+    expiry_date datetime(6) not null,
+    email varchar(255) not null,
+    id varchar(255) not null,
+    token varchar(255) not null,
+    user_type varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table feedbacks (
+    rating integer not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    suggestions varchar(500),
+    comments varchar(1000),
+    appointment_id varchar(255) not null,
+    doctor_id varchar(255) not null,
+    id varchar(255) not null,
+    patient_id varchar(255) not null,
+    type enum ('DOCTOR_RATING','HOSPITAL_RATING','SERVICE_RATING','OVERALL_EXPERIENCE') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table hospital_facilities (
+    facility varchar(255),
+    hospital_id varchar(255) not null
+) engine=InnoDB;
+
+create table hospitals (
+    is_verified bit not null,
+    total_doctors integer,
+    created_at datetime(6),
+    updated_at datetime(6),
+    address varchar(255),
+    city varchar(255),
+    email varchar(255) not null,
+    id varchar(255) not null,
+    name varchar(255) not null,
+    password varchar(255),
+    phone varchar(255),
+    pincode varchar(255),
+    registration_number varchar(255),
+    state varchar(255),
+    status varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table medicines (
+    price decimal(10,2),
+    stock_quantity integer not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    status varchar(20),
+    prescription_required varchar(50),
+    dosage_form varchar(100),
+    name varchar(200) not null,
+    strength varchar(200),
+    category varchar(500),
+    generic_name varchar(500),
+    manufacturer varchar(500),
+    contraindications varchar(1000),
+    description varchar(1000),
+    image_url varchar(1000),
+    indications varchar(1000),
+    interactions varchar(1000),
+    precautions varchar(1000),
+    side_effects varchar(1000),
+    id varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table order_items (
+    quantity integer,
+    total_price decimal(38,2),
+    unit_price decimal(38,2),
+    medicine_id varchar(255),
+    medicine_name varchar(255),
+    order_id varchar(255) not null
+) engine=InnoDB;
+
+create table orders (
+    total_amount decimal(10,2) not null,
+    created_at datetime(6),
+    updated_at datetime(6) not null,
+    payment_method varchar(20),
+    payment_status varchar(50),
+    status varchar(50) not null,
+    delivery_address varchar(500),
+    notes varchar(1000),
+    id varchar(255) not null,
+    patient_email varchar(255) not null,
+    patient_id varchar(255) not null,
+    patient_name varchar(255) not null,
+    patient_phone varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table password_reset_tokens (
+    expiry_date datetime(6) not null,
+    email varchar(255) not null,
+    id varchar(255) not null,
+    token varchar(255) not null,
+    user_type varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table patient_allergies (
+    allergy varchar(255),
+    patient_id varchar(255) not null
+) engine=InnoDB;
+
+create table patient_current_medications (
+    medication varchar(255),
+    patient_id varchar(255) not null
+) engine=InnoDB;
+
+create table patient_medical_history (
+    condition_name varchar(255),
+    patient_id varchar(255) not null
+) engine=InnoDB;
+
+create table patients (
+    age integer,
+    date_of_birth date,
+    is_verified bit not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    address varchar(255),
+    blood_group varchar(255),
+    email varchar(255) not null,
+    emergency_contact varchar(255),
+    gender varchar(255),
+    hospital_id varchar(255),
+    id varchar(255) not null,
+    name varchar(255) not null,
+    notes varchar(255),
+    password varchar(255),
+    phone varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table payments (
+    amount decimal(38,2) not null,
+    created_at datetime(6),
+    payment_date datetime(6),
+    updated_at datetime(6),
+    appointment_id varchar(255) not null,
+    id varchar(255) not null,
+    patient_id varchar(255) not null,
+    transaction_id varchar(255),
+    method enum ('CREDIT_CARD','DEBIT_CARD','UPI','NET_BANKING','WALLET') not null,
+    status enum ('PENDING','COMPLETED','FAILED','REFUNDED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table prescription_medicines (
+    quantity integer,
+    dosage varchar(255),
+    duration varchar(255),
+    frequency varchar(255),
+    instructions varchar(255),
+    medicine_id varchar(255),
+    medicine_name varchar(255),
+    prescription_id varchar(255) not null
+) engine=InnoDB;
+
+create table prescriptions (
+    created_at datetime(6),
+    updated_at datetime(6) not null,
+    status varchar(50) not null,
+    notes varchar(500),
+    diagnosis varchar(1000),
+    instructions varchar(2000),
+    appointment_id varchar(255) not null,
+    doctor_id varchar(255) not null,
+    doctor_name varchar(255) not null,
+    id varchar(255) not null,
+    patient_id varchar(255) not null,
+    patient_name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table schedule_slots (
+    booked_appointments integer not null,
+    end_time time(6) not null,
+    max_appointments integer not null,
+    slot_date date not null,
+    start_time time(6) not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    reservation_expires_at datetime(6),
+    reserved_at datetime(6),
+    schedule_id bigint not null,
+    updated_at datetime(6),
+    notes varchar(500),
+    reserved_by varchar(255),
+    status enum ('AVAILABLE','RESERVED','BOOKED','CANCELLED','COMPLETED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table schedules (
+    end_time time(6) not null,
+    is_active bit not null,
+    max_appointments integer not null,
+    schedule_date date not null,
+    start_time time(6) not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    updated_at datetime(6),
+    notes varchar(500),
+    doctor_id varchar(255),
+    hospital_id varchar(255),
+    appointment_type enum ('GENERAL','FOLLOWUP','EMERGENCY','CONSULTATION') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table trainer_languages (
+    trainer_id bigint not null,
+    language varchar(255)
+) engine=InnoDB;
+
+create table trainer_modes (
+    trainer_id bigint not null,
+    mode varchar(255)
+) engine=InnoDB;
+
+create table trainer_qualifications (
+    trainer_id bigint not null,
+    qualification varchar(255)
+) engine=InnoDB;
+
+create table trainer_specialties (
+    trainer_id bigint not null,
+    specialty varchar(255)
+) engine=InnoDB;
+
+create table trainers (
+    experience_years integer not null,
+    is_verified bit not null,
+    price_per_session decimal(10,2) not null,
+    rating float(53) not null,
+    review_count integer,
+    created_at datetime(6),
+    updated_at datetime(6),
+    bio varchar(1000),
+    email varchar(255) not null,
+    id varchar(255) not null,
+    image varchar(255) not null,
+    location varchar(255) not null,
+    name varchar(255) not null,
+    password varchar(255),
+    phone varchar(255),
+    status varchar(255) not null,
+    availability enum ('AVAILABLE','BUSY','OFFLINE') not null,
+    trainer_type enum ('FITNESS','YOGA') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table video_benefits (
+    video_id bigint not null,
+    benefit varchar(255)
+) engine=InnoDB;
+
+create table video_calls (
+    duration integer,
+    created_at datetime(6),
+    end_time datetime(6),
+    start_time datetime(6) not null,
+    updated_at datetime(6),
+    notes varchar(1000),
+    appointment_id varchar(255) not null,
+    doctor_id varchar(255) not null,
+    id varchar(255) not null,
+    patient_id varchar(255) not null,
+    status enum ('INITIATED','CONNECTED','COMPLETED','FAILED','CANCELLED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table yoga_sessions (
+    price decimal(10,2) not null,
+    session_date date not null,
+    session_time time(6) not null,
+    created_at datetime(6) not null,
+    id bigint not null auto_increment,
+    trainer_id bigint not null,
+    updated_at datetime(6),
+    notes varchar(1000),
+    feedback varchar(2000),
+    patient_id varchar(255) not null,
+    mode enum ('VIRTUAL','IN_PERSON') not null,
+    status enum ('UPCOMING','COMPLETED','CANCELLED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table yoga_trainers (
+    experience_years integer not null,
+    price_per_session decimal(10,2) not null,
+    rating float(53) not null,
+    review_count integer not null,
+    created_at datetime(6) not null,
+    id bigint not null auto_increment,
+    updated_at datetime(6),
+    bio varchar(1000),
+    image varchar(255) not null,
+    location varchar(255) not null,
+    name varchar(255) not null,
+    availability enum ('AVAILABLE','BUSY','OFFLINE') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table yoga_videos (
+    duration_minutes integer not null,
+    rating float(53) not null,
+    view_count integer not null,
+    created_at datetime(6) not null,
+    id bigint not null auto_increment,
+    updated_at datetime(6),
+    description varchar(2000),
+    style varchar(255) not null,
+    thumbnail varchar(255) not null,
+    title varchar(255) not null,
+    trainer_name varchar(255) not null,
+    video_url varchar(255) not null,
+    level enum ('BEGINNER','INTERMEDIATE','ADVANCED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table admins add constraint UK_47bvqemyk6vlm0w7crc3opdd4 unique (email);
+alter table doctors add constraint UK_caifv0va46t2mu85cg5afmayf unique (email);
+alter table hospitals add constraint UK_mu4lhu5fqa3pbbjiegpfmfgq0 unique (email);
+alter table patients add constraint UK_a370hmxgv0l5c9panryr1ji7d unique (email);
+alter table trainers add constraint UK_p760ma5h90yjnu0s0c94jawyb unique (email);
+
+alter table appointments add constraint FKmujeo4tymoo98cmf7uj3vsv76 foreign key (doctor_id) references doctors (id);
+alter table appointments add constraint FKeeih4i61q7xq9esuqp1xi6flp foreign key (hospital_id) references hospitals (id);
+alter table appointments add constraint FK8exap5wmg8kmb1g1rx3by21yt foreign key (patient_id) references patients (id);
+alter table appointments add constraint FK48syob0xa66d1tfi5ems3hpo4 foreign key (schedule_slot_id) references schedule_slots (id);
+alter table chat_messages add constraint FKbcsxusjp1v4rd8879fhvq8ssb foreign key (chat_room_id) references chat_rooms (id);
+alter table chat_rooms add constraint FKraxfkd49jphon80uya4w4j745 foreign key (appointment_id) references appointments (id);
+alter table chat_rooms add constraint FKiv75a5tpua1284e01ns5e6mgo foreign key (doctor_id) references doctors (id);
+alter table chat_rooms add constraint FKqxuhhjjnc6aaxhr6y3cwvkwjw foreign key (patient_id) references patients (id);
+alter table doctors add constraint FKavgx42jjd4i4bo52ox3o6k460 foreign key (hospital_id) references hospitals (id);
+alter table feedbacks add constraint FK58uid2ow3xl8erqdy5qy7prkm foreign key (appointment_id) references appointments (id);
+alter table feedbacks add constraint FK2uxpq6vjjodmoav4q5yhnr7xy foreign key (doctor_id) references doctors (id);
+alter table feedbacks add constraint FKk8cjtyvb0eeekpggptp23jtu6 foreign key (patient_id) references patients (id);
+alter table hospital_facilities add constraint FKhqutpyw2mvopc444bi71sl1s5 foreign key (hospital_id) references hospitals (id);
+alter table order_items add constraint FKbioxgbv59vetrxe0ejfubep1w foreign key (order_id) references orders (id);
+alter table patient_allergies add constraint FKklnsfdi730wjhwd6g2uynyg32 foreign key (patient_id) references patients (id);
+alter table patient_current_medications add constraint FKqu8fhgrs92vs4phrwjdiwck6m foreign key (patient_id) references patients (id);
+alter table patient_medical_history add constraint FKh1h5vct3rhl2mei2663c58ykn foreign key (patient_id) references patients (id);
+alter table payments add constraint FK9a0odew03qao7nlbdsesrux5u foreign key (appointment_id) references appointments (id);
+alter table payments add constraint FKlvfcgbin5vh2ivae1l87bmawb foreign key (patient_id) references patients (id);
+alter table prescription_medicines add constraint FK14vcxytfp7rr81y9fdhl37bbw foreign key (prescription_id) references prescriptions (id);
+alter table schedule_slots add constraint FKrabh09tamk5lexb8697u07of6 foreign key (schedule_id) references schedules (id);
+alter table schedules add constraint FKfpyatautb52nts46e1y1y4nvg foreign key (doctor_id) references doctors (id);
+alter table schedules add constraint FK852rbtp844a9cqlvr6ixhpifn foreign key (hospital_id) references hospitals (id);
+alter table trainer_languages add constraint FKp783yn1je6vdp9sh8rg2mvxqd foreign key (trainer_id) references yoga_trainers (id);
+alter table trainer_modes add constraint FKcreip196183f0cc26nc45kpud foreign key (trainer_id) references yoga_trainers (id);
+alter table trainer_qualifications add constraint FKlmjw7k15qa5biaxe89bxs39cf foreign key (trainer_id) references yoga_trainers (id);
+alter table trainer_specialties add constraint FKbh1r4sm6dbpvwop9savgsu7s4 foreign key (trainer_id) references yoga_trainers (id);
+alter table video_benefits add constraint FKqcdaxravmu3ns1u6wysulcyya foreign key (video_id) references yoga_videos (id);
+alter table video_calls add constraint FKa45hrx8pwi11dat6p4n0riyb9 foreign key (appointment_id) references appointments (id);
+alter table video_calls add constraint FK30gjs8ay20q4xibpds4gy9pa5 foreign key (doctor_id) references doctors (id);
+alter table video_calls add constraint FKomothvf8gdsqhcjiqv336unbr foreign key (patient_id) references patients (id);
+alter table yoga_sessions add constraint FKmit3n0yk8xl2jfety6p7rm08t foreign key (patient_id) references patients (id);
+alter table yoga_sessions add constraint FK4nnb0jjej4m2d6i70snfrsigl foreign key (trainer_id) references yoga_trainers (id);
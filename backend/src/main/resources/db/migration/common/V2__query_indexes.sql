@@ -0,0 +1,86 @@
+-- Secondary indexes for the repository finders. Equality columns lead, then the range or ORDER BY
+-- columns, so lookups like "a doctor's upcoming appointments in date order" read only their rows
+-- in index order. Searches with a leading-wildcard LIKE or LOWER() on the column cannot use a
+-- B-tree index and are not covered here.
+
+-- appointments: per doctor / patient / hospital by date, reminder and status windows
+create index idx_appointments_doctor_date on appointments (doctor_id, appointment_date, appointment_time);
+create index idx_appointments_patient_date on appointments (patient_id, appointment_date, appointment_time);
+create index idx_appointments_hospital_date on appointments (hospital_id, appointment_date);
+create index idx_appointments_date_status on appointments (appointment_date, status);
+create index idx_appointments_status_date on appointments (status, appointment_date);
+
+-- chat
+create index idx_chat_messages_room_created on chat_messages (chat_room_id, created_at);
+create index idx_chat_messages_room_status_role on chat_messages (chat_room_id, status, sender_role);
+create index idx_chat_messages_created_id on chat_messages (created_at, id);
+create index idx_chat_rooms_patient_status on chat_rooms (patient_id, status, last_message_time);
+create index idx_chat_rooms_doctor_status on chat_rooms (doctor_id, status, last_message_time);
+create index idx_chat_rooms_status_archived on chat_rooms (status, archived_at);
+create index idx_attachment_uploads_updated on attachment_uploads (updated_at);
+
+-- schedules and slots
+create index idx_schedules_doctor_date on schedules (doctor_id, schedule_date, is_active);
+create index idx_schedules_hospital_date on schedules (hospital_id, schedule_date, is_active);
+create index idx_schedule_slots_schedule_date on schedule_slots (schedule_id, slot_date, status, start_time);
+create index idx_schedule_slots_date_status on schedule_slots (slot_date, status);
+create index idx_doctor_schedules_doctor_date on doctor_schedules (doctor_id, date, status);
+create index idx_doctor_schedules_date_status on doctor_schedules (date, status);
+create index idx_doctor_schedules_appointment on doctor_schedules (appointment_id);
+
+-- payments, prescriptions, orders, feedback
+create index idx_payments_appointment_status on payments (appointment_id, status);
+create index idx_payments_patient_status on payments (patient_id, status);
+create index idx_payments_transaction on payments (transaction_id);
+create index idx_prescriptions_patient_status on prescriptions (patient_id, status);
+create index idx_prescriptions_doctor on prescriptions (doctor_id);
+create index idx_prescriptions_appointment on prescriptions (appointment_id);
+create index idx_prescriptions_status on prescriptions (status);
+create index idx_orders_patient_status on orders (patient_id, status);
+create index idx_orders_status on orders (status);
+create index idx_orders_payment_status on orders (payment_status);
+create index idx_feedbacks_doctor_created on feedbacks (doctor_id, created_at);
+create index idx_feedbacks_patient_created on feedbacks (patient_id, created_at);
+create index idx_feedbacks_appointment_patient on feedbacks (appointment_id, patient_id);
+create index idx_feedbacks_type_created on feedbacks (type, created_at);
+
+-- video calls
+create index idx_video_calls_appointment_start on video_calls (appointment_id, start_time);
+create index idx_video_calls_doctor_start on video_calls (doctor_id, start_time);
+create index idx_video_calls_patient_start on video_calls (patient_id, start_time);
+
+-- yoga sessions
+create index idx_yoga_sessions_patient_date on yoga_sessions (patient_id, session_date, session_time);
+create index idx_yoga_sessions_trainer_date on yoga_sessions (trainer_id, session_date, session_time);
+create index idx_yoga_sessions_date_status on yoga_sessions (session_date, status);
+create index idx_yoga_sessions_status_date on yoga_sessions (status, session_date);
+
+-- catalog filters
+create index idx_doctors_status on doctors (status);
+create index idx_doctors_specialization on doctors (specialization);
+create index idx_hospitals_status on hospitals (status);
+create index idx_hospitals_city on hospitals (city);
+create index idx_hospitals_registration_number on hospitals (registration_number);
+create index idx_patients_hospital on patients (hospital_id);
+create index idx_medicines_status_stock on medicines (status, stock_quantity);
+create index idx_medicines_category on medicines (category);
+create index idx_medicines_manufacturer on medicines (manufacturer);
+create index idx_medicines_prescription_required on medicines (prescription_required);
+create index idx_trainers_type_availability on trainers (trainer_type, availability);
+create index idx_trainers_availability on trainers (availability);
+create index idx_trainers_status on trainers (status);
+create index idx_trainers_rating on trainers (rating);
+create index idx_yoga_trainers_availability on yoga_trainers (availability);
+create index idx_yoga_trainers_rating on yoga_trainers (rating);
+create index idx_yoga_videos_level on yoga_videos (level);
+create index idx_yoga_videos_style on yoga_videos (style);
+create index idx_yoga_videos_trainer_name on yoga_videos (trainer_name);
+create index idx_yoga_videos_view_count on yoga_videos (view_count);
+create index idx_yoga_videos_rating on yoga_videos (rating);
+
+-- tokens and bookkeeping
+create index idx_password_reset_tokens_token on password_reset_tokens (token);
+create index idx_password_reset_tokens_email on password_reset_tokens (email, user_type);
+create index idx_password_reset_tokens_expiry on password_reset_tokens (expiry_date);
+create index idx_doctor_avatars_status on doctor_avatars (status);
+create index idx_reminder_dispatches_sent on reminder_dispatches (sent_at);
@@ -0,0 +1,12 @@
+-- Chat attachments get a row per upload instead of one per distinct content, so two uploads of
+-- the same bytes keep their own file name, content type, room and sender; only the blob on disk
+-- is shared through the sha256 column. Existing rows take their hash as the id, so the download
+-- links already posted in chat (/api/chat/attachments/{sha256}) keep working.
+alter table chat_attachments add column id varchar(255);
+update chat_attachments set id = sha256;
+alter table chat_attachments drop primary key;
+alter table chat_attachments modify column id varchar(255) not null;
+alter table chat_attachments add primary key (id);
+alter table chat_attachments add column chat_room_id varchar(255);
+alter table chat_attachments add column sender_id varchar(255);
+create index idx_chat_attachments_sha256 on chat_attachments (sha256);
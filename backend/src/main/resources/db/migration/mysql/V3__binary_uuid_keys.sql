@@ -0,0 +1,37 @@
+-- Moves the UUID primary keys of the high-insert tables from varchar(255) to binary(16). New ids
+-- are version 7 (time-ordered) UUIDs, so with 16-byte keys inserts append to the clustered index
+-- and every secondary index carries 16 bytes per row instead of up to 36 characters.
+-- Existing ids keep their value: uuid_to_bin(id) without the swap flag stores the bytes in UUID
+-- order, the same layout the application writes and reads back as the usual string form.
+--
+-- Each table gets the binary copy in a new column first, so a row whose id is not a UUID fails
+-- the conversion update before its primary key is touched. Drop the id_bin column, fix the row
+-- and repair the schema history before running the migration again.
+
+-- chat_messages; the creation-order index ends with the key and is rebuilt on the new column
+drop index idx_chat_messages_created_id on chat_messages;
+alter table chat_messages add column id_bin binary(16);
+update chat_messages set id_bin = uuid_to_bin(id);
+alter table chat_messages drop primary key, drop column id, change column id_bin id binary(16) not null, add primary key (id);
+create index idx_chat_messages_created_id on chat_messages (created_at, id);
+
+-- payments
+alter table payments add column id_bin binary(16);
+update payments set id_bin = uuid_to_bin(id);
+alter table payments drop primary key, drop column id, change column id_bin id binary(16) not null, add primary key (id);
+
+-- medicines; order_items.medicine_id and prescription_medicines.medicine_id are copies of the
+-- string form, not foreign keys, and stay varchar
+alter table medicines add column id_bin binary(16);
+update medicines set id_bin = uuid_to_bin(id);
+alter table medicines drop primary key, drop column id, change column id_bin id binary(16) not null, add primary key (id);
+
+-- orders and the order_items collection that references them
+alter table order_items drop foreign key FKbioxgbv59vetrxe0ejfubep1w;
+alter table orders add column id_bin binary(16);
+update orders set id_bin = uuid_to_bin(id);
+alter table order_items add column order_id_bin binary(16);
+update order_items set order_id_bin = uuid_to_bin(order_id);
+alter table orders drop primary key, drop column id, change column id_bin id binary(16) not null, add primary key (id);
+alter table order_items drop column order_id, change column order_id_bin order_id binary(16) not null;
+alter table order_items add constraint FKbioxgbv59vetrxe0ejfubep1w foreign key (order_id) references orders (id);
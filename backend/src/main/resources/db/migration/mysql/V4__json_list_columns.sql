@@ -0,0 +1,52 @@
+-- Moves the patient clinical lists and the trainer list attributes from element collection tables
+-- into JSON array columns on the owning row, so they load with the row and are updated in place.
+-- Element collections have no order column; elements are aggregated in insertion (row) order
+-- as far as the server keeps it, and rows without elements get an empty array.
+
+-- patients
+alter table patients
+    add column allergies json,
+    add column medical_history json,
+    add column current_medications json;
+
+update patients p set
+    allergies = coalesce((select json_arrayagg(a.allergy) from patient_allergies a where a.patient_id = p.id), json_array()),
+    medical_history = coalesce((select json_arrayagg(h.condition_name) from patient_medical_history h where h.patient_id = p.id), json_array()),
+    current_medications = coalesce((select json_arrayagg(m.medication) from patient_current_medications m where m.patient_id = p.id), json_array());
+
+drop table patient_allergies;
+drop table patient_medical_history;
+drop table patient_current_medications;
+
+-- yoga_trainers; the trainer_* tables were shared with trainers but keyed by a bigint that
+-- references yoga_trainers, so every row in them belongs to a yoga trainer
+alter table yoga_trainers
+    add column specialties json,
+    add column modes json,
+    add column qualifications json,
+    add column languages json;
+
+update yoga_trainers t set
+    specialties = coalesce((select json_arrayagg(s.specialty) from trainer_specialties s where s.trainer_id = t.id), json_array()),
+    modes = coalesce((select json_arrayagg(m.mode) from trainer_modes m where m.trainer_id = t.id), json_array()),
+    qualifications = coalesce((select json_arrayagg(q.qualification) from trainer_qualifications q where q.trainer_id = t.id), json_array()),
+    languages = coalesce((select json_arrayagg(l.language) from trainer_languages l where l.trainer_id = t.id), json_array());
+
+-- trainers; their string ids ("T001") could not be stored in the shared bigint column, so they
+-- start with empty lists
+alter table trainers
+    add column specialties json,
+    add column modes json,
+    add column qualifications json,
+    add column languages json;
+
+update trainers set
+    specialties = json_array(),
+    modes = json_array(),
+    qualifications = json_array(),
+    languages = json_array();
+
+drop table trainer_specialties;
+drop table trainer_modes;
+drop table trainer_qualifications;
+drop table trainer_languages;
@@ -0,0 +1,77 @@
+package com.hyno;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Upgrade path of the migrations on H2: a database that ddl-auto=update created before the
+ * schema moved to Flyway holds the V1 tables only and is baselined at version 1
+ * (spring.flyway.baseline-on-migrate), so every later version must bring it to the same schema
+ * as a fresh database migrated from V1. Hibernate validates the fresh schema against the
+ * entities in the application tests.
+ */
+class SchemaMigrationTest {
+
+    private static final String[] LOCATIONS = {"classpath:db/migration/common", "classpath:db/migration/h2"};
+
+    @Test
+    void baselinedDatabaseMigratesToTheFreshSchema() throws Exception {
+        DataSource fresh = database();
+        Flyway.configure().dataSource(fresh).locations(LOCATIONS).load().migrate();
+
+        DataSource existing = database();
+        try (Connection connection = existing.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/common/V1__baseline_schema.sql"));
+        }
+        Flyway upgrade = Flyway.configure().dataSource(existing).locations(LOCATIONS)
+                .baselineOnMigrate(true).baselineVersion("1").load();
+        upgrade.migrate();
+
+        assertEquals("1", upgrade.info().applied()[0].getVersion().getVersion(), "baselined at V1");
+        assertEquals(describe(fresh, "columns"), describe(existing, "columns"));
+        assertEquals(describe(fresh, "indexes"), describe(existing, "indexes"));
+        assertTrue(describe(existing, "columns").contains("replica_heartbeat.beat_at bigint no"));
+    }
+
+    private static DataSource database() {
+        return new DriverManagerDataSource("jdbc:h2:mem:migration-" + UUID.randomUUID()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,USER,ORDER;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    // "table.column type nullable" or "table.index column position", excluding Flyway's history table;
+    // the names H2 generates for primary keys and constraint indexes are not compared
+    private static Set<String> describe(DataSource dataSource, String what) throws SQLException {
+        String sql = "columns".equals(what)
+                ? "SELECT table_name, column_name, data_type, is_nullable FROM information_schema.columns"
+                : "SELECT table_name, REGEXP_REPLACE(REGEXP_REPLACE(index_name, '^PRIMARY_KEY_.*', 'primary'), '_INDEX_.*', ''), "
+                        + "column_name, CAST(ordinal_position AS VARCHAR) FROM information_schema.index_columns";
+        Set<String> rows = new TreeSet<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql + " WHERE table_schema = 'public' AND table_name <> 'flyway_schema_history'")) {
+            while (resultSet.next()) {
+                StringBuilder row = new StringBuilder(resultSet.getString(1)).append('.').append(resultSet.getString(2));
+                for (int i = 3; i <= resultSet.getMetaData().getColumnCount(); i++) {
+                    row.append(' ').append(resultSet.getString(i).toLowerCase());
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,181 @@
+package com.hyno.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent retries against {@link IdempotencyFilter} and {@link IdempotencyStore}: requests
+ * sharing a key run the handler once and all get its response, a key reused with another
+ * body is rejected, and keys are scoped to the caller.
+ */
+class IdempotencyFilterTest {
+
+    private static final int REQUESTS = 16;
+    private static final String PATIENT = "PATIENT:1";
+    private static final String BODY = "{\"doctorId\":\"1\",\"patientId\":\"1\",\"appointmentDate\":\"2026-11-02\"}";
+
+    private final AtomicInteger handlerRuns = new AtomicInteger();
+    private final CountDownLatch handlerStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseHandler = new CountDownLatch(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private IdempotencyFilter filter;
+
+    // Creates an appointment with a new id per run, held open until the test releases it
+    private final FilterChain createAppointment = (request, response) -> {
+        int run = handlerRuns.incrementAndGet();
+        handlerStarted.countDown();
+        try {
+            releaseHandler.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ((HttpServletResponse) response).setStatus(201);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(("{\"id\":\"appointment-" + run + "\"}").getBytes(StandardCharsets.UTF_8));
+    };
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyStore store = new IdempotencyStore();
+        ReflectionTestUtils.setField(store, "ttlMinutes", 1440L);
+        ReflectionTestUtils.setField(store, "maxEntries", 100);
+
+        filter = new IdempotencyFilter();
+        ReflectionTestUtils.setField(filter, "idempotencyStore", store);
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(filter, "paths", List.of("/api/appointments"));
+        ReflectionTestUtils.setField(filter, "waitTimeoutSeconds", 10L);
+    }
+
+    @Test
+    void concurrentRetriesRunTheHandlerOnceAndShareItsResponse() throws Exception {
+        List<Thread> clientThreads = new CopyOnWriteArrayList<>();
+        ExecutorService clients = Executors.newFixedThreadPool(REQUESTS, task -> {
+            Thread thread = new Thread(task);
+            clientThreads.add(thread);
+            return thread;
+        });
+        try {
+            // The first request holds the key while the others arrive
+            List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+            responses.add(clients.submit(() -> post("key-1", BODY)));
+            assertTrue(handlerStarted.await(10, TimeUnit.SECONDS));
+            for (int i = 1; i < REQUESTS; i++) {
+                responses.add(clients.submit(() -> post("key-1", BODY)));
+            }
+            // A different body under the same key is rejected while the first is in flight
+            assertEquals(422, post("key-1", BODY.replace("2026-11-02", "2026-11-03")).getStatus());
+
+            // Every retry is parked on the first request's result before it completes
+            awaitBlocked(clientThreads, REQUESTS);
+            releaseHandler.countDown();
+
+            int replayed = 0;
+            for (Future<MockHttpServletResponse> future : responses) {
+                MockHttpServletResponse response = future.get(20, TimeUnit.SECONDS);
+                assertEquals(201, response.getStatus());
+                assertEquals("{\"id\":\"appointment-1\"}", response.getContentAsString());
+                if ("true".equals(response.getHeader(IdempotencyFilter.REPLAYED_HEADER))) {
+                    replayed++;
+                }
+            }
+            assertEquals(1, handlerRuns.get());
+            assertEquals(REQUESTS - 1, replayed);
+            assertEquals(REQUESTS - 1, meterRegistry.counter("hyno.idempotency.requests", "outcome", "waited").count());
+        } finally {
+            clients.shutdownNow();
+        }
+
+        // After completion the stored response is replayed and a different body is still rejected
+        MockHttpServletResponse retry = post("key-1", BODY);
+        assertEquals("{\"id\":\"appointment-1\"}", retry.getContentAsString());
+        assertEquals(422, post("key-1", BODY.replace("2026-11-02", "2026-11-03")).getStatus());
+        assertEquals(1, handlerRuns.get());
+    }
+
+    @Test
+    void anotherKeyRunsTheHandlerAgain() throws Exception {
+        releaseHandler.countDown();
+
+        MockHttpServletResponse first = post("key-1", BODY);
+        MockHttpServletResponse second = post("key-2", BODY);
+
+        assertEquals("{\"id\":\"appointment-1\"}", first.getContentAsString());
+        assertEquals("{\"id\":\"appointment-2\"}", second.getContentAsString());
+        assertNull(second.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, handlerRuns.get());
+    }
+
+    @Test
+    void anotherCallerWithTheSameKeyGetsItsOwnResponse() throws Exception {
+        releaseHandler.countDown();
+
+        MockHttpServletResponse mine = post(PATIENT, "key-1", BODY);
+        MockHttpServletResponse theirs = post("PATIENT:2", "key-1", BODY);
+
+        assertEquals("{\"id\":\"appointment-1\"}", mine.getContentAsString());
+        assertEquals("{\"id\":\"appointment-2\"}", theirs.getContentAsString());
+        assertNull(theirs.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, handlerRuns.get());
+    }
+
+    @Test
+    void anonymousRequestsAreNotDeduplicated() throws Exception {
+        releaseHandler.countDown();
+
+        post(null, "key-1", BODY);
+        MockHttpServletResponse retry = post(null, "key-1", BODY);
+
+        assertEquals("{\"id\":\"appointment-2\"}", retry.getContentAsString());
+        assertEquals(2, handlerRuns.get());
+    }
+
+    private static void awaitBlocked(List<Thread> threads, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (threads.stream().filter(thread -> thread.getState() == Thread.State.TIMED_WAITING).count() < count) {
+            assertTrue(System.nanoTime() < deadline, "requests did not reach the filter");
+            Thread.sleep(10);
+        }
+    }
+
+    private MockHttpServletResponse post(String idempotencyKey, String body) throws Exception {
+        return post(PATIENT, idempotencyKey, body);
+    }
+
+    private MockHttpServletResponse post(String principal, String idempotencyKey, String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/appointments");
+        if (principal != null) {
+            request.setUserPrincipal(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+        }
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, createAppointment);
+        return response;
+    }
+}
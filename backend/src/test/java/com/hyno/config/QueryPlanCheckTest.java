@@ -0,0 +1,28 @@
+package com.hyno.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the EXPLAIN check over the migrated test schema, so a migration or finder change that
+ * leaves a hot query without an index fails the build instead of a staging start.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryPlanCheckTest {
+
+    @Autowired
+    private QueryPlanCheck queryPlanCheck;
+
+    @Test
+    void everyHotQueryCanUseAnIndex() throws Exception {
+        List<String> fullScans = queryPlanCheck.findFullScans();
+        assertEquals(List.of(), fullScans);
+    }
+}
@@ -0,0 +1,184 @@
+package com.hyno.controller;
+
+import com.hyno.entity.Appointment;
+import com.hyno.entity.Feedback;
+import com.hyno.entity.Payment;
+import com.hyno.entity.Trainer;
+import com.hyno.entity.YogaSession;
+import com.hyno.entity.YogaTrainer;
+import com.hyno.entity.YogaVideo;
+import com.hyno.repository.AppointmentRepository;
+import com.hyno.repository.FeedbackRepository;
+import com.hyno.repository.PaymentRepository;
+import com.hyno.repository.TrainerRepository;
+import com.hyno.repository.YogaSessionRepository;
+import com.hyno.repository.YogaTrainerRepository;
+import com.hyno.repository.YogaVideoRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets for the main list endpoints, read from the per-request count that
+ * {@link com.hyno.config.QueryBudgetFilter} records. Every list holds several rows (the seeded
+ * data plus the rows added here), so a relation or collection loaded per row shows up as extra
+ * statements and fails the budget; the guard runs in FAIL mode, so a statement repeated past
+ * the N+1 threshold fails the request as well.
+ */
+@SpringBootTest(properties = "query-guard.mode=FAIL")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(roles = "ADMIN")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListEndpointStatementCountTest {
+
+    private static final int ROWS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private TrainerRepository trainerRepository;
+
+    @Autowired
+    private YogaTrainerRepository yogaTrainerRepository;
+
+    @Autowired
+    private YogaSessionRepository yogaSessionRepository;
+
+    @Autowired
+    private YogaVideoRepository yogaVideoRepository;
+
+    // Rows for the lists the application does not seed
+    @BeforeAll
+    void addRows() {
+        List<Appointment> appointments = appointmentRepository.findAll();
+        for (Appointment appointment : appointments) {
+            Payment payment = new Payment();
+            payment.setAppointment(appointment);
+            payment.setPatient(appointment.getPatient());
+            payment.setAmount(new BigDecimal("500.00"));
+            payment.setStatus(Payment.PaymentStatus.COMPLETED);
+            payment.setMethod(Payment.PaymentMethod.UPI);
+            paymentRepository.save(payment);
+
+            Feedback feedback = new Feedback();
+            feedback.setAppointment(appointment);
+            feedback.setPatient(appointment.getPatient());
+            feedback.setDoctor(appointment.getDoctor());
+            feedback.setRating(5);
+            feedback.setType(Feedback.FeedbackType.DOCTOR_RATING);
+            feedbackRepository.save(feedback);
+        }
+
+        for (int i = 1; i <= ROWS; i++) {
+            Trainer trainer = new Trainer();
+            trainer.setId("T-TEST-" + i);
+            trainer.setName("Trainer " + i);
+            trainer.setEmail("trainer" + i + "@test.example.com");
+            trainer.setTrainerType(Trainer.TrainerType.YOGA);
+            trainer.setSpecialties(new ArrayList<>(List.of("Hatha", "Vinyasa")));
+            trainer.setLanguages(new ArrayList<>(List.of("English")));
+            trainer.setExperienceYears(5);
+            trainer.setLocation("Pune");
+            trainer.setPricePerSession(new BigDecimal("800.00"));
+            trainer.setImage("trainer.png");
+            trainerRepository.save(trainer);
+
+            YogaTrainer yogaTrainer = new YogaTrainer();
+            yogaTrainer.setName("Yoga trainer " + i);
+            yogaTrainer.setSpecialties(new ArrayList<>(List.of("Hatha")));
+            yogaTrainer.setModes(new ArrayList<>(List.of("virtual")));
+            yogaTrainer.setQualifications(new ArrayList<>(List.of("RYT 200")));
+            yogaTrainer.setLanguages(new ArrayList<>(List.of("English", "Hindi")));
+            yogaTrainer.setExperienceYears(4);
+            yogaTrainer.setRating(4.5);
+            yogaTrainer.setReviewCount(10);
+            yogaTrainer.setLocation("Pune");
+            yogaTrainer.setAvailability(YogaTrainer.AvailabilityStatus.AVAILABLE);
+            yogaTrainer.setPricePerSession(new BigDecimal("600.00"));
+            yogaTrainer.setImage("yoga-trainer.png");
+            yogaTrainerRepository.save(yogaTrainer);
+
+            YogaSession session = new YogaSession();
+            session.setPatient(appointments.get(i % appointments.size()).getPatient());
+            session.setTrainer(yogaTrainer);
+            session.setSessionDate(LocalDate.now().plusDays(i));
+            session.setSessionTime(LocalTime.of(7, 0));
+            session.setMode(YogaSession.SessionMode.VIRTUAL);
+            session.setPrice(new BigDecimal("600.00"));
+            yogaSessionRepository.save(session);
+
+            YogaVideo video = new YogaVideo();
+            video.setTitle("Morning flow " + i);
+            video.setTrainerName(yogaTrainer.getName());
+            video.setDurationMinutes(20);
+            video.setLevel(YogaVideo.DifficultyLevel.BEGINNER);
+            video.setStyle("Hatha");
+            video.setRating(4.0);
+            video.setThumbnail("video.png");
+            video.setBenefits(new ArrayList<>(List.of("Flexibility", "Balance")));
+            video.setVideoUrl("https://videos.example.com/" + i);
+            yogaVideoRepository.save(video);
+        }
+    }
+
+    // One query per list; the paged patient list adds its count query once there is more than a page
+    @ParameterizedTest
+    @CsvSource({
+            "/api/appointments, 1",
+            "/api/patients, 2",
+            "/api/doctors, 1",
+            "/api/hospitals, 1",
+            "/api/trainers, 1",
+            "/api/medicines, 1",
+            "/api/payments, 1",
+            "/api/feedback, 1",
+            "/api/yoga/trainers, 1",
+            "/api/yoga/videos, 1",
+            "/api/yoga/sessions, 1",
+    })
+    void listEndpointStaysWithinItsStatementBudget(String uri, int budget) throws Exception {
+        DistributionSummary statements = DistributionSummary.builder("hyno.http.request.statements")
+                .tag("method", "GET")
+                .tag("uri", uri)
+                .register(meterRegistry);
+        double before = statements.totalAmount();
+
+        mockMvc.perform(get(uri)).andExpect(status().isOk());
+
+        int executed = (int) (statements.totalAmount() - before);
+        assertTrue(executed <= budget, uri + " ran " + executed + " statements, budget " + budget);
+    }
+}
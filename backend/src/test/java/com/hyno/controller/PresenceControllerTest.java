@@ -0,0 +1,71 @@
+package com.hyno.controller;
+
+import com.hyno.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A patient connected over STOMP shows as online on their doctor's patient presence list,
+ * which is keyed by patient id while the presence itself is tracked by principal name.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class PresenceControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    void connectedPatientIsOnlineForTheirDoctor() throws Exception {
+        // The seeded data books patient 1 with doctor 1
+        assertEquals(Boolean.FALSE, patientOnline("1", "1"));
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + jwtService.generateToken("1", "patient@example.com", "patient"));
+        StompSession session = stompClient.connectAsync("ws://localhost:" + port + "/ws", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() { }).get(10, TimeUnit.SECONDS);
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!Boolean.TRUE.equals(patientOnline("1", "1"))) {
+                assertTrue(System.nanoTime() < deadline, "patient 1 never showed as online");
+                Thread.sleep(50);
+            }
+        } finally {
+            session.disconnect();
+            stompClient.stop();
+        }
+    }
+
+    private Boolean patientOnline(String doctorId, String patientId) {
+        Map<?, ?>[] statuses = restTemplate.getForObject("/api/presence/doctors/{doctorId}/patients", Map[].class, doctorId);
+        for (Map<?, ?> status : statuses) {
+            if (patientId.equals(status.get("userId"))) {
+                return (Boolean) status.get("online");
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,161 @@
+package com.hyno.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many-call load on the signaling relay: every call has a doctor and a patient who exchange an
+ * offer and an answer and trickle 31 ICE candidates each with host, srflx and relay timings.
+ * Runs once relaying every candidate on its own (a zero window) and once with the default
+ * 50 ms batch window, and compares the messages sent to the peers and the call setup time,
+ * from the offer until the peer holds the sender's full candidate set. Timing-based, so it is
+ * excluded from the default build; run it with mvn test -Pload-tests.
+ */
+@Tag("load")
+class VideoSignalingLoadTest {
+
+    private static final int CALLS = 500;
+    private static final int STARTS_OVER_MS = 1000;
+    private static final int CANDIDATES_PER_PEER = 31;
+
+    @Test
+    void batchingCutsIceMessagesAndDeliversEveryCandidate() throws Exception {
+        LoadResult perCandidate = simulate(0);
+        LoadResult batched = simulate(50);
+        String results = "per candidate: " + perCandidate + "; batched: " + batched;
+
+        assertEquals(CALLS * 2, perCandidate.completedPeers, results);
+        assertEquals(CALLS * 2, batched.completedPeers, results);
+        assertEquals(CALLS * 2 * CANDIDATES_PER_PEER, perCandidate.iceMessages, results);
+        assertTrue(batched.iceMessages * 2 < perCandidate.iceMessages, "batching should at least halve the ICE messages; " + results);
+        // Offers and answers are never batched
+        assertEquals(CALLS * 2, batched.messages - batched.iceMessages, results);
+    }
+
+    private LoadResult simulate(long windowMs) throws InterruptedException {
+        AtomicInteger messages = new AtomicInteger();
+        AtomicInteger iceMessages = new AtomicInteger();
+        Map<String, AtomicInteger> delivered = new ConcurrentHashMap<>();
+        Map<String, Long> startedAt = new ConcurrentHashMap<>();
+        List<Long> setupMillis = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch completed = new CountDownLatch(CALLS * 2);
+
+        SimpMessagingTemplate broker = new SimpMessagingTemplate((message, timeout) -> true) {
+            @Override
+            public void convertAndSendToUser(String user, String destination, Object payload) {
+                messages.incrementAndGet();
+                if (payload instanceof VideoSignalingService.IceCandidateBatch batch) {
+                    iceMessages.incrementAndGet();
+                    int total = delivered.computeIfAbsent(user, u -> new AtomicInteger()).addAndGet(batch.getCandidates().size());
+                    if (total == CANDIDATES_PER_PEER) {
+                        String appointmentId = "appointment-" + user.substring(user.indexOf(':') + 1);
+                        setupMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt.get(appointmentId)));
+                        completed.countDown();
+                    }
+                }
+            }
+        };
+        VideoSignalingService service = new VideoSignalingService();
+        ReflectionTestUtils.setField(service, "messagingTemplate", broker);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "iceBatchWindowMs", windowMs);
+        ReflectionTestUtils.setField(service, "iceBatchMax", 64);
+
+        ScheduledExecutorService peers = Executors.newScheduledThreadPool(8);
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        if (windowMs > 0) {
+            // As the scheduled task in ScheduledTasksConfig
+            flusher.scheduleAtFixedRate(service::flushIceCandidates, windowMs, windowMs, TimeUnit.MILLISECONDS);
+        }
+        Random random = new Random(42);
+        for (int call = 0; call < CALLS; call++) {
+            String appointmentId = "appointment-" + call;
+            String doctor = "DOCTOR:" + call;
+            String patient = "PATIENT:" + call;
+            long startMs = (long) call * STARTS_OVER_MS / CALLS;
+            // Both peers have joined before either signals, as the clients do
+            service.join(appointmentId, doctor, "session-" + doctor);
+            service.join(appointmentId, patient, "session-" + patient);
+            peers.schedule(() -> {
+                startedAt.put(appointmentId, System.nanoTime());
+                service.relay(appointmentId, doctor, "offer", "offer-sdp");
+            }, startMs, TimeUnit.MILLISECONDS);
+            peers.schedule(() -> service.relay(appointmentId, patient, "answer", "answer-sdp"), startMs + 20, TimeUnit.MILLISECONDS);
+            for (String peer : List.of(doctor, patient)) {
+                for (long offset : candidateOffsets(random)) {
+                    peers.schedule(() -> service.onIceCandidate(appointmentId, peer, peer, "candidate", false),
+                            startMs + offset, TimeUnit.MILLISECONDS);
+                }
+                peers.schedule(() -> service.onIceCandidate(appointmentId, peer, peer, "", true),
+                        startMs + 450, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        completed.await(30, TimeUnit.SECONDS);
+        peers.shutdownNow();
+        flusher.shutdownNow();
+        int completedPeers = CALLS * 2 - (int) completed.getCount();
+        return new LoadResult(windowMs, messages.get(), iceMessages.get(), completedPeers, setupMillis);
+    }
+
+    // 30 candidates after the offer: host within 15 ms, srflx after the STUN round trip, relay after TURN allocation
+    private static List<Long> candidateOffsets(Random random) {
+        List<Long> offsets = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            offsets.add(5L + random.nextInt(10));
+        }
+        for (int i = 0; i < 12; i++) {
+            offsets.add(40L + random.nextInt(110));
+        }
+        for (int i = 0; i < 14; i++) {
+            offsets.add(200L + random.nextInt(200));
+        }
+        return offsets;
+    }
+
+    private static final class LoadResult {
+        private final long windowMs;
+        private final int messages;
+        private final int iceMessages;
+        private final int completedPeers;
+        private final List<Long> setupMillis;
+
+        LoadResult(long windowMs, int messages, int iceMessages, int completedPeers, List<Long> setupMillis) {
+            this.windowMs = windowMs;
+            this.messages = messages;
+            this.iceMessages = iceMessages;
+            this.completedPeers = completedPeers;
+            this.setupMillis = new ArrayList<>(setupMillis);
+            Collections.sort(this.setupMillis);
+        }
+
+        private long percentile(double p) {
+            return setupMillis.isEmpty() ? -1 : setupMillis.get((int) Math.min(setupMillis.size() - 1, Math.ceil(p * setupMillis.size()) - 1));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("window %d ms: %d messages (%d ICE, %.1f candidates each), setup p50 %d ms, p95 %d ms",
+                    windowMs, messages, iceMessages, (double) completedPeers * CANDIDATES_PER_PEER / iceMessages,
+                    percentile(0.5), percentile(0.95));
+        }
+    }
+}
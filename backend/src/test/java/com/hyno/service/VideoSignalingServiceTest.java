@@ -0,0 +1,132 @@
+package com.hyno.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ordering of a sender's relayed ICE batches and the cleanup of participants whose STOMP
+ * session closed, driven by hand with a recording broker.
+ */
+class VideoSignalingServiceTest {
+
+    private static final String APPOINTMENT = "appointment-1";
+    private static final String DOCTOR = "DOCTOR:1";
+    private static final String PATIENT = "PATIENT:1";
+
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final CountDownLatch sendStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseSend = new CountDownLatch(1);
+    private volatile String blockOnCandidate;
+
+    private VideoSignalingService service;
+
+    @BeforeEach
+    void setUp() {
+        // Records "user type payload"; a batch holding blockOnCandidate is held until the test releases it
+        SimpMessagingTemplate broker = new SimpMessagingTemplate((message, timeout) -> true) {
+            @Override
+            public void convertAndSendToUser(String user, String destination, Object payload) {
+                String type = destination.substring(destination.lastIndexOf('/') + 1);
+                String body = payload instanceof VideoSignalingService.IceCandidateBatch batch
+                        ? batch.getCandidates().toString() : String.valueOf(payload);
+                if (blockOnCandidate != null && body.contains(blockOnCandidate)) {
+                    sendStarted.countDown();
+                    try {
+                        releaseSend.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                sent.add(user + " " + type + " " + body);
+            }
+        };
+        service = new VideoSignalingService();
+        ReflectionTestUtils.setField(service, "messagingTemplate", broker);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "iceBatchWindowMs", 50L);
+        ReflectionTestUtils.setField(service, "iceBatchMax", 64);
+
+        service.join(APPOINTMENT, DOCTOR, "doctor-session");
+        service.join(APPOINTMENT, PATIENT, "patient-session");
+    }
+
+    @Test
+    void endOfCandidatesWaitsForABatchBeingRelayed() throws Exception {
+        // The first candidate goes out at once, the second waits for the window
+        service.onIceCandidate(APPOINTMENT, DOCTOR, "1", "host-1", false);
+        service.onIceCandidate(APPOINTMENT, DOCTOR, "1", "host-2", false);
+        Thread.sleep(60);
+
+        // The scheduled flush relays host-2 and stalls in the broker
+        blockOnCandidate = "host-2";
+        Thread flusher = new Thread(service::flushIceCandidates);
+        flusher.start();
+        assertTrue(sendStarted.await(10, TimeUnit.SECONDS));
+
+        // The marker arrives meanwhile and must not overtake host-2
+        Thread marker = new Thread(() -> service.onIceCandidate(APPOINTMENT, DOCTOR, "1", "", true));
+        marker.start();
+        awaitBlocked(marker);
+        assertEquals(List.of(PATIENT + " ice-candidates [host-1]"), sent);
+
+        releaseSend.countDown();
+        flusher.join(10_000);
+        marker.join(10_000);
+        assertEquals(List.of(
+                PATIENT + " ice-candidates [host-1]",
+                PATIENT + " ice-candidates [host-2]",
+                PATIENT + " ice-candidates []"), sent);
+    }
+
+    @Test
+    void offerFollowsTheSendersPendingCandidates() {
+        service.onIceCandidate(APPOINTMENT, DOCTOR, "1", "host-1", false);
+        service.onIceCandidate(APPOINTMENT, DOCTOR, "1", "host-2", false);
+        service.relay(APPOINTMENT, DOCTOR, "offer", "offer-sdp");
+
+        assertEquals(List.of(
+                PATIENT + " ice-candidates [host-1]",
+                PATIENT + " ice-candidates [host-2]",
+                PATIENT + " offer offer-sdp"), sent);
+    }
+
+    @Test
+    void closedSessionLeavesItsCallsOnceTheLastOneCloses() {
+        service.join(APPOINTMENT, PATIENT, "patient-second-tab");
+        service.onIceCandidate(APPOINTMENT, PATIENT, "1", "host-1", false);
+        service.onIceCandidate(APPOINTMENT, PATIENT, "1", "host-2", false);
+
+        // Still connected through the second tab
+        assertEquals(Map.of(), service.disconnect("patient-session", PATIENT));
+
+        assertEquals(Map.of(APPOINTMENT, Set.of(DOCTOR)), service.disconnect("patient-second-tab", PATIENT));
+        assertEquals(Map.of(), service.disconnect("patient-second-tab", PATIENT));
+
+        // The patient's pending candidates were dropped with it and nothing reaches it any more
+        sent.clear();
+        service.flushIceCandidates();
+        service.relay(APPOINTMENT, DOCTOR, "offer", "offer-sdp");
+        assertEquals(List.of(), sent);
+    }
+
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (thread.getState() != Thread.State.BLOCKED) {
+            assertTrue(thread.isAlive() && System.nanoTime() < deadline, "the marker was not held back");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -50,6 +50,8 @@ const VideoCall: React.FC<VideoCallProps> = ({
 
   // Call management
   const callDurationIntervalRef = useRef<NodeJS.Timeout | null>(null);
+  const statsIntervalRef = useRef<NodeJS.Timeout | null>(null);
+  const lastInboundStatsRef = useRef<{ packetsLost: number; packetsReceived: number; bytesReceived: number; timestamp: number } | null>(null);
   const pendingIceCandidates = useRef<RTCIceCandidateInit[]>([]);
 
   // Video call status tracking
@@ -63,6 +65,54 @@ const VideoCall: React.FC<VideoCallProps> = ({
   const [showChat, setShowChat] = useState(false);
   const [isPictureInPicture, setIsPictureInPicture] = useState(false);
 
+  // Sends call quality stats every 5 seconds while the peer connection is up
+  const startStatsSampling = (peerConnection: RTCPeerConnection) => {
+    if (statsIntervalRef.current) {
+      clearInterval(statsIntervalRef.current);
+    }
+    lastInboundStatsRef.current = null;
+    statsIntervalRef.current = setInterval(async () => {
+      const currentAppointmentId = appointmentIdRef.current;
+      if (!currentAppointmentId || !user?.id || peerConnection.connectionState !== 'connected') {
+        return;
+      }
+      const report = await peerConnection.getStats();
+      let rttMs: number | undefined;
+      let jitterMs: number | undefined;
+      let packetLossPercent: number | undefined;
+      let bitrateKbps: number | undefined;
+      report.forEach((stat: any) => {
+        if (stat.type === 'candidate-pair' && stat.nominated && stat.currentRoundTripTime !== undefined) {
+          rttMs = stat.currentRoundTripTime * 1000;
+        }
+        if (stat.type === 'inbound-rtp' && stat.kind === 'video') {
+          jitterMs = stat.jitter !== undefined ? stat.jitter * 1000 : undefined;
+          const previous = lastInboundStatsRef.current;
+          if (previous) {
+            const lost = stat.packetsLost - previous.packetsLost;
+            const received = stat.packetsReceived - previous.packetsReceived;
+            packetLossPercent = lost + received > 0 ? (Math.max(0, lost) / (lost + received)) * 100 : 0;
+            const seconds = (stat.timestamp - previous.timestamp) / 1000;
+            bitrateKbps = seconds > 0 ? ((stat.bytesReceived - previous.bytesReceived) * 8) / 1000 / seconds : undefined;
+          }
+          lastInboundStatsRef.current = {
+            packetsLost: stat.packetsLost,
+            packetsReceived: stat.packetsReceived,
+            bytesReceived: stat.bytesReceived,
+            timestamp: stat.timestamp
+          };
+        }
+      });
+      websocketClient.sendCallStats(currentAppointmentId, {
+        fromUserId: user.id,
+        rttMs,
+        jitterMs,
+        packetLossPercent,
+        bitrateKbps
+      });
+    }, 5000);
+  };
+
   // Cleanup function
   const cleanup = useCallback(() => {
     console.log('Cleaning up video call resources');
@@ -84,6 +134,10 @@ const VideoCall: React.FC<VideoCallProps> = ({
       clearInterval(callDurationIntervalRef.current);
       callDurationIntervalRef.current = null;
     }
+    if (statsIntervalRef.current) {
+      clearInterval(statsIntervalRef.current);
+      statsIntervalRef.current = null;
+    }
 
     // Disconnect WebSocket
     websocketClient.disconnect();
@@ -198,6 +252,7 @@ const VideoCall: React.FC<VideoCallProps> = ({
 
         if (state === 'connected') {
           setCallState(prev => ({ ...prev, connectionQuality: 'good' }));
+          startStatsSampling(peerConnection);
         } else if (state === 'failed' || state === 'disconnected') {
           setCallState(prev => ({ ...prev, connectionQuality: 'poor' }));
         }
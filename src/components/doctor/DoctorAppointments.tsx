@@ -5,6 +5,7 @@ import { Badge } from '../ui/badge';
 import { Calendar, Users, Video, MessageSquare, Clock, FileText, Loader2, CheckCircle, XCircle, Edit, Save, X } from 'lucide-react';
 import { useAuth } from '../../lib/auth-context';
 import { appointmentAPI, chatAPI } from '../../lib/api-client';
+import { websocketClient } from '../../lib/websocket-client';
 import { toast } from 'sonner';
 import { useState, useEffect } from 'react';
 import { Dialog, DialogContent, DialogHeader, DialogTitle, DialogTrigger, DialogFooter } from '../ui/dialog';
@@ -40,6 +41,8 @@ export const DoctorAppointments = () => {
   useEffect(() => {
     if (user?.id) {
       loadAppointments();
+      // Reload when the server pushes a change to one of this doctor's appointments
+      return websocketClient.subscribeToAppointmentUpdates(() => loadAppointments());
     }
   }, [user]);
 
@@ -291,6 +291,11 @@ export const appointmentAPI = {
     apiCall<any>(`/appointments/${id}/confirm`, {
       method: 'PUT',
     }),
+
+  // Changes pushed on /user/queue/appointments after `since`; resync means refetch the whole list
+  getUpdates: (since: number, epoch?: number) =>
+    apiCall<{ epoch: number; latestSequence: number; resync: boolean; updates: any[] }>(
+      `/appointments/updates?since=${since}${epoch !== undefined ? `&epoch=${epoch}` : ''}`),
 };
 
 // Medicine API
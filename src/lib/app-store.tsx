@@ -2,6 +2,7 @@ import React, { createContext, useContext, useState, useEffect, ReactNode } from
 import { Patient, Doctor, Hospital, Appointment, Medicine, Prescription, NutritionPlan, Meal, YogaTrainer, Trainer } from '../types';
 
 import api from './api-client';
+import { websocketClient } from './websocket-client';
 import { toast } from 'sonner';
 import { USE_BACKEND } from './config';
 
@@ -155,6 +156,15 @@ export const AppStoreProvider: React.FC<{ children: ReactNode }> = ({ children }
     }
   }, []);
 
+  // Patients and doctors get their appointment changes pushed; reload when one arrives or was missed
+  useEffect(() => {
+    const userRole = localStorage.getItem('userRole');
+    if (!USE_BACKEND || (userRole !== 'patient' && userRole !== 'doctor')) {
+      return;
+    }
+    return websocketClient.subscribeToAppointmentUpdates(() => loadDataFromBackend());
+  }, []);
+
   const loadDataFromBackend = async () => {
     let failedLoads = 0; // Track failed API calls to show single toast
 
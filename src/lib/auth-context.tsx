@@ -1,6 +1,7 @@
 import React, { createContext, useContext, useState, ReactNode, useEffect } from 'react';
 import { User } from '../types';
 import { authAPI } from './api-client';
+import { websocketClient } from './websocket-client';
 
 interface AuthContextType {
   user: User | null;
@@ -37,6 +38,7 @@ export const AuthProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
       setUser(normalizedUser);
       localStorage.setItem('user', JSON.stringify(normalizedUser));
       localStorage.setItem('token', token);
+      websocketClient.reauthenticate();
       return normalizedUser;
     } catch (err) {
       console.error('Login failed:', err);
@@ -66,6 +68,7 @@ export const AuthProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
     setUser(null);
     localStorage.removeItem('user');
     localStorage.removeItem('token');
+    websocketClient.reauthenticate();
   };
 
   return (
@@ -1,6 +1,7 @@
 import SockJS from 'sockjs-client';
-import { Client } from '@stomp/stompjs';
+import { Client, StompSubscription } from '@stomp/stompjs';
 import { API_URL } from './config';
+import { appointmentAPI } from './api-client';
 
 export interface ChatMessage {
   id: string;
@@ -49,6 +50,8 @@ class WebSocketClient {
   private reconnectDelay = 1000;
   private subscriptionQueue: Array<() => void> = [];
   private publishQueue: Array<{ destination: string; body: string }> = [];
+  // Token the current STOMP session authenticated with
+  private sessionToken: string | null = null;
 
   // Callbacks
   private onMessageReceived?: (message: ChatMessage, chatRoomId: string) => void;
@@ -56,6 +59,12 @@ class WebSocketClient {
   private onMessageRead?: (readerId: string, chatRoomId: string) => void;
   private onConnectionChange?: (connected: boolean) => void;
   private onVideoCallSignal?: (signal: VideoCallSignal, appointmentId: string) => void;
+  private appointmentListeners = new Set<() => void>();
+
+  // Position in the server's appointment update stream, for catching up after a reconnect
+  private appointmentEpoch?: number;
+  private appointmentSequence = 0;
+  private appointmentSubscription: StompSubscription | null = null;
 
   constructor() {
     this.initializeClient();
@@ -65,8 +74,11 @@ class WebSocketClient {
     try {
       this.client = new Client({
         webSocketFactory: () => new SockJS(`${API_URL}/ws`),
-        connectHeaders: {
-          Authorization: `Bearer ${localStorage.getItem('token') || ''}`,
+        // Read the token on every (re)connect, so a login or logout since the last one takes effect
+        beforeConnect: (client) => {
+          const token = localStorage.getItem('token');
+          this.sessionToken = token;
+          client.connectHeaders = token ? { Authorization: `Bearer ${token}` } : {};
         },
         debug: () => {
           // Debug logging disabled
@@ -82,6 +94,11 @@ class WebSocketClient {
         this.reconnectAttempts = 0;
         this.onConnectionChange?.(true);
 
+        // User queue subscriptions do not survive a reconnect; renew it and fetch what was missed
+        if (this.appointmentListeners.size > 0) {
+          this.startAppointmentUpdates();
+        }
+
         // Process queued subscriptions
         while (this.subscriptionQueue.length > 0) {
           const subscribeFn = this.subscriptionQueue.shift();
@@ -111,6 +128,7 @@ class WebSocketClient {
 
       this.client.onWebSocketClose = () => {
         this.connected = false;
+        this.appointmentSubscription = null;
         this.onConnectionChange?.(false);
         this.attemptReconnect();
       };
@@ -149,6 +167,16 @@ class WebSocketClient {
     this.connected = false;
   }
 
+  // Called on login and logout: an open session keeps the identity it connected with, so reconnect it
+  async reauthenticate() {
+    if (!this.client || !this.client.active || this.sessionToken === localStorage.getItem('token')) {
+      return;
+    }
+    await this.client.deactivate();
+    this.connected = false;
+    this.client.activate();
+  }
+
   subscribeToChatRoom(chatRoomId: string) {
     if (!this.client || !this.connected) {
       console.warn('WebSocket not connected, cannot subscribe to chat room');
@@ -208,9 +236,8 @@ class WebSocketClient {
         }, appointmentId);
       });
 
-      const currentUserId = this.getCurrentUserId();
-
-      this.client.subscribe(`/topic/user/${currentUserId}/video-call/offer`, (message) => {
+      // Signals addressed to this user arrive on its user queues
+      this.client.subscribe(`/user/queue/video-call/offer`, (message) => {
         const offer = JSON.parse(message.body);
         this.onVideoCallSignal?.({
           type: 'offer',
@@ -219,7 +246,7 @@ class WebSocketClient {
         }, appointmentId);
       });
 
-      this.client.subscribe(`/topic/user/${currentUserId}/video-call/answer`, (message) => {
+      this.client.subscribe(`/user/queue/video-call/answer`, (message) => {
         const answer = JSON.parse(message.body);
         this.onVideoCallSignal?.({
           type: 'answer',
@@ -228,18 +255,21 @@ class WebSocketClient {
         }, appointmentId);
       });
 
-      this.client.subscribe(`/topic/user/${currentUserId}/video-call/ice-candidate`, (message) => {
-        const candidate = JSON.parse(message.body);
-        this.onVideoCallSignal?.({
-          type: 'ice-candidate',
-          fromUserId: candidate.fromUserId,
-          data: candidate.candidate,
-          sdpMLineIndex: candidate.sdpMLineIndex,
-          sdpMid: candidate.sdpMid
-        }, appointmentId);
+      // ICE candidates are relayed in batches
+      this.client.subscribe(`/user/queue/video-call/ice-candidates`, (message) => {
+        const batch = JSON.parse(message.body);
+        for (const candidate of batch.candidates) {
+          this.onVideoCallSignal?.({
+            type: 'ice-candidate',
+            fromUserId: batch.fromUserId,
+            data: candidate.candidate,
+            sdpMLineIndex: candidate.sdpMLineIndex,
+            sdpMid: candidate.sdpMid
+          }, appointmentId);
+        }
       });
 
-      this.client.subscribe(`/topic/user/${currentUserId}/video-call/leave`, (message) => {
+      this.client.subscribe(`/user/queue/video-call/leave`, (message) => {
         const leaveNotification = JSON.parse(message.body);
         this.onVideoCallSignal?.({
           type: 'leave',
@@ -252,13 +282,56 @@ class WebSocketClient {
     }
   }
 
-  private getCurrentUserId(): string {
-    const userData = localStorage.getItem('user');
-    if (userData) {
-      const user = JSON.parse(userData);
-      return user.id || '';
+  // Calls onChange whenever one of the user's appointments changes, including changes made while
+  // disconnected; returns the unsubscribe function
+  subscribeToAppointmentUpdates(onChange: () => void): () => void {
+    this.appointmentListeners.add(onChange);
+    if (this.client && this.connected) {
+      this.startAppointmentUpdates();
+    } else {
+      this.connect();
     }
-    return '';
+    return () => {
+      this.appointmentListeners.delete(onChange);
+      if (this.appointmentListeners.size === 0) {
+        if (this.connected) {
+          this.appointmentSubscription?.unsubscribe();
+        }
+        this.appointmentSubscription = null;
+      }
+    };
+  }
+
+  private notifyAppointmentsChanged() {
+    this.appointmentListeners.forEach((listener) => listener());
+  }
+
+  private startAppointmentUpdates() {
+    if (!this.client || this.appointmentSubscription) {
+      return;
+    }
+    this.appointmentSubscription = this.client.subscribe('/user/queue/appointments', (message) => {
+      const delta = JSON.parse(message.body);
+      if (delta.epoch === this.appointmentEpoch && delta.sequence <= this.appointmentSequence) {
+        return;
+      }
+      this.appointmentEpoch = delta.epoch;
+      this.appointmentSequence = delta.sequence;
+      this.notifyAppointmentsChanged();
+    });
+
+    // The first call only records the stream position; the caller has just loaded its list
+    const firstCall = this.appointmentEpoch === undefined;
+    appointmentAPI.getUpdates(this.appointmentSequence, this.appointmentEpoch)
+      .then((result) => {
+        const missed = result.resync || result.updates.length > 0;
+        this.appointmentEpoch = result.epoch;
+        this.appointmentSequence = Math.max(this.appointmentSequence, result.latestSequence);
+        if (missed && !firstCall) {
+          this.notifyAppointmentsChanged();
+        }
+      })
+      .catch((error) => console.error('Failed to fetch missed appointment updates:', error));
   }
 
   sendMessage(chatRoomId: string, messageData: {
@@ -408,6 +481,24 @@ class WebSocketClient {
     });
   }
 
+  // Periodic WebRTC stats sample; dropped silently while disconnected since the next one follows shortly
+  sendCallStats(appointmentId: string, statsData: {
+    fromUserId: string;
+    rttMs?: number;
+    jitterMs?: number;
+    packetLossPercent?: number;
+    bitrateKbps?: number;
+  }) {
+    if (!this.client || !this.connected) {
+      return;
+    }
+
+    this.client.publish({
+      destination: `/app/video-call/${appointmentId}/stats`,
+      body: JSON.stringify(statsData),
+    });
+  }
+
   leaveVideoCall(appointmentId: string, userData: {
     userId: string;
     userName: string;
@@ -32,6 +32,7 @@ export interface Doctor {
   hospitalId?: string;
   consultationFee: number;
   avatarUrl?: string;
+  avatarThumbnailUrl?: string;
   status: 'approved' | 'pending' | 'suspended';
   password?: string;
 }